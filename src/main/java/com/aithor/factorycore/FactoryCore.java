@@ -7,6 +7,10 @@ import com.aithor.factorycore.hooks.ExecutableItemsHook;
 import com.aithor.factorycore.hooks.MMOItemsHook;
 import com.aithor.factorycore.listeners.*;
 import com.aithor.factorycore.managers.*;
+import com.aithor.factorycore.persistence.BackupService;
+import com.aithor.factorycore.persistence.DataBackend;
+import com.aithor.factorycore.persistence.PersistenceService;
+import com.aithor.factorycore.utils.ConfigValidator;
 import com.aithor.factorycore.utils.Logger;
 import net.milkbowl.vault.economy.Economy;
 import org.bukkit.entity.Player;
@@ -17,6 +21,13 @@ public class FactoryCore extends JavaPlugin {
 
     private static FactoryCore instance;
     private Economy economy;
+    // Replaced as a whole on reload, read from scheduler ticks
+    private volatile FactoryCoreSettings settings;
+
+    // Persistence
+    private PersistenceService persistenceService;
+    private BackupService backupService;
+    private DataBackend dataBackend;
 
     // Managers
     private FactoryManager factoryManager;
@@ -28,6 +39,7 @@ public class FactoryCore extends JavaPlugin {
     private RecipeManager recipeManager;
     private TaxManager taxManager;
     private MarketplaceManager marketplaceManager;
+    private MailboxManager mailboxManager;
     private ResearchManager researchManager;
     private AchievementManager achievementManager;
     private DailyQuestManager dailyQuestManager;
@@ -59,6 +71,7 @@ public class FactoryCore extends JavaPlugin {
 
         // Load configurations
         saveDefaultConfig();
+        reloadSettings();
         createDefaultConfigs();
         createResearchConfig();
         createAchievementConfig();
@@ -70,9 +83,19 @@ public class FactoryCore extends JavaPlugin {
         // Initialize hooks (before managers, since managers may depend on hooks)
         initializeHooks();
 
+        // Open data storage (before managers, since managers load from it)
+        if (!setupDataBackend()) {
+            getLogger().severe("Could not open the configured database! Disabling plugin...");
+            getServer().getPluginManager().disablePlugin(this);
+            return;
+        }
+
         // Initialize managers
         initializeManagers();
 
+        // Resolve production that finished while the server was down
+        factoryManager.catchUpProduction();
+
         // Register commands
         registerCommands();
 
@@ -99,30 +122,15 @@ public class FactoryCore extends JavaPlugin {
             npcManager.shutdown();
         }
 
-        // Save all data
-        if (factoryManager != null) {
-            factoryManager.saveAll();
-        }
-        if (storageManager != null) {
-            storageManager.saveAll();
-        }
-        if (invoiceManager != null) {
-            invoiceManager.saveAll();
-        }
-        if (taxManager != null) {
-            taxManager.saveAll();
-        }
+        // Settle marketplace trades matched this tick, then flush all pending data writes
         if (marketplaceManager != null) {
-            marketplaceManager.saveAll();
-        }
-        if (researchManager != null) {
-            researchManager.saveAll();
+            marketplaceManager.settle();
         }
-        if (achievementManager != null) {
-            achievementManager.saveAll();
+        if (dataBackend != null) {
+            dataBackend.shutdown();
         }
-        if (dailyQuestManager != null) {
-            dailyQuestManager.saveAll();
+        if (persistenceService != null) {
+            persistenceService.shutdown();
         }
 
         Logger.log("FactoryCore has been disabled!");
@@ -194,9 +202,23 @@ public class FactoryCore extends JavaPlugin {
         executableItemsHook = new ExecutableItemsHook(this);
     }
 
+    private boolean setupDataBackend() {
+        persistenceService = new PersistenceService(this);
+        backupService = new BackupService(this);
+        backupService.recover();
+        try {
+            dataBackend = DataBackend.open(this);
+            return true;
+        } catch (Exception e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
     private void initializeManagers() {
         languageManager = new LanguageManager(this);
         resourceManager = new ResourceManager(this);
+        mailboxManager = new MailboxManager(this);
         recipeManager = new RecipeManager(this);
         factoryManager = new FactoryManager(this);
         npcManager = new NPCManager(this);
@@ -221,6 +243,7 @@ public class FactoryCore extends JavaPlugin {
         getServer().getPluginManager().registerEvents(new InventoryClickListener(this), this);
         getServer().getPluginManager().registerEvents(new PlayerJoinListener(this), this);
         getServer().getPluginManager().registerEvents(new EntityDamageListener(this), this);
+        getServer().getPluginManager().registerEvents(new PlayerDataListener(this), this);
 
         // Register hub click listener
         hubClickListener = new HubClickListener(this);
@@ -228,8 +251,13 @@ public class FactoryCore extends JavaPlugin {
     }
 
     private void startSchedulers() {
+        // Write-behind data flush
+        persistenceService.start();
+        dataBackend.start();
+        backupService.start();
+
         // Tax scheduler (every 3 days by default)
-        int taxInterval = getConfig().getInt("tax.interval-ticks", 144000); // 3 days in ticks
+        long taxInterval = settings.taxIntervalTicks; // 3 days in ticks
         long nextTaxMs = taxManager != null ? taxManager.getTimeUntilNextCollection() : taxInterval * 50L;
         long initialTaxDelay = nextTaxMs > 0 ? (nextTaxMs / 50) + 1 : 20L;
         getServer().getScheduler().runTaskTimer(this, () -> {
@@ -243,19 +271,27 @@ public class FactoryCore extends JavaPlugin {
         }, initialTaxDelay, taxInterval);
 
         // Salary scheduler (every 24 hours by default)
-        int salaryInterval = getConfig().getInt("salary.interval-ticks", 24000); // 1 day in ticks
+        long salaryInterval = settings.salaryIntervalTicks; // 1 day in ticks
         long nextSalaryMs = invoiceManager != null ? invoiceManager.getTimeUntilNextSalary() : salaryInterval * 50L;
         long initialSalaryDelay = nextSalaryMs > 0 ? (nextSalaryMs / 50) + 1 : 20L;
         getServer().getScheduler().runTaskTimer(this, () -> {
             invoiceManager.generateSalaryInvoices();
         }, initialSalaryDelay, salaryInterval);
 
-        // Production + upgrade checker
+        // Production + upgrade completion (only touches factories that are due)
         getServer().getScheduler().runTaskTimer(this, () -> {
             factoryManager.updateProduction();
             factoryManager.updateUpgrades();
         }, 20L, 20L); // Every second
 
+        // Supply chain transfers (returns at once when no linked factory produced)
+        getServer().getScheduler().runTaskTimer(this, storageManager::processSupplyTransfers, 1L, 1L);
+
+        // Production boss bar progress
+        long bossBarInterval = settings.bossBarUpdateTicks;
+        getServer().getScheduler().runTaskTimer(this, factoryManager::updateBossBars, bossBarInterval,
+                bossBarInterval);
+
         // Tax overdue checker (every hour)
         getServer().getScheduler().runTaskTimer(this, () -> {
             if (taxManager != null) {
@@ -263,19 +299,27 @@ public class FactoryCore extends JavaPlugin {
             }
         }, 72000L, 72000L); // Every hour
 
-        // Marketplace cleanup (every 6 hours)
+        // Marketplace listing expiry (only touches listings that are due)
         getServer().getScheduler().runTaskTimer(this, () -> {
             if (marketplaceManager != null) {
                 marketplaceManager.cleanupExpiredListings();
             }
-        }, 432000L, 432000L); // Every 6 hours
+        }, 20L, 20L); // Every second
 
-        // Research completion checker (every 10 seconds)
+        // Research completion (only touches research that is due)
         getServer().getScheduler().runTaskTimer(this, () -> {
             if (researchManager != null) {
                 researchManager.updateResearch();
             }
-        }, 200L, 200L); // Every 10 seconds
+        }, 1L, 1L);
+
+        // Unload data of players who quit (every minute)
+        getServer().getScheduler().runTaskTimer(this, () -> {
+            long graceMs = getSettings().playerCacheGraceSeconds * 1000L;
+            researchManager.evictIdlePlayers(graceMs);
+            achievementManager.evictIdlePlayers(graceMs);
+            dailyQuestManager.evictIdlePlayers(graceMs);
+        }, 1200L, 1200L); // Every minute
     }
 
     // ==================== STARTUP BANNER ====================
@@ -344,6 +388,35 @@ public class FactoryCore extends JavaPlugin {
         return economy;
     }
 
+    public FactoryCoreSettings getSettings() {
+        return settings;
+    }
+
+    /**
+     * Rebuild the typed settings from the loaded config.yml and swap them in.
+     * Call after {@link #reloadConfig()}.
+     *
+     * @return false if ConfigValidator reported problems; defaults are used
+     *         for the values it could not accept
+     */
+    public boolean reloadSettings() {
+        boolean valid = new ConfigValidator(this).validate();
+        settings = FactoryCoreSettings.load(getConfig());
+        return valid;
+    }
+
+    public PersistenceService getPersistenceService() {
+        return persistenceService;
+    }
+
+    public BackupService getBackupService() {
+        return backupService;
+    }
+
+    public DataBackend getDataBackend() {
+        return dataBackend;
+    }
+
     public FactoryManager getFactoryManager() {
         return factoryManager;
     }
@@ -381,6 +454,10 @@ public class FactoryCore extends JavaPlugin {
         return marketplaceManager;
     }
 
+    public MailboxManager getMailboxManager() {
+        return mailboxManager;
+    }
+
     public ResearchManager getResearchManager() {
         return researchManager;
     }
@@ -47,13 +47,12 @@ public class FactoryCorePlaceholder extends PlaceholderExpansion {
         
         // %factorycore_factories_owned%
         if (params.equals("factories_owned")) {
-            List<Factory> factories = plugin.getFactoryManager().getFactoriesByOwner(player.getUniqueId());
-            return String.valueOf(factories.size());
+            return String.valueOf(plugin.getFactoryManager().getFactoryCountByOwner(player.getUniqueId()));
         }
         
         // %factorycore_factories_running%
         if (params.equals("factories_running")) {
-            long running = plugin.getFactoryManager().getFactoriesByOwner(player.getUniqueId())
+            long running = plugin.getFactoryManager().getOwnedFactories(player.getUniqueId())
                 .stream()
                 .filter(f -> f.getStatus() == com.aithor.factorycore.models.FactoryStatus.RUNNING)
                 .count();
@@ -62,7 +61,7 @@ public class FactoryCorePlaceholder extends PlaceholderExpansion {
         
         // %factorycore_total_value%
         if (params.equals("total_value")) {
-            double total = plugin.getFactoryManager().getFactoriesByOwner(player.getUniqueId())
+            double total = plugin.getFactoryManager().getOwnedFactories(player.getUniqueId())
                 .stream()
                 .mapToDouble(Factory::getPrice)
                 .sum();
@@ -152,9 +151,47 @@ public class FactoryCorePlaceholder extends PlaceholderExpansion {
             return "N/A";
         }
         
+        // %factorycore_factory_<id>_batch%
+        if (params.startsWith("factory_") && params.endsWith("_batch")) {
+            String factoryId = params.replace("factory_", "").replace("_batch", "");
+            Factory factory = plugin.getFactoryManager().getFactory(factoryId);
+            if (factory != null && factory.getOwner().equals(player.getUniqueId())) {
+                if (factory.getCurrentProduction() != null) {
+                    return factory.getCurrentProduction().getBatch() + "/"
+                        + factory.getCurrentProduction().getBatches();
+                }
+                return "None";
+            }
+            return "N/A";
+        }
+        
+        // %factorycore_factory_<id>_queue%
+        if (params.startsWith("factory_") && params.endsWith("_queue")) {
+            String factoryId = params.replace("factory_", "").replace("_queue", "");
+            Factory factory = plugin.getFactoryManager().getFactory(factoryId);
+            if (factory != null && factory.getOwner().equals(player.getUniqueId())) {
+                if (factory.getCurrentProduction() != null) {
+                    return String.valueOf(factory.getCurrentProduction().getQueuedBatches());
+                }
+                return "0";
+            }
+            return "N/A";
+        }
+        
+        // %factorycore_factory_<id>_lines%
+        if (params.startsWith("factory_") && params.endsWith("_lines")) {
+            String factoryId = params.replace("factory_", "").replace("_lines", "");
+            Factory factory = plugin.getFactoryManager().getFactory(factoryId);
+            if (factory != null && factory.getOwner().equals(player.getUniqueId())) {
+                return factory.getProductionLines().size() + "/"
+                    + plugin.getFactoryManager().getLineCount(factory);
+            }
+            return "N/A";
+        }
+        
         // %factorycore_highest_level%
         if (params.equals("highest_level")) {
-            int highest = plugin.getFactoryManager().getFactoriesByOwner(player.getUniqueId())
+            int highest = plugin.getFactoryManager().getOwnedFactories(player.getUniqueId())
                 .stream()
                 .mapToInt(Factory::getLevel)
                 .max()
@@ -164,7 +201,7 @@ public class FactoryCorePlaceholder extends PlaceholderExpansion {
         
         // %factorycore_steel_mills_owned%
         if (params.equals("steel_mills_owned")) {
-            long count = plugin.getFactoryManager().getFactoriesByOwner(player.getUniqueId())
+            long count = plugin.getFactoryManager().getOwnedFactories(player.getUniqueId())
                 .stream()
                 .filter(f -> f.getType() == com.aithor.factorycore.models.FactoryType.STEEL_MILL)
                 .count();
@@ -173,7 +210,7 @@ public class FactoryCorePlaceholder extends PlaceholderExpansion {
         
         // %factorycore_refineries_owned%
         if (params.equals("refineries_owned")) {
-            long count = plugin.getFactoryManager().getFactoriesByOwner(player.getUniqueId())
+            long count = plugin.getFactoryManager().getOwnedFactories(player.getUniqueId())
                 .stream()
                 .filter(f -> f.getType() == com.aithor.factorycore.models.FactoryType.REFINERY)
                 .count();
@@ -182,7 +219,7 @@ public class FactoryCorePlaceholder extends PlaceholderExpansion {
         
         // %factorycore_workshops_owned%
         if (params.equals("workshops_owned")) {
-            long count = plugin.getFactoryManager().getFactoriesByOwner(player.getUniqueId())
+            long count = plugin.getFactoryManager().getOwnedFactories(player.getUniqueId())
                 .stream()
                 .filter(f -> f.getType() == com.aithor.factorycore.models.FactoryType.WORKSHOP)
                 .count();
@@ -191,7 +228,7 @@ public class FactoryCorePlaceholder extends PlaceholderExpansion {
         
         // %factorycore_advanced_factories_owned%
         if (params.equals("advanced_factories_owned")) {
-            long count = plugin.getFactoryManager().getFactoriesByOwner(player.getUniqueId())
+            long count = plugin.getFactoryManager().getOwnedFactories(player.getUniqueId())
                 .stream()
                 .filter(f -> f.getType() == com.aithor.factorycore.models.FactoryType.ADVANCED_FACTORY)
                 .count();
@@ -0,0 +1,147 @@
+package com.aithor.factorycore;
+
+import org.bukkit.boss.BarColor;
+import org.bukkit.boss.BarStyle;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * FactoryCoreSettings - Typed, read-only view of config.yml.
+ * <p>
+ * Built once on enable and again on /fc admin reload; the plugin swaps the
+ * whole object in one step, so code running on a scheduler tick always sees
+ * one consistent version. Values that cannot be used fall back to their
+ * defaults here and are reported by
+ * {@link com.aithor.factorycore.utils.ConfigValidator}.
+ * </p>
+ */
+public final class FactoryCoreSettings {
+
+    // ── Production ───────────────────────────────────────────────────────────
+    public final boolean showBossBar;
+    public final BarColor bossBarColor;
+    public final BarStyle bossBarStyle;
+    public final long bossBarUpdateTicks;
+    public final int maxQueuedBatches;
+
+    // ── Factory ──────────────────────────────────────────────────────────────
+    public final int maxLevel;
+    public final int maxFactoriesPerPlayer;
+    public final double sellPriceMultiplier;
+    public final double levelTimeReduction; // % per level above 1
+    public final int extraLinesPerLevel;
+    private final Map<Integer, Integer> upgradeTimes; // target level -> seconds
+
+    // ── Tax & salary (rates as fractions, 0.05 for 5%) ───────────────────────
+    public final double taxRate;
+    public final double taxLevelMultiplier;
+    public final long taxDueDays;
+    public final double taxLateFeeRate;
+    public final long taxIntervalTicks;
+    public final long salaryIntervalTicks;
+
+    // ── Marketplace ──────────────────────────────────────────────────────────
+    public final double marketTaxRate;
+    public final int maxListingsPerPlayer;
+    public final long listingExpirationHours;
+
+    // ── Notifications ────────────────────────────────────────────────────────
+    public final boolean soundsEnabled;
+    public final String productionCompleteSound;
+    public final String factoryUpgradeSound;
+    public final boolean titlesEnabled;
+    public final int titleFadeIn;
+    public final int titleStay;
+    public final int titleFadeOut;
+
+    // ── Persistence ──────────────────────────────────────────────────────────
+    public final long playerCacheGraceSeconds;
+
+    // ── Logging ──────────────────────────────────────────────────────────────
+    public final boolean logAdminCommands;
+    public final boolean logTransactions;
+    public final boolean logProduction;
+    public final boolean logInvoices;
+
+    private FactoryCoreSettings(FileConfiguration config) {
+        showBossBar = config.getBoolean("production.show-bossbar", true);
+        bossBarColor = parseEnum(BarColor.class, config.getString("production.bossbar-color"), BarColor.BLUE);
+        bossBarStyle = parseEnum(BarStyle.class, config.getString("production.bossbar-style"), BarStyle.SOLID);
+        bossBarUpdateTicks = Math.max(1L, config.getLong("production.bossbar-update-ticks", 20L));
+        maxQueuedBatches = Math.max(1, config.getInt("production.max-queue", 5));
+
+        maxLevel = Math.max(1, config.getInt("factory.max-level", 5));
+        maxFactoriesPerPlayer = config.getInt("factory.max-factories-per-player", 3);
+        sellPriceMultiplier = config.getDouble("factory.sell-price-multiplier", 0.5);
+        levelTimeReduction = config.getDouble("factory.level-bonuses.time-reduction", 10.0);
+        extraLinesPerLevel = Math.max(0, config.getInt("factory.level-bonuses.extra-lines", 1));
+        Map<Integer, Integer> times = new HashMap<>();
+        ConfigurationSection timeSection = config.getConfigurationSection("factory.upgrade-time");
+        if (timeSection != null) {
+            for (String level : timeSection.getKeys(false)) {
+                try {
+                    times.put(Integer.parseInt(level), timeSection.getInt(level, 60));
+                } catch (NumberFormatException ignored) {
+                    // reported by ConfigValidator
+                }
+            }
+        }
+        upgradeTimes = Collections.unmodifiableMap(times);
+
+        taxRate = config.getDouble("tax.rate", 5.0) / 100.0;
+        taxLevelMultiplier = config.getDouble("tax.level-multiplier", 2.5) / 100.0;
+        taxDueDays = config.getLong("tax.due-days", 7);
+        taxLateFeeRate = config.getDouble("tax.late-fee-rate", 5.0) / 100.0;
+        taxIntervalTicks = config.getLong("tax.interval-ticks", 144000);
+        salaryIntervalTicks = config.getLong("salary.interval-ticks", 24000);
+
+        marketTaxRate = config.getDouble("marketplace.tax-rate", 5.0) / 100.0;
+        maxListingsPerPlayer = config.getInt("marketplace.max-listings-per-player", 10);
+        listingExpirationHours = config.getLong("marketplace.listing-expiration-hours", 168);
+
+        soundsEnabled = config.getBoolean("notifications.sound.enabled", true);
+        productionCompleteSound = config.getString("notifications.sound.production-complete",
+                "ENTITY_PLAYER_LEVELUP");
+        factoryUpgradeSound = config.getString("notifications.sound.factory-upgrade", "ENTITY_PLAYER_LEVELUP");
+        titlesEnabled = config.getBoolean("notifications.titles.enabled", true);
+        titleFadeIn = config.getInt("notifications.titles.fade-in", 10);
+        titleStay = config.getInt("notifications.titles.stay", 40);
+        titleFadeOut = config.getInt("notifications.titles.fade-out", 10);
+
+        playerCacheGraceSeconds = Math.max(0L, config.getLong("persistence.player-cache.grace-seconds", 300L));
+
+        logAdminCommands = config.getBoolean("logging.log-admin-commands", true);
+        logTransactions = config.getBoolean("logging.log-transactions", true);
+        logProduction = config.getBoolean("logging.log-production", true);
+        logInvoices = config.getBoolean("logging.log-invoices", true);
+    }
+
+    /**
+     * Parse the current contents of config.yml.
+     */
+    public static FactoryCoreSettings load(FileConfiguration config) {
+        return new FactoryCoreSettings(config);
+    }
+
+    /**
+     * Seconds needed to upgrade a factory to the given level.
+     */
+    public int getUpgradeTime(int targetLevel) {
+        return upgradeTimes.getOrDefault(targetLevel, 60);
+    }
+
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String name, E fallback) {
+        if (name == null) {
+            return fallback;
+        }
+        try {
+            return Enum.valueOf(type, name.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return fallback;
+        }
+    }
+}
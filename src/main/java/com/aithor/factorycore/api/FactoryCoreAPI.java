@@ -1,10 +1,13 @@
 package com.aithor.factorycore.api;
 
 import com.aithor.factorycore.FactoryCore;
+import com.aithor.factorycore.managers.MarketplaceManager;
 import com.aithor.factorycore.models.*;
 import org.bukkit.entity.Player;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -62,6 +65,25 @@ public class FactoryCoreAPI {
         return plugin.getFactoryManager().getFactoriesByOwner(owner);
     }
 
+    /**
+     * Get all factories that are for sale
+     * 
+     * @return Read-only view of unowned factories
+     */
+    public Collection<Factory> getUnownedFactories() {
+        return plugin.getFactoryManager().getUnownedFactories();
+    }
+
+    /**
+     * Get all factories of a type
+     * 
+     * @param type Factory type
+     * @return Read-only view of factories of that type
+     */
+    public Collection<Factory> getFactoriesByType(FactoryType type) {
+        return plugin.getFactoryManager().getFactoriesByType(type);
+    }
+
     /**
      * Create a new factory
      * 
@@ -221,10 +243,56 @@ public class FactoryCoreAPI {
      * @param recipeId  Recipe ID to produce
      */
     public void startProduction(String factoryId, String recipeId) {
+        tryStartProduction(factoryId, recipeId);
+    }
+
+    /**
+     * Start production in a factory and report whether it started
+     * 
+     * @param factoryId Factory ID
+     * @param recipeId  Recipe ID to produce
+     * @return true if a free production line started the recipe
+     */
+    public boolean tryStartProduction(String factoryId, String recipeId) {
         Factory factory = getFactory(factoryId);
-        if (factory != null) {
-            plugin.getFactoryManager().startProduction(factory, recipeId);
-        }
+        return factory != null && plugin.getFactoryManager().startProduction(factory, recipeId) != null;
+    }
+
+    /**
+     * Start a queue of batches in a factory. The caller is responsible for
+     * the first batch's inputs and cost; later batches take theirs from the
+     * factory's input storage and the owner's balance when they start.
+     * 
+     * @param factoryId Factory ID
+     * @param recipeId  Recipe ID to produce
+     * @param batches   Number of batches, capped at production.max-queue
+     * @return true if a free production line started the recipe
+     */
+    public boolean startProduction(String factoryId, String recipeId, int batches) {
+        Factory factory = getFactory(factoryId);
+        return factory != null && plugin.getFactoryManager().startProduction(factory, recipeId, batches) != null;
+    }
+
+    /**
+     * Get the busy production lines of a factory
+     * 
+     * @param factoryId Factory ID
+     * @return Tasks by line number, empty if idle or not found
+     */
+    public java.util.SortedMap<Integer, ProductionTask> getProductionLines(String factoryId) {
+        Factory factory = getFactory(factoryId);
+        return factory != null ? factory.getProductionLines() : new java.util.TreeMap<>();
+    }
+
+    /**
+     * Get the time, cost, salary and tax reductions that apply to a factory
+     * 
+     * @param factoryId Factory ID
+     * @return Current modifiers, or {@link ModifierSet#NONE} if not found
+     */
+    public ModifierSet getModifiers(String factoryId) {
+        Factory factory = getFactory(factoryId);
+        return factory != null ? plugin.getFactoryManager().getModifiers(factory) : ModifierSet.NONE;
     }
 
     /**
@@ -401,6 +469,113 @@ public class FactoryCoreAPI {
         return 0.0;
     }
 
+    // ==================== MARKETPLACE METHODS ====================
+
+    /**
+     * Place a standing buy order, escrowing amount times price from the buyer
+     * 
+     * @param buyer        Player placing the order
+     * @param resourceId   Resource ID
+     * @param amount       Units wanted
+     * @param pricePerUnit Highest price paid per unit
+     * @return Order ID or null if the order was refused
+     */
+    public String placeBuyOrder(Player buyer, String resourceId, int amount, double pricePerUnit) {
+        return plugin.getMarketplaceManager().placeBuyOrder(buyer, resourceId, amount, pricePerUnit);
+    }
+
+    /**
+     * Buy up to a number of units from the cheapest listings, paying once
+     * 
+     * @param buyer           Player buying
+     * @param resourceId      Resource ID
+     * @param units           Units wanted
+     * @param maxPricePerUnit Listings priced above this are skipped
+     * @return Units bought and their total cost
+     */
+    public MarketplaceManager.SweepResult buyCheapest(Player buyer, String resourceId, int units,
+            double maxPricePerUnit) {
+        return plugin.getMarketplaceManager().buyCheapest(buyer, resourceId, units, maxPricePerUnit);
+    }
+
+    /**
+     * Cancel a buy order and refund its remaining escrow
+     * 
+     * @param player  Order owner
+     * @param orderId Order ID
+     * @return true if cancelled
+     */
+    public boolean cancelBuyOrder(Player player, String orderId) {
+        return plugin.getMarketplaceManager().cancelBuyOrder(player, orderId);
+    }
+
+    /**
+     * Get a player's open buy orders
+     * 
+     * @param playerId Player UUID
+     * @return List of buy orders
+     */
+    public List<MarketplaceManager.BuyOrder> getBuyOrders(UUID playerId) {
+        return plugin.getMarketplaceManager().getPlayerBuyOrders(playerId);
+    }
+
+    // ==================== MAILBOX METHODS ====================
+
+    /**
+     * Get the resources waiting in a player's mailbox
+     * 
+     * @param playerId Player UUID
+     * @return Map of resource ID to amount
+     */
+    public Map<String, Integer> getMailbox(UUID playerId) {
+        return plugin.getMailboxManager().getMailbox(playerId);
+    }
+
+    /**
+     * Send resources to a player: straight into the inventory when online,
+     * to the mailbox otherwise
+     * 
+     * @param playerId   Player UUID
+     * @param resourceId Resource ID
+     * @param amount     Amount to deliver
+     */
+    public void deliverResource(UUID playerId, String resourceId, int amount) {
+        plugin.getResourceManager().deliverResource(playerId, resourceId, amount);
+    }
+
+    /**
+     * Move as much of a player's mailbox into their inventory as fits
+     * 
+     * @param player Player claiming
+     * @return Number of items claimed
+     */
+    public int claimMailbox(Player player) {
+        return plugin.getMailboxManager().claimAll(player);
+    }
+
+    // ==================== RESEARCH METHODS ====================
+
+    /**
+     * Get a player's current value for a research buff
+     * 
+     * @param playerId Player UUID
+     * @param buff     Research buff
+     * @return Reduction percentage for percentage buffs, bonus for flat buffs
+     */
+    public double getResearchBuff(UUID playerId, ResearchBuff buff) {
+        return plugin.getResearchManager().getBuff(playerId, buff);
+    }
+
+    /**
+     * Get all of a player's research buffs
+     * 
+     * @param playerId Player UUID
+     * @return Copy of the buff values, indexed by {@link ResearchBuff#ordinal()}
+     */
+    public double[] getResearchBuffs(UUID playerId) {
+        return plugin.getResearchManager().getBuffs(playerId);
+    }
+
     // ==================== UTILITY METHODS ====================
 
     /**
@@ -418,9 +593,11 @@ public class FactoryCoreAPI {
      */
     public void reloadPlugin() {
         plugin.reloadConfig();
+        plugin.reloadSettings();
         plugin.getLanguageManager().reload();
         plugin.getResourceManager().reload();
         plugin.getRecipeManager().reload();
+        plugin.getFactoryManager().invalidateAllModifiers();
     }
 }
 
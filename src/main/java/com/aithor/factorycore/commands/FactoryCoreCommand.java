@@ -2,9 +2,15 @@ package com.aithor.factorycore.commands;
 
 import com.aithor.factorycore.FactoryCore;
 import com.aithor.factorycore.gui.*;
+import com.aithor.factorycore.managers.MarketplaceManager;
 import com.aithor.factorycore.models.Factory;
 import com.aithor.factorycore.models.FactoryType;
 import com.aithor.factorycore.models.Recipe;
+import com.aithor.factorycore.persistence.AtomicFileWriter;
+import com.aithor.factorycore.persistence.DataSnapshot;
+import com.aithor.factorycore.persistence.PersistenceService;
+import com.aithor.factorycore.persistence.yaml.YamlFactoryRepository;
+import com.aithor.factorycore.persistence.yaml.YamlStorageRepository;
 import com.aithor.factorycore.utils.Logger;
 import com.aithor.factorycore.utils.WorldGuardUtils;
 import org.bukkit.Bukkit;
@@ -14,6 +20,8 @@ import org.bukkit.command.CommandSender;
 import org.bukkit.command.TabCompleter;
 import org.bukkit.entity.Player;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -65,7 +73,7 @@ public class FactoryCoreCommand implements CommandExecutor, TabCompleter {
 
             case "market":
             case "marketplace":
-                return handleMarketplace(sender);
+                return handleMarketplace(sender, args);
 
             case "admin":
                 return handleAdmin(sender, args);
@@ -89,6 +97,10 @@ public class FactoryCoreCommand implements CommandExecutor, TabCompleter {
             case "tp":
                 return handleTeleport(sender, args);
 
+            case "link":
+            case "supply":
+                return handleLink(sender, args);
+
             case "dailyquest":
             case "dq":
             case "quest":
@@ -178,16 +190,76 @@ public class FactoryCoreCommand implements CommandExecutor, TabCompleter {
         return true;
     }
 
-    private boolean handleMarketplace(CommandSender sender) {
+    private boolean handleMarketplace(CommandSender sender, String[] args) {
         if (!(sender instanceof Player)) {
             sender.sendMessage(plugin.getLanguageManager().getMessage("player-only"));
             return true;
         }
 
         Player player = (Player) sender;
-        MarketplaceGUI gui = new MarketplaceGUI(plugin, player);
-        gui.openMarketplaceMenu();
-        return true;
+        if (args.length < 2) {
+            MarketplaceGUI gui = new MarketplaceGUI(plugin, player);
+            gui.openMarketplaceMenu();
+            return true;
+        }
+
+        MarketplaceManager marketplace = plugin.getMarketplaceManager();
+        switch (args[1].toLowerCase()) {
+            case "bid": {
+                if (args.length < 5) {
+                    player.sendMessage("§cUsage: /fc market bid <resource> <amount> <price_per_unit>");
+                    return true;
+                }
+                int amount;
+                double price;
+                try {
+                    amount = Integer.parseInt(args[3]);
+                    price = Double.parseDouble(args[4]);
+                } catch (NumberFormatException e) {
+                    player.sendMessage("§cAmount and price must be numbers!");
+                    return true;
+                }
+                if (!(price > 0) || Double.isInfinite(price)) {
+                    player.sendMessage("§cPrice must be a positive number!");
+                    return true;
+                }
+                String orderId = marketplace.placeBuyOrder(player, args[2], amount, price);
+                if (orderId == null) {
+                    player.sendMessage("§cCould not place the buy order! Check the resource, your funds and your order limit.");
+                } else {
+                    player.sendMessage("§aBuy order §e" + orderId + " §aplaced for " + amount + "x " + args[2]
+                            + " at §6$" + String.format("%.2f", price) + " §aeach.");
+                }
+                return true;
+            }
+            case "bids": {
+                List<MarketplaceManager.BuyOrder> orders = marketplace.getPlayerBuyOrders(player.getUniqueId());
+                player.sendMessage("§6=== Your Buy Orders ===");
+                if (orders.isEmpty()) {
+                    player.sendMessage("§7You have no buy orders.");
+                }
+                for (MarketplaceManager.BuyOrder order : orders) {
+                    player.sendMessage("§e" + order.id + " §7- " + order.resourceId + " §7x§e" + order.amount
+                            + " §7at §6$" + String.format("%.2f", order.pricePerUnit));
+                }
+                return true;
+            }
+            case "cancelbid": {
+                if (args.length < 3) {
+                    player.sendMessage("§cUsage: /fc market cancelbid <order_id>");
+                    return true;
+                }
+                if (marketplace.cancelBuyOrder(player, args[2])) {
+                    player.sendMessage("§aBuy order cancelled and the remaining escrow refunded.");
+                } else {
+                    player.sendMessage("§cBuy order not found!");
+                }
+                return true;
+            }
+            default:
+                player.sendMessage("§cUsage: /fc market [bid|bids|cancelbid]");
+                return true;
+        }
     }
 
     private boolean handleDailyQuest(CommandSender sender) {
@@ -212,7 +284,7 @@ public class FactoryCoreCommand implements CommandExecutor, TabCompleter {
 
         if (args.length < 2) {
             sender.sendMessage(
-                    "§cUsage: /fc admin <create|remove|list|info|reload|checkrecipes|setowner|teleport|give|npc|tax|market|research>");
+                    "§cUsage: /fc admin <create|remove|list|info|reload|checkrecipes|setowner|teleport|give|npc|tax|market|research|data>");
             sender.sendMessage("§cFor create: /fc admin create <region_id> <factory_id> <factory_type> <price_value>");
             return true;
         }
@@ -259,6 +331,9 @@ public class FactoryCoreCommand implements CommandExecutor, TabCompleter {
             case "research":
                 return adminResearch(sender, args);
 
+            case "data":
+                return adminData(sender, args);
+
             default:
                 sender.sendMessage("§cInvalid admin command!");
                 return true;
@@ -378,13 +453,21 @@ public class FactoryCoreCommand implements CommandExecutor, TabCompleter {
             plugin.getLogger().info("Starting admin reload process...");
 
             plugin.reloadConfig();
+            boolean validConfig = plugin.reloadSettings();
             plugin.getLanguageManager().reload();
             plugin.getResourceManager().reload();
             plugin.getRecipeManager().reload();
             plugin.getNPCManager().reload();
+            plugin.getResearchManager().reloadConfig();
+            plugin.getDailyQuestManager().reloadConfig();
+            plugin.getAchievementManager().reloadConfig();
+            plugin.getFactoryManager().invalidateAllModifiers();
 
             sender.sendMessage("§a§l✅ Reload Successful!");
             sender.sendMessage("§7Reloaded all configurations.");
+            if (!validConfig) {
+                sender.sendMessage("§econfig.yml has invalid values; defaults are used for them. See the console.");
+            }
 
             Logger.logAdminCommand(sender.getName(), "reload all configurations");
             return true;
@@ -416,6 +499,116 @@ public class FactoryCoreCommand implements CommandExecutor, TabCompleter {
         return true;
     }
 
+    private boolean adminData(CommandSender sender, String[] args) {
+        String action = args.length >= 3 ? args[2].toLowerCase() : "";
+        switch (action) {
+            case "stats":
+                return adminDataStats(sender);
+            case "export":
+                return adminDataExport(sender);
+            case "import":
+                return adminDataImport(sender);
+            case "backup":
+                plugin.getBackupService().createGeneration(generation -> sender.sendMessage(generation > 0
+                        ? "§aWrote data backup " + generation + "."
+                        : "§cBackup failed, see the console for details."));
+                Logger.logAdminCommand(sender.getName(), "data backup");
+                return true;
+            default:
+                sender.sendMessage("§cUsage: /fc admin data <stats|export|import|backup>");
+                return true;
+        }
+    }
+
+    private boolean adminDataStats(CommandSender sender) {
+        List<PersistenceService.StoreMetrics> metrics = plugin.getPersistenceService().getAllMetrics();
+        sender.sendMessage("§6=== Data Saves (" + plugin.getDataBackend().getType() + ") ===");
+        if (metrics.isEmpty()) {
+            sender.sendMessage("§7Nothing has been saved yet.");
+            return true;
+        }
+
+        for (PersistenceService.StoreMetrics store : metrics) {
+            sender.sendMessage(String.format(
+                    "§e%s§7: %d writes, %s total, last %s | capture %.2fms (max %.2fms) | serialize %.2fms (max %.2fms) | write %.2fms",
+                    store.getName(), store.getWrites(), formatBytes(store.getBytesWritten()),
+                    formatBytes(store.getLastBytes()), store.getLastCaptureNanos() / 1_000_000.0,
+                    store.getMaxCaptureNanos() / 1_000_000.0, store.getLastSerializeNanos() / 1_000_000.0,
+                    store.getMaxSerializeNanos() / 1_000_000.0, store.getLastWriteNanos() / 1_000_000.0));
+            if (store.getDeferred() > 0 || store.getFailures() > 0) {
+                sender.sendMessage("§7  deferred: §e" + store.getDeferred() + " §7failed: §c" + store.getFailures());
+            }
+        }
+        return true;
+    }
+
+    private boolean adminDataExport(CommandSender sender) {
+        // Capture on the main thread, write on the I/O thread
+        File exportFolder = new File(plugin.getDataFolder(), "data/export");
+        Map<File, DataSnapshot> files = new LinkedHashMap<>();
+        Map<String, Factory> factories = new LinkedHashMap<>();
+        for (Factory factory : plugin.getFactoryManager().getAllFactories()) {
+            factories.put(factory.getId(), factory);
+        }
+        files.put(new File(exportFolder, "factories.yml"), YamlFactoryRepository.createSnapshot(factories));
+        files.put(new File(exportFolder, "input-storage.yml"),
+                YamlStorageRepository.createSnapshot(plugin.getStorageManager().getAllInputStorage()));
+        files.put(new File(exportFolder, "output-storage.yml"),
+                YamlStorageRepository.createSnapshot(plugin.getStorageManager().getAllOutputStorage()));
+
+        plugin.getPersistenceService().runAsync(() -> {
+            String result;
+            try {
+                for (Map.Entry<File, DataSnapshot> entry : files.entrySet()) {
+                    AtomicFileWriter.write(entry.getKey(), entry.getValue().serialize());
+                }
+                result = "§aExported " + factories.size() + " factories and their storage to data/export/.";
+            } catch (IOException e) {
+                plugin.getLogger().severe("Failed to export data!");
+                e.printStackTrace();
+                result = "§cExport failed, see the console for details.";
+            }
+            String message = result;
+            Bukkit.getScheduler().runTask(plugin, () -> sender.sendMessage(message));
+        });
+
+        Logger.logAdminCommand(sender.getName(), "data export");
+        return true;
+    }
+
+    private boolean adminDataImport(CommandSender sender) {
+        File exportFolder = new File(plugin.getDataFolder(), "data/export");
+        if (!new File(exportFolder, "factories.yml").exists()) {
+            sender.sendMessage("§cNo export found in data/export/. Run /fc admin data export first.");
+            return true;
+        }
+
+        Map<String, Factory> factories = new HashMap<>();
+        new YamlFactoryRepository(plugin, exportFolder).read(factories);
+        Map<String, Map<String, Integer>> input = new HashMap<>();
+        Map<String, Map<String, Integer>> output = new HashMap<>();
+        new YamlStorageRepository(plugin, exportFolder).read(input, output);
+
+        plugin.getFactoryManager().replaceAll(factories);
+        plugin.getStorageManager().replaceAll(input, output);
+        plugin.getFactoryManager().saveAll();
+        plugin.getStorageManager().saveAll();
+
+        sender.sendMessage("§aImported " + factories.size() + " factories and their storage from data/export/.");
+        Logger.logAdminCommand(sender.getName(), "data import");
+        return true;
+    }
+
+    private static String formatBytes(long bytes) {
+        if (bytes >= 1024 * 1024) {
+            return String.format("%.1f MB", bytes / (1024.0 * 1024.0));
+        }
+        if (bytes >= 1024) {
+            return String.format("%.1f KB", bytes / 1024.0);
+        }
+        return bytes + " B";
+    }
+
     private boolean adminSetOwner(CommandSender sender, String[] args) {
         if (args.length < 4) {
             sender.sendMessage("§cUsage: /fc admin setowner <id> <player>");
@@ -435,7 +628,8 @@ public class FactoryCoreCommand implements CommandExecutor, TabCompleter {
         }
 
         factory.setOwner(target.getUniqueId());
-        plugin.getFactoryManager().saveAll();
+        plugin.getFactoryManager().invalidateModifiers(factory.getId());
+        plugin.getFactoryManager().markDirty(factory);
 
         sender.sendMessage(plugin.getLanguageManager().getMessage("admin-setowner")
                 .replace("{id}", factory.getId())
@@ -700,8 +894,8 @@ public class FactoryCoreCommand implements CommandExecutor, TabCompleter {
 
         if (action.equals("cleanup")) {
             if (plugin.getMarketplaceManager() != null) {
-                plugin.getMarketplaceManager().cleanupExpiredListings();
-                sender.sendMessage("§aExpired listings cleaned up!");
+                int expired = plugin.getMarketplaceManager().cleanupExpiredListings();
+                sender.sendMessage("§aExpired listings cleaned up! §7(" + expired + " removed)");
             }
         } else if (action.equals("stats")) {
             if (plugin.getMarketplaceManager() != null) {
@@ -924,6 +1118,56 @@ public class FactoryCoreCommand implements CommandExecutor, TabCompleter {
         return true;
     }
 
+    private boolean handleLink(CommandSender sender, String[] args) {
+        if (!(sender instanceof Player)) {
+            sender.sendMessage(plugin.getLanguageManager().getMessage("player-only"));
+            return true;
+        }
+
+        if (args.length < 3) {
+            sender.sendMessage("§cUsage: /fc link <from> <to|off>");
+            return true;
+        }
+
+        Player player = (Player) sender;
+        Factory source = plugin.getFactoryManager().getFactory(args[1]);
+        if (source == null) {
+            sender.sendMessage(plugin.getLanguageManager().getMessage("factory-not-found"));
+            return true;
+        }
+        if (!player.getUniqueId().equals(source.getOwner())) {
+            sender.sendMessage(plugin.getLanguageManager().getMessage("factory-not-owned"));
+            return true;
+        }
+
+        if (args[2].equalsIgnoreCase("off")) {
+            plugin.getFactoryManager().setSupplyTarget(source, null);
+            sender.sendMessage(plugin.getLanguageManager().getMessage("supply-unlinked")
+                    .replace("{factory}", source.getId()));
+            return true;
+        }
+
+        Factory target = plugin.getFactoryManager().getFactory(args[2]);
+        if (target == null) {
+            sender.sendMessage(plugin.getLanguageManager().getMessage("factory-not-found"));
+            return true;
+        }
+        if (!player.getUniqueId().equals(target.getOwner())) {
+            sender.sendMessage(plugin.getLanguageManager().getMessage("factory-not-owned"));
+            return true;
+        }
+        if (target.getId().equals(source.getId())) {
+            sender.sendMessage(plugin.getLanguageManager().getMessage("supply-same-factory"));
+            return true;
+        }
+
+        plugin.getFactoryManager().setSupplyTarget(source, target.getId());
+        sender.sendMessage(plugin.getLanguageManager().getMessage("supply-linked")
+                .replace("{from}", source.getId())
+                .replace("{to}", target.getId()));
+        return true;
+    }
+
     private boolean handleTeleport(CommandSender sender, String[] args) {
         if (!(sender instanceof Player)) {
             sender.sendMessage(plugin.getLanguageManager().getMessage("player-only"));
@@ -974,6 +1218,8 @@ public class FactoryCoreCommand implements CommandExecutor, TabCompleter {
         sender.sendMessage("§6/fc taxes §7- View tax center");
         sender.sendMessage("§6/fc employees §7- View employees center");
         sender.sendMessage("§6/fc market §7- Open marketplace");
+        sender.sendMessage("§6/fc market bid <resource> <amount> <price> §7- Place a buy order");
+        sender.sendMessage("§6/fc market <bids|cancelbid <id>> §7- Manage your buy orders");
         sender.sendMessage("§6/fc dailyquest §7- View daily quests");
         sender.sendMessage("");
         sender.sendMessage("§e§lFactory Commands:");
@@ -982,6 +1228,7 @@ public class FactoryCoreCommand implements CommandExecutor, TabCompleter {
         sender.sendMessage("§6/fc info <id> §7- View factory info");
         sender.sendMessage("§6/fc gui <id> §7- Open factory GUI");
         sender.sendMessage("§6/fc tp <id> §7- Teleport to factory");
+        sender.sendMessage("§6/fc link <from> <to|off> §7- Send a factory's outputs to another factory");
 
         if (sender.hasPermission("factorycore.admin")) {
             sender.sendMessage("");
@@ -994,6 +1241,9 @@ public class FactoryCoreCommand implements CommandExecutor, TabCompleter {
             sender.sendMessage("§6/fc admin tax §7- Manage taxes");
             sender.sendMessage("§6/fc admin market §7- Manage marketplace");
             sender.sendMessage("§6/fc admin research §7- Manage factory research");
+            sender.sendMessage("§6/fc admin data stats §7- Show data save statistics");
+            sender.sendMessage("§6/fc admin data <export|import> §7- Export or import factory data as YAML");
+            sender.sendMessage("§6/fc admin data backup §7- Write a data backup now");
         }
 
         sender.sendMessage("");
@@ -1006,13 +1256,13 @@ public class FactoryCoreCommand implements CommandExecutor, TabCompleter {
 
         if (args.length == 1) {
             completions.addAll(Arrays.asList("hub", "browse", "my", "invoices", "taxes", "employees", "market",
-                    "dailyquest", "buy", "sell", "info", "gui", "tp", "version", "help"));
+                    "dailyquest", "buy", "sell", "info", "gui", "tp", "link", "version", "help"));
             if (sender.hasPermission("factorycore.admin")) {
                 completions.add("admin");
             }
         } else if (args.length == 2 && args[0].equalsIgnoreCase("admin")) {
             completions.addAll(Arrays.asList("create", "remove", "list", "info", "reload", "checkrecipes",
-                    "setowner", "teleport", "give", "npc", "tax", "market", "research"));
+                    "setowner", "teleport", "give", "npc", "tax", "market", "research", "data"));
         } else if (args.length == 3 && args[0].equalsIgnoreCase("admin")) {
             if (args[1].equalsIgnoreCase("npc")) {
                 completions.addAll(Arrays.asList("spawn", "remove", "list", "respawn"));
@@ -1022,6 +1272,8 @@ public class FactoryCoreCommand implements CommandExecutor, TabCompleter {
                 completions.addAll(Arrays.asList("cleanup", "stats"));
             } else if (args[1].equalsIgnoreCase("research")) {
                 completions.addAll(Arrays.asList("upgrade", "set"));
+            } else if (args[1].equalsIgnoreCase("data")) {
+                completions.addAll(Arrays.asList("stats", "export", "import", "backup"));
             } else if (args[1].equalsIgnoreCase("create")) {
                 completions.addAll(WorldGuardUtils.getAllRegionNames());
             } else if (args[1].equalsIgnoreCase("remove") || args[1].equalsIgnoreCase("info")) {
@@ -1091,11 +1343,10 @@ public class FactoryCoreCommand implements CommandExecutor, TabCompleter {
         } else if (args.length == 2) {
             String subCmd = args[0].toLowerCase();
             if (subCmd.equals("buy")) {
-                plugin.getFactoryManager().getAllFactories().stream()
-                        .filter(f -> f.getOwner() == null)
+                plugin.getFactoryManager().getUnownedFactories()
                         .forEach(f -> completions.add(f.getId()));
             } else if (subCmd.equals("sell") || subCmd.equals("gui") || subCmd.equals("tp")
-                    || subCmd.equals("teleport")) {
+                    || subCmd.equals("teleport") || subCmd.equals("link")) {
                 if (sender instanceof Player) {
                     Player player = (Player) sender;
                     plugin.getFactoryManager().getFactoriesByOwner(player.getUniqueId())
@@ -1104,9 +1355,27 @@ public class FactoryCoreCommand implements CommandExecutor, TabCompleter {
             } else if (subCmd.equals("info")) {
                 plugin.getFactoryManager().getAllFactories()
                         .forEach(f -> completions.add(f.getId()));
+            } else if (subCmd.equals("market") || subCmd.equals("marketplace")) {
+                completions.addAll(Arrays.asList("bid", "bids", "cancelbid"));
             }
         }
 
+        if (args.length == 3 && (args[0].equalsIgnoreCase("market") || args[0].equalsIgnoreCase("marketplace"))
+                && sender instanceof Player) {
+            if (args[1].equalsIgnoreCase("bid")) {
+                completions.addAll(plugin.getResourceManager().getAllResources().keySet());
+            } else if (args[1].equalsIgnoreCase("cancelbid")) {
+                plugin.getMarketplaceManager().getPlayerBuyOrders(((Player) sender).getUniqueId())
+                        .forEach(o -> completions.add(o.id));
+            }
+        }
+
+        if (args.length == 3 && args[0].equalsIgnoreCase("link") && sender instanceof Player) {
+            completions.add("off");
+            plugin.getFactoryManager().getFactoriesByOwner(((Player) sender).getUniqueId())
+                    .forEach(f -> completions.add(f.getId()));
+        }
+
         return completions.stream()
                 .filter(s -> s.toLowerCase().startsWith(args[args.length - 1].toLowerCase()))
                 .collect(Collectors.toList());
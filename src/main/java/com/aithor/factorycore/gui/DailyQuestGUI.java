@@ -2,6 +2,7 @@ package com.aithor.factorycore.gui;
 
 import com.aithor.factorycore.FactoryCore;
 import com.aithor.factorycore.managers.DailyQuestManager;
+import com.aithor.factorycore.models.ResourceItem;
 import org.bukkit.Bukkit;
 import org.bukkit.Material;
 import org.bukkit.NamespacedKey;
@@ -135,6 +136,7 @@ public class DailyQuestGUI {
         int target = manager.getQuestTarget(questId);
         int rewardExp = manager.getQuestRewardExp(questId);
         double rewardMoney = manager.getQuestRewardMoney(questId);
+        Map<String, Integer> rewardItems = manager.getQuestRewardItems(questId);
 
         Material iconMaterial;
         if (claimed) {
@@ -170,6 +172,7 @@ public class DailyQuestGUI {
             lore.add("§6Rewards:");
             if (rewardExp > 0) lore.add("§7  +" + rewardExp + " EXP");
             if (rewardMoney > 0) lore.add("§7  +$" + String.format("%.2f", rewardMoney));
+            addRewardItemLore(lore, rewardItems);
             lore.add("");
             lore.add("§e>>> Click to claim reward! <<<");
         } else {
@@ -193,6 +196,7 @@ public class DailyQuestGUI {
             lore.add("§6Rewards:");
             if (rewardExp > 0) lore.add("§7  +" + rewardExp + " EXP");
             if (rewardMoney > 0) lore.add("§7  +$" + String.format("%.2f", rewardMoney));
+            addRewardItemLore(lore, rewardItems);
         }
 
         ItemStack item = new ItemStack(iconMaterial);
@@ -225,6 +229,14 @@ public class DailyQuestGUI {
         return item;
     }
 
+    private void addRewardItemLore(List<String> lore, Map<String, Integer> rewardItems) {
+        for (Map.Entry<String, Integer> entry : rewardItems.entrySet()) {
+            ResourceItem resource = plugin.getResourceManager().getResource(entry.getKey());
+            String resourceName = resource != null ? resource.getName() : entry.getKey();
+            lore.add("§7  +" + entry.getValue() + "x " + resourceName);
+        }
+    }
+
     private ItemStack createBonusItem() {
         DailyQuestManager manager = plugin.getDailyQuestManager();
         UUID playerId = player.getUniqueId();
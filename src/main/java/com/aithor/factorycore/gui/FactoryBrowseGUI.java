@@ -39,15 +39,13 @@ public class FactoryBrowseGUI {
         
         Inventory inv = Bukkit.createInventory(null, 54, "§6§lFactory Browse §8- §ePage " + (page + 1));
 
-        // Get available factories (no owner)
-        List<Factory> availableFactories = plugin.getFactoryManager().getAllFactories().stream()
-                .filter(f -> f.getOwner() == null)
-                .collect(Collectors.toList());
-
-        // Apply filter
-        if (filterType != null) {
-            availableFactories = availableFactories.stream()
-                    .filter(f -> f.getType() == filterType)
+        // Get available factories (no owner), applying the type filter
+        List<Factory> availableFactories;
+        if (filterType == null) {
+            availableFactories = new ArrayList<>(plugin.getFactoryManager().getUnownedFactories());
+        } else {
+            availableFactories = plugin.getFactoryManager().getFactoriesByType(filterType).stream()
+                    .filter(f -> f.getOwner() == null)
                     .collect(Collectors.toList());
         }
 
@@ -188,6 +188,13 @@ public class FactoryGUI {
             openStorageMenu();
         } else if (name.contains("Upgrade Factory")) {
             openUpgradeMenu();
+        } else if (name.contains("Stop Continuous Mode")) {
+            Factory factory = plugin.getFactoryManager().getFactory(currentFactoryId);
+            if (factory != null && player.getUniqueId().equals(factory.getOwner())) {
+                plugin.getFactoryManager().setContinuous(factory, null);
+                player.sendMessage("§7Continuous mode is §cOFF§7.");
+            }
+            openMainMenu();
         } else if (name.contains("Fast Travel")) {
             player.closeInventory();
 
@@ -271,6 +278,11 @@ public class FactoryGUI {
                 if (plugin.getConfig().getBoolean("debug.gui-debug", false)) {
                     plugin.getLogger().info("Recipe found: " + recipe.getName() + ", opening confirmation");
                 }
+                player.getPersistentDataContainer().remove(new NamespacedKey(plugin, "current_batches"));
+                Factory factory = plugin.getFactoryManager().getFactory(currentFactoryId);
+                player.getPersistentDataContainer().set(new NamespacedKey(plugin, "current_continuous"),
+                        PersistentDataType.INTEGER,
+                        factory != null && recipeId.equals(factory.getContinuousRecipeId()) ? 1 : 0);
                 openRecipeConfirm(recipeId);
             } else {
                 plugin.getLogger().warning("Recipe not found for ID: " + recipeId + " in factory type: " +
@@ -295,6 +307,20 @@ public class FactoryGUI {
 
         if (name.contains("Confirm")) {
             startProduction();
+        } else if (name.contains("Batches")) {
+            // Cycle the batch count 1..max-queue
+            NamespacedKey key = new NamespacedKey(plugin, "current_batches");
+            Integer batches = player.getPersistentDataContainer().get(key, PersistentDataType.INTEGER);
+            int max = plugin.getFactoryManager().getMaxQueuedBatches();
+            int next = batches != null ? Math.min(batches, max) % max + 1 : Math.min(2, max);
+            player.getPersistentDataContainer().set(key, PersistentDataType.INTEGER, next);
+            openRecipeConfirm(currentRecipeId);
+        } else if (name.contains("Continuous Mode")) {
+            NamespacedKey key = new NamespacedKey(plugin, "current_continuous");
+            Integer continuous = player.getPersistentDataContainer().get(key, PersistentDataType.INTEGER);
+            player.getPersistentDataContainer().set(key, PersistentDataType.INTEGER,
+                    continuous != null && continuous == 1 ? 0 : 1);
+            openRecipeConfirm(currentRecipeId);
         } else if (name.contains("Cancel")) {
             // Clear recipe ID when canceling
             player.getPersistentDataContainer().remove(new NamespacedKey(plugin, "current_recipe_id"));
@@ -318,14 +344,18 @@ public class FactoryGUI {
             return;
         }
 
-        // ── Check money cost (with research buff) ──────────────────────────────
-        double moneyCost = recipe.getMoneyCost();
-        if (moneyCost > 0 && plugin.getResearchManager() != null) {
-            double costReduction = plugin.getResearchManager().getProductionCostReduction(player.getUniqueId());
-            if (costReduction > 0) {
-                moneyCost *= (1 - (costReduction / 100.0));
-            }
+        // ── Check: a production line must be free ──────────────────────────────
+        if (plugin.getFactoryManager().getFreeLine(factory) < 0) {
+            player.getPersistentDataContainer().remove(new NamespacedKey(plugin, "current_recipe_id"));
+            player.sendMessage(plugin.getLanguageManager().getMessage("production-lines-full")
+                    .replace("{lines}", String.valueOf(plugin.getFactoryManager().getLineCount(factory))));
+            player.closeInventory();
+            return;
         }
+
+        // ── Check money cost (with research buff) ──────────────────────────────
+        ModifierSet modifiers = plugin.getFactoryManager().getModifiers(factory);
+        double moneyCost = modifiers.applyProductionCost(recipe.getMoneyCost());
         if (moneyCost > 0 && !plugin.getEconomy().has(player, moneyCost)) {
             player.getPersistentDataContainer().remove(new NamespacedKey(plugin, "current_recipe_id"));
             player.sendMessage(plugin.getLanguageManager().getMessage("insufficient-funds")
@@ -362,31 +392,45 @@ public class FactoryGUI {
         }
 
         // Start production
-        plugin.getFactoryManager().startProduction(factory, currentRecipeId);
+        NamespacedKey batchesKey = new NamespacedKey(plugin, "current_batches");
+        Integer batches = player.getPersistentDataContainer().get(batchesKey, PersistentDataType.INTEGER);
+        NamespacedKey continuousKey = new NamespacedKey(plugin, "current_continuous");
+        Integer continuous = player.getPersistentDataContainer().get(continuousKey, PersistentDataType.INTEGER);
+        plugin.getFactoryManager().setContinuous(factory,
+                continuous != null && continuous == 1 ? currentRecipeId : null);
+        ProductionTask task = plugin.getFactoryManager().startProduction(factory, currentRecipeId,
+                batches != null ? batches : 1);
 
         // Clear recipe ID after successful production start
         player.getPersistentDataContainer().remove(new NamespacedKey(plugin, "current_recipe_id"));
+        player.getPersistentDataContainer().remove(batchesKey);
+        player.getPersistentDataContainer().remove(continuousKey);
 
         // Show employee buff info if applicable
-        double reduction = plugin.getNPCManager().getProductionTimeReductionForFactory(currentFactoryId);
+        double reduction = modifiers.getEmployeeTimeReduction();
         String msg = plugin.getLanguageManager().getMessage("production-started")
                 .replace("{recipe}", recipe.getName());
         player.sendMessage(msg);
+        if (task != null && task.getBatches() > 1) {
+            player.sendMessage("§7Queued §e" + task.getBatches()
+                    + " §7batches. Inputs and cost are taken as each batch starts.");
+        }
+        if (factory.isContinuous()) {
+            player.sendMessage("§7Continuous mode is §aON§7. The factory restarts this recipe until you turn it off.");
+        }
         if (reduction > 0) {
             player.sendMessage("§a⚡ Employee Buff: §f-" + reduction + "% §aproduction time!");
         }
         // Show research buff info if applicable
-        if (plugin.getResearchManager() != null) {
-            double researchTimeReduction = plugin.getResearchManager().getProductionTimeReduction(player.getUniqueId());
-            double researchCostReduction = plugin.getResearchManager().getProductionCostReduction(player.getUniqueId());
-            if (researchTimeReduction > 0) {
-                player.sendMessage("§d🔬 Research Buff: §f-" + String.format("%.0f", researchTimeReduction)
-                        + "% §dproduction time!");
-            }
-            if (researchCostReduction > 0) {
-                player.sendMessage("§d🔬 Research Buff: §f-" + String.format("%.0f", researchCostReduction)
-                        + "% §dproduction cost!");
-            }
+        double researchTimeReduction = modifiers.getResearchTimeReduction();
+        double researchCostReduction = modifiers.getProductionCostReduction();
+        if (researchTimeReduction > 0) {
+            player.sendMessage("§d🔬 Research Buff: §f-" + String.format("%.0f", researchTimeReduction)
+                    + "% §dproduction time!");
+        }
+        if (researchCostReduction > 0) {
+            player.sendMessage("§d🔬 Research Buff: §f-" + String.format("%.0f", researchCostReduction)
+                    + "% §dproduction cost!");
         }
         player.closeInventory();
     }
@@ -52,9 +52,7 @@ public class HubGUI {
         // ==================== MAIN MENU ITEMS ====================
 
         // Factory Browse (slot 20) - Browse available factories
-        int availableFactories = (int) plugin.getFactoryManager().getAllFactories().stream()
-                .filter(f -> f.getOwner() == null)
-                .count();
+        int availableFactories = plugin.getFactoryManager().getUnownedFactories().size();
         inv.setItem(20, createItem(Material.COMPASS,
                 "§a§lFactory Browse",
                 Arrays.asList(
@@ -226,6 +224,9 @@ public class HubGUI {
                         "",
                         "§7Click to learn more!")));
 
+        // Mailbox (slot 40) - Resources delivered while offline or with a full inventory
+        inv.setItem(40, createMailboxItem());
+
         // Quick Stats (slot 49) - Player statistics
         inv.setItem(49, createQuickStatsItem());
 
@@ -291,6 +292,33 @@ public class HubGUI {
         return createItem(Material.NETHER_STAR, "§e§lQuick Stats", lore);
     }
 
+    private ItemStack createMailboxItem() {
+        Map<String, Integer> mailbox = plugin.getMailboxManager().getMailbox(player.getUniqueId());
+        List<String> lore = new ArrayList<>();
+        lore.add("§7Returned listings, buy order");
+        lore.add("§7fills and overflowing deliveries");
+        lore.add("");
+        if (mailbox.isEmpty()) {
+            lore.add("§7Your mailbox is empty.");
+        } else {
+            int shown = 0;
+            for (Map.Entry<String, Integer> entry : mailbox.entrySet()) {
+                if (shown++ == 8) {
+                    lore.add("§7...and " + (mailbox.size() - 8) + " more");
+                    break;
+                }
+                ResourceItem resource = plugin.getResourceManager().getResource(entry.getKey());
+                String resourceName = resource != null ? resource.getName() : entry.getKey();
+                lore.add("§7• " + resourceName + " §7x§e" + entry.getValue());
+            }
+            lore.add("");
+            lore.add("§eWaiting: §6" + plugin.getMailboxManager().getItemCount(player.getUniqueId()) + " items");
+            lore.add("");
+            lore.add("§a§lClick to claim all!");
+        }
+        return createItem(mailbox.isEmpty() ? Material.BARREL : Material.CHEST, "§e§lMailbox", lore);
+    }
+
     private List<FactoryNPC> getPlayerNPCs() {
         List<FactoryNPC> playerNPCs = new ArrayList<>();
         List<Factory> playerFactories = plugin.getFactoryManager().getFactoriesByOwner(player.getUniqueId());
@@ -100,6 +100,18 @@ public class MainMenuGUI {
                 Arrays.asList(
                         "§7Teleport to the factory")));
 
+        // Continuous Mode (Slot 20)
+        if (factory.isContinuous()) {
+            Recipe continuousRecipe = plugin.getRecipeManager().getRecipe(factory.getContinuousRecipeId());
+            inv.setItem(20, createItem(Material.LIME_DYE,
+                    "§6§lStop Continuous Mode",
+                    Arrays.asList(
+                            "§7Restarting: §e" + (continuousRecipe != null ? continuousRecipe.getName()
+                                    : factory.getContinuousRecipeId()),
+                            "§7Click to stop restarting",
+                            "§7after the current production")));
+        }
+
         // Back Button (Slot 26)
         inv.setItem(26, createItem(Material.ARROW,
                 "§c§lBack",
@@ -117,14 +129,25 @@ public class MainMenuGUI {
         lore.add("§7Level: §e" + factory.getLevel());
         lore.add("§7Type: " + factory.getType().getDisplayName());
 
-        if (factory.getCurrentProduction() != null) {
-            ProductionTask task = factory.getCurrentProduction();
-            Recipe recipe = plugin.getRecipeManager().getRecipe(task.getRecipeId());
+        if (factory.getSupplyTargetId() != null) {
+            lore.add("§7Supplies: §e" + factory.getSupplyTargetId());
+        }
+        lore.add("§7Production lines: §e" + factory.getProductionLines().size() + "§7/§e"
+                + plugin.getFactoryManager().getLineCount(factory));
+
+        if (factory.hasProduction()) {
             lore.add("");
             lore.add("§6Active Production:");
-            lore.add("§e" + recipe.getName());
-            lore.add("§7Time remaining: §e" + task.getRemainingTime() + "s");
-            lore.add("§7Progress: §e" + (int) (task.getProgress() * 100) + "%");
+            for (Map.Entry<Integer, ProductionTask> line : factory.getProductionLines().entrySet()) {
+                ProductionTask task = line.getValue();
+                Recipe recipe = plugin.getRecipeManager().getRecipe(task.getRecipeId());
+                lore.add("§7Line " + (line.getKey() + 1) + ": §e"
+                        + (recipe != null ? recipe.getName() : task.getRecipeId())
+                        + " §7(" + (int) (task.getProgress() * 100) + "%, " + task.getRemainingTime() + "s)");
+            }
+        } else if (factory.getStatus() == FactoryStatus.WAITING) {
+            lore.add("");
+            lore.add("§6Waiting for inputs to restart");
         }
 
         return createItem(material, "§6§lFactory Status", lore);
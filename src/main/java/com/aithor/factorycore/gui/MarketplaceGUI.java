@@ -14,7 +14,6 @@ import org.bukkit.persistence.PersistentDataType;
 
 import java.text.SimpleDateFormat;
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * Marketplace GUI - Player resource trading interface
@@ -26,6 +25,12 @@ public class MarketplaceGUI {
     private int currentPage = 0;
     private String currentView = "browse"; // browse, my_listings, sell
     private String filterResource = null; // null = all resources
+    // First and last listing of the browse page on screen, the cursors for paging
+    private MarketplaceManager.MarketListing pageFirst;
+    private MarketplaceManager.MarketListing pageLast;
+
+    // Buy cheapest pays at most this much over the cheapest listing
+    private static final double SWEEP_PRICE_MARGIN = 1.25;
 
     public MarketplaceGUI(FactoryCore plugin, Player player) {
         this.plugin = plugin;
@@ -37,7 +42,13 @@ public class MarketplaceGUI {
     }
 
     public void openMarketplaceMenu(int page) {
-        this.currentPage = page;
+        List<MarketplaceManager.MarketListing> browsePage = Collections.emptyList();
+        if (currentView.equals("browse")) {
+            browsePage = fetchBrowsePage(page);
+            page = currentPage;
+        } else {
+            this.currentPage = page;
+        }
 
         Inventory inv = Bukkit.createInventory(null, 54, "§2§lMarketplace §8- §e" + getViewTitle());
 
@@ -53,14 +64,14 @@ public class MarketplaceGUI {
             inv.setItem(i, border);
 
         // Header with marketplace stats
-        List<MarketplaceManager.MarketListing> allListings = marketplace.getAllListings();
-        double totalVolume = allListings.stream().mapToDouble(MarketplaceManager.MarketListing::getTotalPrice).sum();
+        int listingCount = marketplace.getListingCount(null);
+        double totalVolume = marketplace.getTotalVolume();
 
         inv.setItem(4, createItem(Material.EMERALD, "§2§lMarketplace",
                 Arrays.asList(
                         "§7Player resource trading",
                         "",
-                        "§eActive Listings: §2" + allListings.size(),
+                        "§eActive Listings: §2" + listingCount,
                         "§eTotal Volume: §6$" + String.format("%.2f", totalVolume),
                         "§eTax Rate: §e" + plugin.getConfig().getDouble("marketplace.tax-rate", 5) + "%")));
 
@@ -84,7 +95,7 @@ public class MarketplaceGUI {
         // Display content based on view
         switch (currentView) {
             case "browse":
-                displayBrowseView(inv, page);
+                displayBrowseView(inv, browsePage);
                 break;
             case "my_listings":
                 displayMyListingsView(inv, page);
@@ -96,11 +107,18 @@ public class MarketplaceGUI {
 
         // Navigation buttons (for browse and my_listings)
         if (!currentView.equals("sell")) {
-            List<?> items = currentView.equals("browse") ? getFilteredListings()
-                    : marketplace.getPlayerListings(player.getUniqueId());
+            int itemCount = currentView.equals("browse") ? marketplace.getListingCount(filterResource)
+                    : marketplace.getPlayerListings(player.getUniqueId()).size();
 
             int slotsPerPage = 36;
-            int totalPages = (int) Math.ceil((double) items.size() / slotsPerPage);
+            int totalPages = (int) Math.ceil((double) itemCount / slotsPerPage);
+
+            boolean hasNext;
+            if (currentView.equals("browse")) {
+                hasNext = pageLast != null && !marketplace.getListingsAfter(filterResource, pageLast, 1).isEmpty();
+            } else {
+                hasNext = (page + 1) * slotsPerPage < itemCount;
+            }
 
             // Previous page (slot 45)
             if (page > 0) {
@@ -112,14 +130,31 @@ public class MarketplaceGUI {
                 inv.setItem(47, createFilterItem());
             }
 
+            // Buy cheapest button (slot 48) - only when browsing one resource
+            if (currentView.equals("browse") && filterResource != null
+                    && marketplace.getListingCount(filterResource) > 0) {
+                ItemStack sweepItem = createItem(Material.HOPPER_MINECART, "§a§lBuy Cheapest",
+                        Arrays.asList("§7Buy many units at once,", "§7cheapest listings first", "",
+                                "§eClick to choose an amount!"));
+                ItemMeta sweepMeta = sweepItem.getItemMeta();
+                if (sweepMeta != null) {
+                    sweepMeta.getPersistentDataContainer().set(
+                            new NamespacedKey(plugin, "market_sweep"),
+                            PersistentDataType.STRING,
+                            filterResource);
+                    sweepItem.setItemMeta(sweepMeta);
+                }
+                inv.setItem(48, sweepItem);
+            }
+
             // Page info (slot 49)
             inv.setItem(49, createItem(Material.PAPER, "§e§lPage Info",
                     Arrays.asList(
                             "§7Page: §e" + (page + 1) + " / " + Math.max(1, totalPages),
-                            "§7Items: §e" + items.size())));
+                            "§7Items: §e" + itemCount)));
 
             // Next page (slot 53)
-            if ((page + 1) * slotsPerPage < items.size()) {
+            if (hasNext) {
                 inv.setItem(53, createNavigationItem(Material.ARROW, "§e§lNext Page ►", page + 1));
             }
         }
@@ -131,20 +166,40 @@ public class MarketplaceGUI {
         player.openInventory(inv);
     }
 
-    private void displayBrowseView(Inventory inv, int page) {
-        List<MarketplaceManager.MarketListing> listings = getFilteredListings();
-
+    /**
+     * Fetch a browse page next to the one on screen, so paging costs the same
+     * on the last page as on the first. Any other page starts over from the
+     * beginning. Updates the current page and the paging cursors.
+     */
+    private List<MarketplaceManager.MarketListing> fetchBrowsePage(int page) {
         int slotsPerPage = 36;
-        int startIndex = page * slotsPerPage;
-        int endIndex = Math.min(startIndex + slotsPerPage, listings.size());
+        MarketplaceManager marketplace = plugin.getMarketplaceManager();
+        List<MarketplaceManager.MarketListing> listings;
+        if (page > 0 && page == currentPage + 1 && pageLast != null) {
+            listings = marketplace.getListingsAfter(filterResource, pageLast, slotsPerPage);
+        } else if (page > 0 && page == currentPage - 1 && pageFirst != null) {
+            listings = marketplace.getListingsBefore(filterResource, pageFirst, slotsPerPage);
+        } else {
+            listings = Collections.emptyList();
+        }
+        if (listings.isEmpty()) {
+            listings = marketplace.getListingsAfter(filterResource, null, slotsPerPage);
+            page = 0;
+        }
+
+        currentPage = page;
+        pageFirst = listings.isEmpty() ? null : listings.get(0);
+        pageLast = listings.isEmpty() ? null : listings.get(listings.size() - 1);
+        return listings;
+    }
 
+    private void displayBrowseView(Inventory inv, List<MarketplaceManager.MarketListing> listings) {
         int slot = 9;
-        for (int i = startIndex; i < endIndex && slot < 45; i++) {
-            MarketplaceManager.MarketListing listing = listings.get(i);
+        for (MarketplaceManager.MarketListing listing : listings) {
             inv.setItem(slot++, createListingItem(listing, false));
         }
 
-        if (listings.isEmpty()) {
+        if (plugin.getMarketplaceManager().getListingCount(filterResource) == 0) {
             inv.setItem(22, createItem(Material.BARRIER, "§c§lNo Listings",
                     Arrays.asList(
                             filterResource != null ? "§7No listings for this resource." : "§7The marketplace is empty!",
@@ -234,11 +289,7 @@ public class MarketplaceGUI {
         lore.add("");
 
         if (isOwn) {
-            long baseExpirationHours = plugin.getConfig().getLong("marketplace.listing-expiration-hours", 168);
-            long additionalHours = plugin.getResearchManager().getAdditionalListingHours(player.getUniqueId());
-            long expirationHours = baseExpirationHours + additionalHours;
-            long expireTime = listing.listedTime + (expirationHours * 3600000L);
-            long remainingMs = expireTime - System.currentTimeMillis();
+            long remainingMs = listing.expiresAt - System.currentTimeMillis();
 
             if (remainingMs > 0) {
                 long remainingDays = remainingMs / 86400000L;
@@ -290,21 +341,6 @@ public class MarketplaceGUI {
         return item;
     }
 
-    private List<MarketplaceManager.MarketListing> getFilteredListings() {
-        List<MarketplaceManager.MarketListing> all = plugin.getMarketplaceManager().getAllListings();
-
-        if (filterResource != null) {
-            return all.stream()
-                    .filter(l -> l.resourceId.equals(filterResource))
-                    .sorted(Comparator.comparingDouble(l -> l.pricePerUnit))
-                    .collect(Collectors.toList());
-        }
-
-        return all.stream()
-                .sorted(Comparator.comparingLong(l -> -l.listedTime)) // Newest first
-                .collect(Collectors.toList());
-    }
-
     private ItemStack createViewButton(String view, Material material, String name, String description) {
         List<String> lore = new ArrayList<>();
         lore.add("§7" + description);
@@ -533,6 +569,99 @@ public class MarketplaceGUI {
         player.openInventory(inv);
     }
 
+    // Open the buy cheapest dialog for a resource
+    public void openSweepMenu(String resourceId) {
+        MarketplaceManager marketplace = plugin.getMarketplaceManager();
+        List<MarketplaceManager.MarketListing> cheapest = marketplace.getListingsAfter(resourceId, null, 1);
+        if (cheapest.isEmpty()) {
+            player.sendMessage("§cNo listings for this resource!");
+            return;
+        }
+
+        ResourceItem resource = plugin.getResourceManager().getResource(resourceId);
+        String resourceName = resource != null ? resource.getName() : resourceId;
+        double bestPrice = cheapest.get(0).pricePerUnit;
+        double maxPrice = bestPrice * SWEEP_PRICE_MARGIN;
+
+        Inventory inv = Bukkit.createInventory(null, 27, "§2§lMarketplace §8- Buy Cheapest");
+
+        // Fill with border
+        Material borderMat = Material
+                .matchMaterial(plugin.getConfig().getString("gui.border-item", "BLACK_STAINED_GLASS_PANE"));
+        ItemStack border = createItem(borderMat != null ? borderMat : Material.BLACK_STAINED_GLASS_PANE, " ", null);
+        for (int i = 0; i < 27; i++)
+            inv.setItem(i, border);
+
+        // Resource info (slot 4)
+        Material material = Material.STONE;
+        if (resource != null) {
+            try {
+                material = Material.valueOf(resource.getMaterial());
+            } catch (IllegalArgumentException e) {
+                // Keep default
+            }
+        }
+        inv.setItem(4, createItem(material, resourceName,
+                Arrays.asList(
+                        "§7Cheapest: §6$" + String.format("%.2f", bestPrice),
+                        "§7Max price paid: §6$" + String.format("%.2f", maxPrice),
+                        "§7Listings: §e" + marketplace.getListingCount(resourceId),
+                        "",
+                        "§7Your Balance: §6$" + String.format("%.2f", plugin.getEconomy().getBalance(player)))));
+
+        // Amount options
+        int[] amounts = { 16, 64, 256, 1024 };
+        int[] slots = { 10, 12, 14, 16 };
+        for (int i = 0; i < amounts.length; i++) {
+            MarketplaceManager.SweepResult quote = marketplace.quoteCheapest(player, resourceId, amounts[i], maxPrice);
+            List<String> lore = new ArrayList<>();
+            lore.add("§7Fills: §e" + quote.units + " §7/ " + amounts[i]);
+            lore.add("§7Total: §6$" + String.format("%.2f", quote.cost));
+            if (quote.units > 0) {
+                lore.add("§7Average: §6$" + String.format("%.2f", quote.cost / quote.units));
+                lore.add("");
+                lore.add("§eClick to buy!");
+            } else {
+                lore.add("");
+                lore.add("§cNothing you can buy!");
+            }
+
+            ItemStack item = createItem(quote.units > 0 ? Material.LIME_WOOL : Material.GRAY_WOOL,
+                    "§a§lBuy " + amounts[i], lore);
+            ItemMeta meta = item.getItemMeta();
+            if (meta != null) {
+                meta.getPersistentDataContainer().set(
+                        new NamespacedKey(plugin, "sweep_resource"),
+                        PersistentDataType.STRING,
+                        resourceId);
+                meta.getPersistentDataContainer().set(
+                        new NamespacedKey(plugin, "sweep_amount"),
+                        PersistentDataType.INTEGER,
+                        amounts[i]);
+                meta.getPersistentDataContainer().set(
+                        new NamespacedKey(plugin, "sweep_max_price"),
+                        PersistentDataType.DOUBLE,
+                        maxPrice);
+                item.setItemMeta(meta);
+            }
+            inv.setItem(slots[i], item);
+        }
+
+        // Back button (slot 22)
+        ItemStack back = createItem(Material.ARROW, "§c§lBack", Arrays.asList("§7Return to marketplace"));
+        ItemMeta backMeta = back.getItemMeta();
+        if (backMeta != null) {
+            backMeta.getPersistentDataContainer().set(
+                    new NamespacedKey(plugin, "market_view"),
+                    PersistentDataType.STRING,
+                    "browse");
+            back.setItemMeta(backMeta);
+        }
+        inv.setItem(22, back);
+
+        player.openInventory(inv);
+    }
+
     private ItemStack createNavigationItem(Material material, String name, int targetPage) {
         ItemStack item = createItem(material, name, Arrays.asList("§7Go to page " + (targetPage + 1)));
         ItemMeta meta = item.getItemMeta();
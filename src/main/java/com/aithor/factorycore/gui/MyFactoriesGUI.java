@@ -166,6 +166,9 @@ public class MyFactoriesGUI {
             case NO_PARTS:
                 material = Material.YELLOW_CONCRETE;
                 break;
+            case WAITING:
+                material = Material.ORANGE_CONCRETE;
+                break;
             default:
                 material = Material.RED_CONCRETE;
         }
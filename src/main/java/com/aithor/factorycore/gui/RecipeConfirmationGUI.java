@@ -95,10 +95,31 @@ public class RecipeConfirmationGUI {
         }
         inv.setItem(13, createItem(confirmMaterial, recipe.getName(), lore));
 
+        // Batch selector
+        int maxBatches = plugin.getFactoryManager().getMaxQueuedBatches();
+        int batches = Math.min(getSelectedBatches(), maxBatches);
+        inv.setItem(22, createItem(Material.CLOCK, "§b§lBatches: §e" + batches, Arrays.asList(
+                "§7Run this recipe §e" + batches + " §7time(s) back to back",
+                "§7Inputs and cost of later batches are",
+                "§7taken when each batch starts",
+                "",
+                "§eClick to change (max " + maxBatches + ")")));
+
+        // Continuous mode toggle
+        boolean continuous = isContinuousSelected();
+        inv.setItem(4, createItem(continuous ? Material.LIME_DYE : Material.GRAY_DYE,
+                "§6§lContinuous Mode: " + (continuous ? "§aON" : "§cOFF"), Arrays.asList(
+                        "§7When on, the factory restarts this recipe",
+                        "§7after every production. Without enough",
+                        "§7inputs or money it waits until new inputs",
+                        "§7are deposited.",
+                        "",
+                        "§eClick to toggle")));
+
         // Confirm button
         Material confirmMat = Material.matchMaterial(plugin.getConfig().getString("gui.confirm-item", "GREEN_WOOL"));
         inv.setItem(11, createItem(confirmMat != null ? confirmMat : Material.GREEN_WOOL, "§a§lConfirm",
-                Arrays.asList("§7Start production")));
+                Arrays.asList(batches > 1 ? "§7Start production §e(" + batches + " batches)" : "§7Start production")));
 
         // Cancel button
         Material cancelMat = Material.matchMaterial(plugin.getConfig().getString("gui.cancel-item", "RED_WOOL"));
@@ -108,6 +129,21 @@ public class RecipeConfirmationGUI {
         player.openInventory(inv);
     }
 
+    /**
+     * Batch count chosen on the confirmation screen, 1 if none was chosen.
+     */
+    private int getSelectedBatches() {
+        Integer batches = player.getPersistentDataContainer().get(new NamespacedKey(plugin, "current_batches"),
+                PersistentDataType.INTEGER);
+        return batches != null ? Math.max(1, batches) : 1;
+    }
+
+    private boolean isContinuousSelected() {
+        Integer continuous = player.getPersistentDataContainer().get(new NamespacedKey(plugin, "current_continuous"),
+                PersistentDataType.INTEGER);
+        return continuous != null && continuous == 1;
+    }
+
     private ItemStack createItem(Material material, String name, List<String> lore) {
         ItemStack item = new ItemStack(material);
         ItemMeta meta = item.getItemMeta();
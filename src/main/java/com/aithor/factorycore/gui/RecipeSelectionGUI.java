@@ -54,6 +54,7 @@ public class RecipeSelectionGUI {
 
         Inventory inv = Bukkit.createInventory(null, size, "§6§lSelect Production Recipe");
 
+        ModifierSet modifiers = plugin.getFactoryManager().getModifiers(factory);
         int slot = 0;
         for (Recipe recipe : recipes) {
             if (slot >= size - 9)
@@ -62,16 +63,10 @@ public class RecipeSelectionGUI {
             List<String> lore = new ArrayList<>();
 
             // ── Production Time Calculation ─────────────────────────────────────
+            // Level, employee and research reductions, as applied when the batch starts
             int originalTime = recipe.getProductionTime();
-            int finalTime = originalTime;
-            double timeReduction = 0;
-
-            if (plugin.getResearchManager() != null) {
-                timeReduction = plugin.getResearchManager().getProductionTimeReduction(player.getUniqueId());
-                if (timeReduction > 0) {
-                    finalTime = (int) (finalTime * (1 - (timeReduction / 100.0)));
-                }
-            }
+            int finalTime = modifiers.applyProductionTime(originalTime);
+            double timeReduction = (1 - modifiers.getProductionTimeMultiplier()) * 100.0;
 
             if (timeReduction > 0) {
                 lore.add("§7Production time: §c§m" + originalTime + "s§r §a" + finalTime + "s §d(-"
@@ -83,16 +78,8 @@ public class RecipeSelectionGUI {
             // ── Money Cost Calculation ──────────────────────────────────────────
             if (recipe.getMoneyCost() > 0) {
                 double originalCost = recipe.getMoneyCost();
-                double finalCost = originalCost;
-                double costReduction = 0;
-
-                // Apply research cost reduction if available
-                if (plugin.getResearchManager() != null) {
-                    costReduction = plugin.getResearchManager().getProductionCostReduction(player.getUniqueId());
-                    if (costReduction > 0) {
-                        finalCost *= (1 - (costReduction / 100.0));
-                    }
-                }
+                double finalCost = modifiers.applyProductionCost(originalCost);
+                double costReduction = modifiers.getProductionCostReduction();
 
                 double balance = plugin.getEconomy().getBalance(player);
                 String costColor = balance >= finalCost ? "§a" : "§c";
@@ -201,9 +201,7 @@ public class TaxCenterGUI {
         }
 
         lore.add("");
-        double factoryTaxReduction = plugin.getResearchManager() != null
-                ? plugin.getResearchManager().getTaxReduction(player.getUniqueId())
-                : 0;
+        double factoryTaxReduction = plugin.getFactoryManager().getModifiers(factory).getTaxReduction();
 
         if (factoryTaxReduction > 0 && nextTax > 0) {
             double unbuffedTax = nextTax / (1 - (factoryTaxReduction / 100.0));
@@ -82,14 +82,9 @@ public class UpgradeGUI {
                 int upgradeTimeSec = plugin.getConfig().getInt("factory.upgrade-time." + nextLevel, 60);
 
                 // Realtime nano_construction_framework buff calculation
-                int finalTimeSec = upgradeTimeSec;
-                double timeReduction = 0;
-                if (plugin.getResearchManager() != null) {
-                    timeReduction = plugin.getResearchManager().getUpgradeTimeReduction(player.getUniqueId());
-                    if (timeReduction > 0) {
-                        finalTimeSec = (int) (finalTimeSec * (1 - (timeReduction / 100.0)));
-                    }
-                }
+                ModifierSet modifiers = plugin.getFactoryManager().getModifiers(factory);
+                int finalTimeSec = modifiers.applyUpgradeTime(upgradeTimeSec);
+                double timeReduction = modifiers.getUpgradeTimeReduction();
 
                 List<String> nextLore = new ArrayList<>();
                 nextLore.add("§7Next Level");
@@ -161,14 +156,9 @@ public class UpgradeGUI {
         int upgradeTimeSec = plugin.getConfig().getInt("factory.upgrade-time." + nextLevel, 60);
 
         // Realtime nano_construction_framework buff calculation
-        int finalTimeSec = upgradeTimeSec;
-        double timeReduction = 0;
-        if (plugin.getResearchManager() != null) {
-            timeReduction = plugin.getResearchManager().getUpgradeTimeReduction(player.getUniqueId());
-            if (timeReduction > 0) {
-                finalTimeSec = (int) (finalTimeSec * (1 - (timeReduction / 100.0)));
-            }
-        }
+        ModifierSet modifiers = plugin.getFactoryManager().getModifiers(factory);
+        int finalTimeSec = modifiers.applyUpgradeTime(upgradeTimeSec);
+        double timeReduction = modifiers.getUpgradeTimeReduction();
 
         Inventory inv = Bukkit.createInventory(null, 27, "§6§lConfirm Upgrade");
 
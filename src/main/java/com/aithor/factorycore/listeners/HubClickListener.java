@@ -171,6 +171,16 @@ public class HubClickListener implements Listener {
             HelpInfoGUI gui = new HelpInfoGUI(plugin, player);
             helpInfoGUIs.put(player.getUniqueId(), gui);
             gui.openHelpMenu();
+        } else if (name.contains("Mailbox")) {
+            int claimed = plugin.getMailboxManager().claimAll(player);
+            int remaining = plugin.getMailboxManager().getItemCount(player.getUniqueId());
+            if (claimed > 0) {
+                player.sendMessage("§aClaimed §e" + claimed + " §aitems from your mailbox!");
+            }
+            if (remaining > 0) {
+                player.sendMessage("§eNot enough inventory space, §6" + remaining + " §eitems are still in your mailbox.");
+            }
+            openHub(player);
         } else if (name.contains("Close")) {
             player.closeInventory();
         }
@@ -594,6 +604,31 @@ public class HubClickListener implements Listener {
             return;
         }
 
+        // Buy cheapest dialog
+        String sweepMenuResource = meta.getPersistentDataContainer().get(
+                new NamespacedKey(plugin, "market_sweep"), PersistentDataType.STRING);
+        if (sweepMenuResource != null) {
+            gui.openSweepMenu(sweepMenuResource);
+            return;
+        }
+
+        // Buy cheapest amount
+        String sweepResource = meta.getPersistentDataContainer().get(
+                new NamespacedKey(plugin, "sweep_resource"), PersistentDataType.STRING);
+        Integer sweepAmount = meta.getPersistentDataContainer().get(
+                new NamespacedKey(plugin, "sweep_amount"), PersistentDataType.INTEGER);
+        Double sweepMaxPrice = meta.getPersistentDataContainer().get(
+                new NamespacedKey(plugin, "sweep_max_price"), PersistentDataType.DOUBLE);
+        if (sweepResource != null && sweepAmount != null && sweepMaxPrice != null) {
+            MarketplaceManager.SweepResult result = marketplace.buyCheapest(player, sweepResource, sweepAmount,
+                    sweepMaxPrice);
+            if (result.units <= 0) {
+                player.sendMessage("§cNothing could be bought at that price!");
+            }
+            gui.openSweepMenu(sweepResource);
+            return;
+        }
+
         // Listing click
         String listingId = meta.getPersistentDataContainer().get(
                 new NamespacedKey(plugin, "market_listing_id"), PersistentDataType.STRING);
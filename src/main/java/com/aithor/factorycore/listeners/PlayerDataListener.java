@@ -0,0 +1,54 @@
+package com.aithor.factorycore.listeners;
+
+import com.aithor.factorycore.FactoryCore;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import java.util.UUID;
+
+/**
+ * PlayerDataListener - Loads per-player data before a player joins and
+ * releases it after they quit.
+ * <p>
+ * Loading happens on the async pre-login thread so the main thread never
+ * waits on disk or database reads for joining players. Data of players who
+ * quit stays cached for {@code persistence.player-cache.grace-seconds} before
+ * it is unloaded, so quick reconnects do not reload it.
+ * </p>
+ */
+public class PlayerDataListener implements Listener {
+
+    private final FactoryCore plugin;
+
+    public PlayerDataListener(FactoryCore plugin) {
+        this.plugin = plugin;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPreLogin(AsyncPlayerPreLoginEvent event) {
+        if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED) {
+            return;
+        }
+
+        UUID playerId = event.getUniqueId();
+        try {
+            plugin.getResearchManager().preloadPlayer(playerId);
+            plugin.getAchievementManager().preloadPlayer(playerId);
+            plugin.getDailyQuestManager().preloadPlayer(playerId);
+        } catch (Exception e) {
+            // Data is loaded again on first access, the login can continue
+            plugin.getLogger().warning("Failed to preload data for " + event.getName() + ": " + e.getMessage());
+        }
+    }
+
+    @EventHandler
+    public void onQuit(PlayerQuitEvent event) {
+        UUID playerId = event.getPlayer().getUniqueId();
+        plugin.getResearchManager().releasePlayer(playerId);
+        plugin.getAchievementManager().releasePlayer(playerId);
+        plugin.getDailyQuestManager().releasePlayer(playerId);
+    }
+}
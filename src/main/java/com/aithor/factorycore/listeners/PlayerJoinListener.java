@@ -26,7 +26,7 @@ public class PlayerJoinListener implements Listener {
     public void onPlayerJoin(PlayerJoinEvent event) {
         Player player = event.getPlayer();
         
-        // Check for overdue invoices
+        // Check for overdue invoices and productions completed while offline
         plugin.getServer().getScheduler().runTaskLater(plugin, () -> {
             int overdueCount = (int) plugin.getInvoiceManager()
                 .getInvoicesByOwner(player.getUniqueId())
@@ -37,6 +37,12 @@ public class PlayerJoinListener implements Listener {
             if (overdueCount > 0) {
                 player.sendMessage(plugin.getLanguageManager().getMessage("invoice-overdue"));
             }
+
+            plugin.getFactoryManager().sendOfflineNotices(player);
+            int mailCount = plugin.getMailboxManager().getItemCount(player.getUniqueId());
+            if (mailCount > 0) {
+                player.sendMessage("§e" + mailCount + " items are waiting in your mailbox, claim them in §6/fc hub§e.");
+            }
         }, 40L); // 2 seconds after join
     }
 }
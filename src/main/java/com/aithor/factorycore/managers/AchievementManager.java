@@ -1,6 +1,8 @@
 package com.aithor.factorycore.managers;
 
 import com.aithor.factorycore.FactoryCore;
+import com.aithor.factorycore.persistence.AchievementRepository;
+import com.aithor.factorycore.persistence.PlayerDataCache;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.Sound;
@@ -12,7 +14,6 @@ import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.Player;
 
 import java.io.File;
-import java.io.IOException;
 import java.util.*;
 
 /**
@@ -26,23 +27,20 @@ public class AchievementManager {
 
     private final FactoryCore plugin;
     private FileConfiguration achievementConfig;
+    // achievement.yml compiled on load
+    private boolean enabled;
+    private Map<String, AchievementDefinition> achievements = Collections.emptyMap(); // id -> definition, in file order
 
-    // Player achievement data: playerId -> AchievementData
-    private final Map<UUID, PlayerAchievementData> playerData;
-    private final File dataFile;
+    // Cached player achievement data: playerId -> AchievementData
+    private final PlayerDataCache<PlayerAchievementData> playerData;
+    private final AchievementRepository repository;
 
     public AchievementManager(FactoryCore plugin) {
         this.plugin = plugin;
-        this.playerData = new HashMap<>();
-
-        File dataFolder = new File(plugin.getDataFolder(), "data");
-        if (!dataFolder.exists()) {
-            dataFolder.mkdirs();
-        }
-        this.dataFile = new File(dataFolder, "achievements.yml");
+        this.repository = plugin.getDataBackend().getAchievementRepository();
+        this.playerData = new PlayerDataCache<>(repository::load, repository::unload);
 
         loadAchievementConfig();
-        loadPlayerData();
     }
 
     // ── Config Loading ───────────────────────────────────────────────────────
@@ -53,6 +51,19 @@ public class AchievementManager {
             plugin.saveResource("achievement.yml", false);
         }
         achievementConfig = YamlConfiguration.loadConfiguration(configFile);
+
+        enabled = achievementConfig.getBoolean("settings.enabled", true);
+        Map<String, AchievementDefinition> parsed = new LinkedHashMap<>();
+        ConfigurationSection section = achievementConfig.getConfigurationSection("achievements");
+        if (section != null) {
+            for (String achievementId : section.getKeys(false)) {
+                ConfigurationSection entry = section.getConfigurationSection(achievementId);
+                if (entry != null) {
+                    parsed.put(achievementId, new AchievementDefinition(achievementId, entry));
+                }
+            }
+        }
+        achievements = Collections.unmodifiableMap(parsed);
     }
 
     public void reloadConfig() {
@@ -60,7 +71,7 @@ public class AchievementManager {
     }
 
     public boolean isEnabled() {
-        return achievementConfig.getBoolean("settings.enabled", true);
+        return enabled;
     }
 
     // ── Achievement Config Access ────────────────────────────────────────────
@@ -69,31 +80,39 @@ public class AchievementManager {
      * Get all achievement IDs defined in achievement.yml
      */
     public Set<String> getAchievementIds() {
-        ConfigurationSection section = achievementConfig.getConfigurationSection("achievements");
-        if (section == null) return Collections.emptySet();
-        return section.getKeys(false);
+        return achievements.keySet();
+    }
+
+    /**
+     * Get the parsed definition of an achievement, or null if it is not defined
+     */
+    public AchievementDefinition getAchievement(String achievementId) {
+        return achievements.get(achievementId);
     }
 
     public String getAchievementName(String achievementId) {
-        String raw = achievementConfig.getString("achievements." + achievementId + ".name", achievementId);
-        return ChatColor.translateAlternateColorCodes('&', raw);
+        AchievementDefinition def = achievements.get(achievementId);
+        return def != null ? def.name : achievementId;
     }
 
     public String getAchievementDescription(String achievementId) {
-        String raw = achievementConfig.getString("achievements." + achievementId + ".description", "");
-        return ChatColor.translateAlternateColorCodes('&', raw);
+        AchievementDefinition def = achievements.get(achievementId);
+        return def != null ? def.description : "";
     }
 
     public String getAchievementIcon(String achievementId) {
-        return achievementConfig.getString("achievements." + achievementId + ".icon", "PAPER");
+        AchievementDefinition def = achievements.get(achievementId);
+        return def != null ? def.icon : "PAPER";
     }
 
     public String getAchievementType(String achievementId) {
-        return achievementConfig.getString("achievements." + achievementId + ".type", "");
+        AchievementDefinition def = achievements.get(achievementId);
+        return def != null ? def.type : "";
     }
 
     public double getAchievementThreshold(String achievementId) {
-        return achievementConfig.getDouble("achievements." + achievementId + ".threshold", 1);
+        AchievementDefinition def = achievements.get(achievementId);
+        return def != null ? def.threshold : 1;
     }
 
     // ── Player Data Access ───────────────────────────────────────────────────
@@ -102,27 +121,21 @@ public class AchievementManager {
      * Check if a player has unlocked an achievement
      */
     public boolean hasAchievement(UUID playerId, String achievementId) {
-        PlayerAchievementData data = playerData.get(playerId);
-        if (data == null) return false;
-        return data.unlockedAchievements.contains(achievementId);
+        return getData(playerId).unlockedAchievements.contains(achievementId);
     }
 
     /**
      * Get the current progress value for a cumulative achievement
      */
     public double getProgress(UUID playerId, String achievementId) {
-        PlayerAchievementData data = playerData.get(playerId);
-        if (data == null) return 0;
-        return data.progressValues.getOrDefault(achievementId, 0.0);
+        return getData(playerId).progressValues.getOrDefault(achievementId, 0.0);
     }
 
     /**
      * Get the set of all unlocked achievements for a player
      */
     public Set<String> getUnlockedAchievements(UUID playerId) {
-        PlayerAchievementData data = playerData.get(playerId);
-        if (data == null) return Collections.emptySet();
-        return Collections.unmodifiableSet(data.unlockedAchievements);
+        return Collections.unmodifiableSet(getData(playerId).unlockedAchievements);
     }
 
     /**
@@ -136,9 +149,7 @@ public class AchievementManager {
      * Get the number of unlocked achievements for a player
      */
     public int getUnlockedCount(UUID playerId) {
-        PlayerAchievementData data = playerData.get(playerId);
-        if (data == null) return 0;
-        return data.unlockedAchievements.size();
+        return getData(playerId).unlockedAchievements.size();
     }
 
     // ── Achievement Triggers ─────────────────────────────────────────────────
@@ -154,11 +165,11 @@ public class AchievementManager {
         if (hasAchievement(playerId, achievementId)) return;
 
         // Unlock
-        PlayerAchievementData data = playerData.computeIfAbsent(playerId, k -> new PlayerAchievementData());
+        PlayerAchievementData data = getData(playerId);
         data.unlockedAchievements.add(achievementId);
         data.unlockTimestamps.put(achievementId, System.currentTimeMillis());
 
-        saveAll();
+        repository.save(playerId, achievementId, data);
         showAchievementToast(player, achievementId);
     }
 
@@ -176,7 +187,7 @@ public class AchievementManager {
 
         if (hasAchievement(playerId, achievementId)) return;
 
-        PlayerAchievementData data = playerData.computeIfAbsent(playerId, k -> new PlayerAchievementData());
+        PlayerAchievementData data = getData(playerId);
         double currentProgress = data.progressValues.getOrDefault(achievementId, 0.0);
         double newProgress = currentProgress + amount;
         data.progressValues.put(achievementId, newProgress);
@@ -188,7 +199,7 @@ public class AchievementManager {
             showAchievementToast(player, achievementId);
         }
 
-        saveAll();
+        repository.save(playerId, achievementId, data);
     }
 
     /**
@@ -199,7 +210,7 @@ public class AchievementManager {
         if (!isEnabled()) return;
         if (hasAchievement(playerId, achievementId)) return;
 
-        PlayerAchievementData data = playerData.computeIfAbsent(playerId, k -> new PlayerAchievementData());
+        PlayerAchievementData data = getData(playerId);
         double currentProgress = data.progressValues.getOrDefault(achievementId, 0.0);
         double newProgress = currentProgress + amount;
         data.progressValues.put(achievementId, newProgress);
@@ -210,7 +221,7 @@ public class AchievementManager {
             data.unlockTimestamps.put(achievementId, System.currentTimeMillis());
         }
 
-        saveAll();
+        repository.save(playerId, achievementId, data);
     }
 
     // ── Toast Notification ───────────────────────────────────────────────────
@@ -239,10 +250,10 @@ public class AchievementManager {
         player.sendMessage("");
 
         // Sound effect
-        String soundName = achievementConfig.getString("achievements." + achievementId + ".sound",
-                "ENTITY_PLAYER_LEVELUP");
-        float volume = (float) achievementConfig.getDouble("achievements." + achievementId + ".sound-volume", 1.0);
-        float pitch = (float) achievementConfig.getDouble("achievements." + achievementId + ".sound-pitch", 1.2);
+        AchievementDefinition def = achievements.get(achievementId);
+        String soundName = def != null ? def.sound : "ENTITY_PLAYER_LEVELUP";
+        float volume = def != null ? def.soundVolume : 1.0f;
+        float pitch = def != null ? def.soundPitch : 1.2f;
 
         Sound sound = parseSound(soundName);
         if (sound != null) {
@@ -252,91 +263,47 @@ public class AchievementManager {
 
     // ── Persistence ─────────────────────────────────────────────────────────
 
-    private void loadPlayerData() {
-        if (!dataFile.exists()) return;
-
-        FileConfiguration config = YamlConfiguration.loadConfiguration(dataFile);
-
-        if (!config.contains("players")) return;
-
-        for (String uuidStr : config.getConfigurationSection("players").getKeys(false)) {
-            try {
-                UUID playerId = UUID.fromString(uuidStr);
-                PlayerAchievementData data = new PlayerAchievementData();
-
-                String basePath = "players." + uuidStr;
-
-                // Load unlocked achievements
-                if (config.contains(basePath + ".unlocked")) {
-                    List<String> unlocked = config.getStringList(basePath + ".unlocked");
-                    data.unlockedAchievements.addAll(unlocked);
-                }
-
-                // Load unlock timestamps
-                if (config.contains(basePath + ".timestamps")) {
-                    ConfigurationSection tsSection = config.getConfigurationSection(basePath + ".timestamps");
-                    if (tsSection != null) {
-                        for (String achId : tsSection.getKeys(false)) {
-                            data.unlockTimestamps.put(achId, tsSection.getLong(achId));
-                        }
-                    }
-                }
+    /**
+     * Get a player's achievement data, loading it on first access.
+     */
+    private PlayerAchievementData getData(UUID playerId) {
+        return playerData.get(playerId);
+    }
 
-                // Load progress values
-                if (config.contains(basePath + ".progress")) {
-                    ConfigurationSection progSection = config.getConfigurationSection(basePath + ".progress");
-                    if (progSection != null) {
-                        for (String achId : progSection.getKeys(false)) {
-                            data.progressValues.put(achId, progSection.getDouble(achId));
-                        }
-                    }
-                }
+    /**
+     * Load a player's achievements ahead of their login. Called off the main
+     * thread.
+     */
+    public void preloadPlayer(UUID playerId) {
+        playerData.preload(playerId);
+    }
 
-                playerData.put(playerId, data);
-            } catch (Exception e) {
-                plugin.getLogger().warning("Failed to load achievement data for: " + uuidStr);
-            }
-        }
+    /**
+     * Start the grace period after which a player who quit is unloaded.
+     */
+    public void releasePlayer(UUID playerId) {
+        playerData.touch(playerId);
+    }
 
-        plugin.getLogger().info("Loaded achievement data for " + playerData.size() + " players!");
+    /**
+     * Unload offline players that have not been used for {@code graceMs}.
+     */
+    public int evictIdlePlayers(long graceMs) {
+        return playerData.evictIdle(graceMs);
     }
 
+    /**
+     * Write all pending achievement changes immediately.
+     */
     public void saveAll() {
-        FileConfiguration config = new YamlConfiguration();
-
-        for (Map.Entry<UUID, PlayerAchievementData> entry : playerData.entrySet()) {
-            String basePath = "players." + entry.getKey().toString();
-            PlayerAchievementData data = entry.getValue();
-
-            // Save unlocked achievements as list
-            config.set(basePath + ".unlocked", new ArrayList<>(data.unlockedAchievements));
-
-            // Save timestamps
-            for (Map.Entry<String, Long> ts : data.unlockTimestamps.entrySet()) {
-                config.set(basePath + ".timestamps." + ts.getKey(), ts.getValue());
-            }
-
-            // Save progress values
-            for (Map.Entry<String, Double> prog : data.progressValues.entrySet()) {
-                config.set(basePath + ".progress." + prog.getKey(), prog.getValue());
-            }
-        }
-
-        try {
-            config.save(dataFile);
-        } catch (IOException e) {
-            plugin.getLogger().severe("Failed to save achievement data!");
-            e.printStackTrace();
-        }
+        repository.flush();
     }
 
     /**
      * Get the unlock timestamp for an achievement (0 if not unlocked)
      */
     public long getUnlockTimestamp(UUID playerId, String achievementId) {
-        PlayerAchievementData data = playerData.get(playerId);
-        if (data == null) return 0;
-        return data.unlockTimestamps.getOrDefault(achievementId, 0L);
+        return getData(playerId).unlockTimestamps.getOrDefault(achievementId, 0L);
     }
 
     // ── Sound Utility ────────────────────────────────────────────────────────
@@ -356,11 +323,42 @@ public class AchievementManager {
         }
     }
 
-    // ── Inner Class ─────────────────────────────────────────────────────────
+    // ── Inner Classes ───────────────────────────────────────────────────────
 
-    private static class PlayerAchievementData {
-        final Set<String> unlockedAchievements = new LinkedHashSet<>();
-        final Map<String, Long> unlockTimestamps = new HashMap<>();
-        final Map<String, Double> progressValues = new HashMap<>();
+    /**
+     * One achievement entry of achievement.yml, with color codes already applied.
+     */
+    public static final class AchievementDefinition {
+        public final String id;
+        public final String name;
+        public final String description;
+        public final String icon;
+        public final String type;
+        public final double threshold;
+        public final String sound;
+        public final float soundVolume;
+        public final float soundPitch;
+
+        AchievementDefinition(String id, ConfigurationSection section) {
+            this.id = id;
+            this.name = ChatColor.translateAlternateColorCodes('&', section.getString("name", id));
+            this.description = ChatColor.translateAlternateColorCodes('&', section.getString("description", ""));
+            this.icon = section.getString("icon", "PAPER");
+            this.type = section.getString("type", "");
+            this.threshold = section.getDouble("threshold", 1);
+            this.sound = section.getString("sound", "ENTITY_PLAYER_LEVELUP");
+            this.soundVolume = (float) section.getDouble("sound-volume", 1.0);
+            this.soundPitch = (float) section.getDouble("sound-pitch", 1.2);
+        }
+    }
+
+    public static class PlayerAchievementData {
+        public final Set<String> unlockedAchievements = new LinkedHashSet<>();
+        public final Map<String, Long> unlockTimestamps = new HashMap<>();
+        public final Map<String, Double> progressValues = new HashMap<>();
+
+        public boolean isEmpty() {
+            return unlockedAchievements.isEmpty() && progressValues.isEmpty();
+        }
     }
 }
@@ -1,6 +1,8 @@
 package com.aithor.factorycore.managers;
 
 import com.aithor.factorycore.FactoryCore;
+import com.aithor.factorycore.persistence.PlayerDataCache;
+import com.aithor.factorycore.persistence.QuestRepository;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.NamespacedKey;
@@ -12,7 +14,6 @@ import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.Player;
 
 import java.io.File;
-import java.io.IOException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
@@ -23,30 +24,29 @@ import java.util.*;
  * DailyQuestManager - Handles daily quest tracking, progress, rewards and reset.
  * <p>
  * Tracks per-player daily quest progress, automatically resets at the configured hour,
- * awards EXP and money (Vault) rewards, and plays sound/notification on completion.
+ * awards EXP, money (Vault) and resource rewards, and plays sound/notification on completion.
  * </p>
  */
 public class DailyQuestManager {
 
     private final FactoryCore plugin;
     private FileConfiguration questConfig;
+    // daily-quest.yml compiled on load
+    private boolean enabled;
+    private int resetHour;
+    private Map<String, QuestDefinition> quests = Collections.emptyMap(); // questId -> definition, in file order
+    private Map<String, List<QuestDefinition>> questsByType = Collections.emptyMap();
 
-    // Player quest data: playerId -> PlayerQuestData
-    private final Map<UUID, PlayerQuestData> playerData;
-    private final File dataFile;
+    // Cached player quest data: playerId -> PlayerQuestData
+    private final PlayerDataCache<PlayerQuestData> playerData;
+    private final QuestRepository repository;
 
     public DailyQuestManager(FactoryCore plugin) {
         this.plugin = plugin;
-        this.playerData = new HashMap<>();
-
-        File dataFolder = new File(plugin.getDataFolder(), "data");
-        if (!dataFolder.exists()) {
-            dataFolder.mkdirs();
-        }
-        this.dataFile = new File(dataFolder, "daily-quests.yml");
+        this.repository = plugin.getDataBackend().getQuestRepository();
+        this.playerData = new PlayerDataCache<>(repository::load, repository::unload);
 
         loadQuestConfig();
-        loadPlayerData();
     }
 
     // ── Config Loading ───────────────────────────────────────────────────────
@@ -57,6 +57,25 @@ public class DailyQuestManager {
             plugin.saveResource("daily-quest.yml", false);
         }
         questConfig = YamlConfiguration.loadConfiguration(configFile);
+
+        enabled = questConfig.getBoolean("settings.enabled", true);
+        resetHour = questConfig.getInt("settings.reset-hour", 0);
+
+        Map<String, QuestDefinition> parsed = new LinkedHashMap<>();
+        Map<String, List<QuestDefinition>> byType = new HashMap<>();
+        ConfigurationSection section = questConfig.getConfigurationSection("quests");
+        if (section != null) {
+            for (String questId : section.getKeys(false)) {
+                ConfigurationSection entry = section.getConfigurationSection(questId);
+                if (entry == null) continue;
+                QuestDefinition quest = new QuestDefinition(questId, entry);
+                parsed.put(questId, quest);
+                byType.computeIfAbsent(quest.type, k -> new ArrayList<>()).add(quest);
+            }
+        }
+        byType.replaceAll((type, list) -> Collections.unmodifiableList(list));
+        quests = Collections.unmodifiableMap(parsed);
+        questsByType = Collections.unmodifiableMap(byType);
     }
 
     public void reloadConfig() {
@@ -64,7 +83,7 @@ public class DailyQuestManager {
     }
 
     public boolean isEnabled() {
-        return questConfig.getBoolean("settings.enabled", true);
+        return enabled;
     }
 
     // ── Quest Config Access ──────────────────────────────────────────────────
@@ -73,39 +92,64 @@ public class DailyQuestManager {
      * Get all quest IDs defined in daily-quest.yml
      */
     public Set<String> getQuestIds() {
-        ConfigurationSection section = questConfig.getConfigurationSection("quests");
-        if (section == null) return Collections.emptySet();
-        return section.getKeys(false);
+        return quests.keySet();
+    }
+
+    /**
+     * Get the parsed definition of a quest, or null if it is not defined
+     */
+    public QuestDefinition getQuest(String questId) {
+        return quests.get(questId);
+    }
+
+    /**
+     * Get the quests that progress on a quest type, in file order
+     */
+    public List<QuestDefinition> getQuestsByType(String questType) {
+        return questsByType.getOrDefault(questType, Collections.emptyList());
     }
 
     public String getQuestName(String questId) {
-        String raw = questConfig.getString("quests." + questId + ".name", questId);
-        return ChatColor.translateAlternateColorCodes('&', raw);
+        QuestDefinition quest = quests.get(questId);
+        return quest != null ? quest.name : questId;
     }
 
     public String getQuestDescription(String questId) {
-        String raw = questConfig.getString("quests." + questId + ".description", "");
-        return ChatColor.translateAlternateColorCodes('&', raw);
+        QuestDefinition quest = quests.get(questId);
+        return quest != null ? quest.description : "";
     }
 
     public String getQuestIcon(String questId) {
-        return questConfig.getString("quests." + questId + ".icon", "PAPER");
+        QuestDefinition quest = quests.get(questId);
+        return quest != null ? quest.icon : "PAPER";
     }
 
     public String getQuestType(String questId) {
-        return questConfig.getString("quests." + questId + ".type", "");
+        QuestDefinition quest = quests.get(questId);
+        return quest != null ? quest.type : "";
     }
 
     public int getQuestTarget(String questId) {
-        return questConfig.getInt("quests." + questId + ".target", 1);
+        QuestDefinition quest = quests.get(questId);
+        return quest != null ? quest.target : 1;
     }
 
     public int getQuestRewardExp(String questId) {
-        return questConfig.getInt("quests." + questId + ".reward.exp", 0);
+        QuestDefinition quest = quests.get(questId);
+        return quest != null ? quest.rewardExp : 0;
     }
 
     public double getQuestRewardMoney(String questId) {
-        return questConfig.getDouble("quests." + questId + ".reward.money", 0.0);
+        QuestDefinition quest = quests.get(questId);
+        return quest != null ? quest.rewardMoney : 0.0;
+    }
+
+    /**
+     * Resource rewards of a quest, resourceId -> amount
+     */
+    public Map<String, Integer> getQuestRewardItems(String questId) {
+        QuestDefinition quest = quests.get(questId);
+        return quest != null ? quest.rewardItems : Collections.emptyMap();
     }
 
     public int getTotalQuestCount() {
@@ -132,9 +176,7 @@ public class DailyQuestManager {
      */
     public int getProgress(UUID playerId, String questId) {
         checkAndResetDaily(playerId);
-        PlayerQuestData data = playerData.get(playerId);
-        if (data == null) return 0;
-        return data.questProgress.getOrDefault(questId, 0);
+        return getData(playerId).questProgress.getOrDefault(questId, 0);
     }
 
     /**
@@ -149,9 +191,7 @@ public class DailyQuestManager {
      */
     public boolean isRewardClaimed(UUID playerId, String questId) {
         checkAndResetDaily(playerId);
-        PlayerQuestData data = playerData.get(playerId);
-        if (data == null) return false;
-        return data.claimedRewards.contains(questId);
+        return getData(playerId).claimedRewards.contains(questId);
     }
 
     /**
@@ -159,9 +199,7 @@ public class DailyQuestManager {
      */
     public boolean isBonusClaimed(UUID playerId) {
         checkAndResetDaily(playerId);
-        PlayerQuestData data = playerData.get(playerId);
-        if (data == null) return false;
-        return data.bonusClaimed;
+        return getData(playerId).bonusClaimed;
     }
 
     /**
@@ -200,10 +238,33 @@ public class DailyQuestManager {
         UUID playerId = player.getUniqueId();
         checkAndResetDaily(playerId);
 
-        for (String questId : getQuestIds()) {
-            if (getQuestType(questId).equals(questType)) {
-                addProgress(player, questId, amount);
-            }
+        for (QuestDefinition quest : getQuestsByType(questType)) {
+            addProgress(player, quest.id, amount);
+        }
+    }
+
+    /**
+     * Add progress to a quest by type for a player who may be offline. Online
+     * players are handled as in {@link #addProgressByType(Player, String, int)};
+     * offline players get no notification and find the quest completed on
+     * their next visit.
+     */
+    public void addProgressByTypeOffline(UUID playerId, String questType, int amount) {
+        if (!isEnabled()) return;
+        Player player = Bukkit.getPlayer(playerId);
+        if (player != null) {
+            addProgressByType(player, questType, amount);
+            return;
+        }
+        checkAndResetDaily(playerId);
+
+        PlayerQuestData data = getData(playerId);
+        for (QuestDefinition quest : getQuestsByType(questType)) {
+            int currentProgress = data.questProgress.getOrDefault(quest.id, 0);
+            if (currentProgress >= quest.target) continue;
+
+            data.questProgress.put(quest.id, Math.min(currentProgress + amount, quest.target));
+            repository.saveQuest(playerId, quest.id, data);
         }
     }
 
@@ -215,7 +276,7 @@ public class DailyQuestManager {
         UUID playerId = player.getUniqueId();
         checkAndResetDaily(playerId);
 
-        PlayerQuestData data = playerData.computeIfAbsent(playerId, k -> new PlayerQuestData());
+        PlayerQuestData data = getData(playerId);
 
         int currentProgress = data.questProgress.getOrDefault(questId, 0);
         int target = getQuestTarget(questId);
@@ -231,7 +292,7 @@ public class DailyQuestManager {
             showQuestCompleteNotification(player, questId);
         }
 
-        saveAll();
+        repository.saveQuest(playerId, questId, data);
     }
 
     /**
@@ -247,7 +308,7 @@ public class DailyQuestManager {
         if (!isQuestCompleted(playerId, questId)) return false;
         if (isRewardClaimed(playerId, questId)) return false;
 
-        PlayerQuestData data = playerData.computeIfAbsent(playerId, k -> new PlayerQuestData());
+        PlayerQuestData data = getData(playerId);
         data.claimedRewards.add(questId);
 
         // Give EXP reward
@@ -262,7 +323,12 @@ public class DailyQuestManager {
             plugin.getEconomy().depositPlayer(player, money);
         }
 
-        saveAll();
+        // Give resource rewards; what does not fit goes to the mailbox
+        for (Map.Entry<String, Integer> entry : getQuestRewardItems(questId).entrySet()) {
+            plugin.getResourceManager().giveResource(player, entry.getKey(), entry.getValue());
+        }
+
+        repository.saveQuest(playerId, questId, data);
         return true;
     }
 
@@ -279,7 +345,7 @@ public class DailyQuestManager {
         if (!areAllQuestsCompleted(playerId)) return false;
         if (isBonusClaimed(playerId)) return false;
 
-        PlayerQuestData data = playerData.computeIfAbsent(playerId, k -> new PlayerQuestData());
+        PlayerQuestData data = getData(playerId);
         data.bonusClaimed = true;
 
         // Give bonus EXP
@@ -321,7 +387,7 @@ public class DailyQuestManager {
         player.sendMessage("§8§m----------------------------------------");
         player.sendMessage("");
 
-        saveAll();
+        repository.saveState(playerId, data);
         return true;
     }
 
@@ -331,8 +397,7 @@ public class DailyQuestManager {
      * Check if the player's data needs to be reset for a new day.
      */
     private void checkAndResetDaily(UUID playerId) {
-        PlayerQuestData data = playerData.get(playerId);
-        if (data == null) return;
+        PlayerQuestData data = getData(playerId);
 
         long resetTimestamp = getResetTimestampForToday();
 
@@ -342,6 +407,7 @@ public class DailyQuestManager {
             data.claimedRewards.clear();
             data.bonusClaimed = false;
             data.lastResetTimestamp = resetTimestamp;
+            repository.saveState(playerId, data);
         }
     }
 
@@ -349,7 +415,6 @@ public class DailyQuestManager {
      * Get the reset timestamp for today based on configured reset hour.
      */
     private long getResetTimestampForToday() {
-        int resetHour = questConfig.getInt("settings.reset-hour", 0);
         LocalDateTime now = LocalDateTime.now();
         LocalDateTime resetToday = LocalDate.now().atTime(LocalTime.of(resetHour, 0));
 
@@ -365,7 +430,6 @@ public class DailyQuestManager {
      * Get time remaining until next daily reset in milliseconds.
      */
     public long getTimeUntilReset() {
-        int resetHour = questConfig.getInt("settings.reset-hour", 0);
         LocalDateTime now = LocalDateTime.now();
         LocalDateTime nextReset = LocalDate.now().atTime(LocalTime.of(resetHour, 0));
 
@@ -424,77 +488,40 @@ public class DailyQuestManager {
 
     // ── Persistence ──────────────────────────────────────────────────────────
 
-    private void loadPlayerData() {
-        if (!dataFile.exists()) return;
-
-        FileConfiguration config = YamlConfiguration.loadConfiguration(dataFile);
-
-        if (!config.contains("players")) return;
-
-        for (String uuidStr : config.getConfigurationSection("players").getKeys(false)) {
-            try {
-                UUID playerId = UUID.fromString(uuidStr);
-                PlayerQuestData data = new PlayerQuestData();
-
-                String basePath = "players." + uuidStr;
-
-                data.lastResetTimestamp = config.getLong(basePath + ".last-reset", 0);
-
-                // Load quest progress
-                if (config.contains(basePath + ".progress")) {
-                    ConfigurationSection progSection = config.getConfigurationSection(basePath + ".progress");
-                    if (progSection != null) {
-                        for (String questId : progSection.getKeys(false)) {
-                            data.questProgress.put(questId, progSection.getInt(questId));
-                        }
-                    }
-                }
-
-                // Load claimed rewards
-                if (config.contains(basePath + ".claimed")) {
-                    List<String> claimed = config.getStringList(basePath + ".claimed");
-                    data.claimedRewards.addAll(claimed);
-                }
+    /**
+     * Get a player's quest data, loading it on first access.
+     */
+    private PlayerQuestData getData(UUID playerId) {
+        return playerData.get(playerId);
+    }
 
-                // Load bonus claimed
-                data.bonusClaimed = config.getBoolean(basePath + ".bonus-claimed", false);
+    /**
+     * Load a player's quest data ahead of their login. Called off the main
+     * thread.
+     */
+    public void preloadPlayer(UUID playerId) {
+        playerData.preload(playerId);
+    }
 
-                playerData.put(playerId, data);
-            } catch (Exception e) {
-                plugin.getLogger().warning("Failed to load daily quest data for: " + uuidStr);
-            }
-        }
+    /**
+     * Start the grace period after which a player who quit is unloaded.
+     */
+    public void releasePlayer(UUID playerId) {
+        playerData.touch(playerId);
+    }
 
-        plugin.getLogger().info("Loaded daily quest data for " + playerData.size() + " players!");
+    /**
+     * Unload offline players that have not been used for {@code graceMs}.
+     */
+    public int evictIdlePlayers(long graceMs) {
+        return playerData.evictIdle(graceMs);
     }
 
+    /**
+     * Write all pending quest changes immediately.
+     */
     public void saveAll() {
-        FileConfiguration config = new YamlConfiguration();
-
-        for (Map.Entry<UUID, PlayerQuestData> entry : playerData.entrySet()) {
-            String basePath = "players." + entry.getKey().toString();
-            PlayerQuestData data = entry.getValue();
-
-            config.set(basePath + ".last-reset", data.lastResetTimestamp);
-
-            // Save quest progress
-            for (Map.Entry<String, Integer> prog : data.questProgress.entrySet()) {
-                config.set(basePath + ".progress." + prog.getKey(), prog.getValue());
-            }
-
-            // Save claimed rewards
-            config.set(basePath + ".claimed", new ArrayList<>(data.claimedRewards));
-
-            // Save bonus claimed
-            config.set(basePath + ".bonus-claimed", data.bonusClaimed);
-        }
-
-        try {
-            config.save(dataFile);
-        } catch (IOException e) {
-            plugin.getLogger().severe("Failed to save daily quest data!");
-            e.printStackTrace();
-        }
+        repository.flush();
     }
 
     // ── Sound Utility ────────────────────────────────────────────────────────
@@ -514,12 +541,50 @@ public class DailyQuestManager {
         }
     }
 
-    // ── Inner Class ──────────────────────────────────────────────────────────
+    // ── Inner Classes ────────────────────────────────────────────────────────
+
+    /**
+     * One quest entry of daily-quest.yml, with color codes already applied.
+     */
+    public static final class QuestDefinition {
+        public final String id;
+        public final String name;
+        public final String description;
+        public final String icon;
+        public final String type;
+        public final int target;
+        public final int rewardExp;
+        public final double rewardMoney;
+        public final Map<String, Integer> rewardItems; // resourceId -> amount
+
+        QuestDefinition(String id, ConfigurationSection section) {
+            this.id = id;
+            this.name = ChatColor.translateAlternateColorCodes('&', section.getString("name", id));
+            this.description = ChatColor.translateAlternateColorCodes('&', section.getString("description", ""));
+            this.icon = section.getString("icon", "PAPER");
+            this.type = section.getString("type", "");
+            this.target = section.getInt("target", 1);
+            this.rewardExp = section.getInt("reward.exp", 0);
+            this.rewardMoney = section.getDouble("reward.money", 0.0);
+
+            Map<String, Integer> items = new LinkedHashMap<>();
+            ConfigurationSection itemSection = section.getConfigurationSection("reward.items");
+            if (itemSection != null) {
+                for (String resourceId : itemSection.getKeys(false)) {
+                    int amount = itemSection.getInt(resourceId);
+                    if (amount > 0) {
+                        items.put(resourceId, amount);
+                    }
+                }
+            }
+            this.rewardItems = Collections.unmodifiableMap(items);
+        }
+    }
 
-    private static class PlayerQuestData {
-        long lastResetTimestamp = 0;
-        final Map<String, Integer> questProgress = new HashMap<>();
-        final Set<String> claimedRewards = new LinkedHashSet<>();
-        boolean bonusClaimed = false;
+    public static class PlayerQuestData {
+        public long lastResetTimestamp = 0;
+        public final Map<String, Integer> questProgress = new HashMap<>();
+        public final Set<String> claimedRewards = new LinkedHashSet<>();
+        public boolean bonusClaimed = false;
     }
 }
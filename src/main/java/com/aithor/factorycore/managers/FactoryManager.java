@@ -2,169 +2,122 @@ package com.aithor.factorycore.managers;
 
 import com.sk89q.worldguard.protection.regions.ProtectedRegion;
 import com.aithor.factorycore.FactoryCore;
+import com.aithor.factorycore.FactoryCoreSettings;
 import com.aithor.factorycore.models.Factory;
 import com.aithor.factorycore.models.FactoryStatus;
 import com.aithor.factorycore.models.FactoryType;
+import com.aithor.factorycore.models.ModifierSet;
 import com.aithor.factorycore.models.ProductionTask;
 import com.aithor.factorycore.models.Recipe;
+import com.aithor.factorycore.persistence.FactoryRepository;
+import com.aithor.factorycore.persistence.NoticeRepository;
+import com.aithor.factorycore.utils.DeadlineQueue;
 import com.aithor.factorycore.utils.WorldGuardUtils;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
-import org.bukkit.boss.BarColor;
-import org.bukkit.boss.BarStyle;
+import org.bukkit.OfflinePlayer;
 import org.bukkit.boss.BossBar;
-import org.bukkit.configuration.file.FileConfiguration;
-import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 
-import java.io.File;
-import java.io.IOException;
 import java.util.*;
 
-public class FactoryManager {
+public class FactoryManager implements Factory.IndexListener {
 
     private final FactoryCore plugin;
     private final Map<String, Factory> factories;
     private final Map<String, BossBar> productionBossBars;
-    private final File dataFile;
+    private final FactoryRepository repository;
+    private final NoticeRepository noticeRepository;
+    // factoryId keyed by the time its production / upgrade finishes
+    private final DeadlineQueue<String> productionQueue = new DeadlineQueue<>();
+    private final DeadlineQueue<String> upgradeQueue = new DeadlineQueue<>();
+    // Owners whose productions completed while they were offline -> recipe ID -> count
+    private final Map<UUID, Map<String, Integer>> offlineCompletions = new HashMap<>();
+    // Owner -> "factoryId:kind" -> latest message for them, sent on their next login
+    private final Map<UUID, Map<String, String>> offlineMessages = new HashMap<>();
+    // Continuous factories with idle lines, restarted when inputs are deposited
+    private final Set<String> waitingFactories = new HashSet<>();
+    // Continuous factories whose owner was already told they are waiting,
+    // until the owner starts or reconfigures them again
+    private final Set<String> waitingNotified = new HashSet<>();
+    // factoryId -> reductions from level, employee and owner research
+    private final Map<String, ModifierSet> modifiers = new HashMap<>();
+    // Lookup indexes, kept current through Factory.IndexListener
+    private final Map<UUID, Set<Factory>> byOwner = new HashMap<>();
+    private final Map<FactoryType, Set<Factory>> byType = new EnumMap<>(FactoryType.class);
+    private final Set<Factory> unowned = new LinkedHashSet<>();
+    private final Set<Factory> running = new LinkedHashSet<>();
 
     public FactoryManager(FactoryCore plugin) {
         this.plugin = plugin;
         this.factories = new HashMap<>();
         this.productionBossBars = new HashMap<>();
-        File dataFolder = new File(plugin.getDataFolder(), "data");
-        if (!dataFolder.exists()) {
-            dataFolder.mkdirs();
-        }
-        this.dataFile = new File(dataFolder, "factories.yml");
+        this.repository = plugin.getDataBackend().getFactoryRepository();
+        this.noticeRepository = plugin.getDataBackend().getNoticeRepository();
 
+        noticeRepository.loadAll(offlineCompletions, offlineMessages);
         loadFactories();
     }
 
     public void loadFactories() {
-        if (!dataFile.exists()) {
-            return;
-        }
-
-        FileConfiguration config = YamlConfiguration.loadConfiguration(dataFile);
-
-        for (String key : config.getKeys(false)) {
-            try {
-                String ownerStr = config.getString(key + ".owner");
-                UUID ownerUUID = null;
-                if (ownerStr != null && !ownerStr.equals("null")) {
-                    try {
-                        ownerUUID = UUID.fromString(ownerStr);
-                    } catch (IllegalArgumentException e) {
-                        plugin.getLogger()
-                                .warning(String.format("Invalid owner UUID for factory %s: %s", key, ownerStr));
-                    }
-                }
-
-                Factory factory = new Factory(
-                        config.getString(key + ".id"),
-                        config.getString(key + ".region"),
-                        FactoryType.valueOf(config.getString(key + ".type")),
-                        ownerUUID,
-                        config.getDouble(key + ".price"),
-                        config.getInt(key + ".level", 1));
-
-                factory.setStatus(FactoryStatus.valueOf(
-                        config.getString(key + ".status", "STOPPED")));
-
-                // Load current production if exists
-                if (config.contains(key + ".production")) {
-                    String recipeId = config.getString(key + ".production.recipe");
-                    long startTime = config.getLong(key + ".production.start-time");
-                    int duration = config.getInt(key + ".production.duration");
-
-                    ProductionTask task = new ProductionTask(recipeId, startTime, duration);
-                    factory.setCurrentProduction(task);
-                }
-
-                // Load fast travel location if exists
-                if (config.contains(key + ".fast-travel")) {
-                    String worldName = config.getString(key + ".fast-travel.world");
-                    double x = config.getDouble(key + ".fast-travel.x");
-                    double y = config.getDouble(key + ".fast-travel.y");
-                    double z = config.getDouble(key + ".fast-travel.z");
-                    float yaw = (float) config.getDouble(key + ".fast-travel.yaw");
-                    float pitch = (float) config.getDouble(key + ".fast-travel.pitch");
-
-                    if (worldName != null) {
-                        org.bukkit.World world = Bukkit.getWorld(worldName);
-                        if (world != null) {
-                            Location location = new Location(world, x, y, z, yaw, pitch);
-                            factory.setFastTravelLocation(location);
-                        }
-                    }
-                }
-
-                // Load upgrade timer if present
-                if (config.contains(key + ".upgrade.start-time")) {
-                    factory.setUpgradeStartTime(config.getLong(key + ".upgrade.start-time"));
-                    factory.setUpgradeDurationSeconds(config.getInt(key + ".upgrade.duration"));
-                }
-
-                factories.put(factory.getId(), factory);
-            } catch (Exception e) {
-                plugin.getLogger().warning("Failed to load factory: " + key);
-                e.printStackTrace();
-            }
-        }
-
+        repository.loadAll(factories);
+        rebuildIndexes();
+        rebuildSchedules();
         plugin.getLogger().info("Loaded " + factories.size() + " factories!");
     }
 
-    public void saveAll() {
-        FileConfiguration config = new YamlConfiguration();
-
+    /**
+     * Queue the completion of every running production and upgrade and
+     * collect the factories waiting for inputs.
+     */
+    private void rebuildSchedules() {
+        productionQueue.clear();
+        upgradeQueue.clear();
+        waitingFactories.clear();
+        waitingNotified.clear();
         for (Factory factory : factories.values()) {
-            String path = factory.getId();
-            config.set(path + ".id", factory.getId());
-            config.set(path + ".region", factory.getRegionName());
-            config.set(path + ".type", factory.getType().name());
-            config.set(path + ".owner", factory.getOwner() != null ? factory.getOwner().toString() : null);
-            config.set(path + ".price", factory.getPrice());
-            config.set(path + ".level", factory.getLevel());
-            config.set(path + ".status", factory.getStatus().name());
-
-            // Save current production if exists
-            if (factory.getCurrentProduction() != null) {
-                ProductionTask task = factory.getCurrentProduction();
-                config.set(path + ".production.recipe", task.getRecipeId());
-                config.set(path + ".production.start-time", task.getStartTime());
-                config.set(path + ".production.duration", task.getDuration());
+            if (factory.getStatus() == FactoryStatus.WAITING) {
+                if (factory.isContinuous() && factory.getOwner() != null) {
+                    // Already waiting before the restart, so the owner was told
+                    waitingFactories.add(factory.getId());
+                    waitingNotified.add(factory.getId());
+                } else {
+                    factory.setStatus(FactoryStatus.STOPPED);
+                    markDirty(factory);
+                }
             }
-
-            // Save fast travel location if exists
-            if (factory.getFastTravelLocation() != null) {
-                Location loc = factory.getFastTravelLocation();
-                if (loc.getWorld() != null) {
-                    config.set(path + ".fast-travel.world", loc.getWorld().getName());
-                    config.set(path + ".fast-travel.x", loc.getX());
-                    config.set(path + ".fast-travel.y", loc.getY());
-                    config.set(path + ".fast-travel.z", loc.getZ());
-                    config.set(path + ".fast-travel.yaw", (double) loc.getYaw());
-                    config.set(path + ".fast-travel.pitch", (double) loc.getPitch());
+            if (factory.getStatus() == FactoryStatus.RUNNING) {
+                if (factory.hasProduction()) {
+                    scheduleProduction(factory);
+                    if (factory.isContinuous() && factory.getOwner() != null && getFreeLine(factory) >= 0) {
+                        waitingFactories.add(factory.getId());
+                    }
+                } else {
+                    // Marked as running without a production task
+                    factory.setStatus(FactoryStatus.STOPPED);
+                    markDirty(factory);
                 }
             }
-            // Save upgrade timer if upgrading
             if (factory.isUpgrading()) {
-                config.set(path + ".upgrade.start-time", factory.getUpgradeStartTime());
-                config.set(path + ".upgrade.duration", factory.getUpgradeDurationSeconds());
-            } else {
-                config.set(path + ".upgrade", null); // clear if not upgrading
+                upgradeQueue.schedule(factory.getId(), factory.getUpgradeEndTime());
             }
         }
+    }
 
-        try {
-            config.save(dataFile);
-        } catch (IOException e) {
-            plugin.getLogger().severe("Failed to save factories!");
-            e.printStackTrace();
-        }
+    /**
+     * Schedule a write-behind save of a single factory.
+     */
+    public void markDirty(Factory factory) {
+        repository.save(factory);
+    }
+
+    /**
+     * Write all pending factory changes immediately.
+     */
+    public void saveAll() {
+        repository.flush();
+        noticeRepository.flush();
     }
 
     public Factory createFactory(String id, String regionName, FactoryType type, double price) {
@@ -185,7 +138,8 @@ public class FactoryManager {
         Factory factory = new Factory(id, regionName, type, null, price, 1);
         factory.setFastTravelLocation(fastTravelLocation);
         factories.put(id, factory);
-        saveAll();
+        index(factory);
+        markDirty(factory);
 
         return factory;
     }
@@ -193,6 +147,7 @@ public class FactoryManager {
     public boolean removeFactory(String id) {
         Factory factory = factories.remove(id);
         if (factory != null) {
+            unindex(factory);
             // Remove NPC if exists
             plugin.getNPCManager().removeNPC(id);
 
@@ -201,13 +156,43 @@ public class FactoryManager {
                 productionBossBars.get(id).removeAll();
                 productionBossBars.remove(id);
             }
-
-            saveAll();
+            productionQueue.cancel(id);
+            upgradeQueue.cancel(id);
+            modifiers.remove(id);
+            waitingFactories.remove(id);
+            waitingNotified.remove(id);
+            clearSupplyLinksTo(id);
+
+            repository.delete(id);
             return true;
         }
         return false;
     }
 
+    /**
+     * Replace every factory, used by the data import command. Production
+     * boss bars and cached modifiers of the replaced factories are removed.
+     */
+    public void replaceAll(Map<String, Factory> imported) {
+        for (BossBar bossBar : productionBossBars.values()) {
+            bossBar.removeAll();
+        }
+        productionBossBars.clear();
+
+        for (String id : new ArrayList<>(factories.keySet())) {
+            if (!imported.containsKey(id)) {
+                repository.delete(id);
+            }
+        }
+        factories.values().forEach(f -> f.setIndexListener(null));
+        factories.clear();
+        factories.putAll(imported);
+        factories.values().forEach(this::markDirty);
+        invalidateAllModifiers();
+        rebuildIndexes();
+        rebuildSchedules();
+    }
+
     public Factory getFactory(String id) {
         return factories.get(id);
     }
@@ -217,20 +202,96 @@ public class FactoryManager {
     }
 
     public List<Factory> getFactoriesByOwner(UUID owner) {
-        List<Factory> owned = new ArrayList<>();
-        for (Factory factory : factories.values()) {
-            if (factory.getOwner() != null && factory.getOwner().equals(owner)) {
-                owned.add(factory);
-            }
-        }
-        return owned;
+        return new ArrayList<>(getOwnedFactories(owner));
     }
 
     /** Returns how many factories the given player currently owns. */
     public int getFactoryCountByOwner(UUID owner) {
-        return (int) factories.values().stream()
-                .filter(f -> owner.equals(f.getOwner()))
-                .count();
+        return getOwnedFactories(owner).size();
+    }
+
+    // ── Indexes ──────────────────────────────────────────────────────────────
+    // Read-only live views; copy them before changing owner or status while
+    // iterating.
+
+    public Collection<Factory> getOwnedFactories(UUID owner) {
+        Set<Factory> owned = byOwner.get(owner);
+        return owned == null ? Collections.emptySet() : Collections.unmodifiableSet(owned);
+    }
+
+    public Collection<Factory> getFactoriesByType(FactoryType type) {
+        Set<Factory> ofType = byType.get(type);
+        return ofType == null ? Collections.emptySet() : Collections.unmodifiableSet(ofType);
+    }
+
+    /** Factories without an owner, i.e. for sale. */
+    public Collection<Factory> getUnownedFactories() {
+        return Collections.unmodifiableSet(unowned);
+    }
+
+    public Collection<Factory> getRunningFactories() {
+        return Collections.unmodifiableSet(running);
+    }
+
+    private void rebuildIndexes() {
+        byOwner.clear();
+        byType.clear();
+        unowned.clear();
+        running.clear();
+        factories.values().forEach(this::index);
+    }
+
+    private void index(Factory factory) {
+        factory.setIndexListener(this);
+        addOwner(factory, factory.getOwner());
+        byType.computeIfAbsent(factory.getType(), t -> new LinkedHashSet<>()).add(factory);
+        if (factory.getStatus() == FactoryStatus.RUNNING) {
+            running.add(factory);
+        }
+    }
+
+    private void unindex(Factory factory) {
+        factory.setIndexListener(null);
+        removeOwner(factory, factory.getOwner());
+        Set<Factory> ofType = byType.get(factory.getType());
+        if (ofType != null) {
+            ofType.remove(factory);
+        }
+        running.remove(factory);
+    }
+
+    private void addOwner(Factory factory, UUID owner) {
+        if (owner == null) {
+            unowned.add(factory);
+        } else {
+            byOwner.computeIfAbsent(owner, o -> new LinkedHashSet<>()).add(factory);
+        }
+    }
+
+    private void removeOwner(Factory factory, UUID owner) {
+        if (owner == null) {
+            unowned.remove(factory);
+            return;
+        }
+        Set<Factory> owned = byOwner.get(owner);
+        if (owned != null && owned.remove(factory) && owned.isEmpty()) {
+            byOwner.remove(owner);
+        }
+    }
+
+    @Override
+    public void ownerChanged(Factory factory, UUID oldOwner) {
+        removeOwner(factory, oldOwner);
+        addOwner(factory, factory.getOwner());
+    }
+
+    @Override
+    public void statusChanged(Factory factory, FactoryStatus oldStatus) {
+        if (factory.getStatus() == FactoryStatus.RUNNING) {
+            running.add(factory);
+        } else {
+            running.remove(factory);
+        }
     }
 
     /**
@@ -240,7 +301,7 @@ public class FactoryManager {
     public boolean hasReachedFactoryLimit(Player player) {
         if (player.hasPermission("factorycore.bypass.factory-limit"))
             return false;
-        int limit = plugin.getConfig().getInt("factory.max-factories-per-player", 3);
+        int limit = plugin.getSettings().maxFactoriesPerPlayer;
 
         // Apply Industrial Mastery research buff
         if (plugin.getResearchManager() != null) {
@@ -259,7 +320,7 @@ public class FactoryManager {
 
         // ── Factory ownership limit ───────────────────────────────────────────
         if (!player.hasPermission("factorycore.bypass.factory-limit")) {
-            int limit = plugin.getConfig().getInt("factory.max-factories-per-player", 3);
+            int limit = plugin.getSettings().maxFactoriesPerPlayer;
 
             // Apply Industrial Mastery research buff
             if (plugin.getResearchManager() != null) {
@@ -281,7 +342,8 @@ public class FactoryManager {
         plugin.getEconomy().withdrawPlayer(player, price);
         factory.setOwner(player.getUniqueId());
         factory.setStatus(FactoryStatus.STOPPED);
-        saveAll();
+        invalidateModifiers(id);
+        markDirty(factory);
 
         // Achievement: New Investor - first factory purchase
         if (plugin.getAchievementManager() != null) {
@@ -298,93 +360,221 @@ public class FactoryManager {
         if (!player.getUniqueId().equals(factory.getOwner()))
             return false;
 
-        double sellPrice = factory.getPrice() * plugin.getConfig()
-                .getDouble("factory.sell-price-multiplier", 0.5);
+        double sellPrice = factory.getPrice() * plugin.getSettings().sellPriceMultiplier;
 
         plugin.getEconomy().depositPlayer(player, sellPrice);
         factory.setOwner(null);
         factory.setStatus(FactoryStatus.STOPPED);
-        factory.setCurrentProduction(null);
+        invalidateModifiers(id);
+        factory.clearProductionLines();
+        factory.setContinuousRecipeId(null);
+        factory.setSupplyTargetId(null);
+        clearSupplyLinksTo(id);
+        productionQueue.cancel(id);
+        waitingFactories.remove(id);
+        waitingNotified.remove(id);
+        BossBar bossBar = productionBossBars.remove(id);
+        if (bossBar != null) {
+            bossBar.removeAll();
+        }
 
         // Clear storage
         plugin.getStorageManager().clearStorage(id);
 
-        saveAll();
+        markDirty(factory);
         return true;
     }
 
-    public void startProduction(Factory factory, String recipeId) {
-        Recipe recipe = plugin.getRecipeManager().getRecipe(recipeId);
-        if (recipe == null)
-            return;
+    public ProductionTask startProduction(Factory factory, String recipeId) {
+        return startProduction(factory, recipeId, 1);
+    }
 
-        int duration = recipe.getProductionTime();
+    /**
+     * Start {@code batches} back-to-back runs of a recipe on the first free
+     * production line, capped at {@code production.max-queue}. The caller
+     * pays for the first batch; every later batch takes its inputs and cost
+     * when it starts.
+     *
+     * @return The started task, or {@code null} if the recipe does not exist
+     *         or every line is busy
+     */
+    public ProductionTask startProduction(Factory factory, String recipeId, int batches) {
+        Recipe recipe = plugin.getRecipeManager().getRecipe(recipeId);
+        int line = getFreeLine(factory);
+        if (recipe == null || line < 0)
+            return null;
 
-        // Apply level bonuses
-        int level = factory.getLevel();
-        double timeReduction = plugin.getConfig()
-                .getDouble("factory.level-bonuses.time-reduction", 10.0);
-        duration = (int) (duration * (1 - (timeReduction * (level - 1) / 100.0)));
+        batches = Math.max(1, Math.min(batches, getMaxQueuedBatches()));
+        ProductionTask task = new ProductionTask(recipeId, System.currentTimeMillis(),
+                calculateDuration(factory, recipe), 1, batches);
+        factory.setProductionLine(line, task);
+        factory.setStatus(FactoryStatus.RUNNING);
+        waitingNotified.remove(factory.getId());
+        if (!factory.isContinuous() || getFreeLine(factory) < 0) {
+            waitingFactories.remove(factory.getId());
+        }
+        scheduleProduction(factory);
 
-        // Apply employee production-time-reduction buff
-        double employeeReduction = plugin.getNPCManager().getProductionTimeReductionForFactory(factory.getId());
-        if (employeeReduction > 0) {
-            duration = (int) (duration * (1 - (employeeReduction / 100.0)));
+        // One bossbar per factory, shared by all of its lines
+        if (plugin.getSettings().showBossBar
+                && !productionBossBars.containsKey(factory.getId())) {
+            createProductionBossBar(factory);
         }
 
-        // Apply Advanced Machine Technology research buff
-        if (plugin.getResearchManager() != null && factory.getOwner() != null) {
-            double researchReduction = plugin.getResearchManager().getProductionTimeReduction(factory.getOwner());
-            if (researchReduction > 0) {
-                duration = (int) (duration * (1 - (researchReduction / 100.0)));
+        markDirty(factory);
+        return task;
+    }
+
+    /**
+     * Number of productions a factory can run at once: one line, plus
+     * {@code factory.level-bonuses.extra-lines} for every level above 1.
+     */
+    public int getLineCount(Factory factory) {
+        int perLevel = plugin.getSettings().extraLinesPerLevel;
+        return 1 + perLevel * (factory.getLevel() - 1);
+    }
+
+    /**
+     * Lowest free production line, or -1 if every line is busy.
+     */
+    public int getFreeLine(Factory factory) {
+        int count = getLineCount(factory);
+        for (int line = 0; line < count; line++) {
+            if (factory.getProductionLine(line) == null) {
+                return line;
             }
         }
+        return -1;
+    }
 
-        // Ensure minimum duration of 1 second
-        duration = Math.max(duration, 1);
+    /**
+     * Queue the factory for the moment its first line finishes. A factory
+     * has one queue entry however many lines it runs.
+     */
+    private void scheduleProduction(Factory factory) {
+        Map.Entry<Integer, ProductionTask> next = factory.getNextFinishingLine();
+        if (next != null) {
+            productionQueue.schedule(factory.getId(), next.getValue().getEndTime());
+        } else {
+            productionQueue.cancel(factory.getId());
+        }
+    }
 
-        ProductionTask task = new ProductionTask(recipeId, System.currentTimeMillis(), duration);
-        factory.setCurrentProduction(task);
-        factory.setStatus(FactoryStatus.RUNNING);
+    /**
+     * Most batches one production queue may hold.
+     */
+    public int getMaxQueuedBatches() {
+        return plugin.getSettings().maxQueuedBatches;
+    }
 
-        // Create bossbar
-        if (plugin.getConfig().getBoolean("production.show-bossbar", true)) {
-            createProductionBossBar(factory, recipe);
+    private int calculateDuration(Factory factory, Recipe recipe) {
+        return getModifiers(factory).applyProductionTime(recipe.getProductionTime());
+    }
+
+    // ── Modifiers ────────────────────────────────────────────────────────────
+
+    /**
+     * The reductions that currently apply to a factory, built on first use and
+     * cached until a level, employee, research or config change drops them.
+     */
+    public ModifierSet getModifiers(Factory factory) {
+        ModifierSet cached = modifiers.get(factory.getId());
+        if (cached == null) {
+            cached = buildModifiers(factory);
+            modifiers.put(factory.getId(), cached);
         }
+        return cached;
+    }
 
-        saveAll();
+    private ModifierSet buildModifiers(Factory factory) {
+        double levelReduction = plugin.getSettings().levelTimeReduction
+                * (factory.getLevel() - 1);
+        double employeeReduction = plugin.getNPCManager() != null
+                ? plugin.getNPCManager().getProductionTimeReductionForFactory(factory.getId())
+                : 0;
+
+        UUID owner = factory.getOwner();
+        ResearchManager research = plugin.getResearchManager();
+        if (owner == null || research == null) {
+            return new ModifierSet(levelReduction, employeeReduction, 0, 0, 0, 0, 0);
+        }
+        return new ModifierSet(levelReduction, employeeReduction,
+                research.getProductionTimeReduction(owner),
+                research.getProductionCostReduction(owner),
+                research.getSalaryReduction(owner),
+                research.getTaxReduction(owner),
+                research.getUpgradeTimeReduction(owner));
+    }
+
+    public void invalidateModifiers(String factoryId) {
+        modifiers.remove(factoryId);
     }
 
+    /**
+     * Drop the cached modifiers of every factory owned by a player, after
+     * their research changed.
+     */
+    public void invalidateModifiers(UUID owner) {
+        for (Factory factory : getOwnedFactories(owner)) {
+            modifiers.remove(factory.getId());
+        }
+    }
+
+    public void invalidateAllModifiers() {
+        modifiers.clear();
+    }
+
+    /**
+     * Complete every production whose timer has expired. Only factories that
+     * are due are touched.
+     */
     public void updateProduction() {
-        for (Factory factory : factories.values()) {
-            // Only process running factories
-            if (factory.getStatus() != FactoryStatus.RUNNING)
-                continue;
-            if (factory.getCurrentProduction() == null) {
-                // If factory is marked as running but has no production task, stop it
-                factory.setStatus(FactoryStatus.STOPPED);
-                continue;
+        long now = System.currentTimeMillis();
+        productionQueue.pollDue(now, factoryId -> {
+            Factory factory = factories.get(factoryId);
+            if (factory != null) {
+                completeDueLines(factory, now);
             }
+        });
+    }
 
-            ProductionTask task = factory.getCurrentProduction();
-            if (task.isComplete()) {
-                // Only complete if not already completed (prevent multiple calls)
-                if (factory.getStatus() == FactoryStatus.RUNNING) {
-                    completeProduction(factory);
-                }
-            } else {
-                updateProductionBossBar(factory, task);
+    /**
+     * Refresh the progress of every production boss bar. Runs on its own
+     * interval, independent of completion checks.
+     */
+    public void updateBossBars() {
+        for (Map.Entry<String, BossBar> entry : productionBossBars.entrySet()) {
+            Factory factory = factories.get(entry.getKey());
+            if (factory != null && factory.hasProduction()) {
+                updateProductionBossBar(entry.getValue(), factory);
             }
         }
     }
 
-    private void completeProduction(Factory factory) {
+    /**
+     * Complete every line of a factory whose task has ended by {@code now},
+     * earliest first, then queue the factory for its next line or stop it
+     * once all lines are idle.
+     */
+    private void completeDueLines(Factory factory, long now) {
         // Double-check that factory is still running and has a production task
-        if (factory.getStatus() != FactoryStatus.RUNNING || factory.getCurrentProduction() == null) {
+        if (factory.getStatus() != FactoryStatus.RUNNING || !factory.hasProduction()) {
             return;
         }
 
-        ProductionTask task = factory.getCurrentProduction();
+        Map.Entry<Integer, ProductionTask> due;
+        while ((due = factory.getNextFinishingLine()) != null && due.getValue().getEndTime() <= now) {
+            completeLine(factory, due.getKey(), due.getValue());
+        }
+
+        if (factory.hasProduction()) {
+            scheduleProduction(factory);
+        } else {
+            finishProduction(factory);
+        }
+    }
+
+    private void completeLine(Factory factory, int line, ProductionTask task) {
         Recipe recipe = plugin.getRecipeManager().getRecipe(task.getRecipeId());
 
         if (recipe != null) {
@@ -392,26 +582,10 @@ public class FactoryManager {
             for (Map.Entry<String, Integer> output : recipe.getOutputs().entrySet()) {
                 plugin.getStorageManager().addOutputItem(factory.getId(), output.getKey(), output.getValue());
             }
-
-            // Execute console commands
-            for (String cmd : recipe.getConsoleCommands()) {
-                String command = cmd.replace("{player}",
-                        Bukkit.getOfflinePlayer(factory.getOwner()).getName());
-                Bukkit.dispatchCommand(Bukkit.getConsoleSender(), command);
-            }
-
+            runRecipeCommands(factory, recipe);
         }
 
-        // Clear production task and set status to stopped
-        factory.setCurrentProduction(null);
-        factory.setStatus(FactoryStatus.STOPPED);
-
-        // Remove bossbar immediately
-        String factoryId = factory.getId();
-        BossBar bossBar = productionBossBars.remove(factoryId);
-        if (bossBar != null) {
-            bossBar.removeAll();
-        }
+        advanceLine(factory, line, recipe, task);
 
         // Achievement: Early Prototype + Mass Producer
         if (plugin.getAchievementManager() != null && factory.getOwner() != null) {
@@ -432,79 +606,453 @@ public class FactoryManager {
             }
         }
 
+        String recipeName = (recipe != null && recipe.getName() != null)
+                ? recipe.getName()
+                : "Unknown Recipe";
+
         // Send completion message only once (prevent spam)
-        Player owner = Bukkit.getPlayer(factory.getOwner());
-        if (owner != null) {
-            String recipeName = (recipe != null && recipe.getName() != null)
-                    ? recipe.getName()
-                    : "Unknown Recipe";
+        Player owner = factory.getOwner() != null ? Bukkit.getPlayer(factory.getOwner()) : null;
+        if (owner == null) {
+            queueOfflineNotice(factory.getOwner(), task.getRecipeId());
+        } else {
             String msg = plugin.getLanguageManager().getMessage("production-complete")
                     .replace("{recipe}", recipeName);
             owner.sendMessage(msg);
 
+            FactoryCoreSettings settings = plugin.getSettings();
+
             // Play sound
-            if (plugin.getConfig().getBoolean("notifications.sound.enabled")) {
+            if (settings.soundsEnabled) {
                 try {
-                    owner.playSound(owner.getLocation(),
-                            plugin.getConfig().getString("notifications.sound.production-complete"),
-                            1.0f, 1.0f);
+                    owner.playSound(owner.getLocation(), settings.productionCompleteSound, 1.0f, 1.0f);
                 } catch (Exception e) {
                     plugin.getLogger().warning("Failed to play production complete sound: " +
-                            plugin.getConfig().getString("notifications.sound.production-complete"));
+                            settings.productionCompleteSound);
                 }
             }
 
             // Show title
-            if (plugin.getConfig().getBoolean("notifications.titles.enabled")) {
+            if (settings.titlesEnabled) {
                 owner.sendTitle(
                         plugin.getLanguageManager().getMessage("titles.production-complete.title"),
                         plugin.getLanguageManager().getMessage("titles.production-complete.subtitle")
-                                .replace("{recipe}", recipe.getName()),
-                        10, 40, 10);
+                                .replace("{recipe}", recipeName),
+                        settings.titleFadeIn, settings.titleStay, settings.titleFadeOut);
+            }
+        }
+    }
+
+    /**
+     * Move a finished line on to its next batch or restart it in continuous
+     * mode; otherwise the line becomes free.
+     *
+     * @return The line's new task, or {@code null} if it is now free
+     */
+    private ProductionTask advanceLine(Factory factory, int line, Recipe recipe, ProductionTask previous) {
+        ProductionTask next = startNextBatch(factory, recipe, previous);
+        if (next == null) {
+            next = restartContinuous(factory, previous);
+        }
+        if (next == null && factory.isContinuous() && factory.getOwner() != null) {
+            waitingFactories.add(factory.getId());
+        }
+        factory.setProductionLine(line, next);
+        markDirty(factory);
+        return next;
+    }
+
+    /**
+     * Stop a factory whose lines are all idle and remove its boss bar. It
+     * waits for inputs instead if it is in continuous mode.
+     */
+    private void finishProduction(Factory factory) {
+        factory.clearProductionLines();
+        productionQueue.cancel(factory.getId());
+        if (factory.isContinuous() && factory.getOwner() != null) {
+            factory.setStatus(FactoryStatus.WAITING);
+            waitingFactories.add(factory.getId());
+            // Tell the owner once; a factory woken by deposits waits again after every delivery
+            if (waitingNotified.add(factory.getId())) {
+                Recipe recipe = plugin.getRecipeManager().getRecipe(factory.getContinuousRecipeId());
+                notifyOwner(factory, "waiting", plugin.getLanguageManager().getMessage("production-waiting")
+                        .replace("{recipe}", recipe != null ? recipe.getName() : factory.getContinuousRecipeId()));
+            }
+        } else {
+            factory.setStatus(FactoryStatus.STOPPED);
+        }
+
+        BossBar bossBar = productionBossBars.remove(factory.getId());
+        if (bossBar != null) {
+            bossBar.removeAll();
+        }
+        markDirty(factory);
+    }
+
+    // ── Continuous production ────────────────────────────────────────────────
+
+    /**
+     * Turn continuous mode on for a recipe, or off with {@code null}. A
+     * factory waiting for inputs stops when the mode is turned off.
+     */
+    public void setContinuous(Factory factory, String recipeId) {
+        factory.setContinuousRecipeId(recipeId);
+        waitingNotified.remove(factory.getId());
+        if (recipeId == null && factory.getStatus() == FactoryStatus.WAITING) {
+            factory.setStatus(FactoryStatus.STOPPED);
+            waitingFactories.remove(factory.getId());
+        }
+        markDirty(factory);
+    }
+
+    /**
+     * Create the continuous recipe's next run, starting when {@code previous}
+     * ended and taking its inputs and cost now.
+     *
+     * @return The new task, or {@code null} if the factory is not in
+     *         continuous mode or the recipe cannot run yet
+     */
+    private ProductionTask restartContinuous(Factory factory, ProductionTask previous) {
+        if (!factory.isContinuous() || factory.getOwner() == null) {
+            return null;
+        }
+        Recipe recipe = plugin.getRecipeManager().getRecipe(factory.getContinuousRecipeId());
+        if (recipe == null || reserveBatch(factory, recipe) != null) {
+            return null;
+        }
+
+        return new ProductionTask(recipe.getId(), previous.getEndTime(), calculateDuration(factory, recipe));
+    }
+
+    /**
+     * Called by {@link StorageManager} after items were added to a factory's
+     * input storage. A continuous factory with idle lines restarts as many
+     * of them as the inputs allow; other factories cost a set lookup.
+     */
+    public void onInputDeposited(String factoryId) {
+        if (!waitingFactories.contains(factoryId)) {
+            return;
+        }
+        Factory factory = factories.get(factoryId);
+        if (factory == null || !factory.isContinuous() || factory.getOwner() == null) {
+            waitingFactories.remove(factoryId);
+            return;
+        }
+        Recipe recipe = plugin.getRecipeManager().getRecipe(factory.getContinuousRecipeId());
+        if (recipe == null) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        int started = 0;
+        int line;
+        while ((line = getFreeLine(factory)) >= 0 && reserveBatch(factory, recipe) == null) {
+            factory.setProductionLine(line, new ProductionTask(recipe.getId(), now,
+                    calculateDuration(factory, recipe)));
+            started++;
+        }
+        if (line < 0) {
+            waitingFactories.remove(factoryId);
+        }
+        if (started == 0) {
+            return; // keep waiting
+        }
+
+        factory.setStatus(FactoryStatus.RUNNING);
+        scheduleProduction(factory);
+        if (plugin.getSettings().showBossBar
+                && !productionBossBars.containsKey(factoryId)) {
+            createProductionBossBar(factory);
+        }
+        markDirty(factory);
+    }
+
+    // ── Supply chains ────────────────────────────────────────────────────────
+
+    /**
+     * Route a factory's outputs into another factory's input storage, or
+     * stop routing with {@code null}. Outputs already in storage are moved
+     * on the next transfer run.
+     */
+    public void setSupplyTarget(Factory source, String targetId) {
+        source.setSupplyTargetId(targetId);
+        markDirty(source);
+        plugin.getStorageManager().requestSupplyTransfer(source.getId());
+    }
+
+    private void clearSupplyLinksTo(String targetId) {
+        for (Factory factory : factories.values()) {
+            if (targetId.equals(factory.getSupplyTargetId())) {
+                factory.setSupplyTargetId(null);
+                markDirty(factory);
+            }
+        }
+    }
+
+    // ── Batch queue ──────────────────────────────────────────────────────────
+
+    /**
+     * Create the batch queued after {@code previous}, taking its inputs and
+     * cost now. It starts when the previous batch ended, so batches that
+     * completed while the server was down chain up correctly.
+     *
+     * @return The new task, or {@code null} if the queue is finished or the
+     *         next batch could not be started
+     */
+    private ProductionTask startNextBatch(Factory factory, Recipe recipe, ProductionTask previous) {
+        if (recipe == null || factory.getOwner() == null || previous.getQueuedBatches() <= 0) {
+            return null;
+        }
+
+        String failure = reserveBatch(factory, recipe);
+        if (failure != null) {
+            notifyOwner(factory, "queue-stopped", plugin.getLanguageManager().getMessage("production-queue-stopped")
+                    .replace("{recipe}", recipe.getName())
+                    .replace("{batch}", String.valueOf(previous.getBatch()))
+                    .replace("{batches}", String.valueOf(previous.getBatches()))
+                    .replace("{reason}", plugin.getLanguageManager().getMessage(failure)));
+            return null;
+        }
+
+        return new ProductionTask(recipe.getId(), previous.getEndTime(),
+                calculateDuration(factory, recipe), previous.getBatch() + 1, previous.getBatches());
+    }
+
+    /**
+     * Take one batch's inputs from input storage and its money cost from the
+     * owner, who may be offline.
+     *
+     * @return {@code null} on success, otherwise the message key of the reason
+     */
+    private String reserveBatch(Factory factory, Recipe recipe) {
+        if (!plugin.getNPCManager().factoryHasEmployee(factory.getId())) {
+            return "production-queue-reason.no-employee";
+        }
+        for (Map.Entry<String, Integer> input : recipe.getInputs().entrySet()) {
+            if (plugin.getStorageManager().getInputAmount(factory.getId(), input.getKey()) < input.getValue()) {
+                return "production-queue-reason.no-materials";
+            }
+        }
+
+        double moneyCost = getModifiers(factory).applyProductionCost(recipe.getMoneyCost());
+        OfflinePlayer owner = Bukkit.getOfflinePlayer(factory.getOwner());
+        if (moneyCost > 0 && !plugin.getEconomy().has(owner, moneyCost)) {
+            return "production-queue-reason.no-funds";
+        }
+
+        for (Map.Entry<String, Integer> input : recipe.getInputs().entrySet()) {
+            plugin.getStorageManager().removeInputItem(factory.getId(), input.getKey(), input.getValue());
+        }
+        if (moneyCost > 0) {
+            plugin.getEconomy().withdrawPlayer(owner, moneyCost);
+
+            // Achievement: Relentless Grinder - cumulative production cost
+            if (plugin.getAchievementManager() != null) {
+                Player player = owner.getPlayer();
+                if (player != null) {
+                    plugin.getAchievementManager().addProgress(player, "relentless_grinder", moneyCost);
+                } else {
+                    plugin.getAchievementManager().addProgressOffline(factory.getOwner(), "relentless_grinder",
+                            moneyCost);
+                }
+            }
+        }
+        return null;
+    }
+
+    private void runRecipeCommands(Factory factory, Recipe recipe) {
+        for (String cmd : recipe.getConsoleCommands()) {
+            String command = cmd.replace("{player}",
+                    Bukkit.getOfflinePlayer(factory.getOwner()).getName());
+            Bukkit.dispatchCommand(Bukkit.getConsoleSender(), command);
+        }
+    }
+
+    // ── Offline catch-up ─────────────────────────────────────────────────────
+
+    /**
+     * Complete every production and upgrade that finished while the server
+     * was down, in a single pass. Outputs are added to storage as one batch
+     * and factories and storage are persisted once at the end; owners are
+     * told on their next login. Called once on startup, after all managers
+     * are loaded.
+     */
+    public void catchUpProduction() {
+        long now = System.currentTimeMillis();
+        List<Factory> dueProduction = new ArrayList<>();
+        productionQueue.pollDue(now, factoryId -> {
+            Factory factory = factories.get(factoryId);
+            if (factory != null && factory.getStatus() == FactoryStatus.RUNNING && factory.hasProduction()) {
+                dueProduction.add(factory);
+            }
+        });
+        List<Factory> dueUpgrades = new ArrayList<>();
+        upgradeQueue.pollDue(now, factoryId -> {
+            Factory factory = factories.get(factoryId);
+            if (factory != null && factory.isUpgrading()) {
+                dueUpgrades.add(factory);
             }
+        });
+        if (dueProduction.isEmpty() && dueUpgrades.isEmpty()) {
+            return;
+        }
+
+        Map<String, Map<String, Integer>> outputs = new HashMap<>();
+        Map<UUID, Integer> completedByOwner = new HashMap<>();
+        int completed = 0;
+        for (Factory factory : dueProduction) {
+            // Complete lines in the order they finish, following batches and
+            // continuous restarts, until every remaining line ends in the future
+            Map.Entry<Integer, ProductionTask> due;
+            while ((due = factory.getNextFinishingLine()) != null && due.getValue().getEndTime() <= now) {
+                ProductionTask task = due.getValue();
+                Recipe recipe = plugin.getRecipeManager().getRecipe(task.getRecipeId());
+                if (recipe != null) {
+                    Map<String, Integer> factoryOutputs = outputs.computeIfAbsent(factory.getId(),
+                            id -> new HashMap<>());
+                    recipe.getOutputs().forEach((resourceId, amount) ->
+                            factoryOutputs.merge(resourceId, amount, Integer::sum));
+                    runRecipeCommands(factory, recipe);
+                }
+                completed++;
+                if (factory.getOwner() != null) {
+                    completedByOwner.merge(factory.getOwner(), 1, Integer::sum);
+                    queueOfflineNotice(factory.getOwner(), task.getRecipeId());
+                }
+
+                advanceLine(factory, due.getKey(), recipe, task);
+            }
+
+            if (factory.hasProduction()) {
+                scheduleProduction(factory);
+            } else {
+                finishProduction(factory);
+            }
+        }
+        plugin.getStorageManager().addOutputItems(outputs);
+
+        // Achievement: Mass Producer, one update per owner
+        if (plugin.getAchievementManager() != null) {
+            completedByOwner.forEach((ownerId, count) -> {
+                Player player = Bukkit.getPlayer(ownerId);
+                if (player != null) {
+                    plugin.getAchievementManager().addProgress(player, "mass_producer", count);
+                } else {
+                    plugin.getAchievementManager().addProgressOffline(ownerId, "mass_producer", count);
+                }
+            });
+        }
+
+        for (Factory factory : dueUpgrades) {
+            completeUpgrade(factory);
         }
 
         saveAll();
+        plugin.getStorageManager().saveAll();
+        plugin.getLogger().info("Completed " + completed + " productions and " + dueUpgrades.size()
+                + " upgrades that finished while the server was offline.");
     }
 
-    private void createProductionBossBar(Factory factory, Recipe recipe) {
-        Player owner = Bukkit.getPlayer(factory.getOwner());
-        if (owner == null)
+    /**
+     * Count a production that completed while its owner was offline. Only
+     * the number per recipe is kept, so an absent owner's notice stays small.
+     */
+    private void queueOfflineNotice(UUID ownerId, String recipeId) {
+        if (ownerId != null) {
+            int count = offlineCompletions.computeIfAbsent(ownerId, id -> new HashMap<>())
+                    .merge(recipeId, 1, Integer::sum);
+            noticeRepository.saveCompletions(ownerId, recipeId, count);
+        }
+    }
+
+    /**
+     * Send a message to a factory owner now, or on their next login if they
+     * are offline. Only the latest offline message per factory and kind is
+     * kept.
+     */
+    private void notifyOwner(Factory factory, String kind, String message) {
+        UUID ownerId = factory.getOwner();
+        Player player = Bukkit.getPlayer(ownerId);
+        if (player != null) {
+            player.sendMessage(message);
+        } else {
+            String key = factory.getId() + ":" + kind;
+            offlineMessages.computeIfAbsent(ownerId, id -> new LinkedHashMap<>()).put(key, message);
+            noticeRepository.saveMessage(ownerId, key, message);
+        }
+    }
+
+    /**
+     * Tell a player which of their productions completed while they were
+     * offline. Called when they join.
+     */
+    public void sendOfflineNotices(Player player) {
+        if (!player.isOnline()) {
             return;
+        }
+        Map<String, Integer> completions = offlineCompletions.remove(player.getUniqueId());
+        if (completions != null && !completions.isEmpty()) {
+            int total = 0;
+            List<String> recipes = new ArrayList<>();
+            for (Map.Entry<String, Integer> entry : completions.entrySet()) {
+                Recipe recipe = plugin.getRecipeManager().getRecipe(entry.getKey());
+                String recipeName = recipe != null && recipe.getName() != null ? recipe.getName() : "Unknown Recipe";
+                recipes.add(entry.getValue() > 1 ? recipeName + " x" + entry.getValue() : recipeName);
+                total += entry.getValue();
+                noticeRepository.saveCompletions(player.getUniqueId(), entry.getKey(), 0);
+            }
+            player.sendMessage(plugin.getLanguageManager().getMessage("production-complete-offline")
+                    .replace("{count}", String.valueOf(total))
+                    .replace("{recipes}", String.join(", ", recipes)));
+        }
+        Map<String, String> messages = offlineMessages.remove(player.getUniqueId());
+        if (messages != null) {
+            messages.forEach((key, message) -> {
+                player.sendMessage(message);
+                noticeRepository.saveMessage(player.getUniqueId(), key, null);
+            });
+        }
+    }
 
-        String title = plugin.getLanguageManager().getMessage("bossbar.production")
-                .replace("{recipe}", recipe.getName())
-                .replace("{percent}", "0");
+    private void createProductionBossBar(Factory factory) {
+        Player owner = Bukkit.getPlayer(factory.getOwner());
+        Map.Entry<Integer, ProductionTask> next = factory.getNextFinishingLine();
+        if (owner == null || next == null)
+            return;
 
         BossBar bossBar = Bukkit.createBossBar(
-                title,
-                BarColor.valueOf(plugin.getConfig().getString("production.bossbar-color", "BLUE")),
-                BarStyle.valueOf(plugin.getConfig().getString("production.bossbar-style", "SOLID")));
+                formatBossBarTitle(factory, next.getValue()),
+                plugin.getSettings().bossBarColor,
+                plugin.getSettings().bossBarStyle);
 
         bossBar.addPlayer(owner);
         bossBar.setProgress(0.0);
         productionBossBars.put(factory.getId(), bossBar);
     }
 
-    private void updateProductionBossBar(Factory factory, ProductionTask task) {
-        String factoryId = factory.getId();
-        BossBar bossBar = productionBossBars.get(factoryId);
-        if (bossBar == null)
-            return;
-
-        Recipe recipe = plugin.getRecipeManager().getRecipe(task.getRecipeId());
-        if (recipe == null)
+    /**
+     * Show the line that finishes first; with several busy lines the title
+     * also says how many are running.
+     */
+    private void updateProductionBossBar(BossBar bossBar, Factory factory) {
+        Map.Entry<Integer, ProductionTask> next = factory.getNextFinishingLine();
+        if (next == null)
             return;
 
-        double progress = task.getProgress();
-        int percent = (int) (progress * 100);
-
-        String title = plugin.getLanguageManager().getMessage("bossbar.production")
-                .replace("{recipe}", recipe.getName())
-                .replace("{percent}", String.valueOf(percent));
+        bossBar.setTitle(formatBossBarTitle(factory, next.getValue()));
+        bossBar.setProgress(next.getValue().getProgress());
+    }
 
-        bossBar.setTitle(title);
-        bossBar.setProgress(progress);
+    private String formatBossBarTitle(Factory factory, ProductionTask task) {
+        Recipe recipe = plugin.getRecipeManager().getRecipe(task.getRecipeId());
+        int lines = factory.getProductionLines().size();
+        String key = lines > 1 ? "bossbar.production-lines"
+                : task.getBatches() > 1 ? "bossbar.production-batch" : "bossbar.production";
+        return plugin.getLanguageManager().getMessage(key)
+                .replace("{recipe}", recipe != null ? recipe.getName() : task.getRecipeId())
+                .replace("{percent}", String.valueOf((int) (task.getProgress() * 100)))
+                .replace("{batch}", String.valueOf(task.getBatch()))
+                .replace("{batches}", String.valueOf(task.getBatches()))
+                .replace("{lines}", String.valueOf(lines));
     }
 
     /**
@@ -523,7 +1071,7 @@ public class FactoryManager {
             return false;
         }
 
-        int maxLevel = plugin.getConfig().getInt("factory.max-level", 5);
+        int maxLevel = plugin.getSettings().maxLevel;
         if (factory.getLevel() >= maxLevel)
             return false;
 
@@ -564,20 +1112,15 @@ public class FactoryManager {
         plugin.getEconomy().withdrawPlayer(player, upgradeCost);
 
         // ── Start upgrade timer ───────────────────────────────────────────────
-        int duration = plugin.getConfig().getInt("factory.upgrade-time." + targetLevel, 60);
+        int duration = plugin.getSettings().getUpgradeTime(targetLevel);
 
         // Apply Nano-Construction Framework research buff
-        if (plugin.getResearchManager() != null) {
-            double researchReduction = plugin.getResearchManager().getUpgradeTimeReduction(player.getUniqueId());
-            if (researchReduction > 0) {
-                duration = (int) (duration * (1 - (researchReduction / 100.0)));
-                duration = Math.max(duration, 1); // minimum 1 second
-            }
-        }
+        duration = getModifiers(factory).applyUpgradeTime(duration);
 
         factory.setUpgradeStartTime(System.currentTimeMillis());
         factory.setUpgradeDurationSeconds(duration);
-        saveAll();
+        upgradeQueue.schedule(factory.getId(), factory.getUpgradeEndTime());
+        markDirty(factory);
 
         return true;
     }
@@ -590,18 +1133,16 @@ public class FactoryManager {
         factory.setLevel(factory.getLevel() + 1);
         factory.setUpgradeStartTime(-1);
         factory.setUpgradeDurationSeconds(0);
-        saveAll();
+        invalidateModifiers(factory.getId());
+        markDirty(factory);
 
         Player owner = Bukkit.getPlayer(factory.getOwner());
         if (owner != null) {
             owner.sendMessage(plugin.getLanguageManager().getMessage("level-up")
                     .replace("{level}", String.valueOf(factory.getLevel())));
-            if (plugin.getConfig().getBoolean("notifications.sound.enabled")) {
+            if (plugin.getSettings().soundsEnabled) {
                 try {
-                    owner.playSound(owner.getLocation(),
-                            plugin.getConfig().getString(
-                                    "notifications.sound.factory-upgrade", "ENTITY_PLAYER_LEVELUP"),
-                            1.0f, 1.2f);
+                    owner.playSound(owner.getLocation(), plugin.getSettings().factoryUpgradeSound, 1.0f, 1.2f);
                 } catch (Exception ignored) {
                 }
             }
@@ -609,14 +1150,16 @@ public class FactoryManager {
     }
 
     /**
-     * Called each scheduler tick to check whether any upgrade timers have expired.
+     * Called each scheduler tick to complete the upgrades whose timers have
+     * expired.
      */
     public void updateUpgrades() {
-        for (Factory factory : factories.values()) {
-            if (factory.isUpgradeComplete()) {
+        upgradeQueue.pollDue(System.currentTimeMillis(), factoryId -> {
+            Factory factory = factories.get(factoryId);
+            if (factory != null && factory.isUpgrading()) {
                 completeUpgrade(factory);
             }
-        }
+        });
     }
 
     /**
@@ -2,79 +2,41 @@ package com.aithor.factorycore.managers;
 
 import com.aithor.factorycore.FactoryCore;
 import com.aithor.factorycore.models.*;
+import com.aithor.factorycore.persistence.InvoiceRepository;
 import org.bukkit.Bukkit;
 import org.bukkit.Material;
-import org.bukkit.configuration.file.FileConfiguration;
-import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.enchantments.Enchantment;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemFlag;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
 
-import java.io.File;
 import java.util.*;
 
 public class InvoiceManager {
+
     private final FactoryCore plugin;
     private final Map<String, Invoice> invoices;
-    private final File dataFile;
+    private final InvoiceRepository repository;
     private long lastSalaryCollection;
 
     public InvoiceManager(FactoryCore plugin) {
         this.plugin = plugin;
         this.invoices = new HashMap<>();
-        File dataFolder = new File(plugin.getDataFolder(), "data");
-        if (!dataFolder.exists()) {
-            dataFolder.mkdirs();
-        }
-        this.dataFile = new File(dataFolder, "invoices.yml");
-        this.lastSalaryCollection = System.currentTimeMillis();
+        this.repository = plugin.getDataBackend().getInvoiceRepository();
         loadInvoices();
     }
 
     private void loadInvoices() {
-        if (!dataFile.exists())
-            return;
-
-        FileConfiguration config = YamlConfiguration.loadConfiguration(dataFile);
-        lastSalaryCollection = config.getLong("last-salary-collection", System.currentTimeMillis());
-
-        for (String key : config.getKeys(false)) {
-            try {
-                Invoice invoice = new Invoice(
-                        key,
-                        UUID.fromString(config.getString(key + ".factory-id")),
-                        InvoiceType.valueOf(config.getString(key + ".type")),
-                        config.getDouble(key + ".amount"),
-                        config.getLong(key + ".due-date"));
-                invoice.setPaid(config.getBoolean(key + ".paid", false));
-                invoices.put(key, invoice);
-            } catch (Exception e) {
-                plugin.getLogger().warning("Failed to load invoice: " + key);
-            }
-        }
+        repository.loadAll(invoices);
+        lastSalaryCollection = repository.loadLastSalaryCollection(System.currentTimeMillis());
     }
 
+    /**
+     * Write all pending invoice changes immediately.
+     */
     public void saveAll() {
-        FileConfiguration config = new YamlConfiguration();
-        config.set("last-salary-collection", lastSalaryCollection);
-
-        for (Invoice invoice : invoices.values()) {
-            String path = invoice.getId();
-            config.set(path + ".factory-id", invoice.getFactoryId().toString());
-            config.set(path + ".type", invoice.getType().name());
-            config.set(path + ".amount", invoice.getAmount());
-            config.set(path + ".due-date", invoice.getDueDate());
-            config.set(path + ".paid", invoice.isPaid());
-        }
-
-        try {
-            config.save(dataFile);
-        } catch (Exception e) {
-            plugin.getLogger().severe("Failed to save invoices!");
-            e.printStackTrace();
-        }
+        repository.flush();
     }
 
     public void generateTaxInvoices() {
@@ -82,25 +44,21 @@ public class InvoiceManager {
             if (factory.getOwner() == null)
                 continue;
 
-            double taxRate = plugin.getConfig().getDouble("tax.rate", 5.0) / 100.0;
-            double levelMultiplier = plugin.getConfig().getDouble("tax.level-multiplier", 2.5) / 100.0;
+            double taxRate = plugin.getSettings().taxRate;
+            double levelMultiplier = plugin.getSettings().taxLevelMultiplier;
             double totalRate = taxRate + (levelMultiplier * (factory.getLevel() - 1));
 
             double amount = factory.getPrice() * totalRate;
 
             // Apply fiscal_optimization research buff
-            if (plugin.getResearchManager() != null) {
-                double reduction = plugin.getResearchManager().getTaxReduction(factory.getOwner());
-                if (reduction > 0) {
-                    amount *= (1 - (reduction / 100.0));
-                }
-            }
+            amount = plugin.getFactoryManager().getModifiers(factory).applyTax(amount);
 
             long dueDate = System.currentTimeMillis() + (7 * 24 * 60 * 60 * 1000); // 7 days
 
             String invoiceId = "tax_" + factory.getId() + "_" + System.currentTimeMillis();
             Invoice invoice = new Invoice(invoiceId, factory.getOwner(), InvoiceType.TAX, amount, dueDate);
             invoices.put(invoiceId, invoice);
+            repository.save(invoice);
 
             Player owner = Bukkit.getPlayer(factory.getOwner());
             if (owner != null) {
@@ -108,12 +66,11 @@ public class InvoiceManager {
                         .replace("{amount}", String.format("%.2f", amount)));
             }
         }
-
-        saveAll();
     }
 
     public void generateSalaryInvoices() {
         lastSalaryCollection = System.currentTimeMillis();
+        repository.saveLastSalaryCollection(lastSalaryCollection);
 
         for (Factory factory : plugin.getFactoryManager().getAllFactories()) {
             if (factory.getOwner() == null)
@@ -131,18 +88,14 @@ public class InvoiceManager {
             }
 
             // Apply AI Workforce Integration research buff
-            if (plugin.getResearchManager() != null) {
-                double reduction = plugin.getResearchManager().getSalaryReduction(factory.getOwner());
-                if (reduction > 0) {
-                    amount *= (1 - (reduction / 100.0));
-                }
-            }
+            amount = plugin.getFactoryManager().getModifiers(factory).applySalary(amount);
 
             long dueDate = System.currentTimeMillis() + (3 * 24 * 60 * 60 * 1000); // 3 days
 
             String invoiceId = "salary_" + factory.getId() + "_" + System.currentTimeMillis();
             Invoice invoice = new Invoice(invoiceId, factory.getOwner(), InvoiceType.SALARY, amount, dueDate);
             invoices.put(invoiceId, invoice);
+            repository.save(invoice);
 
             Player owner = Bukkit.getPlayer(factory.getOwner());
             if (owner != null) {
@@ -150,8 +103,6 @@ public class InvoiceManager {
                         .replace("{amount}", String.format("%.2f", amount)));
             }
         }
-
-        saveAll();
     }
 
     public boolean payInvoice(Player player, String invoiceId) {
@@ -164,7 +115,7 @@ public class InvoiceManager {
 
         plugin.getEconomy().withdrawPlayer(player, invoice.getAmount());
         invoice.setPaid(true);
-        saveAll();
+        repository.save(invoice);
 
         // Achievement: Big Spender - cumulative salary payments
         if (plugin.getAchievementManager() != null && invoice.getType() == InvoiceType.SALARY) {
@@ -194,7 +145,7 @@ public class InvoiceManager {
     }
 
     public long getTimeUntilNextSalary() {
-        long interval = plugin.getConfig().getLong("salary.interval-ticks", 24000) * 50; // Convert ticks to ms
+        long interval = plugin.getSettings().salaryIntervalTicks * 50; // Convert ticks to ms
         return (lastSalaryCollection + interval) - System.currentTimeMillis();
     }
 }
\ No newline at end of file
@@ -13,6 +13,9 @@ import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
 
 import java.io.File;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 // ==================== LanguageManager.java ====================
@@ -29,6 +32,13 @@ public class LanguageManager {
     
     public void reload() {
         langConfig = YamlConfiguration.loadConfiguration(langFile);
+
+        // Fall back to the bundled file for messages added after language.yml was created
+        InputStream defaults = plugin.getResource("language.yml");
+        if (defaults != null) {
+            langConfig.setDefaults(YamlConfiguration.loadConfiguration(
+                    new InputStreamReader(defaults, StandardCharsets.UTF_8)));
+        }
     }
     
     public String getMessage(String path) {
@@ -0,0 +1,108 @@
+package com.aithor.factorycore.managers;
+
+import com.aithor.factorycore.FactoryCore;
+import com.aithor.factorycore.persistence.MailboxRepository;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.*;
+
+/**
+ * MailboxManager - Holds resources that could not be handed to a player
+ * directly: deliveries while they were offline and items that did not fit in
+ * their inventory.
+ * <p>
+ * Contents are kept as resource IDs and counts; item stacks are only built
+ * when the player claims the mailbox from the hub.
+ * </p>
+ */
+public class MailboxManager {
+
+    private final FactoryCore plugin;
+    private final Map<UUID, Map<String, Integer>> mailboxes = new HashMap<>(); // playerId -> resourceId -> amount
+    private final MailboxRepository repository;
+
+    public MailboxManager(FactoryCore plugin) {
+        this.plugin = plugin;
+        this.repository = plugin.getDataBackend().getMailboxRepository();
+        repository.loadAll(mailboxes);
+        plugin.getLogger().info("Loaded " + mailboxes.size() + " mailboxes!");
+    }
+
+    /**
+     * Write all pending mailbox changes immediately.
+     */
+    public void saveAll() {
+        repository.flush();
+    }
+
+    /**
+     * Add resources to a player's mailbox.
+     */
+    public void deliver(UUID playerId, String resourceId, int amount) {
+        if (amount <= 0) {
+            return;
+        }
+        int held = mailboxes.computeIfAbsent(playerId, k -> new HashMap<>())
+                .merge(resourceId, amount, Integer::sum);
+        repository.save(playerId, resourceId, held);
+    }
+
+    /**
+     * Mailbox contents, resourceId -> amount
+     */
+    public Map<String, Integer> getMailbox(UUID playerId) {
+        Map<String, Integer> items = mailboxes.get(playerId);
+        return items == null ? Collections.emptyMap() : Collections.unmodifiableMap(items);
+    }
+
+    public int getItemCount(UUID playerId) {
+        int total = 0;
+        for (int amount : getMailbox(playerId).values()) {
+            total += amount;
+        }
+        return total;
+    }
+
+    /**
+     * Move the mailbox into the player's inventory in a single pass. Whatever
+     * does not fit, and resources that no longer exist, stay in the mailbox.
+     * Returns the number of items claimed.
+     */
+    public int claimAll(Player player) {
+        UUID playerId = player.getUniqueId();
+        Map<String, Integer> items = mailboxes.get(playerId);
+        if (items == null || items.isEmpty()) {
+            return 0;
+        }
+
+        List<String> resourceIds = new ArrayList<>();
+        List<ItemStack> stacks = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : items.entrySet()) {
+            ItemStack stack = plugin.getResourceManager().createItemStack(entry.getKey(), entry.getValue());
+            if (stack != null) {
+                resourceIds.add(entry.getKey());
+                stacks.add(stack);
+            }
+        }
+        Map<Integer, ItemStack> leftovers = player.getInventory().addItem(stacks.toArray(new ItemStack[0]));
+
+        int claimed = 0;
+        for (int i = 0; i < resourceIds.size(); i++) {
+            String resourceId = resourceIds.get(i);
+            ItemStack left = leftovers.get(i);
+            int remaining = left != null ? left.getAmount() : 0;
+            claimed += items.get(resourceId) - remaining;
+            if (remaining > 0) {
+                items.put(resourceId, remaining);
+            } else {
+                items.remove(resourceId);
+            }
+            repository.save(playerId, resourceId, remaining);
+        }
+        if (items.isEmpty()) {
+            mailboxes.remove(playerId);
+        }
+        return claimed;
+    }
+}
@@ -2,14 +2,12 @@ package com.aithor.factorycore.managers;
 
 import com.aithor.factorycore.FactoryCore;
 import com.aithor.factorycore.models.ResourceItem;
+import com.aithor.factorycore.persistence.MarketRepository;
+import com.aithor.factorycore.utils.DeadlineQueue;
 import org.bukkit.Bukkit;
-import org.bukkit.configuration.file.FileConfiguration;
-import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 
-import java.io.File;
-import java.io.IOException;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -22,95 +20,69 @@ public class MarketplaceManager {
     private final Map<String, MarketListing> listings; // listingId -> listing
     private final Map<UUID, List<String>> playerListings; // playerId -> list of listingIds
     private final Map<UUID, Double> playerEarnings; // pending earnings from sales
-    private final File dataFile;
+    private final MarketRepository repository;
+    // resourceId -> active listings, cheapest (then oldest) first
+    private final Map<String, NavigableSet<MarketListing>> orderBooks = new TreeMap<>();
+    // every active listing, newest first
+    private final NavigableSet<MarketListing> newestFirst = new TreeSet<>(NEWEST_FIRST);
+    private double totalVolume;
+    // listingId keyed by its expiry time
+    private final DeadlineQueue<String> expiryQueue = new DeadlineQueue<>();
+    // Buy orders, kept until filled or cancelled
+    private final Map<String, BuyOrder> buyOrders = new HashMap<>();
+    private final Map<UUID, List<String>> playerBuyOrders = new HashMap<>();
+    // resourceId -> open buy orders, highest bid (then oldest) first
+    private final Map<String, NavigableSet<BuyOrder>> bidBooks = new HashMap<>();
+
+    // ── Settlement batch ─────────────────────────────────────────────────────
+    // Trades matched during one tick are settled together on the next one
+    private final Map<UUID, Settlement> settlements = new LinkedHashMap<>();
+    private final Set<MarketListing> tradedListings = new LinkedHashSet<>();
+    private final Set<BuyOrder> tradedOrders = new LinkedHashSet<>();
+    private boolean settlementScheduled;
+
+    private static final Comparator<MarketListing> BOOK_ORDER = Comparator
+            .comparingDouble((MarketListing l) -> l.pricePerUnit)
+            .thenComparingLong(l -> l.listedTime)
+            .thenComparing(l -> l.id);
+    private static final Comparator<BuyOrder> BID_ORDER = Comparator
+            .comparingDouble((BuyOrder o) -> o.pricePerUnit).reversed()
+            .thenComparingLong(o -> o.placedTime)
+            .thenComparing(o -> o.id);
+    private static final Comparator<MarketListing> NEWEST_FIRST = Comparator
+            .comparingLong((MarketListing l) -> l.listedTime).reversed()
+            .thenComparing(l -> l.id);
 
     public MarketplaceManager(FactoryCore plugin) {
         this.plugin = plugin;
         this.listings = new HashMap<>();
         this.playerListings = new HashMap<>();
         this.playerEarnings = new HashMap<>();
-        File dataFolder = new File(plugin.getDataFolder(), "data");
-        if (!dataFolder.exists()) {
-            dataFolder.mkdirs();
-        }
-        this.dataFile = new File(dataFolder, "marketplace.yml");
+        this.repository = plugin.getDataBackend().getMarketRepository();
         loadMarketplace();
     }
 
     private void loadMarketplace() {
-        if (!dataFile.exists()) {
-            return;
-        }
-
-        FileConfiguration config = YamlConfiguration.loadConfiguration(dataFile);
-
-        // Load listings
-        if (config.contains("listings")) {
-            for (String listingId : config.getConfigurationSection("listings").getKeys(false)) {
-                String path = "listings." + listingId;
-                try {
-                    MarketListing listing = new MarketListing(
-                            listingId,
-                            UUID.fromString(config.getString(path + ".seller")),
-                            config.getString(path + ".seller-name"),
-                            config.getString(path + ".resource-id"),
-                            config.getInt(path + ".amount"),
-                            config.getDouble(path + ".price-per-unit"),
-                            config.getLong(path + ".listed-time"),
-                            config.getBoolean(path + ".active", true));
-
-                    if (listing.active) {
-                        listings.put(listingId, listing);
-                        playerListings.computeIfAbsent(listing.seller, k -> new ArrayList<>()).add(listingId);
-                    }
-                } catch (Exception e) {
-                    plugin.getLogger().warning("Failed to load listing: " + listingId);
-                }
-            }
+        repository.loadAll(listings, buyOrders, playerEarnings);
+        for (MarketListing listing : listings.values()) {
+            playerListings.computeIfAbsent(listing.seller, k -> new ArrayList<>()).add(listing.id);
+            index(listing);
         }
-
-        // Load pending earnings
-        if (config.contains("earnings")) {
-            for (String uuidStr : config.getConfigurationSection("earnings").getKeys(false)) {
-                try {
-                    UUID playerId = UUID.fromString(uuidStr);
-                    double amount = config.getDouble("earnings." + uuidStr);
-                    playerEarnings.put(playerId, amount);
-                } catch (Exception e) {
-                    plugin.getLogger().warning("Failed to load earnings for: " + uuidStr);
-                }
-            }
+        for (BuyOrder order : buyOrders.values()) {
+            playerBuyOrders.computeIfAbsent(order.buyer, k -> new ArrayList<>()).add(order.id);
+            indexBid(order);
         }
 
-        plugin.getLogger().info("Loaded " + listings.size() + " marketplace listings!");
+        plugin.getLogger().info("Loaded " + listings.size() + " marketplace listings and "
+                + buyOrders.size() + " buy orders!");
     }
 
+    /**
+     * Write all pending marketplace changes immediately.
+     */
     public void saveAll() {
-        FileConfiguration config = new YamlConfiguration();
-
-        // Save listings
-        for (MarketListing listing : listings.values()) {
-            String path = "listings." + listing.id;
-            config.set(path + ".seller", listing.seller.toString());
-            config.set(path + ".seller-name", listing.sellerName);
-            config.set(path + ".resource-id", listing.resourceId);
-            config.set(path + ".amount", listing.amount);
-            config.set(path + ".price-per-unit", listing.pricePerUnit);
-            config.set(path + ".listed-time", listing.listedTime);
-            config.set(path + ".active", listing.active);
-        }
-
-        // Save pending earnings
-        for (Map.Entry<UUID, Double> entry : playerEarnings.entrySet()) {
-            config.set("earnings." + entry.getKey().toString(), entry.getValue());
-        }
-
-        try {
-            config.save(dataFile);
-        } catch (IOException e) {
-            plugin.getLogger().severe("Failed to save marketplace data!");
-            e.printStackTrace();
-        }
+        settle();
+        repository.flush();
     }
 
     /**
@@ -124,7 +96,7 @@ public class MarketplaceManager {
         }
 
         // Check listing limit from config + research buffs
-        int baseMaxListings = plugin.getConfig().getInt("marketplace.max-listings-per-player", 10);
+        int baseMaxListings = plugin.getSettings().maxListingsPerPlayer;
         int additionalListings = plugin.getResearchManager().getAdditionalListingLimit(seller.getUniqueId());
         int maxListings = baseMaxListings + additionalListings;
 
@@ -139,8 +111,11 @@ public class MarketplaceManager {
             return null; // Player doesn't have enough items
         }
 
-        // Create listing
+        // Create listing; its lifetime is fixed now, including research bonus hours
         String listingId = UUID.randomUUID().toString().substring(0, 8);
+        long now = System.currentTimeMillis();
+        long lifetimeHours = plugin.getSettings().listingExpirationHours
+                + plugin.getResearchManager().getAdditionalListingHours(seller.getUniqueId());
         MarketListing listing = new MarketListing(
                 listingId,
                 seller.getUniqueId(),
@@ -148,13 +123,16 @@ public class MarketplaceManager {
                 resourceId,
                 amount,
                 pricePerUnit,
-                System.currentTimeMillis(),
+                now,
+                now + lifetimeHours * 3600000L,
                 true);
 
         listings.put(listingId, listing);
         playerListings.computeIfAbsent(seller.getUniqueId(), k -> new ArrayList<>()).add(listingId);
+        index(listing);
 
-        saveAll();
+        repository.saveListing(listing);
+        matchListing(listing);
         return listingId;
     }
 
@@ -179,7 +157,7 @@ public class MarketplaceManager {
 
         // Calculate price
         double totalPrice = listing.pricePerUnit * amount;
-        double taxRate = plugin.getConfig().getDouble("marketplace.tax-rate", 5.0) / 100.0;
+        double taxRate = plugin.getSettings().marketTaxRate;
         double tax = totalPrice * taxRate;
         double sellerReceives = totalPrice - tax;
 
@@ -192,15 +170,19 @@ public class MarketplaceManager {
         plugin.getEconomy().withdrawPlayer(buyer, totalPrice);
 
         // Add to seller's pending earnings
-        playerEarnings.merge(listing.seller, sellerReceives, Double::sum);
+        double pending = playerEarnings.merge(listing.seller, sellerReceives, Double::sum);
+        repository.saveEarnings(listing.seller, pending);
 
         // Give items to buyer
         plugin.getResourceManager().giveResource(buyer, listing.resourceId, amount);
 
         // Update listing
         listing.amount -= amount;
+        totalVolume -= amount * listing.pricePerUnit;
         if (listing.amount <= 0) {
             removeListing(listingId);
+        } else {
+            repository.saveListing(listing);
         }
 
         // Achievement: First Profit & Capitalist Monopoly (for the seller)
@@ -216,10 +198,7 @@ public class MarketplaceManager {
 
         // Daily Quest: Distribution Target (MARKETPLACE_SELL) for the seller
         if (plugin.getDailyQuestManager() != null) {
-            Player sellerQuestPlayer = Bukkit.getPlayer(listing.seller);
-            if (sellerQuestPlayer != null) {
-                plugin.getDailyQuestManager().addProgressByType(sellerQuestPlayer, "MARKETPLACE_SELL", amount);
-            }
+            plugin.getDailyQuestManager().addProgressByTypeOffline(listing.seller, "MARKETPLACE_SELL", amount);
         }
 
         // Daily Quest: Daily Supply (MARKETPLACE_BUY) for the buyer
@@ -236,7 +215,6 @@ public class MarketplaceManager {
                     " for $" + String.format("%.2f", totalPrice) + "!");
         }
 
-        saveAll();
         return true;
     }
 
@@ -253,13 +231,14 @@ public class MarketplaceManager {
         plugin.getResourceManager().giveResource(player, listing.resourceId, listing.amount);
 
         removeListing(listingId);
-        saveAll();
         return true;
     }
 
     private void removeListing(String listingId) {
         MarketListing listing = listings.remove(listingId);
         if (listing != null) {
+            unindex(listing);
+            repository.deleteListing(listingId);
             List<String> playerList = playerListings.get(listing.seller);
             if (playerList != null) {
                 playerList.remove(listingId);
@@ -267,6 +246,363 @@ public class MarketplaceManager {
         }
     }
 
+    // ── Buy orders ───────────────────────────────────────────────────────────
+
+    /**
+     * Place a standing buy order. The full amount times the price is taken
+     * from the buyer now and held until the order fills or is cancelled.
+     * Returns the order id, or null if the resource is unknown, the buyer
+     * has too many open orders or cannot pay.
+     */
+    public String placeBuyOrder(Player buyer, String resourceId, int amount, double pricePerUnit) {
+        // Written as !(x > 0) so NaN is rejected as well
+        if (amount <= 0 || !(pricePerUnit > 0) || Double.isInfinite(pricePerUnit)
+                || plugin.getResourceManager().getResource(resourceId) == null) {
+            return null;
+        }
+
+        // Buy orders share the listing limit, counted separately
+        int maxOrders = plugin.getSettings().maxListingsPerPlayer
+                + plugin.getResearchManager().getAdditionalListingLimit(buyer.getUniqueId());
+        if (getPlayerBuyOrders(buyer.getUniqueId()).stream().filter(BuyOrder::isOpen).count() >= maxOrders) {
+            return null;
+        }
+
+        double escrow = amount * pricePerUnit;
+        if (Double.isInfinite(escrow) || !plugin.getEconomy().has(buyer, escrow)) {
+            return null;
+        }
+        plugin.getEconomy().withdrawPlayer(buyer, escrow);
+
+        String orderId = UUID.randomUUID().toString().substring(0, 8);
+        BuyOrder order = new BuyOrder(
+                orderId,
+                buyer.getUniqueId(),
+                buyer.getName(),
+                resourceId,
+                amount,
+                pricePerUnit,
+                System.currentTimeMillis());
+
+        buyOrders.put(orderId, order);
+        playerBuyOrders.computeIfAbsent(buyer.getUniqueId(), k -> new ArrayList<>()).add(orderId);
+        indexBid(order);
+
+        repository.saveBuyOrder(order);
+        matchBuyOrder(order);
+        return orderId;
+    }
+
+    /**
+     * Cancel a buy order and refund the unfilled part of its escrow.
+     */
+    public boolean cancelBuyOrder(Player player, String orderId) {
+        BuyOrder order = buyOrders.get(orderId);
+        if (order == null || !order.buyer.equals(player.getUniqueId())) {
+            return false;
+        }
+
+        if (order.amount > 0) {
+            plugin.getEconomy().depositPlayer(player, order.getEscrow());
+            unindexBid(order);
+            order.amount = 0;
+        }
+        persistBuyOrder(order);
+        return true;
+    }
+
+    public List<BuyOrder> getPlayerBuyOrders(UUID playerId) {
+        return playerBuyOrders.getOrDefault(playerId, new ArrayList<>()).stream()
+                .map(buyOrders::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    public BuyOrder getBuyOrder(String orderId) {
+        return buyOrders.get(orderId);
+    }
+
+    /**
+     * Open buy orders for a resource, highest bid first
+     */
+    public List<BuyOrder> getBuyOrdersByResource(String resourceId) {
+        NavigableSet<BuyOrder> book = bidBooks.get(resourceId);
+        return book == null ? new ArrayList<>() : new ArrayList<>(book);
+    }
+
+    /**
+     * Write an open order, or drop one that is filled or cancelled.
+     */
+    private void persistBuyOrder(BuyOrder order) {
+        if (order.isOpen()) {
+            repository.saveBuyOrder(order);
+            return;
+        }
+        if (buyOrders.remove(order.id) != null) {
+            List<String> playerList = playerBuyOrders.get(order.buyer);
+            if (playerList != null) {
+                playerList.remove(order.id);
+            }
+            repository.deleteBuyOrder(order.id);
+        }
+    }
+
+    private void indexBid(BuyOrder order) {
+        if (order.isOpen()) {
+            bidBooks.computeIfAbsent(order.resourceId, k -> new TreeSet<>(BID_ORDER)).add(order);
+        }
+    }
+
+    private void unindexBid(BuyOrder order) {
+        NavigableSet<BuyOrder> book = bidBooks.get(order.resourceId);
+        if (book != null && book.remove(order) && book.isEmpty()) {
+            bidBooks.remove(order.resourceId);
+        }
+    }
+
+    // ── Matching ─────────────────────────────────────────────────────────────
+    // An arriving order trades against the resting side at the resting
+    // order's price, best price first, skipping the trader's own orders.
+
+    private void matchListing(MarketListing listing) {
+        NavigableSet<BuyOrder> bids = bidBooks.get(listing.resourceId);
+        BuyOrder bid = bids == null || bids.isEmpty() ? null : bids.first();
+        while (bid != null && listing.amount > 0 && bid.pricePerUnit >= listing.pricePerUnit) {
+            BuyOrder next = bids.higher(bid);
+            if (!bid.buyer.equals(listing.seller)) {
+                fill(listing, bid, bid.pricePerUnit);
+            }
+            bid = next;
+        }
+    }
+
+    private void matchBuyOrder(BuyOrder order) {
+        NavigableSet<MarketListing> asks = orderBooks.get(order.resourceId);
+        MarketListing ask = asks == null || asks.isEmpty() ? null : asks.first();
+        while (ask != null && order.amount > 0 && ask.pricePerUnit <= order.pricePerUnit) {
+            MarketListing next = asks.higher(ask);
+            if (!ask.seller.equals(order.buyer)) {
+                fill(ask, order, ask.pricePerUnit);
+            }
+            ask = next;
+        }
+    }
+
+    /**
+     * Trade as many units as both sides allow. Money and items move in
+     * {@link #settle()}: the escrow above the trade price goes back to the
+     * buyer and the units go to the buyer's inventory, or to their mailbox
+     * while they are offline.
+     */
+    private void fill(MarketListing listing, BuyOrder order, double price) {
+        int units = Math.min(listing.amount, order.amount);
+
+        order.amount -= units;
+        sell(listing, units, price);
+
+        Settlement buyer = settlements.computeIfAbsent(order.buyer, k -> new Settlement());
+        buyer.items.merge(order.resourceId, units, Integer::sum);
+        buyer.unitsBought += units;
+        buyer.spent += units * price;
+        buyer.refund += units * (order.pricePerUnit - price);
+
+        if (!order.isOpen()) {
+            unindexBid(order);
+        }
+        tradedOrders.add(order);
+
+        if (!settlementScheduled) {
+            settlementScheduled = true;
+            Bukkit.getScheduler().runTask(plugin, this::settle);
+        }
+    }
+
+    /**
+     * Take units off a listing and credit its seller, less market tax, in
+     * the current settlement batch.
+     */
+    private void sell(MarketListing listing, int units, double price) {
+        listing.amount -= units;
+        totalVolume -= units * listing.pricePerUnit;
+
+        double total = units * price;
+        Settlement seller = settlements.computeIfAbsent(listing.seller, k -> new Settlement());
+        seller.unitsSold += units;
+        seller.earned += total - total * plugin.getSettings().marketTaxRate;
+
+        if (listing.amount <= 0) {
+            removeListing(listing.id);
+        } else {
+            tradedListings.add(listing);
+        }
+    }
+
+    // ── Sweep ────────────────────────────────────────────────────────────────
+
+    /**
+     * What {@link #buyCheapest} would fill right now, limited by the buyer's
+     * balance. Nothing is changed.
+     */
+    public SweepResult quoteCheapest(Player buyer, String resourceId, int units, double maxPricePerUnit) {
+        return planSweep(buyer.getUniqueId(), resourceId, units, maxPricePerUnit,
+                plugin.getEconomy().getBalance(buyer), null);
+    }
+
+    /**
+     * Buy up to {@code units} of a resource from the cheapest listings priced
+     * at most {@code maxPricePerUnit}, skipping the buyer's own listings and
+     * stopping where the buyer's balance runs out. The buyer pays once and
+     * receives the items at once; sellers are credited and persisted once
+     * each.
+     */
+    public SweepResult buyCheapest(Player buyer, String resourceId, int units, double maxPricePerUnit) {
+        Map<MarketListing, Integer> takes = new LinkedHashMap<>();
+        SweepResult result = planSweep(buyer.getUniqueId(), resourceId, units, maxPricePerUnit,
+                plugin.getEconomy().getBalance(buyer), takes);
+        if (result.units <= 0) {
+            return result;
+        }
+
+        plugin.getEconomy().withdrawPlayer(buyer, result.cost);
+        takes.forEach((listing, take) -> sell(listing, take, listing.pricePerUnit));
+        plugin.getResourceManager().giveResource(buyer, resourceId, result.units);
+
+        Settlement settlement = settlements.computeIfAbsent(buyer.getUniqueId(), k -> new Settlement());
+        settlement.unitsBought += result.units;
+        settlement.spent += result.cost;
+        settle();
+        return result;
+    }
+
+    private SweepResult planSweep(UUID buyer, String resourceId, int units, double maxPricePerUnit,
+            double budget, Map<MarketListing, Integer> takes) {
+        NavigableSet<MarketListing> book = orderBooks.get(resourceId);
+        int planned = 0;
+        double cost = 0;
+        if (book == null || units <= 0) {
+            return new SweepResult(0, 0);
+        }
+
+        for (MarketListing listing : book) {
+            if (listing.pricePerUnit > maxPricePerUnit || planned >= units) {
+                break;
+            }
+            if (listing.seller.equals(buyer)) {
+                continue;
+            }
+            int affordable = (int) Math.floor((budget - cost) / listing.pricePerUnit + 1e-9);
+            int take = Math.min(Math.min(listing.amount, units - planned), affordable);
+            if (take <= 0) {
+                break;
+            }
+            planned += take;
+            cost += take * listing.pricePerUnit;
+            if (takes != null) {
+                takes.put(listing, take);
+            }
+        }
+        return new SweepResult(planned, cost);
+    }
+
+    /**
+     * Settle every trade matched since the last call: one write per touched
+     * listing, order and seller balance, and one message per player.
+     */
+    public void settle() {
+        settlementScheduled = false;
+        if (settlements.isEmpty()) {
+            return;
+        }
+
+        for (MarketListing listing : tradedListings) {
+            if (listings.containsKey(listing.id)) {
+                repository.saveListing(listing);
+            }
+        }
+        tradedListings.clear();
+
+        tradedOrders.forEach(this::persistBuyOrder);
+        tradedOrders.clear();
+
+        for (Map.Entry<UUID, Settlement> entry : settlements.entrySet()) {
+            UUID playerId = entry.getKey();
+            Settlement settlement = entry.getValue();
+            Player player = Bukkit.getPlayer(playerId);
+
+            if (settlement.refund > 0.005) {
+                plugin.getEconomy().depositPlayer(Bukkit.getOfflinePlayer(playerId), settlement.refund);
+            }
+            settlement.items.forEach((resourceId, units) ->
+                    plugin.getResourceManager().deliverResource(playerId, resourceId, units));
+            if (settlement.unitsSold > 0) {
+                double pending = playerEarnings.merge(playerId, settlement.earned, Double::sum);
+                repository.saveEarnings(playerId, pending);
+                if (plugin.getAchievementManager() != null) {
+                    if (player != null) {
+                        plugin.getAchievementManager().awardAchievement(player, "first_profit");
+                        plugin.getAchievementManager().addProgress(player, "capitalist_monopoly", settlement.earned);
+                    } else {
+                        plugin.getAchievementManager().addProgressOffline(playerId, "capitalist_monopoly",
+                                settlement.earned);
+                    }
+                }
+            }
+
+            if (plugin.getDailyQuestManager() != null) {
+                if (settlement.unitsSold > 0) {
+                    plugin.getDailyQuestManager().addProgressByTypeOffline(playerId, "MARKETPLACE_SELL",
+                            settlement.unitsSold);
+                }
+                if (settlement.unitsBought > 0) {
+                    plugin.getDailyQuestManager().addProgressByTypeOffline(playerId, "MARKETPLACE_BUY",
+                            settlement.unitsBought);
+                }
+            }
+
+            if (player == null) {
+                continue;
+            }
+            if (settlement.unitsSold > 0) {
+                player.sendMessage("§aSold §e" + settlement.unitsSold + " §aof your listed items for §6$"
+                        + String.format("%.2f", settlement.earned) + " §a(after tax). Collect it in the marketplace.");
+            }
+            if (settlement.unitsBought > 0) {
+                player.sendMessage("§aBought §e" + settlement.unitsBought + " §aitems on the marketplace for §6$"
+                        + String.format("%.2f", settlement.spent)
+                        + (settlement.refund > 0.005
+                                ? " §7($" + String.format("%.2f", settlement.refund) + " escrow refunded)"
+                                : "")
+                        + "§a.");
+            }
+        }
+        settlements.clear();
+    }
+
+    // ── Order book ───────────────────────────────────────────────────────────
+    // Sort keys (price, listed time, id) never change while a listing is
+    // indexed; only the amount does.
+
+    private void index(MarketListing listing) {
+        if (!listing.active) {
+            return;
+        }
+        orderBooks.computeIfAbsent(listing.resourceId, k -> new TreeSet<>(BOOK_ORDER)).add(listing);
+        newestFirst.add(listing);
+        totalVolume += listing.getTotalPrice();
+        expiryQueue.schedule(listing.id, listing.expiresAt);
+    }
+
+    private void unindex(MarketListing listing) {
+        NavigableSet<MarketListing> book = orderBooks.get(listing.resourceId);
+        if (book != null && book.remove(listing) && book.isEmpty()) {
+            orderBooks.remove(listing.resourceId);
+        }
+        if (newestFirst.remove(listing)) {
+            totalVolume -= listing.getTotalPrice();
+        }
+        expiryQueue.cancel(listing.id);
+    }
+
     /**
      * Collect pending earnings
      */
@@ -277,7 +613,7 @@ public class MarketplaceManager {
         }
 
         plugin.getEconomy().depositPlayer(player, earnings);
-        saveAll();
+        repository.saveEarnings(player.getUniqueId(), 0);
         return earnings;
     }
 
@@ -296,13 +632,67 @@ public class MarketplaceManager {
     }
 
     /**
-     * Get listings sorted by resource
+     * Get listings of a resource, cheapest first
      */
     public List<MarketListing> getListingsByResource(String resourceId) {
-        return listings.values().stream()
-                .filter(l -> l.resourceId.equals(resourceId) && l.active)
-                .sorted(Comparator.comparingDouble(l -> l.pricePerUnit))
-                .collect(Collectors.toList());
+        NavigableSet<MarketListing> book = orderBooks.get(resourceId);
+        return book == null ? new ArrayList<>() : new ArrayList<>(book);
+    }
+
+    /**
+     * Get the page of active listings that follows {@code after}, or the
+     * first page when it is null: cheapest first for a resource, or newest
+     * first when resourceId is null. The cursor may be a listing that has
+     * since been sold or removed.
+     */
+    public List<MarketListing> getListingsAfter(String resourceId, MarketListing after, int limit) {
+        NavigableSet<MarketListing> source = resourceId == null ? newestFirst : orderBooks.get(resourceId);
+        if (source == null) {
+            return new ArrayList<>();
+        }
+        return takePage(after == null ? source : source.tailSet(after, false), limit, false);
+    }
+
+    /**
+     * Get the page of active listings that precedes {@code before}, in the
+     * same order as {@link #getListingsAfter}.
+     */
+    public List<MarketListing> getListingsBefore(String resourceId, MarketListing before, int limit) {
+        NavigableSet<MarketListing> source = resourceId == null ? newestFirst : orderBooks.get(resourceId);
+        if (source == null) {
+            return new ArrayList<>();
+        }
+        return takePage(source.headSet(before, false), limit, true);
+    }
+
+    private static List<MarketListing> takePage(NavigableSet<MarketListing> view, int limit, boolean fromEnd) {
+        List<MarketListing> page = new ArrayList<>(Math.max(0, limit));
+        Iterator<MarketListing> it = fromEnd ? view.descendingIterator() : view.iterator();
+        while (it.hasNext() && page.size() < limit) {
+            page.add(it.next());
+        }
+        if (fromEnd) {
+            Collections.reverse(page);
+        }
+        return page;
+    }
+
+    /**
+     * Number of active listings, for one resource or all when resourceId is null
+     */
+    public int getListingCount(String resourceId) {
+        if (resourceId == null) {
+            return newestFirst.size();
+        }
+        NavigableSet<MarketListing> book = orderBooks.get(resourceId);
+        return book == null ? 0 : book.size();
+    }
+
+    /**
+     * Total price of every active listing
+     */
+    public double getTotalVolume() {
+        return newestFirst.isEmpty() ? 0 : totalVolume;
     }
 
     /**
@@ -326,41 +716,83 @@ public class MarketplaceManager {
      * Get all unique resources being sold
      */
     public Set<String> getAvailableResources() {
-        return listings.values().stream()
-                .filter(l -> l.active)
-                .map(l -> l.resourceId)
-                .collect(Collectors.toSet());
+        return Collections.unmodifiableSet(orderBooks.keySet());
     }
 
     /**
-     * Clean up expired listings
+     * Remove listings whose expiry time has passed and return their items;
+     * only listings that are due are touched. Items of offline sellers go to
+     * their mailbox. Returns how many listings expired.
      */
-    public void cleanupExpiredListings() {
-        long baseExpirationTime = plugin.getConfig().getLong("marketplace.listing-expiration-hours", 168) * 60 * 60
-                * 1000;
-        long currentTime = System.currentTimeMillis();
-
-        List<String> toRemove = new ArrayList<>();
-        for (MarketListing listing : listings.values()) {
-            long additionalHours = plugin.getResearchManager().getAdditionalListingHours(listing.seller);
-            long expirationTime = baseExpirationTime + (additionalHours * 60 * 60 * 1000);
+    public int cleanupExpiredListings() {
+        List<MarketListing> expired = new ArrayList<>();
+        expiryQueue.pollDue(System.currentTimeMillis(), listingId -> {
+            MarketListing listing = listings.get(listingId);
+            if (listing != null) {
+                expired.add(listing);
+            }
+        });
 
-            if (currentTime - listing.listedTime > expirationTime) {
-                toRemove.add(listing.id);
+        for (MarketListing listing : expired) {
+            removeListing(listing.id);
 
-                // Return items to seller
-                Player seller = Bukkit.getPlayer(listing.seller);
-                if (seller != null) {
-                    plugin.getResourceManager().giveResource(seller, listing.resourceId, listing.amount);
-                    seller.sendMessage("§eYour marketplace listing has expired and items were returned.");
-                }
-                // If offline, items are lost (or could be mailed)
+            plugin.getResourceManager().deliverResource(listing.seller, listing.resourceId, listing.amount);
+            Player seller = Bukkit.getPlayer(listing.seller);
+            if (seller != null) {
+                seller.sendMessage("§eYour marketplace listing has expired and items were returned.");
             }
         }
+        return expired.size();
+    }
+
+    // Units and total price of a sweep
+    public static class SweepResult {
+        public final int units;
+        public final double cost;
+
+        public SweepResult(int units, double cost) {
+            this.units = units;
+            this.cost = cost;
+        }
+    }
+
+    // Totals of one player's side of the trades in a settlement batch
+    private static class Settlement {
+        int unitsSold;
+        double earned; // after market tax
+        int unitsBought;
+        double spent;
+        double refund; // escrow above the trade price
+        final Map<String, Integer> items = new HashMap<>(); // bought through buy orders, resourceId -> units
+    }
 
-        toRemove.forEach(this::removeListing);
-        if (!toRemove.isEmpty()) {
-            saveAll();
+    // Buy order data class
+    public static class BuyOrder {
+        public final String id;
+        public final UUID buyer;
+        public final String buyerName;
+        public final String resourceId;
+        public int amount; // units still wanted, escrowed at pricePerUnit
+        public final double pricePerUnit; // highest price the buyer pays
+        public final long placedTime;
+
+        public BuyOrder(String id, UUID buyer, String buyerName, String resourceId,
+                int amount, double pricePerUnit, long placedTime) {
+            this.id = id;
+            this.buyer = buyer;
+            this.buyerName = buyerName;
+            this.resourceId = resourceId;
+            this.amount = amount;
+            this.pricePerUnit = pricePerUnit;
+            this.placedTime = placedTime;
+        }
+
+        public boolean isOpen() {
+            return amount > 0;
+        }
+
+        public double getEscrow() {
+            return amount * pricePerUnit;
         }
     }
 
@@ -373,10 +805,11 @@ public class MarketplaceManager {
         public int amount;
         public final double pricePerUnit;
         public final long listedTime;
+        public final long expiresAt;
         public boolean active;
 
         public MarketListing(String id, UUID seller, String sellerName, String resourceId,
-                int amount, double pricePerUnit, long listedTime, boolean active) {
+                int amount, double pricePerUnit, long listedTime, long expiresAt, boolean active) {
             this.id = id;
             this.seller = seller;
             this.sellerName = sellerName;
@@ -384,6 +817,7 @@ public class MarketplaceManager {
             this.amount = amount;
             this.pricePerUnit = pricePerUnit;
             this.listedTime = listedTime;
+            this.expiresAt = expiresAt;
             this.active = active;
         }
 
@@ -2,6 +2,7 @@ package com.aithor.factorycore.managers;
 
 import com.aithor.factorycore.FactoryCore;
 import com.aithor.factorycore.models.FactoryNPC;
+import com.aithor.factorycore.persistence.DataSnapshot;
 import org.bukkit.*;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
@@ -11,7 +12,6 @@ import org.bukkit.scheduler.BukkitTask;
 import org.bukkit.util.EulerAngle;
 
 import java.io.File;
-import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
@@ -28,6 +28,8 @@ import java.util.stream.Collectors;
  */
 public class NPCManager {
 
+    private static final String STORE_NAME = "npcs";
+
     private final FactoryCore plugin;
 
     // Core data
@@ -40,6 +42,9 @@ public class NPCManager {
     private final File configFile;
     private FileConfiguration npcData;
     private FileConfiguration npcSettings;
+    // Parsed from npcSettings by loadNPCSettings() for the behavior tick
+    private BehaviorSettings behavior;
+    private final Map<String, TemplateEffects> templateEffects = new HashMap<>(); // config path → effects
 
     // Scheduler tasks
     private BukkitTask behaviorTask;
@@ -59,6 +64,7 @@ public class NPCManager {
 
         this.dataFile = new File(dataFolder, "npcs.yml");
         this.configFile = new File(plugin.getDataFolder(), "npc.yml");
+        plugin.getPersistenceService().register(STORE_NAME, dataFile, this::createSnapshot);
 
         loadNPCSettings();
         loadNPCs();
@@ -73,6 +79,8 @@ public class NPCManager {
             plugin.saveResource("npc.yml", false);
         }
         npcSettings = YamlConfiguration.loadConfiguration(configFile);
+        behavior = new BehaviorSettings();
+        templateEffects.clear();
     }
 
     private void loadNPCs() {
@@ -149,8 +157,22 @@ public class NPCManager {
 
     // ─── Persistence ──────────────────────────────────────────────────────────
 
+    /**
+     * Schedule a write-behind save of npcs.yml.
+     */
+    public void markDirty() {
+        plugin.getPersistenceService().markDirty(STORE_NAME);
+    }
+
+    /**
+     * Write npcs.yml immediately.
+     */
     public void saveAll() {
-        FileConfiguration config = new YamlConfiguration();
+        plugin.getPersistenceService().saveNow(STORE_NAME);
+    }
+
+    private DataSnapshot createSnapshot() {
+        DataSnapshot config = new DataSnapshot();
 
         for (FactoryNPC npc : npcs.values()) {
             String path = npc.getId();
@@ -183,12 +205,7 @@ public class NPCManager {
             }
         }
 
-        try {
-            config.save(dataFile);
-        } catch (IOException e) {
-            plugin.getLogger().severe("Failed to save NPCs!");
-            e.printStackTrace();
-        }
+        return config;
     }
 
     // ─── Spawn / Remove ───────────────────────────────────────────────────────
@@ -221,9 +238,10 @@ public class NPCManager {
         FactoryNPC npc = new FactoryNPC(npcId, factoryId, name, location);
         npc.setTemplate(template);
         npcs.put(npcId, npc);
+        invalidateFactoryModifiers(factoryId);
 
         spawnVillager(npc, configPath);
-        saveAll();
+        markDirty();
         return true;
     }
 
@@ -239,11 +257,22 @@ public class NPCManager {
         removeHolograms(npc);
         entityToFactory.remove(npc.getEntityUUID());
         entityToNpcId.remove(npc.getEntityUUID());
+        invalidateFactoryModifiers(npc.getFactoryId());
 
-        saveAll();
+        markDirty();
         return true;
     }
 
+    /**
+     * The employee buff is part of a factory's cached modifiers; drop them
+     * whenever the NPC working there changes.
+     */
+    private void invalidateFactoryModifiers(String factoryId) {
+        if (factoryId != null && plugin.getFactoryManager() != null) {
+            plugin.getFactoryManager().invalidateModifiers(factoryId);
+        }
+    }
+
     // ─── Internal Spawn Logic ─────────────────────────────────────────────────
 
     /**
@@ -293,7 +322,7 @@ public class NPCManager {
         // ── Hologram ──────────────────────────────────────────────────────────
         spawnHolograms(npc, configPath, loc);
 
-        saveAll();
+        markDirty();
     }
 
     // ─── Hologram ─────────────────────────────────────────────────────────────
@@ -385,16 +414,17 @@ public class NPCManager {
         // Run every tick (1 tick = 50ms) for smooth head tracking
         behaviorTask = plugin.getServer().getScheduler().runTaskTimer(plugin, () -> {
             long tick = tickCounter.getAndIncrement();
+            BehaviorSettings settings = behavior;
 
-            boolean lookEnabled = npcSettings.getBoolean("global.enable-look-at-player", true);
-            boolean idleEnabled = npcSettings.getBoolean("global.enable-idle-animation", true);
-            boolean particleEnabled = npcSettings.getBoolean("global.enable-particles", true);
-            boolean ambientEnabled = npcSettings.getBoolean("global.ambient-sound-enabled", true);
+            boolean lookEnabled = settings.lookEnabled;
+            boolean idleEnabled = settings.idleEnabled;
+            boolean particleEnabled = settings.particleEnabled;
+            boolean ambientEnabled = settings.ambientEnabled;
 
-            double lookRadius = npcSettings.getDouble("global.look-at-player-radius", 6.0);
-            int idleInterval = npcSettings.getInt("global.idle-animation-interval", 60);
-            int particleInterval = npcSettings.getInt("global.particle-interval", 40);
-            int ambientInterval = npcSettings.getInt("global.ambient-sound-interval", 300);
+            double lookRadius = settings.lookRadius;
+            int idleInterval = settings.idleInterval;
+            int particleInterval = settings.particleInterval;
+            int ambientInterval = settings.ambientInterval;
 
             for (FactoryNPC npc : npcs.values()) {
                 if (npc.getEntityUUID() == null)
@@ -431,6 +461,75 @@ public class NPCManager {
         }, 1L, 1L);
     }
 
+    /**
+     * The {@code global} behavior section of npc.yml, read once per load.
+     */
+    private final class BehaviorSettings {
+        final boolean lookEnabled = npcSettings.getBoolean("global.enable-look-at-player", true);
+        final boolean idleEnabled = npcSettings.getBoolean("global.enable-idle-animation", true);
+        final boolean particleEnabled = npcSettings.getBoolean("global.enable-particles", true);
+        final boolean ambientEnabled = npcSettings.getBoolean("global.ambient-sound-enabled", true);
+
+        final double lookRadius = npcSettings.getDouble("global.look-at-player-radius", 6.0);
+        final int idleInterval = Math.max(1, npcSettings.getInt("global.idle-animation-interval", 60));
+        final int particleInterval = Math.max(1, npcSettings.getInt("global.particle-interval", 40));
+        final int ambientInterval = Math.max(1, npcSettings.getInt("global.ambient-sound-interval", 300));
+
+        final Sound ambientSound = parseSound(npcSettings.getString("global.ambient-sound", "ENTITY_VILLAGER_AMBIENT"));
+        final float ambientVolume = (float) npcSettings.getDouble("global.ambient-sound-volume", 0.3);
+        final float ambientPitch = (float) npcSettings.getDouble("global.ambient-sound-pitch", 1.0);
+        final double ambientRadius = npcSettings.getDouble("global.ambient-sound-radius", 8.0);
+    }
+
+    /**
+     * Idle animation and particle settings of one template, falling back to
+     * {@code default}. Parsed on first use after each load.
+     */
+    private final class TemplateEffects {
+        final float yawRange;
+        final float pitchRange;
+        final int steps;
+        final Particle particle;
+        final int particleCount;
+        final double offX;
+        final double offY;
+        final double offZ;
+        final double speed;
+
+        TemplateEffects(String configPath) {
+            yawRange = (float) npcSettings.getDouble(configPath + ".idle-animation.yaw-range",
+                    npcSettings.getDouble("default.idle-animation.yaw-range", 30.0));
+            pitchRange = (float) npcSettings.getDouble(configPath + ".idle-animation.pitch-range",
+                    npcSettings.getDouble("default.idle-animation.pitch-range", 15.0));
+            steps = Math.max(1, npcSettings.getInt(configPath + ".idle-animation.smooth-steps",
+                    npcSettings.getInt("default.idle-animation.smooth-steps", 5)));
+
+            String particleName = npcSettings.getString(configPath + ".particle.type",
+                    npcSettings.getString("default.particle.type", "VILLAGER_HAPPY"));
+            Particle parsed;
+            try {
+                parsed = Particle.valueOf(particleName);
+            } catch (Exception e) {
+                parsed = null; // unknown particle types are ignored
+            }
+            particle = parsed;
+            particleCount = npcSettings.getInt(configPath + ".particle.count",
+                    npcSettings.getInt("default.particle.count", 3));
+            offX = npcSettings.getDouble(configPath + ".particle.offset-x",
+                    npcSettings.getDouble("default.particle.offset-x", 0.3));
+            offY = npcSettings.getDouble(configPath + ".particle.offset-y",
+                    npcSettings.getDouble("default.particle.offset-y", 0.5));
+            offZ = npcSettings.getDouble(configPath + ".particle.offset-z",
+                    npcSettings.getDouble("default.particle.offset-z", 0.3));
+            speed = npcSettings.getDouble(configPath + ".particle.speed",
+                    npcSettings.getDouble("default.particle.speed", 0.05));
+        }
+    }
+
+    private TemplateEffects getTemplateEffects(FactoryNPC npc) {
+        return templateEffects.computeIfAbsent(resolveConfigPath(npc.getTemplate()), TemplateEffects::new);
+    }
+
     // ─── Look-at Logic ────────────────────────────────────────────────────────
 
     /**
@@ -487,14 +586,10 @@ public class NPCManager {
      * Smooth idle head movement using linear interpolation toward a random target.
      */
     private void tickIdleAnimation(FactoryNPC npc, Villager villager) {
-        String configPath = resolveConfigPath(npc.getTemplate());
-
-        float yawRange = (float) npcSettings.getDouble(configPath + ".idle-animation.yaw-range",
-                npcSettings.getDouble("default.idle-animation.yaw-range", 30.0));
-        float pitchRange = (float) npcSettings.getDouble(configPath + ".idle-animation.pitch-range",
-                npcSettings.getDouble("default.idle-animation.pitch-range", 15.0));
-        int steps = npcSettings.getInt(configPath + ".idle-animation.smooth-steps",
-                npcSettings.getInt("default.idle-animation.smooth-steps", 5));
+        TemplateEffects effects = getTemplateEffects(npc);
+        float yawRange = effects.yawRange;
+        float pitchRange = effects.pitchRange;
+        int steps = effects.steps;
 
         // Pick a new random target when step resets
         if (npc.getIdleStep() <= 0) {
@@ -524,27 +619,16 @@ public class NPCManager {
 
     @SuppressWarnings("deprecation")
     private void spawnParticles(FactoryNPC npc, Location loc) {
-        String configPath = resolveConfigPath(npc.getTemplate());
-
-        String particleName = npcSettings.getString(configPath + ".particle.type",
-                npcSettings.getString("default.particle.type", "VILLAGER_HAPPY"));
-        int count = npcSettings.getInt(configPath + ".particle.count",
-                npcSettings.getInt("default.particle.count", 3));
-        double offX = npcSettings.getDouble(configPath + ".particle.offset-x",
-                npcSettings.getDouble("default.particle.offset-x", 0.3));
-        double offY = npcSettings.getDouble(configPath + ".particle.offset-y",
-                npcSettings.getDouble("default.particle.offset-y", 0.5));
-        double offZ = npcSettings.getDouble(configPath + ".particle.offset-z",
-                npcSettings.getDouble("default.particle.offset-z", 0.3));
-        double speed = npcSettings.getDouble(configPath + ".particle.speed",
-                npcSettings.getDouble("default.particle.speed", 0.05));
+        TemplateEffects effects = getTemplateEffects(npc);
+        if (effects.particle == null) {
+            return;
+        }
 
         try {
-            Particle particle = Particle.valueOf(particleName);
-            loc.getWorld().spawnParticle(particle, loc.clone().add(0, 1.5, 0),
-                    count, offX, offY, offZ, speed);
+            loc.getWorld().spawnParticle(effects.particle, loc.clone().add(0, 1.5, 0),
+                    effects.particleCount, effects.offX, effects.offY, effects.offZ, effects.speed);
         } catch (Exception e) {
-            // Silently ignore unknown particle types
+            // Silently ignore particles that need extra data
         }
     }
 
@@ -568,12 +652,12 @@ public class NPCManager {
      * Play ambient sound to nearby players.
      */
     private void playAmbientSound(FactoryNPC npc, Location loc) {
-        String soundName = npcSettings.getString("global.ambient-sound", "ENTITY_VILLAGER_AMBIENT");
-        float volume = (float) npcSettings.getDouble("global.ambient-sound-volume", 0.3);
-        float pitch = (float) npcSettings.getDouble("global.ambient-sound-pitch", 1.0);
-        double radius = npcSettings.getDouble("global.ambient-sound-radius", 8.0);
+        BehaviorSettings settings = behavior;
+        Sound sound = settings.ambientSound;
+        float volume = settings.ambientVolume;
+        float pitch = settings.ambientPitch;
+        double radius = settings.ambientRadius;
 
-        Sound sound = parseSound(soundName);
         if (sound == null)
             return;
 
@@ -729,7 +813,7 @@ public class NPCManager {
         npc.setProductionTimeReduction(reduction);
 
         npcs.put(npcId, npc);
-        saveAll();
+        markDirty();
 
         plugin.getLogger()
                 .info("Player " + player.getName() + " purchased NPC type '" + npcTypeId + "' (id: " + npcId + ")");
@@ -825,12 +909,13 @@ public class NPCManager {
         // Assign
         npc.setFactoryId(factoryId);
         npc.setLocation(spawnLoc);
+        invalidateFactoryModifiers(factoryId);
 
         // Spawn the villager entity
         String configPath = resolveConfigPath(npc.getTemplate());
         spawnVillager(npc, configPath);
 
-        saveAll();
+        markDirty();
 
         // Achievement: Who Is The Boss Now - first NPC assignment
         if (plugin.getAchievementManager() != null) {
@@ -865,11 +950,12 @@ public class NPCManager {
         }
 
         // Clear assignment
+        invalidateFactoryModifiers(npc.getFactoryId());
         npc.setFactoryId(null);
         npc.setLocation(null);
         npc.setEntityUUID(null);
 
-        saveAll();
+        markDirty();
         return true;
     }
 
@@ -955,6 +1041,9 @@ public class NPCManager {
             removeHolograms(npc);
         }
 
+        // Write pending changes before npcs.yml is read back
+        saveAll();
+
         npcs.clear();
         entityToFactory.clear();
         entityToNpcId.clear();
@@ -963,6 +1052,10 @@ public class NPCManager {
         loadNPCSettings();
         loadNPCs();
 
+        if (plugin.getFactoryManager() != null) {
+            plugin.getFactoryManager().invalidateAllModifiers();
+        }
+
         // Respawn all
         respawnAllNPCsIfNotExists();
 
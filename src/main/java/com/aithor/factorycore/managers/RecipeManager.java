@@ -18,12 +18,14 @@ import java.util.*;
 public class RecipeManager {
     private final FactoryCore plugin;
     private final Map<String, Recipe> recipes;
+    private final Map<String, Set<String>> inputsByFactoryType; // factory type -> resources its recipes consume
     private FileConfiguration recipeConfig;
     private final File recipeFile;
 
     public RecipeManager(FactoryCore plugin) {
         this.plugin = plugin;
         this.recipes = new HashMap<>();
+        this.inputsByFactoryType = new HashMap<>();
         this.recipeFile = new File(plugin.getDataFolder(), "recipes.yml");
         reload();
     }
@@ -34,6 +36,7 @@ public class RecipeManager {
         plugin.getLogger().info("Recipe file path: " + recipeFile.getAbsolutePath());
 
         recipes.clear();
+        inputsByFactoryType.clear();
         recipeConfig = YamlConfiguration.loadConfiguration(recipeFile);
 
         if (!recipeConfig.contains("recipes")) {
@@ -93,6 +96,8 @@ public class RecipeManager {
             recipe.setIcon(recipeConfig.getString(path + ".icon", "STONE"));
 
             recipes.put(key, recipe);
+            inputsByFactoryType.computeIfAbsent(factoryType, type -> new HashSet<>())
+                    .addAll(recipe.getInputs().keySet());
         }
 
         plugin.getLogger().info("Loaded " + recipes.size() + " recipes!");
@@ -112,6 +117,14 @@ public class RecipeManager {
         return recipes.get(id);
     }
 
+    /**
+     * Resources consumed by any recipe of a factory type.
+     */
+    public Set<String> getInputResources(String factoryType) {
+        Set<String> inputs = inputsByFactoryType.get(factoryType);
+        return inputs != null ? Collections.unmodifiableSet(inputs) : Collections.emptySet();
+    }
+
     public List<Recipe> getRecipesByFactoryType(String factoryType) {
         List<Recipe> result = new ArrayList<>();
         for (Recipe recipe : recipes.values()) {
@@ -1,6 +1,10 @@
 package com.aithor.factorycore.managers;
 
 import com.aithor.factorycore.FactoryCore;
+import com.aithor.factorycore.models.ResearchBuff;
+import com.aithor.factorycore.persistence.PlayerDataCache;
+import com.aithor.factorycore.persistence.ResearchRepository;
+import com.aithor.factorycore.utils.DeadlineQueue;
 import org.bukkit.Bukkit;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
@@ -8,8 +12,8 @@ import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.Player;
 
 import java.io.File;
-import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 /**
  * ResearchManager - Handles the Factory Research system.
@@ -20,25 +24,30 @@ import java.util.*;
  */
 public class ResearchManager {
 
+    private static final ResearchBuff[] BUFFS = ResearchBuff.values();
+
     private final FactoryCore plugin;
     private FileConfiguration researchConfig;
-
-    // Player research data: playerId -> (researchId -> ResearchData)
-    private final Map<UUID, Map<String, ResearchData>> playerResearch;
-    private final File dataFile;
+    // research.yml compiled on load: researchId -> definition, in file order
+    private Map<String, ResearchDefinition> definitions = Collections.emptyMap();
+
+    // Cached player research data: playerId -> (researchId -> ResearchData)
+    private final PlayerDataCache<Map<String, ResearchData>> playerResearch;
+    private final ResearchRepository repository;
+    // playerId -> buff values indexed by ResearchBuff ordinal, rebuilt when a level changes
+    private final Map<UUID, double[]> buffVectors = new HashMap<>();
+    // Running research keyed by the time it finishes
+    private final DeadlineQueue<ResearchKey> researchDeadlines = new DeadlineQueue<>();
+    // Running research found while loading a player (possibly off the main
+    // thread), moved into researchDeadlines on the next tick
+    private final Queue<ResearchKey> loadedResearch = new ConcurrentLinkedQueue<>();
 
     public ResearchManager(FactoryCore plugin) {
         this.plugin = plugin;
-        this.playerResearch = new HashMap<>();
-
-        File dataFolder = new File(plugin.getDataFolder(), "data");
-        if (!dataFolder.exists()) {
-            dataFolder.mkdirs();
-        }
-        this.dataFile = new File(dataFolder, "research.yml");
+        this.repository = plugin.getDataBackend().getResearchRepository();
+        this.playerResearch = new PlayerDataCache<>(this::loadPlayer, repository::unload);
 
         loadResearchConfig();
-        loadPlayerData();
     }
 
     // ── Config Loading ───────────────────────────────────────────────────────
@@ -52,6 +61,18 @@ public class ResearchManager {
             plugin.saveResource("research.yml", false);
         }
         researchConfig = YamlConfiguration.loadConfiguration(configFile);
+
+        Map<String, ResearchDefinition> parsed = new LinkedHashMap<>();
+        ConfigurationSection section = researchConfig.getConfigurationSection("research");
+        if (section != null) {
+            for (String researchId : section.getKeys(false)) {
+                ConfigurationSection entry = section.getConfigurationSection(researchId);
+                if (entry != null) {
+                    parsed.put(researchId, new ResearchDefinition(researchId, entry));
+                }
+            }
+        }
+        definitions = Collections.unmodifiableMap(parsed);
     }
 
     /**
@@ -59,6 +80,10 @@ public class ResearchManager {
      */
     public void reloadConfig() {
         loadResearchConfig();
+        buffVectors.clear();
+        if (plugin.getFactoryManager() != null) {
+            plugin.getFactoryManager().invalidateAllModifiers();
+        }
     }
 
     /**
@@ -72,73 +97,86 @@ public class ResearchManager {
      * Get all research IDs defined in research.yml
      */
     public Set<String> getResearchIds() {
-        ConfigurationSection section = researchConfig.getConfigurationSection("research");
-        if (section == null)
-            return Collections.emptySet();
-        return section.getKeys(false);
+        return definitions.keySet();
+    }
+
+    /**
+     * Get the parsed definition of a research, or null if it is not defined
+     */
+    public ResearchDefinition getDefinition(String researchId) {
+        return definitions.get(researchId);
     }
 
     /**
      * Get display name of a research
      */
     public String getResearchName(String researchId) {
-        return researchConfig.getString("research." + researchId + ".name", researchId);
+        ResearchDefinition def = definitions.get(researchId);
+        return def != null ? def.name : researchId;
     }
 
     /**
      * Get description lines of a research
      */
     public List<String> getResearchDescription(String researchId) {
-        return researchConfig.getStringList("research." + researchId + ".description");
+        ResearchDefinition def = definitions.get(researchId);
+        return def != null ? def.description : Collections.emptyList();
     }
 
     /**
      * Get the icon material name for a research
      */
     public String getResearchIcon(String researchId) {
-        return researchConfig.getString("research." + researchId + ".icon", "PAPER");
+        ResearchDefinition def = definitions.get(researchId);
+        return def != null ? def.icon : "PAPER";
     }
 
     /**
      * Get max level for a research
      */
     public int getMaxLevel(String researchId) {
-        return researchConfig.getInt("research." + researchId + ".max-level", 1);
+        ResearchDefinition def = definitions.get(researchId);
+        return def != null ? def.maxLevel : 1;
     }
 
     /**
      * Get unlock cost for a specific level
      */
     public double getResearchCost(String researchId, int level) {
-        return researchConfig.getDouble("research." + researchId + ".cost." + level, 0);
+        ResearchDefinition def = definitions.get(researchId);
+        return def != null ? def.getCost(level) : 0;
     }
 
     /**
      * Get duration in minutes for a specific level
      */
     public int getResearchDuration(String researchId, int level) {
-        return researchConfig.getInt("research." + researchId + ".duration." + level, 1440);
+        ResearchDefinition def = definitions.get(researchId);
+        return def != null ? def.getDuration(level) : 1440;
     }
 
     /**
      * Get buff value per level
      */
     public double getBuffPerLevel(String researchId) {
-        return researchConfig.getDouble("research." + researchId + ".buff-per-level", 0);
+        ResearchDefinition def = definitions.get(researchId);
+        return def != null ? def.buffPerLevel : 0;
     }
 
     /**
      * Get buff type (percentage or flat)
      */
     public String getBuffType(String researchId) {
-        return researchConfig.getString("research." + researchId + ".buff-type", "percentage");
+        ResearchDefinition def = definitions.get(researchId);
+        return def != null ? def.buffType : "percentage";
     }
 
     /**
      * Get buff description template
      */
     public String getBuffDescription(String researchId) {
-        return researchConfig.getString("research." + researchId + ".buff-description", "");
+        ResearchDefinition def = definitions.get(researchId);
+        return def != null ? def.buffDescription : "";
     }
 
     // ── Player Data ─────────────────────────────────────────────────────────
@@ -147,9 +185,7 @@ public class ResearchManager {
      * Get a player's current completed level for a research (0 = not researched)
      */
     public int getPlayerResearchLevel(UUID playerId, String researchId) {
-        Map<String, ResearchData> data = playerResearch.get(playerId);
-        if (data == null)
-            return 0;
+        Map<String, ResearchData> data = getData(playerId);
         ResearchData rd = data.get(researchId);
         if (rd == null)
             return 0;
@@ -160,9 +196,7 @@ public class ResearchManager {
      * Check if a player is currently researching something
      */
     public boolean isResearching(UUID playerId, String researchId) {
-        Map<String, ResearchData> data = playerResearch.get(playerId);
-        if (data == null)
-            return false;
+        Map<String, ResearchData> data = getData(playerId);
         ResearchData rd = data.get(researchId);
         if (rd == null)
             return false;
@@ -173,9 +207,7 @@ public class ResearchManager {
      * Get the remaining research time in seconds
      */
     public int getRemainingResearchTime(UUID playerId, String researchId) {
-        Map<String, ResearchData> data = playerResearch.get(playerId);
-        if (data == null)
-            return 0;
+        Map<String, ResearchData> data = getData(playerId);
         ResearchData rd = data.get(researchId);
         if (rd == null)
             return 0;
@@ -192,9 +224,7 @@ public class ResearchManager {
      * Get research progress as a fraction 0.0 - 1.0
      */
     public double getResearchProgress(UUID playerId, String researchId) {
-        Map<String, ResearchData> data = playerResearch.get(playerId);
-        if (data == null)
-            return 0;
+        Map<String, ResearchData> data = getData(playerId);
         ResearchData rd = data.get(researchId);
         if (rd == null)
             return 0;
@@ -250,13 +280,14 @@ public class ResearchManager {
         plugin.getEconomy().withdrawPlayer(player, cost);
 
         // Create / update research data
-        Map<String, ResearchData> data = playerResearch.computeIfAbsent(playerId, k -> new HashMap<>());
+        Map<String, ResearchData> data = getData(playerId);
         ResearchData rd = data.computeIfAbsent(researchId, k -> new ResearchData());
         rd.researchStartTime = System.currentTimeMillis();
         rd.researchDurationMinutes = durationMinutes;
         rd.targetLevel = nextLevel;
 
-        saveAll();
+        repository.save(playerId, researchId, rd);
+        researchDeadlines.schedule(new ResearchKey(playerId, researchId), rd.getEndTime());
 
         player.sendMessage(plugin.getLanguageManager().getMessage("research-started")
                 .replace("{research}", getResearchName(researchId))
@@ -276,7 +307,7 @@ public class ResearchManager {
             return false;
         }
 
-        Map<String, ResearchData> data = playerResearch.computeIfAbsent(playerId, k -> new HashMap<>());
+        Map<String, ResearchData> data = getData(playerId);
         ResearchData rd = data.computeIfAbsent(researchId, k -> new ResearchData());
 
         rd.completedLevel = currentLevel + 1;
@@ -284,7 +315,8 @@ public class ResearchManager {
         rd.researchDurationMinutes = 0;
         rd.targetLevel = 0;
 
-        saveAll();
+        repository.save(playerId, researchId, rd);
+        invalidateModifiers(playerId);
         return true;
     }
 
@@ -298,7 +330,7 @@ public class ResearchManager {
             return false;
         }
 
-        Map<String, ResearchData> data = playerResearch.computeIfAbsent(playerId, k -> new HashMap<>());
+        Map<String, ResearchData> data = getData(playerId);
         ResearchData rd = data.computeIfAbsent(researchId, k -> new ResearchData());
 
         rd.completedLevel = level;
@@ -306,7 +338,8 @@ public class ResearchManager {
         rd.researchDurationMinutes = 0;
         rd.targetLevel = 0;
 
-        saveAll();
+        repository.save(playerId, researchId, rd);
+        invalidateModifiers(playerId);
         return true;
     }
 
@@ -314,7 +347,7 @@ public class ResearchManager {
      * Complete a research that has finished its timer
      */
     public void completeResearch(UUID playerId, String researchId) {
-        Map<String, ResearchData> data = playerResearch.get(playerId);
+        Map<String, ResearchData> data = playerResearch.getIfLoaded(playerId);
         if (data == null)
             return;
         ResearchData rd = data.get(researchId);
@@ -326,7 +359,8 @@ public class ResearchManager {
         rd.researchDurationMinutes = 0;
         rd.targetLevel = 0;
 
-        saveAll();
+        repository.save(playerId, researchId, rd);
+        invalidateModifiers(playerId);
 
         // Achievement: Tech Investment - first research completion
         // Achievement: Modern Factory - max out a research for the first time
@@ -348,7 +382,7 @@ public class ResearchManager {
                     .replace("{level}", String.valueOf(rd.completedLevel)));
 
             // Play sound
-            if (plugin.getConfig().getBoolean("notifications.sound.enabled")) {
+            if (plugin.getSettings().soundsEnabled) {
                 try {
                     player.playSound(player.getLocation(), "ENTITY_PLAYER_LEVELUP", 1.0f, 1.5f);
                 } catch (Exception ignored) {
@@ -356,7 +390,7 @@ public class ResearchManager {
             }
 
             // Show title
-            if (plugin.getConfig().getBoolean("notifications.titles.enabled")) {
+            if (plugin.getSettings().titlesEnabled) {
                 player.sendTitle(
                         "§a§lRESEARCH COMPLETE!",
                         "§e" + getResearchName(researchId) + " §7Level §6" + rd.completedLevel,
@@ -366,18 +400,49 @@ public class ResearchManager {
     }
 
     /**
-     * Called by scheduler to update all ongoing research
+     * Called each scheduler tick to complete the research whose timers have
+     * expired. Only loaded players are tracked; research that finished while
+     * a player was not loaded completes on the first tick after their data
+     * is loaded again.
      */
     public void updateResearch() {
-        for (Map.Entry<UUID, Map<String, ResearchData>> entry : playerResearch.entrySet()) {
-            UUID playerId = entry.getKey();
-            for (Map.Entry<String, ResearchData> researchEntry : entry.getValue().entrySet()) {
-                String researchId = researchEntry.getKey();
-                if (isResearchComplete(playerId, researchId)) {
-                    completeResearch(playerId, researchId);
-                }
+        ResearchKey loaded;
+        while ((loaded = loadedResearch.poll()) != null) {
+            Map<String, ResearchData> data = playerResearch.getIfLoaded(loaded.playerId);
+            ResearchData rd = data != null ? data.get(loaded.researchId) : null;
+            if (rd != null && rd.researchStartTime > 0) {
+                researchDeadlines.schedule(loaded, rd.getEndTime());
             }
         }
+
+        long now = System.currentTimeMillis();
+        researchDeadlines.pollDue(now, key -> {
+            Map<String, ResearchData> data = playerResearch.getIfLoaded(key.playerId);
+            if (data == null)
+                return; // unloaded; queued again when the player is loaded
+            ResearchData rd = data.get(key.researchId);
+            if (rd == null || rd.researchStartTime <= 0)
+                return; // finished or reset by an admin
+            if (rd.getEndTime() > now) {
+                researchDeadlines.schedule(key, rd.getEndTime());
+                return;
+            }
+            completeResearch(key.playerId, key.researchId);
+        });
+    }
+
+    /**
+     * Load a player's research and note every running entry so it is
+     * scheduled on the next tick. May run off the main thread.
+     */
+    private Map<String, ResearchData> loadPlayer(UUID playerId) {
+        Map<String, ResearchData> data = repository.load(playerId);
+        for (Map.Entry<String, ResearchData> entry : data.entrySet()) {
+            if (entry.getValue().researchStartTime > 0) {
+                loadedResearch.add(new ResearchKey(playerId, entry.getKey()));
+            }
+        }
+        return data;
     }
 
     // ── Buff Calculations ───────────────────────────────────────────────────
@@ -395,11 +460,38 @@ public class ResearchManager {
         return level * getBuffPerLevel(researchId);
     }
 
+    /**
+     * Get a player's value for one research buff from their cached buff vector.
+     */
+    public double getBuff(UUID playerId, ResearchBuff buff) {
+        return getBuffVector(playerId)[buff.ordinal()];
+    }
+
+    /**
+     * Get a copy of all of a player's research buffs, indexed by
+     * {@link ResearchBuff#ordinal()}.
+     */
+    public double[] getBuffs(UUID playerId) {
+        return getBuffVector(playerId).clone();
+    }
+
+    private double[] getBuffVector(UUID playerId) {
+        double[] vector = buffVectors.get(playerId);
+        if (vector == null) {
+            vector = new double[BUFFS.length];
+            for (ResearchBuff buff : BUFFS) {
+                vector[buff.ordinal()] = getBuffValue(playerId, buff.getResearchId());
+            }
+            buffVectors.put(playerId, vector);
+        }
+        return vector;
+    }
+
     /**
      * Get the tax reduction percentage for a player (from fiscal_optimization)
      */
     public double getTaxReduction(UUID playerId) {
-        return getBuffValue(playerId, "fiscal_optimization");
+        return getBuff(playerId, ResearchBuff.TAX_REDUCTION);
     }
 
     /**
@@ -407,14 +499,14 @@ public class ResearchManager {
      * ai_workforce_integration)
      */
     public double getSalaryReduction(UUID playerId) {
-        return getBuffValue(playerId, "ai_workforce_integration");
+        return getBuff(playerId, ResearchBuff.SALARY_REDUCTION);
     }
 
     /**
      * Get the upgrade time reduction percentage (from nano_construction_framework)
      */
     public double getUpgradeTimeReduction(UUID playerId) {
-        return getBuffValue(playerId, "nano_construction_framework");
+        return getBuff(playerId, ResearchBuff.UPGRADE_TIME_REDUCTION);
     }
 
     /**
@@ -422,7 +514,7 @@ public class ResearchManager {
      * advanced_machine_technology)
      */
     public double getProductionTimeReduction(UUID playerId) {
-        return getBuffValue(playerId, "advanced_machine_technology");
+        return getBuff(playerId, ResearchBuff.PRODUCTION_TIME_REDUCTION);
     }
 
     /**
@@ -430,21 +522,21 @@ public class ResearchManager {
      * operational_cost_efficiency)
      */
     public double getProductionCostReduction(UUID playerId) {
-        return getBuffValue(playerId, "operational_cost_efficiency");
+        return getBuff(playerId, ResearchBuff.PRODUCTION_COST_REDUCTION);
     }
 
     /**
      * Get the additional factory limit (from industrial_mastery)
      */
     public int getAdditionalFactoryLimit(UUID playerId) {
-        return (int) getBuffValue(playerId, "industrial_mastery");
+        return (int) getBuff(playerId, ResearchBuff.FACTORY_LIMIT);
     }
 
     /**
      * Get the additional marketplace listing limit (from business_expansion)
      */
     public int getAdditionalListingLimit(UUID playerId) {
-        return (int) getBuffValue(playerId, "business_expansion");
+        return (int) getBuff(playerId, ResearchBuff.LISTING_LIMIT);
     }
 
     /**
@@ -452,68 +544,64 @@ public class ResearchManager {
      * market_stability_regulation)
      */
     public int getAdditionalListingHours(UUID playerId) {
-        return (int) getBuffValue(playerId, "market_stability_regulation");
+        return (int) getBuff(playerId, ResearchBuff.LISTING_HOURS);
     }
 
     // ── Persistence ─────────────────────────────────────────────────────────
 
-    private void loadPlayerData() {
-        if (!dataFile.exists())
-            return;
-
-        FileConfiguration config = YamlConfiguration.loadConfiguration(dataFile);
+    /**
+     * Get a player's research data, loading it on first access.
+     */
+    private Map<String, ResearchData> getData(UUID playerId) {
+        return playerResearch.get(playerId);
+    }
 
-        if (!config.contains("players"))
-            return;
+    /**
+     * Load a player's research ahead of their login. Called off the main
+     * thread.
+     */
+    public void preloadPlayer(UUID playerId) {
+        playerResearch.preload(playerId);
+    }
 
-        for (String uuidStr : config.getConfigurationSection("players").getKeys(false)) {
-            UUID playerId = UUID.fromString(uuidStr);
-            Map<String, ResearchData> data = new HashMap<>();
-
-            ConfigurationSection playerSection = config.getConfigurationSection("players." + uuidStr);
-            if (playerSection != null) {
-                for (String researchId : playerSection.getKeys(false)) {
-                    String path = "players." + uuidStr + "." + researchId;
-                    ResearchData rd = new ResearchData();
-                    rd.completedLevel = config.getInt(path + ".completed-level", 0);
-                    rd.researchStartTime = config.getLong(path + ".research-start-time", -1);
-                    rd.researchDurationMinutes = config.getInt(path + ".research-duration-minutes", 0);
-                    rd.targetLevel = config.getInt(path + ".target-level", 0);
-                    data.put(researchId, rd);
-                }
-            }
+    /**
+     * Start the grace period after which a player who quit is unloaded.
+     */
+    public void releasePlayer(UUID playerId) {
+        playerResearch.touch(playerId);
+    }
 
-            playerResearch.put(playerId, data);
+    /**
+     * Unload offline players that have not been used for {@code graceMs}.
+     */
+    public int evictIdlePlayers(long graceMs) {
+        int evicted = playerResearch.evictIdle(graceMs);
+        if (evicted > 0) {
+            buffVectors.keySet().removeIf(playerId -> playerResearch.getIfLoaded(playerId) == null);
         }
-
-        plugin.getLogger().info("Loaded research data for " + playerResearch.size() + " players!");
+        return evicted;
     }
 
+    /**
+     * Write all pending research changes immediately.
+     */
     public void saveAll() {
-        FileConfiguration config = new YamlConfiguration();
-
-        for (Map.Entry<UUID, Map<String, ResearchData>> entry : playerResearch.entrySet()) {
-            String uuidStr = entry.getKey().toString();
-            for (Map.Entry<String, ResearchData> researchEntry : entry.getValue().entrySet()) {
-                String path = "players." + uuidStr + "." + researchEntry.getKey();
-                ResearchData rd = researchEntry.getValue();
-                config.set(path + ".completed-level", rd.completedLevel);
-                config.set(path + ".research-start-time", rd.researchStartTime);
-                config.set(path + ".research-duration-minutes", rd.researchDurationMinutes);
-                config.set(path + ".target-level", rd.targetLevel);
-            }
-        }
-
-        try {
-            config.save(dataFile);
-        } catch (IOException e) {
-            plugin.getLogger().severe("Failed to save research data!");
-            e.printStackTrace();
-        }
+        repository.flush();
     }
 
     // ── Helpers ──────────────────────────────────────────────────────────────
 
+    /**
+     * Drop a player's buff vector and the cached modifiers of every factory
+     * they own after one of their research levels changed.
+     */
+    private void invalidateModifiers(UUID playerId) {
+        buffVectors.remove(playerId);
+        if (plugin.getFactoryManager() != null) {
+            plugin.getFactoryManager().invalidateModifiers(playerId);
+        }
+    }
+
     /**
      * Format duration in minutes to a human-readable string
      */
@@ -568,12 +656,110 @@ public class ResearchManager {
         return totalSeconds + "s";
     }
 
-    // ── Inner Class ─────────────────────────────────────────────────────────
+    // ── Inner Classes ───────────────────────────────────────────────────────
+
+    /**
+     * One research entry of research.yml. Costs and durations are indexed by
+     * level; levels missing from the file keep the defaults (0 and 1440).
+     */
+    public static final class ResearchDefinition {
+        public final String id;
+        public final String name;
+        public final List<String> description;
+        public final String icon;
+        public final int maxLevel;
+        public final double buffPerLevel;
+        public final String buffType;
+        public final String buffDescription;
+        private final double[] costs;
+        private final int[] durations;
+
+        ResearchDefinition(String id, ConfigurationSection section) {
+            this.id = id;
+            this.name = section.getString("name", id);
+            this.description = Collections.unmodifiableList(new ArrayList<>(section.getStringList("description")));
+            this.icon = section.getString("icon", "PAPER");
+            this.maxLevel = section.getInt("max-level", 1);
+            this.buffPerLevel = section.getDouble("buff-per-level", 0);
+            this.buffType = section.getString("buff-type", "percentage");
+            this.buffDescription = section.getString("buff-description", "");
+
+            ConfigurationSection costSection = section.getConfigurationSection("cost");
+            ConfigurationSection durationSection = section.getConfigurationSection("duration");
+            int levels = Math.max(maxLevel, Math.max(highestLevel(costSection), highestLevel(durationSection)));
+            this.costs = new double[levels + 1];
+            this.durations = new int[levels + 1];
+            Arrays.fill(durations, 1440);
+            for (int level = 1; level <= levels; level++) {
+                if (costSection != null) {
+                    costs[level] = costSection.getDouble(String.valueOf(level), 0);
+                }
+                if (durationSection != null) {
+                    durations[level] = durationSection.getInt(String.valueOf(level), 1440);
+                }
+            }
+        }
+
+        public double getCost(int level) {
+            return level >= 0 && level < costs.length ? costs[level] : 0;
+        }
+
+        public int getDuration(int level) {
+            return level >= 0 && level < durations.length ? durations[level] : 1440;
+        }
+
+        private static int highestLevel(ConfigurationSection section) {
+            int highest = 0;
+            if (section != null) {
+                for (String key : section.getKeys(false)) {
+                    try {
+                        highest = Math.max(highest, Integer.parseInt(key));
+                    } catch (NumberFormatException ignored) {
+                        // not a level
+                    }
+                }
+            }
+            return highest;
+        }
+    }
 
     public static class ResearchData {
         public int completedLevel = 0;
         public long researchStartTime = -1; // epoch ms, -1 = not researching
         public int researchDurationMinutes = 0;
         public int targetLevel = 0; // the level being researched
+
+        /** Time (epoch millis) at which the running research finishes. */
+        public long getEndTime() {
+            return researchStartTime + researchDurationMinutes * 60_000L;
+        }
+    }
+
+    /**
+     * A player's research entry, the key of the deadline queue.
+     */
+    private static final class ResearchKey {
+        final UUID playerId;
+        final String researchId;
+
+        ResearchKey(UUID playerId, String researchId) {
+            this.playerId = playerId;
+            this.researchId = researchId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (!(o instanceof ResearchKey))
+                return false;
+            ResearchKey other = (ResearchKey) o;
+            return playerId.equals(other.playerId) && researchId.equals(other.researchId);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * playerId.hashCode() + researchId.hashCode();
+        }
     }
 }
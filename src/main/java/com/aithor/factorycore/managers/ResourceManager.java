@@ -153,15 +153,40 @@ public class ResourceManager {
         return item;
     }
 
+    /**
+     * Put resources in a player's inventory; what does not fit goes to their
+     * mailbox.
+     */
     public boolean giveResource(Player player, String resourceId, int amount) {
         ItemStack item = createItemStack(resourceId, amount);
         if (item == null)
             return false;
 
-        player.getInventory().addItem(item);
+        int overflow = 0;
+        for (ItemStack left : player.getInventory().addItem(item).values()) {
+            overflow += left.getAmount();
+        }
+        if (overflow > 0) {
+            plugin.getMailboxManager().deliver(player.getUniqueId(), resourceId, overflow);
+            player.sendMessage("§eYour inventory is full! §6" + overflow
+                    + " §eitems were sent to your mailbox, claim them in §6/fc hub§e.");
+        }
         return true;
     }
 
+    /**
+     * Give resources to a player if they are online, otherwise leave them in
+     * their mailbox.
+     */
+    public void deliverResource(UUID playerId, String resourceId, int amount) {
+        Player player = Bukkit.getPlayer(playerId);
+        if (player != null) {
+            giveResource(player, resourceId, amount);
+        } else {
+            plugin.getMailboxManager().deliver(playerId, resourceId, amount);
+        }
+    }
+
     public String getResourceId(ItemStack item) {
         if (item == null || !item.hasItemMeta())
             return null;
@@ -1,80 +1,48 @@
 package com.aithor.factorycore.managers;
 
 import com.aithor.factorycore.FactoryCore;
-import org.bukkit.configuration.file.FileConfiguration;
-import org.bukkit.configuration.file.YamlConfiguration;
-import org.bukkit.plugin.java.JavaPlugin;
+import com.aithor.factorycore.models.Factory;
+import com.aithor.factorycore.persistence.StorageRepository;
+import com.aithor.factorycore.persistence.StorageRepository.Ledger;
+import com.aithor.factorycore.persistence.yaml.YamlStorageRepository;
 
 import java.io.File;
 import java.util.*;
 
 public class StorageManager {
+
     private final FactoryCore plugin;
     private final Map<String, Map<String, Integer>> inputStorage; // factoryId -> resourceId -> amount (for input
                                                                   // materials)
     private final Map<String, Map<String, Integer>> outputStorage; // factoryId -> resourceId -> amount (for output
                                                                    // products)
-    private final File inputDataFile;
-    private final File outputDataFile;
+    private final StorageRepository repository;
+    // Linked factories whose output storage changed since the last supply transfer
+    private final Set<String> pendingSupply = new LinkedHashSet<>();
 
     public StorageManager(FactoryCore plugin) {
         this.plugin = plugin;
         this.inputStorage = new HashMap<>();
         this.outputStorage = new HashMap<>();
-        File dataFolder = new File(plugin.getDataFolder(), "data");
-        if (!dataFolder.exists()) {
-            dataFolder.mkdirs();
-        }
-        this.inputDataFile = new File(dataFolder, "input-storage.yml");
-        this.outputDataFile = new File(dataFolder, "output-storage.yml");
+        this.repository = plugin.getDataBackend().getStorageRepository();
         loadStorage();
     }
 
     private void loadStorage() {
-        // Load input storage
-        if (inputDataFile.exists()) {
-            FileConfiguration inputConfig = YamlConfiguration.loadConfiguration(inputDataFile);
-            for (String factoryId : inputConfig.getKeys(false)) {
-                Map<String, Integer> items = new HashMap<>();
-                if (inputConfig.contains(factoryId)) {
-                    for (String resourceId : inputConfig.getConfigurationSection(factoryId).getKeys(false)) {
-                        int amount = inputConfig.getInt(factoryId + "." + resourceId);
-                        items.put(resourceId, amount);
-                    }
-                }
-                inputStorage.put(factoryId, items);
-            }
-        }
-
-        // Load output storage
-        if (outputDataFile.exists()) {
-            FileConfiguration outputConfig = YamlConfiguration.loadConfiguration(outputDataFile);
-            for (String factoryId : outputConfig.getKeys(false)) {
-                Map<String, Integer> items = new HashMap<>();
-                if (outputConfig.contains(factoryId)) {
-                    for (String resourceId : outputConfig.getConfigurationSection(factoryId).getKeys(false)) {
-                        int amount = outputConfig.getInt(factoryId + "." + resourceId);
-                        items.put(resourceId, amount);
-                    }
-                }
-                outputStorage.put(factoryId, items);
-            }
-        }
+        repository.loadAll(inputStorage, outputStorage);
 
         // Migrate old storage.yml to new format if it exists
         File oldDataFile = new File(plugin.getDataFolder(), "storage.yml");
         if (oldDataFile.exists()) {
-            FileConfiguration oldConfig = YamlConfiguration.loadConfiguration(oldDataFile);
-            for (String factoryId : oldConfig.getKeys(false)) {
-                Map<String, Integer> items = new HashMap<>();
-                if (oldConfig.contains(factoryId)) {
-                    for (String resourceId : oldConfig.getConfigurationSection(factoryId).getKeys(false)) {
-                        int amount = oldConfig.getInt(factoryId + "." + resourceId);
-                        items.put(resourceId, amount);
-                    }
-                }
+            Map<String, Map<String, Integer>> oldStorage = new HashMap<>();
+            YamlStorageRepository.readFile(oldDataFile, oldStorage);
+            for (Map.Entry<String, Map<String, Integer>> entry : oldStorage.entrySet()) {
                 // Assume all old data is input storage for migration
-                inputStorage.put(factoryId, items);
+                inputStorage.put(entry.getKey(), entry.getValue());
+                repository.clear(Ledger.INPUT, entry.getKey());
+                for (Map.Entry<String, Integer> item : entry.getValue().entrySet()) {
+                    repository.saveAmount(Ledger.INPUT, entry.getKey(), item.getKey(), item.getValue());
+                }
             }
             // Save migrated data and remove old file
             saveAll();
@@ -82,48 +50,115 @@ public class StorageManager {
         }
     }
 
+    /**
+     * Write all pending storage changes immediately.
+     */
     public void saveAll() {
-        // Save input storage
-        FileConfiguration inputConfig = new YamlConfiguration();
-        for (Map.Entry<String, Map<String, Integer>> entry : inputStorage.entrySet()) {
-            for (Map.Entry<String, Integer> item : entry.getValue().entrySet()) {
-                inputConfig.set(entry.getKey() + "." + item.getKey(), item.getValue());
-            }
-        }
-        try {
-            inputConfig.save(inputDataFile);
-        } catch (Exception e) {
-            plugin.getLogger().severe("Failed to save input storage!");
-            e.printStackTrace();
-        }
-
-        // Save output storage
-        FileConfiguration outputConfig = new YamlConfiguration();
-        for (Map.Entry<String, Map<String, Integer>> entry : outputStorage.entrySet()) {
-            for (Map.Entry<String, Integer> item : entry.getValue().entrySet()) {
-                outputConfig.set(entry.getKey() + "." + item.getKey(), item.getValue());
-            }
-        }
-        try {
-            outputConfig.save(outputDataFile);
-        } catch (Exception e) {
-            plugin.getLogger().severe("Failed to save output storage!");
-            e.printStackTrace();
-        }
+        repository.flush();
     }
 
     public void addInputItem(String factoryId, String resourceId, int amount) {
         inputStorage.putIfAbsent(factoryId, new HashMap<>());
         Map<String, Integer> items = inputStorage.get(factoryId);
-        items.put(resourceId, items.getOrDefault(resourceId, 0) + amount);
-        saveAll();
+        int updated = items.getOrDefault(resourceId, 0) + amount;
+        items.put(resourceId, updated);
+        repository.saveAmount(Ledger.INPUT, factoryId, resourceId, updated);
+
+        // Wake the factory if it is waiting for inputs in continuous mode
+        plugin.getFactoryManager().onInputDeposited(factoryId);
     }
 
     public void addOutputItem(String factoryId, String resourceId, int amount) {
         outputStorage.putIfAbsent(factoryId, new HashMap<>());
         Map<String, Integer> items = outputStorage.get(factoryId);
-        items.put(resourceId, items.getOrDefault(resourceId, 0) + amount);
-        saveAll();
+        int updated = items.getOrDefault(resourceId, 0) + amount;
+        items.put(resourceId, updated);
+        repository.saveAmount(Ledger.OUTPUT, factoryId, resourceId, updated);
+        requestSupplyTransfer(factoryId);
+    }
+
+    /**
+     * Add many outputs at once ({@code factoryId -> resourceId -> amount}).
+     * Each changed amount is recorded once, however many completions
+     * contributed to it.
+     */
+    public void addOutputItems(Map<String, Map<String, Integer>> batch) {
+        for (Map.Entry<String, Map<String, Integer>> entry : batch.entrySet()) {
+            Map<String, Integer> items = outputStorage.computeIfAbsent(entry.getKey(), id -> new HashMap<>());
+            for (Map.Entry<String, Integer> item : entry.getValue().entrySet()) {
+                int updated = items.getOrDefault(item.getKey(), 0) + item.getValue();
+                items.put(item.getKey(), updated);
+                repository.saveAmount(Ledger.OUTPUT, entry.getKey(), item.getKey(), updated);
+            }
+            requestSupplyTransfer(entry.getKey());
+        }
+    }
+
+    // ── Supply chains ────────────────────────────────────────────────────────
+
+    /**
+     * Move a factory's outputs to its supply target on the next transfer
+     * run. Does nothing if the factory is not linked.
+     */
+    public void requestSupplyTransfer(String factoryId) {
+        FactoryManager factoryManager = plugin.getFactoryManager();
+        Factory factory = factoryManager != null ? factoryManager.getFactory(factoryId) : null;
+        if (factory != null && factory.getSupplyTargetId() != null) {
+            pendingSupply.add(factoryId);
+        }
+    }
+
+    /**
+     * Move the outputs of every linked factory that produced since the last
+     * run into its target's input storage, as ledger entries without
+     * creating items. Only resources a recipe of the target's type consumes
+     * are moved. Runs once per tick and returns at once if nothing is
+     * pending.
+     */
+    public void processSupplyTransfers() {
+        if (pendingSupply.isEmpty()) {
+            return;
+        }
+        List<String> sources = new ArrayList<>(pendingSupply);
+        pendingSupply.clear();
+
+        FactoryManager factoryManager = plugin.getFactoryManager();
+        Set<String> supplied = new LinkedHashSet<>();
+        for (String sourceId : sources) {
+            Factory source = factoryManager.getFactory(sourceId);
+            if (source == null || source.getSupplyTargetId() == null || source.getOwner() == null) {
+                continue;
+            }
+            Factory target = factoryManager.getFactory(source.getSupplyTargetId());
+            if (target == null || !source.getOwner().equals(target.getOwner())) {
+                continue;
+            }
+            Map<String, Integer> outputs = outputStorage.get(sourceId);
+            if (outputs == null || outputs.isEmpty()) {
+                continue;
+            }
+
+            Set<String> accepted = plugin.getRecipeManager().getInputResources(target.getType().getId());
+            Map<String, Integer> inputs = null;
+            Iterator<Map.Entry<String, Integer>> it = outputs.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<String, Integer> item = it.next();
+                if (item.getValue() <= 0 || !accepted.contains(item.getKey())) {
+                    continue;
+                }
+                if (inputs == null) {
+                    inputs = inputStorage.computeIfAbsent(target.getId(), id -> new HashMap<>());
+                }
+                int updated = inputs.merge(item.getKey(), item.getValue(), Integer::sum);
+                repository.saveAmount(Ledger.INPUT, target.getId(), item.getKey(), updated);
+                repository.saveAmount(Ledger.OUTPUT, sourceId, item.getKey(), 0);
+                it.remove();
+                supplied.add(target.getId());
+            }
+        }
+
+        // Wake continuous targets once, after every move
+        supplied.forEach(factoryManager::onInputDeposited);
     }
 
     // Legacy method for backward compatibility - assumes input storage
@@ -146,7 +181,7 @@ public class StorageManager {
             items.remove(resourceId);
         }
 
-        saveAll();
+        repository.saveAmount(Ledger.INPUT, factoryId, resourceId, current - amount);
         return true;
     }
 
@@ -165,7 +200,7 @@ public class StorageManager {
             items.remove(resourceId);
         }
 
-        saveAll();
+        repository.saveAmount(Ledger.OUTPUT, factoryId, resourceId, current - amount);
         return true;
     }
 
@@ -206,12 +241,12 @@ public class StorageManager {
 
     public void clearInputStorage(String factoryId) {
         inputStorage.remove(factoryId);
-        saveAll();
+        repository.clear(Ledger.INPUT, factoryId);
     }
 
     public void clearOutputStorage(String factoryId) {
         outputStorage.remove(factoryId);
-        saveAll();
+        repository.clear(Ledger.OUTPUT, factoryId);
     }
 
     // Legacy method for backward compatibility - clears both storages
@@ -219,4 +254,38 @@ public class StorageManager {
         clearInputStorage(factoryId);
         clearOutputStorage(factoryId);
     }
-}
\ No newline at end of file
+
+    // ── Bulk access ──────────────────────────────────────────────────────────
+
+    /**
+     * Read-only view of every factory's input storage, for exports.
+     */
+    public Map<String, Map<String, Integer>> getAllInputStorage() {
+        return Collections.unmodifiableMap(inputStorage);
+    }
+
+    /**
+     * Read-only view of every factory's output storage, for exports.
+     */
+    public Map<String, Map<String, Integer>> getAllOutputStorage() {
+        return Collections.unmodifiableMap(outputStorage);
+    }
+
+    /**
+     * Replace both ledgers, used by the data import command.
+     */
+    public void replaceAll(Map<String, Map<String, Integer>> input, Map<String, Map<String, Integer>> output) {
+        for (String factoryId : new ArrayList<>(inputStorage.keySet())) {
+            clearInputStorage(factoryId);
+        }
+        for (String factoryId : new ArrayList<>(outputStorage.keySet())) {
+            clearOutputStorage(factoryId);
+        }
+        for (Map.Entry<String, Map<String, Integer>> entry : input.entrySet()) {
+            entry.getValue().forEach((resourceId, amount) -> addInputItem(entry.getKey(), resourceId, amount));
+        }
+        for (Map.Entry<String, Map<String, Integer>> entry : output.entrySet()) {
+            entry.getValue().forEach((resourceId, amount) -> addOutputItem(entry.getKey(), resourceId, amount));
+        }
+    }
+}
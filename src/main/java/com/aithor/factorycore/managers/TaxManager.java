@@ -2,13 +2,10 @@ package com.aithor.factorycore.managers;
 
 import com.aithor.factorycore.FactoryCore;
 import com.aithor.factorycore.models.*;
+import com.aithor.factorycore.persistence.TaxRepository;
 import org.bukkit.Bukkit;
-import org.bukkit.configuration.file.FileConfiguration;
-import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.Player;
 
-import java.io.File;
-import java.io.IOException;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -20,99 +17,30 @@ public class TaxManager {
 
     private final FactoryCore plugin;
     private final Map<String, TaxRecord> taxRecords; // factoryId -> TaxRecord
-    private final Map<UUID, List<TaxPayment>> paymentHistory; // playerId -> payment history
-    private final File dataFile;
+    private final Map<UUID, List<TaxPayment>> paymentHistory; // playerId -> payment history (loaded on demand)
+    private final TaxRepository repository;
     private long lastTaxCollection;
 
     public TaxManager(FactoryCore plugin) {
         this.plugin = plugin;
         this.taxRecords = new HashMap<>();
         this.paymentHistory = new HashMap<>();
-        File dataFolder = new File(plugin.getDataFolder(), "data");
-        if (!dataFolder.exists()) {
-            dataFolder.mkdirs();
-        }
-        this.dataFile = new File(dataFolder, "taxes.yml");
-        this.lastTaxCollection = System.currentTimeMillis();
+        this.repository = plugin.getDataBackend().getTaxRepository();
         loadTaxData();
     }
 
     private void loadTaxData() {
-        if (!dataFile.exists()) {
-            return;
-        }
-
-        FileConfiguration config = YamlConfiguration.loadConfiguration(dataFile);
-
-        // Load tax records
-        if (config.contains("tax-records")) {
-            for (String factoryId : config.getConfigurationSection("tax-records").getKeys(false)) {
-                String path = "tax-records." + factoryId;
-                TaxRecord record = new TaxRecord(
-                        factoryId,
-                        config.getDouble(path + ".amount-due", 0),
-                        config.getLong(path + ".last-assessment", 0),
-                        config.getLong(path + ".due-date", 0),
-                        config.getBoolean(path + ".overdue", false));
-                taxRecords.put(factoryId, record);
-            }
-        }
-
-        // Load payment history
-        if (config.contains("payment-history")) {
-            for (String uuidStr : config.getConfigurationSection("payment-history").getKeys(false)) {
-                UUID playerId = UUID.fromString(uuidStr);
-                List<TaxPayment> payments = new ArrayList<>();
-
-                for (String paymentId : config.getConfigurationSection("payment-history." + uuidStr).getKeys(false)) {
-                    String path = "payment-history." + uuidStr + "." + paymentId;
-                    payments.add(new TaxPayment(
-                            paymentId,
-                            config.getString(path + ".factory-id"),
-                            config.getDouble(path + ".amount"),
-                            config.getLong(path + ".timestamp")));
-                }
-
-                paymentHistory.put(playerId, payments);
-            }
-        }
-
-        lastTaxCollection = config.getLong("last-collection", System.currentTimeMillis());
+        repository.loadRecords(taxRecords);
+        lastTaxCollection = repository.loadLastCollection(System.currentTimeMillis());
 
         plugin.getLogger().info("Loaded " + taxRecords.size() + " tax records!");
     }
 
+    /**
+     * Write all pending tax changes immediately.
+     */
     public void saveAll() {
-        FileConfiguration config = new YamlConfiguration();
-
-        // Save tax records
-        for (Map.Entry<String, TaxRecord> entry : taxRecords.entrySet()) {
-            String path = "tax-records." + entry.getKey();
-            TaxRecord record = entry.getValue();
-            config.set(path + ".amount-due", record.amountDue);
-            config.set(path + ".last-assessment", record.lastAssessment);
-            config.set(path + ".due-date", record.dueDate);
-            config.set(path + ".overdue", record.overdue);
-        }
-
-        // Save payment history
-        for (Map.Entry<UUID, List<TaxPayment>> entry : paymentHistory.entrySet()) {
-            for (TaxPayment payment : entry.getValue()) {
-                String path = "payment-history." + entry.getKey() + "." + payment.id;
-                config.set(path + ".factory-id", payment.factoryId);
-                config.set(path + ".amount", payment.amount);
-                config.set(path + ".timestamp", payment.timestamp);
-            }
-        }
-
-        config.set("last-collection", lastTaxCollection);
-
-        try {
-            config.save(dataFile);
-        } catch (IOException e) {
-            plugin.getLogger().severe("Failed to save tax data!");
-            e.printStackTrace();
-        }
+        repository.flush();
     }
 
     /**
@@ -123,8 +51,8 @@ public class TaxManager {
             return 0;
         }
 
-        double baseRate = plugin.getConfig().getDouble("tax.rate", 5.0) / 100.0;
-        double levelMultiplier = plugin.getConfig().getDouble("tax.level-multiplier", 2.5) / 100.0;
+        double baseRate = plugin.getSettings().taxRate;
+        double levelMultiplier = plugin.getSettings().taxLevelMultiplier;
 
         // Total rate = base rate + (level - 1) * level multiplier
         double totalRate = baseRate + (levelMultiplier * (factory.getLevel() - 1));
@@ -132,12 +60,7 @@ public class TaxManager {
         double taxAmount = factory.getPrice() * totalRate;
 
         // Apply Fiscal Optimization research buff
-        if (plugin.getResearchManager() != null) {
-            double reduction = plugin.getResearchManager().getTaxReduction(factory.getOwner());
-            if (reduction > 0) {
-                taxAmount *= (1 - (reduction / 100.0));
-            }
-        }
+        taxAmount = plugin.getFactoryManager().getModifiers(factory).applyTax(taxAmount);
 
         return taxAmount;
     }
@@ -147,7 +70,7 @@ public class TaxManager {
      */
     public void assessTaxes() {
         long currentTime = System.currentTimeMillis();
-        long taxDueDays = plugin.getConfig().getLong("tax.due-days", 7);
+        long taxDueDays = plugin.getSettings().taxDueDays;
         long dueDate = currentTime + (taxDueDays * 24 * 60 * 60 * 1000);
 
         for (Factory factory : plugin.getFactoryManager().getAllFactories()) {
@@ -165,6 +88,7 @@ public class TaxManager {
             record.dueDate = dueDate;
 
             taxRecords.put(factory.getId(), record);
+            repository.saveRecord(record);
 
             // Notify owner
             Player owner = Bukkit.getPlayer(factory.getOwner());
@@ -176,7 +100,7 @@ public class TaxManager {
         }
 
         lastTaxCollection = currentTime;
-        saveAll();
+        repository.saveLastCollection(currentTime);
     }
 
     /**
@@ -190,7 +114,7 @@ public class TaxManager {
                 record.overdue = true;
 
                 // Apply late fee if configured
-                double lateFeeRate = plugin.getConfig().getDouble("tax.late-fee-rate", 5.0) / 100.0;
+                double lateFeeRate = plugin.getSettings().taxLateFeeRate;
                 if (lateFeeRate > 0 && !record.lateFeeApplied) {
                     record.amountDue += record.amountDue * lateFeeRate;
                     record.lateFeeApplied = true;
@@ -203,10 +127,10 @@ public class TaxManager {
                         }
                     }
                 }
+
+                repository.saveRecord(record);
             }
         }
-
-        saveAll();
     }
 
     /**
@@ -238,14 +162,15 @@ public class TaxManager {
                 paidAmount,
                 System.currentTimeMillis());
 
-        paymentHistory.computeIfAbsent(player.getUniqueId(), k -> new ArrayList<>()).add(payment);
+        getPaymentHistory(player.getUniqueId()).add(payment);
+        repository.savePayment(player.getUniqueId(), payment);
 
         // Clear tax record
         record.amountDue = 0;
         record.overdue = false;
         record.lateFeeApplied = false;
 
-        saveAll();
+        repository.saveRecord(record);
 
         // Achievement: Tax Contributor - first tax payment
         // Achievement: Disciplined Businessman - cumulative tax paid
@@ -290,7 +215,7 @@ public class TaxManager {
      * Get total tax due for a player
      */
     public double getTotalTaxDue(UUID playerId) {
-        List<Factory> playerFactories = plugin.getFactoryManager().getFactoriesByOwner(playerId);
+        Collection<Factory> playerFactories = plugin.getFactoryManager().getOwnedFactories(playerId);
         double total = 0;
 
         for (Factory factory : playerFactories) {
@@ -314,7 +239,7 @@ public class TaxManager {
      * Get all tax records for a player's factories
      */
     public List<TaxRecord> getPlayerTaxRecords(UUID playerId) {
-        List<Factory> playerFactories = plugin.getFactoryManager().getFactoriesByOwner(playerId);
+        Collection<Factory> playerFactories = plugin.getFactoryManager().getOwnedFactories(playerId);
         List<TaxRecord> records = new ArrayList<>();
 
         for (Factory factory : playerFactories) {
@@ -331,7 +256,7 @@ public class TaxManager {
      * Get payment history for a player
      */
     public List<TaxPayment> getPaymentHistory(UUID playerId) {
-        return paymentHistory.getOrDefault(playerId, new ArrayList<>());
+        return paymentHistory.computeIfAbsent(playerId, repository::loadPayments);
     }
 
     /**
@@ -347,7 +272,7 @@ public class TaxManager {
      * Get time until next tax collection
      */
     public long getTimeUntilNextCollection() {
-        long interval = plugin.getConfig().getLong("tax.interval-ticks", 144000) * 50; // Convert ticks to ms
+        long interval = plugin.getSettings().taxIntervalTicks * 50; // Convert ticks to ms
         return (lastTaxCollection + interval) - System.currentTimeMillis();
     }
 
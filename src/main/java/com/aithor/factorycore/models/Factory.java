@@ -12,7 +12,7 @@ public class Factory {
     private double price;
     private int level;
     private FactoryStatus status;
-    private ProductionTask currentProduction;
+    private final SortedMap<Integer, ProductionTask> productionLines; // line -> task, busy lines only
     private Location fastTravelLocation;
     private Map<String, Integer> outputStorage;
 
@@ -20,6 +20,25 @@ public class Factory {
     private long upgradeStartTime = -1; // epoch ms, -1 = not upgrading
     private int upgradeDurationSeconds = 0;
 
+    // ── Continuous production ─────────────────────────────────────────────────
+    private String continuousRecipeId; // null = continuous mode off
+
+    // ── Supply chain ──────────────────────────────────────────────────────────
+    private String supplyTargetId; // factory whose input storage receives our outputs, or null
+
+    // ── Index hook ────────────────────────────────────────────────────────────
+    private IndexListener indexListener; // set by FactoryManager while the factory is registered
+
+    /**
+     * Told about owner and status changes so FactoryManager can keep its
+     * lookup indexes current.
+     */
+    public interface IndexListener {
+        void ownerChanged(Factory factory, UUID oldOwner);
+
+        void statusChanged(Factory factory, FactoryStatus oldStatus);
+    }
+
     public Factory(String id, String regionName, FactoryType type,
             UUID owner, double price, int level) {
         this.id = id;
@@ -29,7 +48,7 @@ public class Factory {
         this.price = price;
         this.level = level;
         this.status = FactoryStatus.STOPPED;
-        this.currentProduction = null;
+        this.productionLines = new TreeMap<>();
         this.outputStorage = new HashMap<>();
     }
 
@@ -51,7 +70,11 @@ public class Factory {
     }
 
     public void setOwner(UUID owner) {
+        UUID oldOwner = this.owner;
         this.owner = owner;
+        if (indexListener != null && !Objects.equals(oldOwner, owner)) {
+            indexListener.ownerChanged(this, oldOwner);
+        }
     }
 
     public double getPrice() {
@@ -71,15 +94,61 @@ public class Factory {
     }
 
     public void setStatus(FactoryStatus status) {
+        FactoryStatus oldStatus = this.status;
         this.status = status;
+        if (indexListener != null && oldStatus != status) {
+            indexListener.statusChanged(this, oldStatus);
+        }
+    }
+
+    public void setIndexListener(IndexListener indexListener) {
+        this.indexListener = indexListener;
     }
 
+    /** Task on the lowest busy production line, or null if idle. */
     public ProductionTask getCurrentProduction() {
-        return currentProduction;
+        return productionLines.isEmpty() ? null : productionLines.get(productionLines.firstKey());
     }
 
+    /** Set the task of line 0. */
     public void setCurrentProduction(ProductionTask task) {
-        this.currentProduction = task;
+        setProductionLine(0, task);
+    }
+
+    // ── Production lines ──────────────────────────────────────────────────────
+    public ProductionTask getProductionLine(int line) {
+        return productionLines.get(line);
+    }
+
+    /** Set the task of a line; null frees it. */
+    public void setProductionLine(int line, ProductionTask task) {
+        if (task == null)
+            productionLines.remove(line);
+        else
+            productionLines.put(line, task);
+    }
+
+    /** Busy lines by line number. */
+    public SortedMap<Integer, ProductionTask> getProductionLines() {
+        return Collections.unmodifiableSortedMap(productionLines);
+    }
+
+    public void clearProductionLines() {
+        productionLines.clear();
+    }
+
+    public boolean hasProduction() {
+        return !productionLines.isEmpty();
+    }
+
+    /** Line whose task finishes first, or null if idle. */
+    public Map.Entry<Integer, ProductionTask> getNextFinishingLine() {
+        Map.Entry<Integer, ProductionTask> next = null;
+        for (Map.Entry<Integer, ProductionTask> entry : productionLines.entrySet()) {
+            if (next == null || entry.getValue().getEndTime() < next.getValue().getEndTime())
+                next = entry;
+        }
+        return next;
     }
 
     public Location getFastTravelLocation() {
@@ -112,6 +181,11 @@ public class Factory {
         return upgradeStartTime > 0;
     }
 
+    /** Time (epoch millis) at which the upgrade is done. */
+    public long getUpgradeEndTime() {
+        return upgradeStartTime + upgradeDurationSeconds * 1000L;
+    }
+
     /** Remaining upgrade time in seconds, 0 when done. */
     public int getUpgradeRemainingSeconds() {
         if (!isUpgrading())
@@ -125,6 +199,30 @@ public class Factory {
         return isUpgrading() && getUpgradeRemainingSeconds() == 0;
     }
 
+    // ── Continuous production getters / setters ───────────────────────────────
+    /** Recipe restarted whenever a production finishes, or null. */
+    public String getContinuousRecipeId() {
+        return continuousRecipeId;
+    }
+
+    public void setContinuousRecipeId(String recipeId) {
+        this.continuousRecipeId = recipeId;
+    }
+
+    public boolean isContinuous() {
+        return continuousRecipeId != null;
+    }
+
+    // ── Supply chain getters / setters ────────────────────────────────────────
+    /** Factory whose input storage receives this factory's outputs, or null. */
+    public String getSupplyTargetId() {
+        return supplyTargetId;
+    }
+
+    public void setSupplyTargetId(String factoryId) {
+        this.supplyTargetId = factoryId;
+    }
+
     // ── Output storage ────────────────────────────────────────────────────────
     public Map<String, Integer> getOutputStorage() {
         return new HashMap<>(outputStorage);
@@ -5,6 +5,7 @@ import java.util.*;
 public enum FactoryStatus {
     RUNNING("§aRUNNING"),
     STOPPED("§cSTOPPED"),
+    WAITING("§6WAITING FOR INPUTS"),
     NO_PARTS("§eOUT OF MACHINE PARTS");
 
     private final String display;
@@ -0,0 +1,84 @@
+package com.aithor.factorycore.models;
+
+/**
+ * ModifierSet - Every percentage reduction that applies to one factory.
+ * <p>
+ * Combines the factory level bonus, the assigned employee and the owner's
+ * research into one immutable value. FactoryManager caches a set per factory
+ * and drops it when one of its sources changes.
+ * </p>
+ */
+public final class ModifierSet {
+
+    public static final ModifierSet NONE = new ModifierSet(0, 0, 0, 0, 0, 0, 0);
+
+    private final double levelTimeReduction;
+    private final double employeeTimeReduction;
+    private final double researchTimeReduction;
+    private final double productionCostReduction;
+    private final double salaryReduction;
+    private final double taxReduction;
+    private final double upgradeTimeReduction;
+
+    public ModifierSet(double levelTimeReduction, double employeeTimeReduction, double researchTimeReduction,
+            double productionCostReduction, double salaryReduction, double taxReduction,
+            double upgradeTimeReduction) {
+        this.levelTimeReduction = levelTimeReduction;
+        this.employeeTimeReduction = employeeTimeReduction;
+        this.researchTimeReduction = researchTimeReduction;
+        this.productionCostReduction = productionCostReduction;
+        this.salaryReduction = salaryReduction;
+        this.taxReduction = taxReduction;
+        this.upgradeTimeReduction = upgradeTimeReduction;
+    }
+
+    // Reductions in percent, e.g. 15.0 for -15%
+    public double getLevelTimeReduction() { return levelTimeReduction; }
+    public double getEmployeeTimeReduction() { return employeeTimeReduction; }
+    public double getResearchTimeReduction() { return researchTimeReduction; }
+    public double getProductionCostReduction() { return productionCostReduction; }
+    public double getSalaryReduction() { return salaryReduction; }
+    public double getTaxReduction() { return taxReduction; }
+    public double getUpgradeTimeReduction() { return upgradeTimeReduction; }
+
+    /** Fraction of the base production time that remains after all reductions. */
+    public double getProductionTimeMultiplier() {
+        return multiplier(levelTimeReduction) * multiplier(employeeTimeReduction)
+                * multiplier(researchTimeReduction);
+    }
+
+    public double getProductionCostMultiplier() { return multiplier(productionCostReduction); }
+    public double getSalaryMultiplier() { return multiplier(salaryReduction); }
+    public double getTaxMultiplier() { return multiplier(taxReduction); }
+
+    /**
+     * Production time in seconds, rounded down after each reduction and never
+     * below one second.
+     */
+    public int applyProductionTime(int seconds) {
+        int duration = (int) (seconds * multiplier(levelTimeReduction));
+        if (employeeTimeReduction > 0) {
+            duration = (int) (duration * multiplier(employeeTimeReduction));
+        }
+        if (researchTimeReduction > 0) {
+            duration = (int) (duration * multiplier(researchTimeReduction));
+        }
+        return Math.max(duration, 1);
+    }
+
+    public double applyProductionCost(double cost) { return cost * getProductionCostMultiplier(); }
+    public double applySalary(double salary) { return salary * getSalaryMultiplier(); }
+    public double applyTax(double tax) { return tax * getTaxMultiplier(); }
+
+    /** Upgrade time in seconds, never below one second. */
+    public int applyUpgradeTime(int seconds) {
+        if (upgradeTimeReduction <= 0) {
+            return seconds;
+        }
+        return Math.max((int) (seconds * multiplier(upgradeTimeReduction)), 1);
+    }
+
+    private static double multiplier(double reduction) {
+        return reduction > 0 ? 1 - (reduction / 100.0) : 1;
+    }
+}
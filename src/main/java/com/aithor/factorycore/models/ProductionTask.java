@@ -5,16 +5,32 @@ public class ProductionTask {
     private String recipeId;
     private long startTime;
     private int duration; // in seconds
+    private int batch; // 1-based index of this batch in its queue
+    private int batches; // total batches queued, 1 for a single run
     
     public ProductionTask(String recipeId, long startTime, int duration) {
+        this(recipeId, startTime, duration, 1, 1);
+    }
+
+    public ProductionTask(String recipeId, long startTime, int duration, int batch, int batches) {
         this.recipeId = recipeId;
         this.startTime = startTime;
         this.duration = duration;
+        this.batch = Math.max(1, batch);
+        this.batches = Math.max(this.batch, batches);
     }
     
     public String getRecipeId() { return recipeId; }
     public long getStartTime() { return startTime; }
     public int getDuration() { return duration; }
+    public int getBatch() { return batch; }
+    public int getBatches() { return batches; }
+
+    /** Batches still queued after this one. */
+    public int getQueuedBatches() { return batches - batch; }
+
+    /** Time (epoch millis) at which the task is complete. */
+    public long getEndTime() { return startTime + duration * 1000L; }
     
     public boolean isComplete() {
         long elapsed = (System.currentTimeMillis() - startTime) / 1000;
@@ -0,0 +1,27 @@
+package com.aithor.factorycore.models;
+
+/**
+ * ResearchBuff - The buffs granted by research, each backed by one entry of
+ * research.yml. Percentage buffs are reductions (15.0 for -15%), flat buffs
+ * are bonuses (2 for +2).
+ */
+public enum ResearchBuff {
+    TAX_REDUCTION("fiscal_optimization"),
+    SALARY_REDUCTION("ai_workforce_integration"),
+    UPGRADE_TIME_REDUCTION("nano_construction_framework"),
+    PRODUCTION_TIME_REDUCTION("advanced_machine_technology"),
+    PRODUCTION_COST_REDUCTION("operational_cost_efficiency"),
+    FACTORY_LIMIT("industrial_mastery"),
+    LISTING_LIMIT("business_expansion"),
+    LISTING_HOURS("market_stability_regulation");
+
+    private final String researchId;
+
+    ResearchBuff(String researchId) {
+        this.researchId = researchId;
+    }
+
+    public String getResearchId() {
+        return researchId;
+    }
+}
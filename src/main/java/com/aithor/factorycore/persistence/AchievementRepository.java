@@ -0,0 +1,34 @@
+package com.aithor.factorycore.persistence;
+
+import com.aithor.factorycore.managers.AchievementManager.PlayerAchievementData;
+
+import java.util.UUID;
+
+/**
+ * AchievementRepository - Per-player achievement unlocks and progress.
+ */
+public interface AchievementRepository {
+
+    /**
+     * Load one player's achievements; empty data if the player has none. The
+     * returned object becomes the caller's cache. May be called off the main
+     * thread.
+     */
+    PlayerAchievementData load(UUID playerId);
+
+    /**
+     * Schedule a write of one achievement's unlock state and progress.
+     */
+    void save(UUID playerId, String achievementId, PlayerAchievementData data);
+
+    /**
+     * The player's data was evicted from the cache; write anything pending
+     * for them and drop any state kept for them.
+     */
+    void unload(UUID playerId);
+
+    /**
+     * Write all scheduled changes and wait until they are stored.
+     */
+    void flush();
+}
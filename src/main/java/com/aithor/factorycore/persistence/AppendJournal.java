@@ -0,0 +1,125 @@
+package com.aithor.factorycore.persistence;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * AppendJournal - Line based append-only journal file.
+ * <p>
+ * Records are appended to an in-memory buffer on the calling thread and
+ * written to disk in bulk through a {@link FileChannel} by {@link #write}, so
+ * a change costs one small append instead of a full file rewrite. A record is
+ * only valid once its terminating newline is on disk; a torn last line left
+ * behind by a crash is ignored on {@link #readRecords()}. Owners bound replay
+ * time by writing a snapshot and calling {@link #truncate()}.
+ * </p>
+ */
+public class AppendJournal {
+
+    private final File file;
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    private long size;
+
+    public AppendJournal(File file) {
+        this.file = file;
+        this.size = file.length();
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Read every complete record currently on disk.
+     */
+    public List<String> readRecords() throws IOException {
+        List<String> records = new ArrayList<>();
+        if (!file.exists()) {
+            return records;
+        }
+
+        String content = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+        int start = 0;
+        int end;
+        while ((end = content.indexOf('\n', start)) >= 0) {
+            if (end > start) {
+                records.add(content.substring(start, end));
+            }
+            start = end + 1;
+        }
+        return records;
+    }
+
+    /**
+     * Buffer a record. {@code record} must not contain a newline.
+     */
+    public synchronized void append(String record) {
+        byte[] bytes = (record + "\n").getBytes(StandardCharsets.UTF_8);
+        buffer.write(bytes, 0, bytes.length);
+        size += bytes.length;
+    }
+
+    /**
+     * Take everything buffered since the last call.
+     */
+    public synchronized byte[] drain() {
+        byte[] data = buffer.toByteArray();
+        buffer.reset();
+        return data;
+    }
+
+    /**
+     * Size of the journal on disk plus what is still buffered, in bytes.
+     */
+    public synchronized long size() {
+        return size;
+    }
+
+    /**
+     * Forget everything buffered and start counting from an empty journal.
+     * Call this when capturing a snapshot that already contains every record,
+     * followed by {@link #truncate()} once that snapshot is on disk.
+     */
+    public synchronized void reset() {
+        buffer.reset();
+        size = 0;
+    }
+
+    /**
+     * Append drained records to the file and force them to disk.
+     */
+    public void write(byte[] data) throws IOException {
+        if (data.length == 0) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer bytes = ByteBuffer.wrap(data);
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            channel.force(false);
+        }
+    }
+
+    /**
+     * Empty the journal file.
+     */
+    public void truncate() throws IOException {
+        if (!file.exists()) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+            channel.truncate(0);
+            channel.force(true);
+        }
+    }
+}
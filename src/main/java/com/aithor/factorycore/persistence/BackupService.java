@@ -0,0 +1,339 @@
+package com.aithor.factorycore.persistence;
+
+import com.aithor.factorycore.FactoryCore;
+import com.aithor.factorycore.persistence.binary.BinaryFormat;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * BackupService - Rotating, checksummed generations of the data folder.
+ * <p>
+ * On a fixed interval every pending write is flushed and the I/O thread then
+ * copies all files in data/ to data/backups/&lt;generation&gt;/ together with
+ * a manifest holding each file's size and CRC32. Because the copy runs on the
+ * same thread as every data write, a generation is a consistent point in
+ * time. Only the newest {@code persistence.backups.keep} generations are
+ * kept.
+ * </p>
+ * <p>
+ * On startup, before anything is loaded, the top-level data files are
+ * checked. If one of them cannot be read, the damaged data is moved aside and
+ * the newest generation whose manifest and checksums are intact is restored.
+ * </p>
+ */
+public class BackupService {
+
+    private static final String MANIFEST = "manifest.txt";
+    private static final String PARTIAL_SUFFIX = ".partial";
+
+    private final FactoryCore plugin;
+    private final File dataFolder;
+    private final File backupFolder;
+    private BukkitTask backupTask;
+
+    public BackupService(FactoryCore plugin) {
+        this.plugin = plugin;
+        this.dataFolder = new File(plugin.getDataFolder(), "data");
+        this.backupFolder = new File(dataFolder, "backups");
+    }
+
+    // ── Scheduling ───────────────────────────────────────────────────────────
+
+    /**
+     * Start the periodic backup task.
+     */
+    public void start() {
+        if (backupTask != null) {
+            backupTask.cancel();
+            backupTask = null;
+        }
+        long minutes = plugin.getConfig().getLong("persistence.backups.interval-minutes", 30L);
+        if (minutes <= 0) {
+            return;
+        }
+        long interval = minutes * 60L * 20L;
+        backupTask = plugin.getServer().getScheduler().runTaskTimer(plugin, () -> createGeneration(null),
+                interval, interval);
+    }
+
+    /**
+     * Flush pending writes and queue a new generation behind them. Must be
+     * called on the main thread.
+     *
+     * @param callback Receives the new generation number, or -1 on failure;
+     *                 called on the main thread. May be {@code null}.
+     */
+    public void createGeneration(Consumer<Long> callback) {
+        PersistenceService persistence = plugin.getPersistenceService();
+        persistence.flushDirty();
+        persistence.runAsync(() -> {
+            long generation = writeGeneration();
+            if (callback != null) {
+                plugin.getServer().getScheduler().runTask(plugin, () -> callback.accept(generation));
+            }
+        });
+    }
+
+    // ── Writing ──────────────────────────────────────────────────────────────
+
+    /**
+     * Copy the data folder into a new generation. Runs on the I/O thread.
+     *
+     * @return The generation number, or -1 if it could not be written
+     */
+    private long writeGeneration() {
+        PersistenceService.StoreMetrics metrics = plugin.getPersistenceService().getMetrics("backups");
+        long start = System.nanoTime();
+        long generation = newestGeneration() + 1;
+        File partial = new File(backupFolder, formatGeneration(generation) + PARTIAL_SUFFIX);
+
+        try {
+            deleteRecursively(partial.toPath());
+            StringBuilder manifest = new StringBuilder();
+            manifest.append("# FactoryCore data backup\n");
+            manifest.append("generation=").append(generation).append('\n');
+            manifest.append("created=").append(System.currentTimeMillis()).append('\n');
+
+            long bytes = 0;
+            for (Path source : listDataFiles()) {
+                byte[] data = Files.readAllBytes(source);
+                String relative = dataFolder.toPath().relativize(source).toString().replace(File.separatorChar, '/');
+                AtomicFileWriter.write(new File(partial, relative), data);
+                manifest.append("file=").append(crcHex(data)).append(':').append(data.length)
+                        .append(':').append(relative).append('\n');
+                bytes += data.length;
+            }
+            manifest.append("checksum=").append(crcHex(manifest.toString().getBytes(StandardCharsets.UTF_8)))
+                    .append('\n');
+            AtomicFileWriter.write(new File(partial, MANIFEST), manifest.toString().getBytes(StandardCharsets.UTF_8));
+
+            // A generation only becomes visible once it is complete
+            Files.move(partial.toPath(), new File(backupFolder, formatGeneration(generation)).toPath(),
+                    StandardCopyOption.ATOMIC_MOVE);
+            rotate();
+            metrics.recordWrite(0L, System.nanoTime() - start, bytes);
+            return generation;
+        } catch (IOException e) {
+            metrics.recordFailure();
+            plugin.getLogger().severe("Failed to write data backup " + generation + "!");
+            e.printStackTrace();
+            return -1;
+        }
+    }
+
+    private void rotate() throws IOException {
+        int keep = Math.max(1, plugin.getConfig().getInt("persistence.backups.keep", 5));
+        List<Long> generations = listGenerations();
+        for (int i = keep; i < generations.size(); i++) {
+            deleteRecursively(new File(backupFolder, formatGeneration(generations.get(i))).toPath());
+        }
+    }
+
+    // ── Recovery ─────────────────────────────────────────────────────────────
+
+    /**
+     * Check the top-level data files and restore the newest intact
+     * generation if any of them is damaged. Called once on startup, before
+     * any data is read.
+     */
+    public void recover() {
+        List<String> damaged = findDamagedFiles();
+        if (damaged.isEmpty()) {
+            return;
+        }
+        plugin.getLogger().severe("Damaged data files: " + String.join(", ", damaged));
+
+        for (long generation : listGenerations()) {
+            File folder = new File(backupFolder, formatGeneration(generation));
+            List<String> files = verifyGeneration(folder);
+            if (files == null) {
+                plugin.getLogger().warning("Backup " + generation + " is damaged, trying an older one.");
+                continue;
+            }
+
+            try {
+                restore(folder, files);
+                plugin.getLogger().severe("Restored data from backup " + generation
+                        + ". The damaged files were moved to data/backups/damaged-" + folder.getName() + "/.");
+            } catch (IOException e) {
+                plugin.getLogger().severe("Failed to restore backup " + generation + "!");
+                e.printStackTrace();
+            }
+            return;
+        }
+        plugin.getLogger().severe("No intact backup found, loading the data files as they are.");
+    }
+
+    private List<String> findDamagedFiles() {
+        List<String> damaged = new ArrayList<>();
+        File[] files = dataFolder.listFiles(File::isFile);
+        if (files == null) {
+            return damaged;
+        }
+        for (File file : files) {
+            String name = file.getName();
+            if (name.endsWith(".yml") && !isReadableYaml(file)) {
+                damaged.add(name);
+            } else if (name.endsWith(".dat") && !BinaryFormat.verify(file)) {
+                damaged.add(name);
+            }
+        }
+        return damaged;
+    }
+
+    private static boolean isReadableYaml(File file) {
+        try {
+            new YamlConfiguration().loadFromString(new String(Files.readAllBytes(file.toPath()),
+                    StandardCharsets.UTF_8));
+            return true;
+        } catch (IOException | InvalidConfigurationException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Check a generation's manifest and every file it lists.
+     *
+     * @return The relative paths of its files, or {@code null} if anything
+     *         is missing or does not match its checksum
+     */
+    private List<String> verifyGeneration(File folder) {
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(new File(folder, MANIFEST).toPath(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            return null;
+        }
+        if (lines.isEmpty() || !lines.get(lines.size() - 1).startsWith("checksum=")) {
+            return null;
+        }
+
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < lines.size() - 1; i++) {
+            content.append(lines.get(i)).append('\n');
+        }
+        String expected = lines.get(lines.size() - 1).substring("checksum=".length());
+        if (!expected.equals(crcHex(content.toString().getBytes(StandardCharsets.UTF_8)))) {
+            return null;
+        }
+
+        List<String> files = new ArrayList<>();
+        for (String line : lines) {
+            if (!line.startsWith("file=")) {
+                continue;
+            }
+            String[] parts = line.substring("file=".length()).split(":", 3);
+            if (parts.length != 3) {
+                return null;
+            }
+            try {
+                byte[] data = Files.readAllBytes(new File(folder, parts[2]).toPath());
+                if (data.length != Long.parseLong(parts[1]) || !parts[0].equals(crcHex(data))) {
+                    return null;
+                }
+            } catch (IOException | NumberFormatException e) {
+                return null;
+            }
+            files.add(parts[2]);
+        }
+        return files;
+    }
+
+    private void restore(File generation, List<String> files) throws IOException {
+        File damagedFolder = new File(backupFolder, "damaged-" + generation.getName());
+        for (Path source : listDataFiles()) {
+            Path target = damagedFolder.toPath().resolve(dataFolder.toPath().relativize(source));
+            Files.createDirectories(target.getParent());
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        for (String relative : files) {
+            AtomicFileWriter.write(new File(dataFolder, relative),
+                    Files.readAllBytes(new File(generation, relative).toPath()));
+        }
+    }
+
+    // ── Helpers ──────────────────────────────────────────────────────────────
+
+    /**
+     * Every file in the data folder except backups, exports and temp files.
+     */
+    private List<Path> listDataFiles() throws IOException {
+        Path root = dataFolder.toPath();
+        Path backups = backupFolder.toPath();
+        Path exports = root.resolve("export");
+        if (!Files.isDirectory(root)) {
+            return new ArrayList<>();
+        }
+        try (Stream<Path> paths = Files.walk(root)) {
+            List<Path> result = new ArrayList<>();
+            paths.filter(Files::isRegularFile)
+                    .filter(path -> !path.startsWith(backups) && !path.startsWith(exports))
+                    .filter(path -> !path.getFileName().toString().endsWith(".tmp"))
+                    .forEach(result::add);
+            return result;
+        }
+    }
+
+    /**
+     * Complete generations, newest first.
+     */
+    private List<Long> listGenerations() {
+        List<Long> generations = new ArrayList<>();
+        File[] folders = backupFolder.listFiles(File::isDirectory);
+        if (folders == null) {
+            return generations;
+        }
+        for (File folder : folders) {
+            try {
+                generations.add(Long.parseLong(folder.getName()));
+            } catch (NumberFormatException e) {
+                // partial or damaged-* folder
+            }
+        }
+        generations.sort(Comparator.reverseOrder());
+        return generations;
+    }
+
+    private long newestGeneration() {
+        List<Long> generations = listGenerations();
+        return generations.isEmpty() ? 0L : generations.get(0);
+    }
+
+    private static String formatGeneration(long generation) {
+        return String.format("%06d", generation);
+    }
+
+    private static String crcHex(byte[] data) {
+        CRC32 crc = new CRC32();
+        crc.update(data);
+        return String.format("%08x", crc.getValue());
+    }
+
+    private static void deleteRecursively(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(path)) {
+            List<Path> all = new ArrayList<>();
+            paths.forEach(all::add);
+            all.sort(Comparator.reverseOrder());
+            for (Path entry : all) {
+                Files.delete(entry);
+            }
+        }
+    }
+}
@@ -0,0 +1,380 @@
+package com.aithor.factorycore.persistence;
+
+import com.aithor.factorycore.FactoryCore;
+import com.aithor.factorycore.managers.AchievementManager.PlayerAchievementData;
+import com.aithor.factorycore.managers.DailyQuestManager.PlayerQuestData;
+import com.aithor.factorycore.managers.MarketplaceManager.BuyOrder;
+import com.aithor.factorycore.managers.MarketplaceManager.MarketListing;
+import com.aithor.factorycore.managers.ResearchManager.ResearchData;
+import com.aithor.factorycore.managers.TaxManager.TaxPayment;
+import com.aithor.factorycore.managers.TaxManager.TaxRecord;
+import com.aithor.factorycore.models.Factory;
+import com.aithor.factorycore.models.Invoice;
+import com.aithor.factorycore.persistence.binary.BinaryFactoryRepository;
+import com.aithor.factorycore.persistence.binary.BinaryStorageRepository;
+import com.aithor.factorycore.persistence.sql.*;
+import com.aithor.factorycore.persistence.yaml.*;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.io.File;
+import java.sql.SQLException;
+import java.util.*;
+
+/**
+ * DataBackend - Selects and owns the repositories configured under
+ * {@code database.type}.
+ * <p>
+ * YAML keeps the classic data/*.yml files, with research, achievements and
+ * daily quests split into one file per player. BINARY is the same, except that
+ * factories and storage are kept in compact data/*.dat files (the YAML files
+ * are imported on the first start and can be exported again with
+ * {@code /fc admin data export}). MySQL and SQLite store the same
+ * data as rows and only write what changed; SQLite keeps everything in a
+ * single local file and needs no setup. With a SQL backend only factories,
+ * storage, listings, mailboxes, owner notices, invoices and tax records are
+ * loaded on startup; with any backend per-player data is loaded when the
+ * player logs in or on first access.
+ * When a SQL database is opened for the first time it imports the existing
+ * YAML data, the YAML files themselves are left untouched.
+ * </p>
+ */
+public class DataBackend {
+
+    public enum Type {
+        YAML,
+        BINARY,
+        MYSQL,
+        SQLITE
+    }
+
+    private final Type type;
+    private final SqlDatabase database;
+    private FactoryRepository factoryRepository;
+    private StorageRepository storageRepository;
+    private MarketRepository marketRepository;
+    private InvoiceRepository invoiceRepository;
+    private TaxRepository taxRepository;
+    private ResearchRepository researchRepository;
+    private AchievementRepository achievementRepository;
+    private QuestRepository questRepository;
+    private MailboxRepository mailboxRepository;
+    private NoticeRepository noticeRepository;
+
+    private DataBackend(Type type, SqlDatabase database) {
+        this.type = type;
+        this.database = database;
+    }
+
+    /**
+     * Open the configured backend.
+     *
+     * @throws SQLException if a SQL backend is configured but cannot be used
+     */
+    public static DataBackend open(FactoryCore plugin) throws SQLException {
+        File dataFolder = new File(plugin.getDataFolder(), "data");
+        if (!dataFolder.exists()) {
+            dataFolder.mkdirs();
+        }
+
+        Type type = parseType(plugin, plugin.getConfig().getString("database.type", "YAML"));
+        if (type == Type.YAML || type == Type.BINARY) {
+            DataBackend backend = new DataBackend(type, null);
+            if (type == Type.BINARY) {
+                backend.factoryRepository = new BinaryFactoryRepository(plugin, dataFolder);
+                backend.storageRepository = new BinaryStorageRepository(plugin, dataFolder);
+            } else {
+                backend.factoryRepository = new YamlFactoryRepository(plugin, dataFolder);
+                backend.storageRepository = new YamlStorageRepository(plugin, dataFolder);
+            }
+            YamlMarketRepository market = new YamlMarketRepository(plugin, dataFolder);
+            YamlMailboxRepository mailboxes = new YamlMailboxRepository(plugin, dataFolder);
+            market.migrateLegacyDeliveries(mailboxes);
+            backend.marketRepository = market;
+            backend.invoiceRepository = new YamlInvoiceRepository(plugin, dataFolder);
+            backend.taxRepository = new YamlTaxRepository(plugin, dataFolder);
+            YamlResearchRepository research = new YamlResearchRepository(plugin, dataFolder);
+            YamlAchievementRepository achievements = new YamlAchievementRepository(plugin, dataFolder);
+            YamlQuestRepository quests = new YamlQuestRepository(plugin, dataFolder);
+            research.migrateLegacyFile();
+            achievements.migrateLegacyFile();
+            quests.migrateLegacyFile();
+            backend.researchRepository = research;
+            backend.achievementRepository = achievements;
+            backend.questRepository = quests;
+            backend.mailboxRepository = mailboxes;
+            backend.noticeRepository = new YamlNoticeRepository(plugin, dataFolder);
+            return backend;
+        }
+
+        SqlDatabase database = openDatabase(plugin, type);
+        try {
+            SqlFactoryRepository factories = new SqlFactoryRepository(plugin, database);
+            SqlStorageRepository storage = new SqlStorageRepository(plugin, database);
+            SqlMarketRepository market = new SqlMarketRepository(plugin, database);
+            SqlInvoiceRepository invoices = new SqlInvoiceRepository(plugin, database);
+            SqlTaxRepository taxes = new SqlTaxRepository(plugin, database);
+            SqlResearchRepository research = new SqlResearchRepository(plugin, database);
+            SqlAchievementRepository achievements = new SqlAchievementRepository(plugin, database);
+            SqlQuestRepository quests = new SqlQuestRepository(plugin, database);
+            SqlMailboxRepository mailboxes = new SqlMailboxRepository(plugin, database);
+            SqlNoticeRepository notices = new SqlNoticeRepository(plugin, database);
+            factories.createSchema();
+            storage.createSchema();
+            market.createSchema();
+            invoices.createSchema();
+            taxes.createSchema();
+            research.createSchema();
+            achievements.createSchema();
+            quests.createSchema();
+            mailboxes.createSchema();
+            notices.createSchema();
+            market.migrateLegacyDeliveries(mailboxes);
+
+            DataBackend backend = new DataBackend(type, database);
+            backend.factoryRepository = factories;
+            backend.storageRepository = storage;
+            backend.marketRepository = market;
+            backend.invoiceRepository = invoices;
+            backend.taxRepository = taxes;
+            backend.researchRepository = research;
+            backend.achievementRepository = achievements;
+            backend.questRepository = quests;
+            backend.mailboxRepository = mailboxes;
+            backend.noticeRepository = notices;
+
+            backend.importYamlIfEmpty(plugin, dataFolder);
+
+            plugin.getLogger().info("Using " + type.name() + " data storage.");
+            return backend;
+        } catch (SQLException e) {
+            database.close();
+            throw e;
+        }
+    }
+
+    private static Type parseType(FactoryCore plugin, String value) {
+        try {
+            return Type.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            plugin.getLogger().warning("Unknown database.type '" + value + "', falling back to YAML.");
+            return Type.YAML;
+        }
+    }
+
+    private static SqlDatabase openDatabase(FactoryCore plugin, Type type) throws SQLException {
+        String prefix = plugin.getConfig().getString("database.table-prefix", "fc_");
+        Properties properties = new Properties();
+
+        if (type == Type.SQLITE) {
+            loadDriver("org.sqlite.JDBC");
+            File file = new File(plugin.getDataFolder(),
+                    plugin.getConfig().getString("database.sqlite.file", "factorycore.db"));
+            // SQLite allows a single writer, so one connection is all we need
+            ConnectionPool pool = new ConnectionPool("jdbc:sqlite:" + file.getAbsolutePath(), properties, 1, 30000L);
+            SqlDatabase database = new SqlDatabase(plugin, SqlDialect.SQLITE, pool, prefix);
+            database.execute("PRAGMA journal_mode=WAL");
+            return database;
+        }
+
+        ConfigurationSection mysql = plugin.getConfig().getConfigurationSection("database.mysql");
+        if (mysql == null) {
+            throw new SQLException("Missing database.mysql section in config.yml");
+        }
+        if (!loadDriver("com.mysql.cj.jdbc.Driver")) {
+            loadDriver("com.mysql.jdbc.Driver");
+        }
+
+        properties.setProperty("user", mysql.getString("username", "root"));
+        properties.setProperty("password", mysql.getString("password", ""));
+        properties.setProperty("useSSL", String.valueOf(mysql.getBoolean("use-ssl", false)));
+        properties.setProperty("characterEncoding", "utf8");
+        // Lets the driver send a JDBC batch as multi-row statements
+        properties.setProperty("rewriteBatchedStatements", "true");
+
+        String url = "jdbc:mysql://" + mysql.getString("host", "localhost") + ":" + mysql.getInt("port", 3306)
+                + "/" + mysql.getString("database", "factorycore");
+        ConnectionPool pool = new ConnectionPool(url, properties, mysql.getInt("pool-size", 8), 30000L);
+        SqlDatabase database = new SqlDatabase(plugin, SqlDialect.MYSQL, pool, prefix);
+        // Fail fast on wrong credentials instead of on the first save
+        database.execute("SELECT 1");
+        return database;
+    }
+
+    private static boolean loadDriver(String className) {
+        try {
+            Class.forName(className);
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    // ── YAML import ──────────────────────────────────────────────────────────
+
+    private void importYamlIfEmpty(FactoryCore plugin, File dataFolder) throws SQLException {
+        if (!new File(dataFolder, "factories.yml").exists()) {
+            return;
+        }
+
+        int[] existing = {0};
+        database.query("SELECT COUNT(*) FROM " + database.table("factories"), rs -> existing[0] = rs.getInt(1));
+        if (existing[0] > 0) {
+            return;
+        }
+
+        Map<String, Factory> factories = new HashMap<>();
+        new YamlFactoryRepository(plugin, dataFolder).read(factories);
+        factories.values().forEach(factoryRepository::save);
+
+        Map<String, Map<String, Integer>> input = new HashMap<>();
+        Map<String, Map<String, Integer>> output = new HashMap<>();
+        new YamlStorageRepository(plugin, dataFolder).read(input, output);
+        importLedger(StorageRepository.Ledger.INPUT, input);
+        importLedger(StorageRepository.Ledger.OUTPUT, output);
+
+        Map<String, MarketListing> listings = new HashMap<>();
+        Map<String, BuyOrder> buyOrders = new HashMap<>();
+        Map<UUID, Double> earnings = new HashMap<>();
+        YamlMarketRepository yamlMarket = new YamlMarketRepository(plugin, dataFolder);
+        yamlMarket.read(listings, buyOrders, earnings);
+        listings.values().forEach(marketRepository::saveListing);
+        buyOrders.values().stream().filter(BuyOrder::isOpen).forEach(marketRepository::saveBuyOrder);
+        earnings.forEach(marketRepository::saveEarnings);
+
+        Map<UUID, Map<String, Integer>> mailboxes = new HashMap<>();
+        new YamlMailboxRepository(plugin, dataFolder).read(mailboxes);
+        Map<UUID, Map<String, Integer>> legacyDeliveries = new HashMap<>();
+        yamlMarket.readLegacyDeliveries(legacyDeliveries);
+        legacyDeliveries.forEach((playerId, items) -> items.forEach((resourceId, amount) ->
+                mailboxes.computeIfAbsent(playerId, k -> new HashMap<>()).merge(resourceId, amount, Integer::sum)));
+        mailboxes.forEach((playerId, items) ->
+                items.forEach((resourceId, amount) -> mailboxRepository.save(playerId, resourceId, amount)));
+
+        Map<UUID, Map<String, Integer>> completions = new HashMap<>();
+        Map<UUID, Map<String, String>> notices = new HashMap<>();
+        new YamlNoticeRepository(plugin, dataFolder).read(completions, notices);
+        completions.forEach((playerId, counts) ->
+                counts.forEach((recipeId, count) -> noticeRepository.saveCompletions(playerId, recipeId, count)));
+        notices.forEach((playerId, messages) ->
+                messages.forEach((key, message) -> noticeRepository.saveMessage(playerId, key, message)));
+
+        YamlInvoiceRepository yamlInvoices = new YamlInvoiceRepository(plugin, dataFolder);
+        Map<String, Invoice> invoices = new HashMap<>();
+        yamlInvoices.read(invoices);
+        invoices.values().forEach(invoiceRepository::save);
+        long lastSalary = yamlInvoices.loadLastSalaryCollection(-1);
+        if (lastSalary > 0) {
+            invoiceRepository.saveLastSalaryCollection(lastSalary);
+        }
+
+        YamlTaxRepository yamlTaxes = new YamlTaxRepository(plugin, dataFolder);
+        Map<String, TaxRecord> taxRecords = new HashMap<>();
+        Map<UUID, List<TaxPayment>> payments = new HashMap<>();
+        yamlTaxes.read(taxRecords, payments);
+        taxRecords.values().forEach(taxRepository::saveRecord);
+        payments.forEach((playerId, list) -> list.forEach(payment -> taxRepository.savePayment(playerId, payment)));
+        long lastTax = yamlTaxes.loadLastCollection(-1);
+        if (lastTax > 0) {
+            taxRepository.saveLastCollection(lastTax);
+        }
+
+        Map<UUID, Map<String, ResearchData>> research = new YamlResearchRepository(plugin, dataFolder).readAll();
+        research.forEach((playerId, entries) ->
+                entries.forEach((researchId, data) -> researchRepository.save(playerId, researchId, data)));
+
+        Map<UUID, PlayerAchievementData> achievements = new YamlAchievementRepository(plugin, dataFolder).readAll();
+        achievements.forEach((playerId, data) -> {
+            Set<String> ids = new HashSet<>(data.unlockedAchievements);
+            ids.addAll(data.progressValues.keySet());
+            ids.forEach(achievementId -> achievementRepository.save(playerId, achievementId, data));
+        });
+
+        Map<UUID, PlayerQuestData> quests = new YamlQuestRepository(plugin, dataFolder).readAll();
+        quests.forEach((playerId, data) -> {
+            questRepository.saveState(playerId, data);
+            Set<String> ids = new HashSet<>(data.questProgress.keySet());
+            ids.addAll(data.claimedRewards);
+            ids.forEach(questId -> questRepository.saveQuest(playerId, questId, data));
+        });
+
+        database.flushNow();
+        plugin.getLogger().info("Imported " + factories.size() + " factories, " + listings.size()
+                + " listings and data for " + (research.size() + achievements.size() + quests.size())
+                + " player records from YAML into the database.");
+    }
+
+    private void importLedger(StorageRepository.Ledger ledger, Map<String, Map<String, Integer>> data) {
+        for (Map.Entry<String, Map<String, Integer>> entry : data.entrySet()) {
+            for (Map.Entry<String, Integer> item : entry.getValue().entrySet()) {
+                storageRepository.saveAmount(ledger, entry.getKey(), item.getKey(), item.getValue());
+            }
+        }
+    }
+
+    // ── Lifecycle ────────────────────────────────────────────────────────────
+
+    /**
+     * Start periodic background writes (SQL backends only; YAML files are
+     * flushed by the {@link PersistenceService}).
+     */
+    public void start() {
+        if (database != null) {
+            database.start();
+        }
+    }
+
+    /**
+     * Write everything pending and release the database connections.
+     */
+    public void shutdown() {
+        if (database != null) {
+            database.close();
+        }
+    }
+
+    // ── Getters ──────────────────────────────────────────────────────────────
+
+    public Type getType() {
+        return type;
+    }
+
+    public FactoryRepository getFactoryRepository() {
+        return factoryRepository;
+    }
+
+    public StorageRepository getStorageRepository() {
+        return storageRepository;
+    }
+
+    public MarketRepository getMarketRepository() {
+        return marketRepository;
+    }
+
+    public InvoiceRepository getInvoiceRepository() {
+        return invoiceRepository;
+    }
+
+    public TaxRepository getTaxRepository() {
+        return taxRepository;
+    }
+
+    public ResearchRepository getResearchRepository() {
+        return researchRepository;
+    }
+
+    public AchievementRepository getAchievementRepository() {
+        return achievementRepository;
+    }
+
+    public QuestRepository getQuestRepository() {
+        return questRepository;
+    }
+
+    public MailboxRepository getMailboxRepository() {
+        return mailboxRepository;
+    }
+
+    public NoticeRepository getNoticeRepository() {
+        return noticeRepository;
+    }
+}
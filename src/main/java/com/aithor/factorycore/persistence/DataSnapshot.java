@@ -0,0 +1,52 @@
+package com.aithor.factorycore.persistence;
+
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DataSnapshot - Flat, append-only capture of a YAML data file's contents.
+ * <p>
+ * Stores record {@code path -> value} pairs on the main thread, which is just
+ * a list append per value and never builds the nested YAML tree. Values must
+ * be immutable (strings, numbers, booleans) or copies, so the snapshot stays
+ * valid while the live objects keep changing. The YAML document is built and
+ * serialized later on the I/O thread by {@link #toConfiguration()}.
+ * </p>
+ */
+public final class DataSnapshot implements Snapshot {
+
+    private final List<String> paths = new ArrayList<>();
+    private final List<Object> values = new ArrayList<>();
+
+    /**
+     * Record a value, same semantics as {@code ConfigurationSection.set}.
+     */
+    public void set(String path, Object value) {
+        paths.add(path);
+        values.add(value);
+    }
+
+    public int size() {
+        return paths.size();
+    }
+
+    /**
+     * Build the YAML document. Safe to call off the main thread.
+     */
+    public FileConfiguration toConfiguration() {
+        FileConfiguration config = new YamlConfiguration();
+        for (int i = 0; i < paths.size(); i++) {
+            config.set(paths.get(i), values.get(i));
+        }
+        return config;
+    }
+
+    @Override
+    public byte[] serialize() {
+        return toConfiguration().saveToString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,38 @@
+package com.aithor.factorycore.persistence;
+
+import com.aithor.factorycore.models.Factory;
+
+import java.util.Map;
+
+/**
+ * FactoryRepository - Persistence for factories.
+ * <p>
+ * Writes are asynchronous: {@link #save(Factory)} and {@link #delete(String)}
+ * only schedule the change, {@link #flush()} forces everything scheduled so
+ * far to storage before returning.
+ * </p>
+ */
+public interface FactoryRepository {
+
+    /**
+     * Load every factory into {@code target}. The map stays owned by the
+     * caller; file based implementations keep a reference to it so they can
+     * write the complete data set.
+     */
+    void loadAll(Map<String, Factory> target);
+
+    /**
+     * Schedule a write of a single factory.
+     */
+    void save(Factory factory);
+
+    /**
+     * Schedule removal of a factory.
+     */
+    void delete(String factoryId);
+
+    /**
+     * Write all scheduled changes and wait until they are stored.
+     */
+    void flush();
+}
@@ -0,0 +1,39 @@
+package com.aithor.factorycore.persistence;
+
+import com.aithor.factorycore.models.Invoice;
+
+import java.util.Map;
+
+/**
+ * InvoiceRepository - Persistence for tax and salary invoices.
+ */
+public interface InvoiceRepository {
+
+    /**
+     * Load the invoices the plugin works with into {@code target}. SQL
+     * backends only load unpaid invoices; paid ones stay in the database as
+     * history. The map stays owned by the caller; file based implementations
+     * keep a reference to it for writing.
+     */
+    void loadAll(Map<String, Invoice> target);
+
+    /**
+     * Last time salary invoices were generated, or {@code fallback} if never.
+     */
+    long loadLastSalaryCollection(long fallback);
+
+    /**
+     * Schedule a write of a single invoice.
+     */
+    void save(Invoice invoice);
+
+    /**
+     * Schedule a write of the last salary collection time.
+     */
+    void saveLastSalaryCollection(long timestamp);
+
+    /**
+     * Write all scheduled changes and wait until they are stored.
+     */
+    void flush();
+}
@@ -0,0 +1,229 @@
+package com.aithor.factorycore.persistence;
+
+import com.aithor.factorycore.FactoryCore;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JournaledStorageRepository - File based factory storage backed by a
+ * write-ahead journal.
+ * <p>
+ * Every change is appended to the journal as a single line holding the new
+ * amount, and the journal is written in bulk on each persistence flush. Once
+ * the journal grows past {@code persistence.storage-journal.compact-size-kb}
+ * the snapshot files are rewritten from memory and the journal is emptied. On
+ * startup the snapshot is read and the journal is replayed on top of it;
+ * since each record holds an absolute amount, replaying a record that is
+ * already part of the snapshot is harmless. Subclasses only define the
+ * snapshot format.
+ * </p>
+ */
+public abstract class JournaledStorageRepository implements StorageRepository {
+
+    private static final String SET = "S";
+    private static final String CLEAR = "C";
+    private static final String SEPARATOR = "\t";
+
+    protected final FactoryCore plugin;
+    private final AppendJournal journal;
+    private final String metricsName;
+    private Map<String, Map<String, Integer>> input;
+    private Map<String, Map<String, Integer>> output;
+    private volatile boolean compactRequested;
+
+    protected JournaledStorageRepository(FactoryCore plugin, File journalFile, String metricsName) {
+        this.plugin = plugin;
+        this.journal = new AppendJournal(journalFile);
+        this.metricsName = metricsName;
+    }
+
+    /**
+     * Read the last snapshot into the maps.
+     */
+    protected abstract void readSnapshot(Map<String, Map<String, Integer>> input,
+            Map<String, Map<String, Integer>> output);
+
+    /**
+     * Capture both ledgers on the main thread.
+     *
+     * @return The snapshot files to write, in order
+     */
+    protected abstract Map<File, Snapshot> captureSnapshot(Map<String, Map<String, Integer>> input,
+            Map<String, Map<String, Integer>> output);
+
+    @Override
+    public void loadAll(Map<String, Map<String, Integer>> input, Map<String, Map<String, Integer>> output) {
+        this.input = input;
+        this.output = output;
+
+        int replayed = read(input, output);
+        plugin.getPersistenceService().addFlushHook(this::flushJournal);
+
+        if (replayed > 0) {
+            plugin.getLogger().info("Replayed " + replayed + " storage journal entries.");
+            // Fold the replayed entries into the snapshot so they are not replayed again
+            flush();
+        }
+    }
+
+    /**
+     * Read the snapshot and replay the journal on top of it, without binding
+     * to the maps.
+     *
+     * @return Number of journal records that were replayed
+     */
+    public int read(Map<String, Map<String, Integer>> input, Map<String, Map<String, Integer>> output) {
+        readSnapshot(input, output);
+
+        List<String> records;
+        try {
+            records = journal.readRecords();
+        } catch (IOException e) {
+            plugin.getLogger().severe("Failed to read " + journal.getFile().getName() + "!");
+            e.printStackTrace();
+            return 0;
+        }
+
+        int replayed = 0;
+        for (String record : records) {
+            if (replay(record, input, output)) {
+                replayed++;
+            } else {
+                plugin.getLogger().warning("Skipping malformed storage journal entry: " + record);
+            }
+        }
+        return replayed;
+    }
+
+    @Override
+    public void saveAmount(Ledger ledger, String factoryId, String resourceId, int amount) {
+        journal.append(SET + SEPARATOR + ledger.name() + SEPARATOR + factoryId
+                + SEPARATOR + resourceId + SEPARATOR + amount);
+    }
+
+    @Override
+    public void clear(Ledger ledger, String factoryId) {
+        journal.append(CLEAR + SEPARATOR + ledger.name() + SEPARATOR + factoryId);
+    }
+
+    /**
+     * Compact the journal into the snapshot and wait until it is written.
+     */
+    @Override
+    public void flush() {
+        plugin.getPersistenceService().runAndWait(captureCompaction());
+    }
+
+    // ── Journal ──────────────────────────────────────────────────────────────
+
+    /**
+     * Runs on the main thread at every persistence flush.
+     */
+    private void flushJournal() {
+        long limit = plugin.getConfig().getLong("persistence.storage-journal.compact-size-kb", 512L) * 1024L;
+        if (compactRequested || journal.size() >= limit) {
+            plugin.getPersistenceService().runAsync(captureCompaction());
+            return;
+        }
+
+        byte[] data = journal.drain();
+        if (data.length == 0) {
+            return;
+        }
+        plugin.getPersistenceService().runAsync(() -> {
+            try {
+                journal.write(data);
+            } catch (IOException e) {
+                // The lost records are still in memory, a full snapshot covers them
+                compactRequested = true;
+                plugin.getLogger().severe("Failed to write " + journal.getFile().getName() + "!");
+                e.printStackTrace();
+            }
+        });
+    }
+
+    /**
+     * Capture both ledgers on the calling (main) thread and return the I/O
+     * task that writes them and empties the journal.
+     */
+    private Runnable captureCompaction() {
+        PersistenceService.StoreMetrics metrics = plugin.getPersistenceService().getMetrics(metricsName);
+        long start = System.nanoTime();
+        compactRequested = false;
+        journal.reset();
+        Map<File, Snapshot> snapshots = captureSnapshot(input != null ? input : new HashMap<>(),
+                output != null ? output : new HashMap<>());
+        metrics.recordCapture(System.nanoTime() - start);
+
+        return () -> {
+            try {
+                long serializeStart = System.nanoTime();
+                Map<File, byte[]> files = new LinkedHashMap<>();
+                long bytes = 0;
+                for (Map.Entry<File, Snapshot> entry : snapshots.entrySet()) {
+                    byte[] data = entry.getValue().serialize();
+                    files.put(entry.getKey(), data);
+                    bytes += data.length;
+                }
+                long serialized = System.nanoTime();
+                for (Map.Entry<File, byte[]> entry : files.entrySet()) {
+                    AtomicFileWriter.write(entry.getKey(), entry.getValue());
+                }
+                // Only drop the journal once the whole snapshot is safely on disk
+                journal.truncate();
+                metrics.recordWrite(serialized - serializeStart, System.nanoTime() - serialized, bytes);
+            } catch (IOException e) {
+                compactRequested = true;
+                metrics.recordFailure();
+                plugin.getLogger().severe("Failed to save factory storage!");
+                e.printStackTrace();
+            }
+        };
+    }
+
+    private static boolean replay(String record, Map<String, Map<String, Integer>> input,
+            Map<String, Map<String, Integer>> output) {
+        String[] parts = record.split(SEPARATOR);
+        if (parts.length < 3) {
+            return false;
+        }
+
+        Map<String, Map<String, Integer>> ledger;
+        if (parts[1].equals(Ledger.INPUT.name())) {
+            ledger = input;
+        } else if (parts[1].equals(Ledger.OUTPUT.name())) {
+            ledger = output;
+        } else {
+            return false;
+        }
+
+        if (parts[0].equals(CLEAR) && parts.length == 3) {
+            ledger.remove(parts[2]);
+            return true;
+        }
+        if (!parts[0].equals(SET) || parts.length != 5) {
+            return false;
+        }
+
+        int amount;
+        try {
+            amount = Integer.parseInt(parts[4]);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        if (amount > 0) {
+            ledger.computeIfAbsent(parts[2], id -> new HashMap<>()).put(parts[3], amount);
+        } else {
+            Map<String, Integer> items = ledger.get(parts[2]);
+            if (items != null) {
+                items.remove(parts[3]);
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,28 @@
+package com.aithor.factorycore.persistence;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * MailboxRepository - Persistence for per-player mailboxes, stored as
+ * resource IDs and counts.
+ */
+public interface MailboxRepository {
+
+    /**
+     * Load every mailbox. The map stays owned by the caller; file based
+     * implementations keep a reference to it for writing.
+     */
+    void loadAll(Map<UUID, Map<String, Integer>> mailboxes);
+
+    /**
+     * Schedule a write of one resource in a player's mailbox; zero or less
+     * removes the entry.
+     */
+    void save(UUID playerId, String resourceId, int amount);
+
+    /**
+     * Write all scheduled changes and wait until they are stored.
+     */
+    void flush();
+}
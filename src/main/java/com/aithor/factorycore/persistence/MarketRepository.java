@@ -0,0 +1,53 @@
+package com.aithor.factorycore.persistence;
+
+import com.aithor.factorycore.managers.MarketplaceManager.BuyOrder;
+import com.aithor.factorycore.managers.MarketplaceManager.MarketListing;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * MarketRepository - Persistence for marketplace listings, buy orders and
+ * pending seller earnings.
+ */
+public interface MarketRepository {
+
+    /**
+     * Load active listings, buy orders and pending earnings. The maps stay
+     * owned by the caller; file based implementations keep a reference to
+     * them for writing.
+     */
+    void loadAll(Map<String, MarketListing> listings, Map<String, BuyOrder> buyOrders,
+            Map<UUID, Double> earnings);
+
+    /**
+     * Schedule a write of a single listing.
+     */
+    void saveListing(MarketListing listing);
+
+    /**
+     * Schedule removal of a listing.
+     */
+    void deleteListing(String listingId);
+
+    /**
+     * Schedule a write of a single buy order.
+     */
+    void saveBuyOrder(BuyOrder order);
+
+    /**
+     * Schedule removal of a buy order.
+     */
+    void deleteBuyOrder(String orderId);
+
+    /**
+     * Schedule a write of a player's pending earnings; zero or less removes
+     * the entry.
+     */
+    void saveEarnings(UUID playerId, double amount);
+
+    /**
+     * Write all scheduled changes and wait until they are stored.
+     */
+    void flush();
+}
@@ -0,0 +1,35 @@
+package com.aithor.factorycore.persistence;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * NoticeRepository - Persistence for notices kept for factory owners until
+ * their next login: how many productions of each recipe completed while
+ * they were away, and the latest message per factory and kind.
+ */
+public interface NoticeRepository {
+
+    /**
+     * Load every pending notice. The map stays owned by the caller; file
+     * based implementations keep a reference to it for writing.
+     */
+    void loadAll(Map<UUID, Map<String, Integer>> completions, Map<UUID, Map<String, String>> messages);
+
+    /**
+     * Schedule a write of one recipe's completion count for a player; zero or
+     * less removes the entry.
+     */
+    void saveCompletions(UUID playerId, String recipeId, int count);
+
+    /**
+     * Schedule a write of one message for a player under its key; null
+     * removes the entry.
+     */
+    void saveMessage(UUID playerId, String key, String message);
+
+    /**
+     * Write all scheduled changes and wait until they are stored.
+     */
+    void flush();
+}
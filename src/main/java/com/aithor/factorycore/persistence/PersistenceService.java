@@ -0,0 +1,378 @@
+package com.aithor.factorycore.persistence;
+
+import com.aithor.factorycore.FactoryCore;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * PersistenceService - Shared write-behind saver for all data files.
+ * <p>
+ * Managers register each of their data files once and then only mark it dirty
+ * when something changes. Dirty stores are coalesced and flushed on a fixed
+ * interval. A flush only captures a {@link Snapshot} (usually a flat
+ * {@link DataSnapshot}) on the main thread; encoding it and forcing it to disk
+ * happen on a dedicated I/O thread through {@link AtomicFileWriter}.
+ * </p>
+ * <p>
+ * Each store has at most one snapshot waiting for the I/O thread. A store
+ * that changes again while its previous snapshot is still being written
+ * stays dirty and is captured on a later flush, so a slow disk delays saves
+ * instead of piling up snapshots in memory. Capture time, serialize time and
+ * bytes written are tracked per store in {@link StoreMetrics}.
+ * </p>
+ */
+public class PersistenceService {
+
+    private final FactoryCore plugin;
+    private final Map<String, DataStore> stores = new ConcurrentHashMap<>();
+    private final Set<String> dirtyStores = ConcurrentHashMap.newKeySet();
+    private final Map<String, StoreMetrics> metrics = new ConcurrentHashMap<>();
+    private final List<Runnable> flushHooks = new ArrayList<>();
+    private final ExecutorService ioExecutor;
+    private BukkitTask flushTask;
+
+    public PersistenceService(FactoryCore plugin) {
+        this.plugin = plugin;
+        this.ioExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "FactoryCore-IO");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // ── Registration ─────────────────────────────────────────────────────────
+
+    /**
+     * Register a data file.
+     *
+     * @param name     Unique store name (used by {@link #markDirty(String)}).
+     *                 Stores named {@code group:key} share the metrics of
+     *                 {@code group}.
+     * @param file     Target file on disk
+     * @param snapshot Captures the full file contents; always called on the
+     *                 main thread
+     */
+    public void register(String name, File file, Supplier<? extends Snapshot> snapshot) {
+        int separator = name.indexOf(':');
+        String group = separator >= 0 ? name.substring(0, separator) : name;
+        stores.put(name, new DataStore(name, file, snapshot, getMetrics(group)));
+    }
+
+    /**
+     * Remove a store, writing it first if it has unsaved changes. Used for
+     * per-player files when the player's data is unloaded. Must be called on
+     * the main thread.
+     */
+    public void unregister(String name) {
+        DataStore store = stores.remove(name);
+        if (store != null && dirtyStores.remove(name)) {
+            submit(store);
+        }
+    }
+
+    /**
+     * Mark a store as changed; it will be written on the next flush.
+     */
+    public void markDirty(String name) {
+        if (stores.containsKey(name)) {
+            dirtyStores.add(name);
+        }
+    }
+
+    public boolean isDirty(String name) {
+        return dirtyStores.contains(name);
+    }
+
+    /**
+     * Register a task that runs on the main thread at the start of every
+     * flush, including the final one on shutdown. Used by data that is not a
+     * plain snapshot file, such as the storage journal.
+     */
+    public void addFlushHook(Runnable hook) {
+        flushHooks.add(hook);
+    }
+
+    // ── I/O thread ───────────────────────────────────────────────────────────
+
+    /**
+     * Run a task on the I/O thread, after every write queued before it.
+     */
+    public void runAsync(Runnable task) {
+        ioExecutor.execute(task);
+    }
+
+    /**
+     * Run a task on the I/O thread and wait for it to finish.
+     */
+    public void runAndWait(Runnable task) {
+        try {
+            ioExecutor.submit(task).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            plugin.getLogger().severe("Failed to write data!");
+            e.printStackTrace();
+        }
+    }
+
+    // ── Scheduling ───────────────────────────────────────────────────────────
+
+    /**
+     * Start the periodic flush task.
+     */
+    public void start() {
+        if (flushTask != null) {
+            flushTask.cancel();
+        }
+        long interval = Math.max(1L, plugin.getConfig().getLong("persistence.flush-interval-ticks", 100L));
+        flushTask = plugin.getServer().getScheduler().runTaskTimer(plugin, this::flushDirty, interval, interval);
+    }
+
+    /**
+     * Snapshot every dirty store that has no write pending and hand the
+     * writes to the I/O thread. Must be called on the main thread.
+     */
+    public void flushDirty() {
+        for (Runnable hook : flushHooks) {
+            hook.run();
+        }
+        if (dirtyStores.isEmpty()) {
+            return;
+        }
+
+        for (DataStore store : stores.values()) {
+            if (!dirtyStores.contains(store.name)) {
+                continue;
+            }
+            if (store.pending.get()) {
+                // Previous snapshot is still queued, capture this one next time
+                store.metrics.recordDeferred();
+                continue;
+            }
+            dirtyStores.remove(store.name);
+            submit(store);
+        }
+    }
+
+    /**
+     * Write a single store immediately and wait for it to hit the disk. Used
+     * for one-off saves such as data migrations or before re-reading a file.
+     * The write still goes through the I/O thread so it can never be
+     * overtaken by an older pending snapshot of the same store.
+     */
+    public void saveNow(String name) {
+        DataStore store = stores.get(name);
+        if (store == null) {
+            return;
+        }
+        dirtyStores.remove(name);
+        Snapshot snapshot = capture(store);
+        try {
+            ioExecutor.submit(() -> write(store, snapshot)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            plugin.getLogger().severe("Failed to save " + store.file.getName() + "!");
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Stop the flush task, write all pending stores and wait for the I/O
+     * thread to finish. Called from {@code onDisable}.
+     */
+    public void shutdown() {
+        if (flushTask != null) {
+            flushTask.cancel();
+            flushTask = null;
+        }
+
+        flushDirty();
+        // Let deferred stores through once their previous snapshot is written
+        runAndWait(() -> {
+        });
+        flushDirty();
+
+        ioExecutor.shutdown();
+        try {
+            if (!ioExecutor.awaitTermination(30, TimeUnit.SECONDS)) {
+                plugin.getLogger().severe("Timed out waiting for pending data writes to finish!");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            plugin.getLogger().severe("Interrupted while waiting for pending data writes!");
+        }
+    }
+
+    // ── Metrics ──────────────────────────────────────────────────────────────
+
+    /**
+     * Metrics for a store or store group, created on first use. Writers that
+     * do not go through a registered store (e.g. the storage journal) record
+     * their own numbers here.
+     */
+    public StoreMetrics getMetrics(String name) {
+        return metrics.computeIfAbsent(name, StoreMetrics::new);
+    }
+
+    /**
+     * All metrics, sorted by name.
+     */
+    public List<StoreMetrics> getAllMetrics() {
+        List<StoreMetrics> result = new ArrayList<>(metrics.values());
+        result.sort(Comparator.comparing(StoreMetrics::getName));
+        return result;
+    }
+
+    // ── I/O ──────────────────────────────────────────────────────────────────
+
+    private void submit(DataStore store) {
+        Snapshot snapshot = capture(store);
+        store.pending.set(true);
+        ioExecutor.execute(() -> {
+            try {
+                write(store, snapshot);
+            } finally {
+                store.pending.set(false);
+            }
+        });
+    }
+
+    private Snapshot capture(DataStore store) {
+        long start = System.nanoTime();
+        Snapshot snapshot = store.snapshot.get();
+        store.metrics.recordCapture(System.nanoTime() - start);
+        return snapshot;
+    }
+
+    private void write(DataStore store, Snapshot snapshot) {
+        try {
+            long start = System.nanoTime();
+            byte[] data = snapshot.serialize();
+            long serialized = System.nanoTime();
+            AtomicFileWriter.write(store.file, data);
+            store.metrics.recordWrite(serialized - start, System.nanoTime() - serialized, data.length);
+        } catch (Exception e) {
+            // Keep the store dirty so the next flush retries the write
+            if (stores.containsKey(store.name)) {
+                dirtyStores.add(store.name);
+            }
+            store.metrics.recordFailure();
+            plugin.getLogger().severe("Failed to save " + store.file.getName() + "!");
+            e.printStackTrace();
+        }
+    }
+
+    // ── Inner Classes ────────────────────────────────────────────────────────
+
+    private static class DataStore {
+        final String name;
+        final File file;
+        final Supplier<? extends Snapshot> snapshot;
+        final StoreMetrics metrics;
+        final AtomicBoolean pending = new AtomicBoolean();
+
+        DataStore(String name, File file, Supplier<? extends Snapshot> snapshot, StoreMetrics metrics) {
+            this.name = name;
+            this.file = file;
+            this.snapshot = snapshot;
+            this.metrics = metrics;
+        }
+    }
+
+    /**
+     * Save timings and sizes for one store. Times are in nanoseconds.
+     */
+    public static class StoreMetrics {
+        private final String name;
+        private long writes;
+        private long failures;
+        private long deferred;
+        private long bytesWritten;
+        private long lastBytes;
+        private long lastCaptureNanos;
+        private long lastSerializeNanos;
+        private long lastWriteNanos;
+        private long maxCaptureNanos;
+        private long maxSerializeNanos;
+
+        StoreMetrics(String name) {
+            this.name = name;
+        }
+
+        public synchronized void recordCapture(long nanos) {
+            lastCaptureNanos = nanos;
+            maxCaptureNanos = Math.max(maxCaptureNanos, nanos);
+        }
+
+        public synchronized void recordWrite(long serializeNanos, long writeNanos, long bytes) {
+            writes++;
+            bytesWritten += bytes;
+            lastBytes = bytes;
+            lastSerializeNanos = serializeNanos;
+            lastWriteNanos = writeNanos;
+            maxSerializeNanos = Math.max(maxSerializeNanos, serializeNanos);
+        }
+
+        public synchronized void recordFailure() {
+            failures++;
+        }
+
+        public synchronized void recordDeferred() {
+            deferred++;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public synchronized long getWrites() {
+            return writes;
+        }
+
+        public synchronized long getFailures() {
+            return failures;
+        }
+
+        public synchronized long getDeferred() {
+            return deferred;
+        }
+
+        public synchronized long getBytesWritten() {
+            return bytesWritten;
+        }
+
+        public synchronized long getLastBytes() {
+            return lastBytes;
+        }
+
+        public synchronized long getLastCaptureNanos() {
+            return lastCaptureNanos;
+        }
+
+        public synchronized long getLastSerializeNanos() {
+            return lastSerializeNanos;
+        }
+
+        public synchronized long getLastWriteNanos() {
+            return lastWriteNanos;
+        }
+
+        public synchronized long getMaxCaptureNanos() {
+            return maxCaptureNanos;
+        }
+
+        public synchronized long getMaxSerializeNanos() {
+            return maxSerializeNanos;
+        }
+    }
+}
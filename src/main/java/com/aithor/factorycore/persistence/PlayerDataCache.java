@@ -0,0 +1,119 @@
+package com.aithor.factorycore.persistence;
+
+import org.bukkit.Bukkit;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * PlayerDataCache - Keeps per-player data in memory while it is in use.
+ * <p>
+ * Data is loaded ahead of time from {@code AsyncPlayerPreLoginEvent} via
+ * {@link #preload(UUID)}, or synchronously on first access for players who
+ * are offline (e.g. a factory owner whose buffs are needed). Entries of
+ * offline players are evicted by {@link #evictIdle(long)} once they have not
+ * been used for the grace period, so memory follows the online player count
+ * instead of every player who ever joined.
+ * </p>
+ *
+ * @param <T> Per-player data type
+ */
+public class PlayerDataCache<T> {
+
+    private final Map<UUID, Entry<T>> entries = new ConcurrentHashMap<>();
+    private final Function<UUID, T> loader;
+    private final Consumer<UUID> unloader;
+
+    /**
+     * @param loader   Loads a player's data; may be called off the main thread
+     * @param unloader Called on the main thread after a player was evicted so
+     *                 the repository can write and release its state
+     */
+    public PlayerDataCache(Function<UUID, T> loader, Consumer<UUID> unloader) {
+        this.loader = loader;
+        this.unloader = unloader;
+    }
+
+    /**
+     * Get a player's data, loading it now if it is not cached.
+     */
+    public T get(UUID playerId) {
+        Entry<T> entry = entries.computeIfAbsent(playerId, id -> new Entry<>(loader.apply(id)));
+        entry.lastAccess = System.currentTimeMillis();
+        return entry.value;
+    }
+
+    /**
+     * Get a player's data only if it is already cached.
+     */
+    public T getIfLoaded(UUID playerId) {
+        Entry<T> entry = entries.get(playerId);
+        return entry != null ? entry.value : null;
+    }
+
+    /**
+     * Load a player's data ahead of use. Safe to call from any thread.
+     */
+    public void preload(UUID playerId) {
+        get(playerId);
+    }
+
+    /**
+     * Restart the grace period for a player, e.g. when they quit.
+     */
+    public void touch(UUID playerId) {
+        Entry<T> entry = entries.get(playerId);
+        if (entry != null) {
+            entry.lastAccess = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Visit every cached player.
+     */
+    public void forEach(BiConsumer<UUID, T> action) {
+        entries.forEach((playerId, entry) -> action.accept(playerId, entry.value));
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Evict offline players that have not been used for {@code graceMs}.
+     * Must be called on the main thread.
+     *
+     * @return Number of evicted players
+     */
+    public int evictIdle(long graceMs) {
+        long cutoff = System.currentTimeMillis() - graceMs;
+        int evicted = 0;
+        for (Map.Entry<UUID, Entry<T>> entry : entries.entrySet()) {
+            UUID playerId = entry.getKey();
+            if (entry.getValue().lastAccess > cutoff || Bukkit.getPlayer(playerId) != null) {
+                continue;
+            }
+            if (entries.remove(playerId, entry.getValue())) {
+                unloader.accept(playerId);
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    // ── Inner Class ──────────────────────────────────────────────────────────
+
+    private static class Entry<T> {
+        final T value;
+        volatile long lastAccess;
+
+        Entry(T value) {
+            this.value = value;
+            this.lastAccess = System.currentTimeMillis();
+        }
+    }
+}
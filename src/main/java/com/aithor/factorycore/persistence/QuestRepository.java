@@ -0,0 +1,39 @@
+package com.aithor.factorycore.persistence;
+
+import com.aithor.factorycore.managers.DailyQuestManager.PlayerQuestData;
+
+import java.util.UUID;
+
+/**
+ * QuestRepository - Per-player daily quest progress.
+ */
+public interface QuestRepository {
+
+    /**
+     * Load one player's quest data; empty data if the player has none. The
+     * returned object becomes the caller's cache. May be called off the main
+     * thread.
+     */
+    PlayerQuestData load(UUID playerId);
+
+    /**
+     * Schedule a write of the player's daily state (last reset, bonus).
+     */
+    void saveState(UUID playerId, PlayerQuestData data);
+
+    /**
+     * Schedule a write of one quest's progress and claim state.
+     */
+    void saveQuest(UUID playerId, String questId, PlayerQuestData data);
+
+    /**
+     * The player's data was evicted from the cache; write anything pending
+     * for them and drop any state kept for them.
+     */
+    void unload(UUID playerId);
+
+    /**
+     * Write all scheduled changes and wait until they are stored.
+     */
+    void flush();
+}
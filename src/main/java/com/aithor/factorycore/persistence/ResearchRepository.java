@@ -0,0 +1,36 @@
+package com.aithor.factorycore.persistence;
+
+import com.aithor.factorycore.managers.ResearchManager.ResearchData;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * ResearchRepository - Per-player research levels and running research
+ * timers.
+ */
+public interface ResearchRepository {
+
+    /**
+     * Load one player's research ({@code researchId -> data}); empty if the
+     * player never researched anything. The returned map becomes the
+     * caller's cache. May be called off the main thread.
+     */
+    Map<String, ResearchData> load(UUID playerId);
+
+    /**
+     * Schedule a write of one research entry.
+     */
+    void save(UUID playerId, String researchId, ResearchData data);
+
+    /**
+     * The player's data was evicted from the cache; write anything pending
+     * for them and drop any state kept for them.
+     */
+    void unload(UUID playerId);
+
+    /**
+     * Write all scheduled changes and wait until they are stored.
+     */
+    void flush();
+}
@@ -0,0 +1,17 @@
+package com.aithor.factorycore.persistence;
+
+import java.io.IOException;
+
+/**
+ * Snapshot - Data captured on the main thread, encoded later on the I/O
+ * thread.
+ */
+@FunctionalInterface
+public interface Snapshot {
+
+    /**
+     * Encode the captured data into the file contents. Must not touch live
+     * game objects.
+     */
+    byte[] serialize() throws IOException;
+}
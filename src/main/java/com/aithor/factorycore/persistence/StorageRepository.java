@@ -0,0 +1,42 @@
+package com.aithor.factorycore.persistence;
+
+import java.util.Map;
+
+/**
+ * StorageRepository - Persistence for factory input and output storage.
+ * <p>
+ * Storage is kept per factory as {@code resourceId -> amount}. Changes are
+ * written per resource row; an amount of zero or less removes the row.
+ * </p>
+ */
+public interface StorageRepository {
+
+    /**
+     * The two storage ledgers every factory has.
+     */
+    enum Ledger {
+        INPUT,
+        OUTPUT
+    }
+
+    /**
+     * Load both ledgers. The maps stay owned by the caller; file based
+     * implementations keep a reference to them for writing.
+     */
+    void loadAll(Map<String, Map<String, Integer>> input, Map<String, Map<String, Integer>> output);
+
+    /**
+     * Schedule a write of one resource amount.
+     */
+    void saveAmount(Ledger ledger, String factoryId, String resourceId, int amount);
+
+    /**
+     * Schedule removal of every resource of a factory in one ledger.
+     */
+    void clear(Ledger ledger, String factoryId);
+
+    /**
+     * Write all scheduled changes and wait until they are stored.
+     */
+    void flush();
+}
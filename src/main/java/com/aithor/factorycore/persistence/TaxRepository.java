@@ -0,0 +1,57 @@
+package com.aithor.factorycore.persistence;
+
+import com.aithor.factorycore.managers.TaxManager.TaxPayment;
+import com.aithor.factorycore.managers.TaxManager.TaxRecord;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * TaxRepository - Persistence for per-factory tax records and per-player
+ * payment history.
+ * <p>
+ * Tax records are needed by the scheduler and are loaded up front; payment
+ * history is only shown in the GUI and is loaded per player on demand.
+ * </p>
+ */
+public interface TaxRepository {
+
+    /**
+     * Load every tax record into {@code target}. The map stays owned by the
+     * caller; file based implementations keep a reference to it for writing.
+     */
+    void loadRecords(Map<String, TaxRecord> target);
+
+    /**
+     * Last time taxes were assessed, or {@code fallback} if never.
+     */
+    long loadLastCollection(long fallback);
+
+    /**
+     * Load one player's payment history. The returned list becomes the
+     * caller's cache; payments appended to it must be passed to
+     * {@link #savePayment(UUID, TaxPayment)}.
+     */
+    List<TaxPayment> loadPayments(UUID playerId);
+
+    /**
+     * Schedule a write of a single tax record.
+     */
+    void saveRecord(TaxRecord record);
+
+    /**
+     * Schedule a write of a new payment.
+     */
+    void savePayment(UUID playerId, TaxPayment payment);
+
+    /**
+     * Schedule a write of the last tax assessment time.
+     */
+    void saveLastCollection(long timestamp);
+
+    /**
+     * Write all scheduled changes and wait until they are stored.
+     */
+    void flush();
+}
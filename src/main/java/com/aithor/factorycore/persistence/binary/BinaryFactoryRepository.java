@@ -0,0 +1,298 @@
+package com.aithor.factorycore.persistence.binary;
+
+import com.aithor.factorycore.FactoryCore;
+import com.aithor.factorycore.models.Factory;
+import com.aithor.factorycore.models.FactoryStatus;
+import com.aithor.factorycore.models.FactoryType;
+import com.aithor.factorycore.models.ProductionTask;
+import com.aithor.factorycore.persistence.FactoryRepository;
+import com.aithor.factorycore.persistence.Snapshot;
+import com.aithor.factorycore.persistence.yaml.YamlFactoryRepository;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * BinaryFactoryRepository - Stores factories in data/factories.dat.
+ * <p>
+ * Same write-behind behaviour as the YAML repository, but each factory is
+ * captured as a small immutable row and encoded in the compact
+ * {@link BinaryFormat} on the I/O thread. An existing factories.yml is
+ * imported on the first start.
+ * </p>
+ */
+public class BinaryFactoryRepository implements FactoryRepository {
+
+    private static final String STORE_NAME = "factories";
+
+    private final FactoryCore plugin;
+    private final File dataFolder;
+    private final File dataFile;
+
+    public BinaryFactoryRepository(FactoryCore plugin, File dataFolder) {
+        this.plugin = plugin;
+        this.dataFolder = dataFolder;
+        this.dataFile = new File(dataFolder, "factories.dat");
+    }
+
+    @Override
+    public void loadAll(Map<String, Factory> target) {
+        plugin.getPersistenceService().register(STORE_NAME, dataFile, () -> createSnapshot(target));
+
+        if (!dataFile.exists() && new File(dataFolder, "factories.yml").exists()) {
+            new YamlFactoryRepository(plugin, dataFolder).read(target);
+            plugin.getPersistenceService().saveNow(STORE_NAME);
+            plugin.getLogger().info("Imported " + target.size() + " factories from factories.yml.");
+            return;
+        }
+        read(target);
+    }
+
+    /**
+     * Read factories.dat into {@code target} without binding to it.
+     */
+    public void read(Map<String, Factory> target) {
+        if (!dataFile.exists()) {
+            return;
+        }
+
+        try {
+            BinaryFormat.Reader in = BinaryFormat.Reader.open(dataFile, BinaryFormat.KIND_FACTORIES);
+            int count = in.readVarInt();
+            for (int i = 0; i < count; i++) {
+                Factory factory = readFactory(in);
+                if (factory != null) {
+                    target.put(factory.getId(), factory);
+                }
+            }
+        } catch (Exception e) {
+            plugin.getLogger().severe("Failed to load " + dataFile.getName() + "!");
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public void save(Factory factory) {
+        plugin.getPersistenceService().markDirty(STORE_NAME);
+    }
+
+    @Override
+    public void delete(String factoryId) {
+        plugin.getPersistenceService().markDirty(STORE_NAME);
+    }
+
+    @Override
+    public void flush() {
+        plugin.getPersistenceService().saveNow(STORE_NAME);
+    }
+
+    // ── Encoding ─────────────────────────────────────────────────────────────
+
+    private Factory readFactory(BinaryFormat.Reader in) throws IOException {
+        String id = in.readId();
+        String region = in.readId();
+        String type = in.readId();
+        String status = in.readId();
+        UUID owner = in.readBoolean() ? new UUID(in.readLong(), in.readLong()) : null;
+        double price = in.readDouble();
+        int level = in.readVarInt();
+
+        ProductionTask production = in.readBoolean() ? readTask(in) : null;
+
+        String worldName = null;
+        double x = 0, y = 0, z = 0;
+        float yaw = 0, pitch = 0;
+        boolean hasFastTravel = in.readBoolean();
+        if (hasFastTravel) {
+            worldName = in.readId();
+            x = in.readDouble();
+            y = in.readDouble();
+            z = in.readDouble();
+            yaw = in.readFloat();
+            pitch = in.readFloat();
+        }
+
+        long upgradeStart = 0;
+        int upgradeDuration = 0;
+        boolean upgrading = in.readBoolean();
+        if (upgrading) {
+            upgradeStart = in.readLong();
+            upgradeDuration = in.readVarInt();
+        }
+        // Continuous production was added in version 4
+        String continuousRecipe = in.getVersion() >= 4 ? in.readId() : null;
+        // Parallel production lines were added in version 5
+        Map<Integer, ProductionTask> lines = new HashMap<>();
+        int lineCount = in.getVersion() >= 5 ? in.readVarInt() : 0;
+        for (int i = 0; i < lineCount; i++) {
+            int line = in.readVarInt();
+            lines.put(line, readTask(in));
+        }
+        // Supply chains were added in version 6
+        String supplyTarget = in.getVersion() >= 6 ? in.readId() : null;
+
+        // Every field is consumed before validating so one bad record does not
+        // shift the rest of the file
+        try {
+            Factory factory = new Factory(id, region, FactoryType.valueOf(type), owner, price, level);
+            factory.setStatus(FactoryStatus.valueOf(status));
+            factory.setCurrentProduction(production);
+            factory.setContinuousRecipeId(continuousRecipe);
+            lines.forEach(factory::setProductionLine);
+            factory.setSupplyTargetId(supplyTarget);
+            if (hasFastTravel && worldName != null) {
+                World world = Bukkit.getWorld(worldName);
+                if (world != null) {
+                    factory.setFastTravelLocation(new Location(world, x, y, z, yaw, pitch));
+                }
+            }
+            if (upgrading) {
+                factory.setUpgradeStartTime(upgradeStart);
+                factory.setUpgradeDurationSeconds(upgradeDuration);
+            }
+            return factory;
+        } catch (IllegalArgumentException e) {
+            plugin.getLogger().warning("Failed to load factory: " + id);
+            return null;
+        }
+    }
+
+    private static ProductionTask readTask(BinaryFormat.Reader in) throws IOException {
+        String recipeId = in.readId();
+        long start = in.readLong();
+        int duration = in.readVarInt();
+        // Batch queues were added in version 3
+        int batch = in.getVersion() >= 3 ? in.readVarInt() : 1;
+        int batches = in.getVersion() >= 3 ? in.readVarInt() : 1;
+        return new ProductionTask(recipeId, start, duration, batch, batches);
+    }
+
+    private static void writeTask(BinaryFormat.Writer out, ProductionTask task) throws IOException {
+        out.writeId(task.getRecipeId());
+        out.writeLong(task.getStartTime());
+        out.writeVarInt(task.getDuration());
+        out.writeVarInt(task.getBatch());
+        out.writeVarInt(task.getBatches());
+    }
+
+    private static Snapshot createSnapshot(Map<String, Factory> factories) {
+        List<Row> rows = new ArrayList<>(factories.size());
+        for (Factory factory : factories.values()) {
+            rows.add(new Row(factory));
+        }
+
+        return () -> {
+            BinaryFormat.Writer out = new BinaryFormat.Writer();
+            out.writeVarInt(rows.size());
+            for (Row row : rows) {
+                row.write(out);
+            }
+            return out.finish(BinaryFormat.KIND_FACTORIES);
+        };
+    }
+
+    /**
+     * Immutable copy of a factory's persistent fields, taken on the main
+     * thread.
+     */
+    private static class Row {
+        final String id;
+        final String region;
+        final String type;
+        final String status;
+        final UUID owner;
+        final double price;
+        final int level;
+        final ProductionTask production;
+        final String world;
+        final double x, y, z;
+        final float yaw, pitch;
+        final boolean upgrading;
+        final long upgradeStart;
+        final int upgradeDuration;
+        final String continuousRecipe;
+        final Map<Integer, ProductionTask> lines;
+        final String supplyTarget;
+
+        Row(Factory factory) {
+            id = factory.getId();
+            region = factory.getRegionName();
+            type = factory.getType().name();
+            status = factory.getStatus().name();
+            owner = factory.getOwner();
+            price = factory.getPrice();
+            level = factory.getLevel();
+            production = factory.getProductionLine(0);
+            lines = new TreeMap<>(factory.getProductionLines());
+            lines.remove(0);
+            supplyTarget = factory.getSupplyTargetId();
+
+            Location loc = factory.getFastTravelLocation();
+            world = loc != null && loc.getWorld() != null ? loc.getWorld().getName() : null;
+            x = world != null ? loc.getX() : 0;
+            y = world != null ? loc.getY() : 0;
+            z = world != null ? loc.getZ() : 0;
+            yaw = world != null ? loc.getYaw() : 0;
+            pitch = world != null ? loc.getPitch() : 0;
+
+            upgrading = factory.isUpgrading();
+            upgradeStart = factory.getUpgradeStartTime();
+            upgradeDuration = factory.getUpgradeDurationSeconds();
+            continuousRecipe = factory.getContinuousRecipeId();
+        }
+
+        void write(BinaryFormat.Writer out) throws IOException {
+            out.writeId(id);
+            out.writeId(region);
+            out.writeId(type);
+            out.writeId(status);
+            out.writeBoolean(owner != null);
+            if (owner != null) {
+                out.writeLong(owner.getMostSignificantBits());
+                out.writeLong(owner.getLeastSignificantBits());
+            }
+            out.writeDouble(price);
+            out.writeVarInt(level);
+
+            out.writeBoolean(production != null);
+            if (production != null) {
+                writeTask(out, production);
+            }
+
+            out.writeBoolean(world != null);
+            if (world != null) {
+                out.writeId(world);
+                out.writeDouble(x);
+                out.writeDouble(y);
+                out.writeDouble(z);
+                out.writeFloat(yaw);
+                out.writeFloat(pitch);
+            }
+
+            out.writeBoolean(upgrading);
+            if (upgrading) {
+                out.writeLong(upgradeStart);
+                out.writeVarInt(upgradeDuration);
+            }
+
+            out.writeId(continuousRecipe);
+
+            out.writeVarInt(lines.size());
+            for (Map.Entry<Integer, ProductionTask> line : lines.entrySet()) {
+                out.writeVarInt(line.getKey());
+                writeTask(out, line.getValue());
+            }
+
+            out.writeId(supplyTarget);
+        }
+    }
+}
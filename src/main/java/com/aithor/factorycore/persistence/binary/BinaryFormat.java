@@ -0,0 +1,266 @@
+package com.aithor.factorycore.persistence.binary;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * BinaryFormat - Versioned container for the binary data files.
+ * <p>
+ * Layout: magic {@code FCDB}, format version, file kind, a string table and
+ * the body. Every string in the body (factory, resource and recipe IDs, world
+ * names, enum names) is stored once in the table and referenced by its index,
+ * written as a variable-length integer. Since version 2 the file ends with a
+ * CRC32 of everything before it. Readers reject files with a foreign magic,
+ * kind, a newer version or a wrong checksum.
+ * </p>
+ */
+public final class BinaryFormat {
+
+    static final int MAGIC = 0x46434442; // "FCDB"
+    static final int VERSION = 6;
+
+    static final byte KIND_FACTORIES = 1;
+    static final byte KIND_STORAGE = 2;
+
+    private BinaryFormat() {
+    }
+
+    // ── Writing ──────────────────────────────────────────────────────────────
+
+    static class Writer {
+        private final Map<String, Integer> ids = new HashMap<>();
+        private final List<String> strings = new ArrayList<>();
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream body = new DataOutputStream(bytes);
+
+        /**
+         * Write a string as a table reference; {@code null} is written as 0.
+         */
+        void writeId(String value) throws IOException {
+            if (value == null) {
+                writeVarInt(0);
+                return;
+            }
+            Integer id = ids.get(value);
+            if (id == null) {
+                strings.add(value);
+                id = strings.size();
+                ids.put(value, id);
+            }
+            writeVarInt(id);
+        }
+
+        void writeVarInt(int value) throws IOException {
+            writeVarInt(body, value);
+        }
+
+        void writeBoolean(boolean value) throws IOException {
+            body.writeBoolean(value);
+        }
+
+        void writeInt(int value) throws IOException {
+            body.writeInt(value);
+        }
+
+        void writeLong(long value) throws IOException {
+            body.writeLong(value);
+        }
+
+        void writeFloat(float value) throws IOException {
+            body.writeFloat(value);
+        }
+
+        void writeDouble(double value) throws IOException {
+            body.writeDouble(value);
+        }
+
+        /**
+         * Assemble header, string table and body.
+         */
+        byte[] finish(byte kind) throws IOException {
+            ByteArrayOutputStream file = new ByteArrayOutputStream(bytes.size() + strings.size() * 16 + 16);
+            DataOutputStream out = new DataOutputStream(file);
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeByte(kind);
+            writeVarInt(out, strings.size());
+            for (String value : strings) {
+                byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+                writeVarInt(out, utf8.length);
+                out.write(utf8);
+            }
+            body.flush();
+            bytes.writeTo(out);
+            out.flush();
+
+            CRC32 crc = new CRC32();
+            crc.update(file.toByteArray());
+            out.writeInt((int) crc.getValue());
+            out.flush();
+            return file.toByteArray();
+        }
+
+        private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+            while ((value & ~0x7F) != 0) {
+                out.writeByte((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            out.writeByte(value);
+        }
+    }
+
+    // ── Reading ──────────────────────────────────────────────────────────────
+
+    /**
+     * Check that a file is a complete, undamaged data file of any kind.
+     */
+    public static boolean verify(File file) {
+        try {
+            readVerified(file);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Read a whole file into memory through a file channel and check its
+     * checksum. The returned buffer is positioned at the start.
+     */
+    private static ByteBuffer readVerified(File file) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Data file too large: " + file.getName());
+            }
+            buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // keep reading until the buffer is full
+            }
+            buffer.flip();
+        }
+
+        int version;
+        try {
+            version = readHeader(buffer);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated data file: " + file.getName(), e);
+        }
+        if (version >= 2) {
+            int end = buffer.limit() - Integer.BYTES;
+            if (end < buffer.position()) {
+                throw new IOException("Truncated data file: " + file.getName());
+            }
+            CRC32 crc = new CRC32();
+            crc.update(buffer.array(), 0, end);
+            if ((int) crc.getValue() != buffer.getInt(end)) {
+                throw new IOException("Checksum mismatch in " + file.getName());
+            }
+            buffer.limit(end);
+        }
+        buffer.rewind();
+        return buffer;
+    }
+
+    private static int readHeader(ByteBuffer buffer) throws IOException {
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException("Not a FactoryCore data file");
+        }
+        int version = buffer.getShort();
+        if (version > VERSION) {
+            throw new IOException("Data file version " + version + " is newer than supported (" + VERSION + ")");
+        }
+        return version;
+    }
+
+    static class Reader {
+        private final ByteBuffer buffer;
+        private final String[] strings;
+        private final int version;
+
+        private Reader(ByteBuffer buffer, byte kind) throws IOException {
+            this.buffer = buffer;
+            try {
+                version = readHeader(buffer);
+                if (buffer.get() != kind) {
+                    throw new IOException("Unexpected data file kind");
+                }
+                strings = new String[readVarInt()];
+                for (int i = 0; i < strings.length; i++) {
+                    byte[] utf8 = new byte[readVarInt()];
+                    buffer.get(utf8);
+                    strings[i] = new String(utf8, StandardCharsets.UTF_8);
+                }
+            } catch (BufferUnderflowException e) {
+                throw new IOException("Truncated data file header", e);
+            }
+        }
+
+        /**
+         * Read a whole file into memory and check its header and checksum.
+         */
+        static Reader open(File file, byte kind) throws IOException {
+            return new Reader(readVerified(file), kind);
+        }
+
+        int getVersion() {
+            return version;
+        }
+
+        String readId() throws IOException {
+            int id = readVarInt();
+            if (id == 0) {
+                return null;
+            }
+            if (id > strings.length) {
+                throw new IOException("Invalid string reference " + id);
+            }
+            return strings[id - 1];
+        }
+
+        int readVarInt() {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = buffer.get();
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0 && shift < 35);
+            return value;
+        }
+
+        boolean readBoolean() {
+            return buffer.get() != 0;
+        }
+
+        int readInt() {
+            return buffer.getInt();
+        }
+
+        long readLong() {
+            return buffer.getLong();
+        }
+
+        float readFloat() {
+            return buffer.getFloat();
+        }
+
+        double readDouble() {
+            return buffer.getDouble();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.aithor.factorycore.persistence.binary;
+
+import com.aithor.factorycore.FactoryCore;
+import com.aithor.factorycore.persistence.JournaledStorageRepository;
+import com.aithor.factorycore.persistence.Snapshot;
+import com.aithor.factorycore.persistence.yaml.YamlStorageRepository;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * BinaryStorageRepository - Stores both storage ledgers in data/storage.dat,
+ * with changes journaled to data/storage.dat.journal in between.
+ * <p>
+ * Factory and resource IDs are interned in the file's string table, so each
+ * stored item costs a few bytes. The existing YAML storage (including its
+ * journal) is imported on the first start.
+ * </p>
+ */
+public class BinaryStorageRepository extends JournaledStorageRepository {
+
+    private final File dataFolder;
+    private final File dataFile;
+
+    public BinaryStorageRepository(FactoryCore plugin, File dataFolder) {
+        super(plugin, new File(dataFolder, "storage.dat.journal"), "storage");
+        this.dataFolder = dataFolder;
+        this.dataFile = new File(dataFolder, "storage.dat");
+    }
+
+    @Override
+    public void loadAll(Map<String, Map<String, Integer>> input, Map<String, Map<String, Integer>> output) {
+        boolean importYaml = !dataFile.exists() && new File(dataFolder, "input-storage.yml").exists();
+        super.loadAll(input, output);
+
+        if (importYaml) {
+            new YamlStorageRepository(plugin, dataFolder).read(input, output);
+            flush();
+            plugin.getLogger().info("Imported storage of " + (input.size() + output.size())
+                    + " factories from the YAML storage files.");
+        }
+    }
+
+    @Override
+    protected void readSnapshot(Map<String, Map<String, Integer>> input, Map<String, Map<String, Integer>> output) {
+        if (!dataFile.exists()) {
+            return;
+        }
+
+        try {
+            BinaryFormat.Reader in = BinaryFormat.Reader.open(dataFile, BinaryFormat.KIND_STORAGE);
+            readLedger(in, input);
+            readLedger(in, output);
+        } catch (Exception e) {
+            plugin.getLogger().severe("Failed to load " + dataFile.getName() + "!");
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    protected Map<File, Snapshot> captureSnapshot(Map<String, Map<String, Integer>> input,
+            Map<String, Map<String, Integer>> output) {
+        Map<String, Map<String, Integer>> inputCopy = copy(input);
+        Map<String, Map<String, Integer>> outputCopy = copy(output);
+
+        Snapshot snapshot = () -> {
+            BinaryFormat.Writer out = new BinaryFormat.Writer();
+            writeLedger(out, inputCopy);
+            writeLedger(out, outputCopy);
+            return out.finish(BinaryFormat.KIND_STORAGE);
+        };
+        return Collections.singletonMap(dataFile, snapshot);
+    }
+
+    // ── Encoding ─────────────────────────────────────────────────────────────
+
+    private static void readLedger(BinaryFormat.Reader in, Map<String, Map<String, Integer>> target)
+            throws IOException {
+        int factories = in.readVarInt();
+        for (int i = 0; i < factories; i++) {
+            String factoryId = in.readId();
+            int count = in.readVarInt();
+            Map<String, Integer> items = new HashMap<>(count * 2);
+            for (int j = 0; j < count; j++) {
+                String resourceId = in.readId();
+                items.put(resourceId, in.readVarInt());
+            }
+            target.put(factoryId, items);
+        }
+    }
+
+    private static void writeLedger(BinaryFormat.Writer out, Map<String, Map<String, Integer>> ledger)
+            throws IOException {
+        out.writeVarInt(ledger.size());
+        for (Map.Entry<String, Map<String, Integer>> entry : ledger.entrySet()) {
+            out.writeId(entry.getKey());
+            out.writeVarInt(entry.getValue().size());
+            for (Map.Entry<String, Integer> item : entry.getValue().entrySet()) {
+                out.writeId(item.getKey());
+                out.writeVarInt(item.getValue());
+            }
+        }
+    }
+
+    private static Map<String, Map<String, Integer>> copy(Map<String, Map<String, Integer>> ledger) {
+        Map<String, Map<String, Integer>> copy = new HashMap<>(ledger.size() * 2);
+        for (Map.Entry<String, Map<String, Integer>> entry : ledger.entrySet()) {
+            copy.put(entry.getKey(), new HashMap<>(entry.getValue()));
+        }
+        return copy;
+    }
+}
@@ -0,0 +1,152 @@
+package com.aithor.factorycore.persistence.sql;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ConnectionPool - Small fixed-size JDBC connection pool.
+ * <p>
+ * Connections are opened lazily up to {@code maxSize}, handed out through
+ * {@link #borrow()} and returned with {@link #release(Connection)}. Idle
+ * connections are validated before reuse and silently replaced when the
+ * server has dropped them, which covers the usual MySQL wait_timeout case
+ * without pulling in a full pooling library.
+ * </p>
+ */
+public class ConnectionPool {
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private final String url;
+    private final Properties properties;
+    private final int maxSize;
+    private final long borrowTimeoutMs;
+    private final BlockingQueue<Connection> idle;
+    private final List<Connection> all = new ArrayList<>();
+    private volatile boolean closed;
+
+    public ConnectionPool(String url, Properties properties, int maxSize, long borrowTimeoutMs) {
+        this.url = url;
+        this.properties = properties;
+        this.maxSize = Math.max(1, maxSize);
+        this.borrowTimeoutMs = borrowTimeoutMs;
+        this.idle = new ArrayBlockingQueue<>(this.maxSize);
+    }
+
+    /**
+     * Take a connection from the pool, opening a new one if the pool is not
+     * full yet. Blocks up to the borrow timeout when every connection is busy.
+     */
+    public Connection borrow() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+
+        Connection connection = idle.poll();
+        if (connection == null) {
+            connection = tryOpen();
+        }
+        if (connection == null) {
+            try {
+                connection = idle.poll(borrowTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted while waiting for a database connection", e);
+            }
+            if (connection == null) {
+                throw new SQLException("Timed out waiting for a database connection");
+            }
+        }
+
+        if (!isUsable(connection)) {
+            discard(connection);
+            connection = open();
+        }
+        return connection;
+    }
+
+    /**
+     * Return a borrowed connection. Transactions left open are rolled back.
+     */
+    public void release(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            if (!connection.getAutoCommit()) {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            discard(connection);
+            return;
+        }
+        if (closed || !idle.offer(connection)) {
+            discard(connection);
+        }
+    }
+
+    /**
+     * Close every connection. Borrowed connections are closed when released.
+     */
+    public void close() {
+        closed = true;
+        synchronized (all) {
+            for (Connection connection : all) {
+                closeQuietly(connection);
+            }
+            all.clear();
+        }
+        idle.clear();
+    }
+
+    // ── Internals ────────────────────────────────────────────────────────────
+
+    private Connection tryOpen() throws SQLException {
+        synchronized (all) {
+            if (all.size() >= maxSize) {
+                return null;
+            }
+            Connection connection = DriverManager.getConnection(url, properties);
+            all.add(connection);
+            return connection;
+        }
+    }
+
+    private Connection open() throws SQLException {
+        synchronized (all) {
+            Connection connection = DriverManager.getConnection(url, properties);
+            all.add(connection);
+            return connection;
+        }
+    }
+
+    private boolean isUsable(Connection connection) {
+        try {
+            return !connection.isClosed() && connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void discard(Connection connection) {
+        synchronized (all) {
+            all.remove(connection);
+        }
+        closeQuietly(connection);
+    }
+
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+        }
+    }
+}
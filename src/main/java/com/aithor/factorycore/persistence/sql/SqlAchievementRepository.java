@@ -0,0 +1,80 @@
+package com.aithor.factorycore.persistence.sql;
+
+import com.aithor.factorycore.FactoryCore;
+import com.aithor.factorycore.managers.AchievementManager.PlayerAchievementData;
+import com.aithor.factorycore.persistence.AchievementRepository;
+
+import java.sql.SQLException;
+import java.util.UUID;
+
+/**
+ * SqlAchievementRepository - One row per player and achievement holding both
+ * the unlock state and cumulative progress.
+ */
+public class SqlAchievementRepository implements AchievementRepository {
+
+    private final FactoryCore plugin;
+    private final SqlDatabase database;
+    private final String table;
+    private final String upsertSql;
+
+    public SqlAchievementRepository(FactoryCore plugin, SqlDatabase database) {
+        this.plugin = plugin;
+        this.database = database;
+        this.table = database.table("achievements");
+        this.upsertSql = database.getDialect().upsert(table, new String[]{"player", "achievement_id"},
+                "unlocked", "unlocked_at", "progress");
+    }
+
+    public void createSchema() throws SQLException {
+        database.execute("CREATE TABLE IF NOT EXISTS " + table + " ("
+                + "player CHAR(36) NOT NULL, "
+                + "achievement_id VARCHAR(64) NOT NULL, "
+                + "unlocked BOOLEAN NOT NULL, "
+                + "unlocked_at BIGINT NOT NULL, "
+                + "progress DOUBLE NOT NULL, "
+                + "PRIMARY KEY (player, achievement_id))");
+    }
+
+    @Override
+    public PlayerAchievementData load(UUID playerId) {
+        PlayerAchievementData data = new PlayerAchievementData();
+        try {
+            database.query("SELECT * FROM " + table + " WHERE player = ? ORDER BY unlocked_at", rs -> {
+                String achievementId = rs.getString("achievement_id");
+                if (rs.getBoolean("unlocked")) {
+                    data.unlockedAchievements.add(achievementId);
+                    data.unlockTimestamps.put(achievementId, rs.getLong("unlocked_at"));
+                }
+                double progress = rs.getDouble("progress");
+                if (progress != 0) {
+                    data.progressValues.put(achievementId, progress);
+                }
+            }, playerId.toString());
+        } catch (SQLException e) {
+            plugin.getLogger().severe("Failed to load achievement data for " + playerId + "!");
+            e.printStackTrace();
+        }
+        return data;
+    }
+
+    @Override
+    public void save(UUID playerId, String achievementId, PlayerAchievementData data) {
+        database.enqueue("achievement:" + playerId + ":" + achievementId, upsertSql,
+                playerId.toString(),
+                achievementId,
+                data.unlockedAchievements.contains(achievementId),
+                data.unlockTimestamps.getOrDefault(achievementId, 0L),
+                data.progressValues.getOrDefault(achievementId, 0.0));
+    }
+
+    @Override
+    public void unload(UUID playerId) {
+        // Rows are captured when queued, nothing is kept per player
+    }
+
+    @Override
+    public void flush() {
+        database.flushNow();
+    }
+}
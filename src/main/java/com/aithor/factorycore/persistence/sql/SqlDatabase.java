@@ -0,0 +1,416 @@
+package com.aithor.factorycore.persistence.sql;
+
+import com.aithor.factorycore.FactoryCore;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLDataException;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.Statement;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SqlDatabase - Pooled JDBC access with an asynchronous, coalescing write
+ * queue.
+ * <p>
+ * Reads ({@link #query}) run synchronously and are only used while loading.
+ * Writes are enqueued under a row key; a newer write for the same key
+ * replaces the pending one, so a row that changes every tick is still written
+ * at most once per flush. Each flush runs on a dedicated database thread as a
+ * single transaction, grouping consecutive identical statements into JDBC
+ * batches. If that transaction fails, its rows are retried one by one and
+ * rows the database rejects outright are dropped. Row values are captured
+ * when the write is enqueued, so the database thread never touches live game
+ * objects.
+ * </p>
+ */
+public class SqlDatabase {
+
+    private final FactoryCore plugin;
+    private final SqlDialect dialect;
+    private final ConnectionPool pool;
+    private final String tablePrefix;
+    private final LinkedHashMap<String, PendingWrite> pending = new LinkedHashMap<>();
+    private final ExecutorService writeExecutor;
+    private BukkitTask flushTask;
+
+    public SqlDatabase(FactoryCore plugin, SqlDialect dialect, ConnectionPool pool, String tablePrefix) {
+        this.plugin = plugin;
+        this.dialect = dialect;
+        this.pool = pool;
+        this.tablePrefix = tablePrefix;
+        this.writeExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "FactoryCore-SQL");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public SqlDialect getDialect() {
+        return dialect;
+    }
+
+    /**
+     * Full table name including the configured prefix.
+     */
+    public String table(String name) {
+        return tablePrefix + name;
+    }
+
+    // ── Synchronous access ───────────────────────────────────────────────────
+
+    /**
+     * Run a statement immediately, e.g. schema creation.
+     */
+    public void execute(String sql) throws SQLException {
+        Connection connection = pool.borrow();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        } finally {
+            pool.release(connection);
+        }
+    }
+
+    /**
+     * Run a parameterized statement immediately, bypassing the write queue.
+     * Used by upgrades that must be committed before a table is changed.
+     */
+    public void update(String sql, Object... params) throws SQLException {
+        Connection connection = pool.borrow();
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            bind(statement, params);
+            statement.executeUpdate();
+        } finally {
+            pool.release(connection);
+        }
+    }
+
+    /**
+     * Whether a table exists.
+     */
+    public boolean tableExists(String table) {
+        try {
+            execute("SELECT 1 FROM " + table + " WHERE 1 = 0");
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Whether a column exists on a table.
+     */
+    public boolean columnExists(String table, String column) {
+        try {
+            execute("SELECT " + column + " FROM " + table + " WHERE 1 = 0");
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Add a column to an existing table unless it is already there. Used to
+     * upgrade tables created by older versions.
+     */
+    public void addColumnIfMissing(String table, String column, String definition) throws SQLException {
+        if (!columnExists(table, column)) {
+            execute("ALTER TABLE " + table + " ADD COLUMN " + column + " " + definition);
+        }
+    }
+
+    /**
+     * Run a query immediately and hand every row to {@code reader}.
+     */
+    public void query(String sql, RowReader reader, Object... params) throws SQLException {
+        Connection connection = pool.borrow();
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            bind(statement, params);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    reader.read(resultSet);
+                }
+            }
+        } finally {
+            pool.release(connection);
+        }
+    }
+
+    // ── Meta values ──────────────────────────────────────────────────────────
+
+    /**
+     * Create the key/value table used for single values such as the last
+     * tax collection time.
+     */
+    public void createMetaTable() throws SQLException {
+        execute("CREATE TABLE IF NOT EXISTS " + table("meta") + " ("
+                + "name VARCHAR(64) NOT NULL PRIMARY KEY, "
+                + "value BIGINT NOT NULL)");
+    }
+
+    /**
+     * Read a meta value, or {@code fallback} if it was never written.
+     */
+    public long readMeta(String name, long fallback) throws SQLException {
+        long[] value = {fallback};
+        query("SELECT value FROM " + table("meta") + " WHERE name = ?", rs -> value[0] = rs.getLong(1), name);
+        return value[0];
+    }
+
+    /**
+     * Queue a write of a meta value.
+     */
+    public void writeMeta(String name, long value) {
+        enqueue("meta:" + name, dialect.upsert(table("meta"), new String[]{"name"}, "value"), name, value);
+    }
+
+    // ── Write queue ──────────────────────────────────────────────────────────
+
+    /**
+     * Queue a row-level write. Any write still pending under the same key is
+     * dropped in favour of this one.
+     *
+     * @param key    Identifies the affected row(s), e.g. {@code "factory:f1"}
+     * @param sql    Statement to run
+     * @param params Statement parameters, captured now
+     */
+    public void enqueue(String key, String sql, Object... params) {
+        PendingWrite write = new PendingWrite(key, sql, params);
+        synchronized (pending) {
+            // Re-insert so the queue stays ordered by each key's latest write
+            pending.remove(key);
+            pending.put(key, write);
+        }
+    }
+
+    /**
+     * Start the periodic flush task.
+     */
+    public void start() {
+        if (flushTask != null) {
+            flushTask.cancel();
+        }
+        long interval = Math.max(1L, plugin.getConfig().getLong("persistence.flush-interval-ticks", 100L));
+        flushTask = plugin.getServer().getScheduler().runTaskTimer(plugin, this::flush, interval, interval);
+    }
+
+    /**
+     * Hand every pending write to the database thread.
+     */
+    public void flush() {
+        List<PendingWrite> batch = drain();
+        if (!batch.isEmpty()) {
+            writeExecutor.execute(() -> write(batch));
+        }
+    }
+
+    /**
+     * Write everything pending and wait until it is committed.
+     */
+    public void flushNow() {
+        List<PendingWrite> batch = drain();
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            writeExecutor.submit(() -> write(batch)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            plugin.getLogger().severe("Failed to write to the database!");
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Flush pending writes, stop the database thread and close the pool.
+     */
+    public void close() {
+        if (flushTask != null) {
+            flushTask.cancel();
+            flushTask = null;
+        }
+
+        flush();
+        writeExecutor.shutdown();
+        try {
+            if (!writeExecutor.awaitTermination(30, TimeUnit.SECONDS)) {
+                plugin.getLogger().severe("Timed out waiting for pending database writes to finish!");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            plugin.getLogger().severe("Interrupted while waiting for pending database writes!");
+        }
+
+        synchronized (pending) {
+            if (!pending.isEmpty()) {
+                plugin.getLogger().severe(pending.size() + " database writes could not be saved!");
+            }
+        }
+        pool.close();
+    }
+
+    private List<PendingWrite> drain() {
+        synchronized (pending) {
+            if (pending.isEmpty()) {
+                return Collections.emptyList();
+            }
+            List<PendingWrite> batch = new ArrayList<>(pending.values());
+            pending.clear();
+            return batch;
+        }
+    }
+
+    private void write(List<PendingWrite> batch) {
+        Connection connection = null;
+        try {
+            connection = pool.borrow();
+            try {
+                writeBatch(connection, batch);
+            } catch (SQLException e) {
+                plugin.getLogger().warning("Failed to write " + batch.size()
+                        + " rows as one transaction, writing them one by one: " + e.getMessage());
+                connection.rollback();
+                writeRows(connection, batch);
+            }
+        } catch (SQLException e) {
+            requeue(batch);
+            plugin.getLogger().severe("Failed to write " + batch.size() + " rows to the database, will retry!");
+            e.printStackTrace();
+        } finally {
+            pool.release(connection);
+        }
+    }
+
+    /**
+     * Write the whole batch as one transaction, grouping consecutive identical
+     * statements into JDBC batches.
+     */
+    private void writeBatch(Connection connection, List<PendingWrite> batch) throws SQLException {
+        connection.setAutoCommit(false);
+
+        PreparedStatement statement = null;
+        String currentSql = null;
+        try {
+            for (PendingWrite write : batch) {
+                if (!write.sql.equals(currentSql)) {
+                    if (statement != null) {
+                        statement.executeBatch();
+                        statement.close();
+                    }
+                    currentSql = write.sql;
+                    statement = connection.prepareStatement(currentSql);
+                }
+                bind(statement, write.params);
+                statement.addBatch();
+            }
+            if (statement != null) {
+                statement.executeBatch();
+            }
+        } finally {
+            if (statement != null) {
+                statement.close();
+            }
+        }
+
+        connection.commit();
+    }
+
+    /**
+     * Write each row in its own transaction after the batch failed. Rows the
+     * database rejects are dropped so they cannot block every later flush;
+     * on any other error that row and the ones after it are queued again.
+     */
+    private void writeRows(Connection connection, List<PendingWrite> batch) {
+        for (int i = 0; i < batch.size(); i++) {
+            PendingWrite write = batch.get(i);
+            try (PreparedStatement statement = connection.prepareStatement(write.sql)) {
+                bind(statement, write.params);
+                statement.executeUpdate();
+                connection.commit();
+            } catch (SQLException e) {
+                if (!isRejected(e)) {
+                    List<PendingWrite> remaining = batch.subList(i, batch.size());
+                    requeue(remaining);
+                    plugin.getLogger().severe("Failed to write " + remaining.size()
+                            + " rows to the database, will retry!");
+                    e.printStackTrace();
+                    return;
+                }
+                plugin.getLogger().severe("Dropped database write " + write.key
+                        + " rejected by the database: " + e.getMessage());
+                try {
+                    connection.rollback();
+                } catch (SQLException ignored) {
+                    // The next row fails on its own if the connection is gone
+                }
+            }
+        }
+    }
+
+    /**
+     * Whether the database refused the row itself (constraint or data error),
+     * so writing it again can never succeed.
+     */
+    private boolean isRejected(SQLException e) {
+        if (e instanceof SQLIntegrityConstraintViolationException || e instanceof SQLDataException) {
+            return true;
+        }
+        String state = e.getSQLState();
+        if (state != null && (state.startsWith("22") || state.startsWith("23"))) {
+            return true;
+        }
+        // SQLite reports TOOBIG, CONSTRAINT and MISMATCH through its result code only
+        int resultCode = e.getErrorCode() & 0xff;
+        return dialect == SqlDialect.SQLITE && resultCode >= 18 && resultCode <= 20;
+    }
+
+    /**
+     * Put failed writes back in front of the queue, unless a newer write for
+     * the same key arrived in the meantime.
+     */
+    private void requeue(List<PendingWrite> batch) {
+        synchronized (pending) {
+            LinkedHashMap<String, PendingWrite> newer = new LinkedHashMap<>(pending);
+            pending.clear();
+            for (PendingWrite write : batch) {
+                if (!newer.containsKey(write.key)) {
+                    pending.put(write.key, write);
+                }
+            }
+            pending.putAll(newer);
+        }
+    }
+
+    private static void bind(PreparedStatement statement, Object[] params) throws SQLException {
+        for (int i = 0; i < params.length; i++) {
+            statement.setObject(i + 1, params[i]);
+        }
+    }
+
+    // ── Inner Types ──────────────────────────────────────────────────────────
+
+    @FunctionalInterface
+    public interface RowReader {
+        void read(ResultSet resultSet) throws SQLException;
+    }
+
+    private static class PendingWrite {
+        final String key;
+        final String sql;
+        final Object[] params;
+
+        PendingWrite(String key, String sql, Object[] params) {
+            this.key = key;
+            this.sql = sql;
+            this.params = params;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.aithor.factorycore.persistence.sql;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * SqlDialect - The few SQL differences between the supported databases.
+ */
+public enum SqlDialect {
+
+    MYSQL {
+        @Override
+        public String upsert(String table, String[] keyColumns, String... valueColumns) {
+            String updates = Arrays.stream(valueColumns)
+                    .map(column -> column + " = VALUES(" + column + ")")
+                    .collect(Collectors.joining(", "));
+            return insert(table, keyColumns, valueColumns) + " ON DUPLICATE KEY UPDATE " + updates;
+        }
+    },
+
+    SQLITE {
+        @Override
+        public String upsert(String table, String[] keyColumns, String... valueColumns) {
+            String updates = Arrays.stream(valueColumns)
+                    .map(column -> column + " = excluded." + column)
+                    .collect(Collectors.joining(", "));
+            return insert(table, keyColumns, valueColumns)
+                    + " ON CONFLICT (" + String.join(", ", keyColumns) + ") DO UPDATE SET " + updates;
+        }
+    };
+
+    /**
+     * Build an insert-or-update statement. Parameters are bound in the order
+     * key columns first, then value columns.
+     */
+    public abstract String upsert(String table, String[] keyColumns, String... valueColumns);
+
+    private static String insert(String table, String[] keyColumns, String[] valueColumns) {
+        List<String> columns = new ArrayList<>(Arrays.asList(keyColumns));
+        columns.addAll(Arrays.asList(valueColumns));
+        String placeholders = columns.stream().map(column -> "?").collect(Collectors.joining(", "));
+        return "INSERT INTO " + table + " (" + String.join(", ", columns) + ") VALUES (" + placeholders + ")";
+    }
+}
@@ -0,0 +1,212 @@
+package com.aithor.factorycore.persistence.sql;
+
+import com.aithor.factorycore.FactoryCore;
+import com.aithor.factorycore.models.Factory;
+import com.aithor.factorycore.models.FactoryStatus;
+import com.aithor.factorycore.models.FactoryType;
+import com.aithor.factorycore.models.ProductionTask;
+import com.aithor.factorycore.persistence.FactoryRepository;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * SqlFactoryRepository - One row per factory.
+ */
+public class SqlFactoryRepository implements FactoryRepository {
+
+    private static final String[] KEY = {"id"};
+    private static final String[] COLUMNS = {
+            "region", "type", "owner", "price", "level", "status",
+            "production_recipe", "production_start", "production_duration",
+            "production_batch", "production_batches",
+            "travel_world", "travel_x", "travel_y", "travel_z", "travel_yaw", "travel_pitch",
+            "upgrade_start", "upgrade_duration", "continuous_recipe", "production_lines",
+            "supply_target"
+    };
+
+    private final FactoryCore plugin;
+    private final SqlDatabase database;
+    private final String table;
+    private final String upsertSql;
+    private final String deleteSql;
+
+    public SqlFactoryRepository(FactoryCore plugin, SqlDatabase database) {
+        this.plugin = plugin;
+        this.database = database;
+        this.table = database.table("factories");
+        this.upsertSql = database.getDialect().upsert(table, KEY, COLUMNS);
+        this.deleteSql = "DELETE FROM " + table + " WHERE id = ?";
+    }
+
+    public void createSchema() throws SQLException {
+        database.execute("CREATE TABLE IF NOT EXISTS " + table + " ("
+                + "id VARCHAR(64) NOT NULL PRIMARY KEY, "
+                + "region VARCHAR(128), "
+                + "type VARCHAR(32) NOT NULL, "
+                + "owner CHAR(36), "
+                + "price DOUBLE NOT NULL, "
+                + "level INT NOT NULL, "
+                + "status VARCHAR(16) NOT NULL, "
+                + "production_recipe VARCHAR(64), "
+                + "production_start BIGINT, "
+                + "production_duration INT, "
+                + "production_batch INT NOT NULL DEFAULT 1, "
+                + "production_batches INT NOT NULL DEFAULT 1, "
+                + "travel_world VARCHAR(64), "
+                + "travel_x DOUBLE, travel_y DOUBLE, travel_z DOUBLE, "
+                + "travel_yaw FLOAT, travel_pitch FLOAT, "
+                + "upgrade_start BIGINT NOT NULL, "
+                + "upgrade_duration INT NOT NULL, "
+                + "continuous_recipe VARCHAR(64), "
+                + "production_lines TEXT, "
+                + "supply_target VARCHAR(64))");
+        // Added with production batch queues
+        database.addColumnIfMissing(table, "production_batch", "INT NOT NULL DEFAULT 1");
+        database.addColumnIfMissing(table, "production_batches", "INT NOT NULL DEFAULT 1");
+        // Added with continuous production
+        database.addColumnIfMissing(table, "continuous_recipe", "VARCHAR(64)");
+        // Added with parallel production lines
+        database.addColumnIfMissing(table, "production_lines", "TEXT");
+        // Added with supply chains
+        database.addColumnIfMissing(table, "supply_target", "VARCHAR(64)");
+    }
+
+    @Override
+    public void loadAll(Map<String, Factory> target) {
+        try {
+            database.query("SELECT * FROM " + table, rs -> {
+                String id = rs.getString("id");
+                try {
+                    String ownerStr = rs.getString("owner");
+                    Factory factory = new Factory(
+                            id,
+                            rs.getString("region"),
+                            FactoryType.valueOf(rs.getString("type")),
+                            ownerStr != null ? UUID.fromString(ownerStr) : null,
+                            rs.getDouble("price"),
+                            rs.getInt("level"));
+                    factory.setStatus(FactoryStatus.valueOf(rs.getString("status")));
+
+                    String recipeId = rs.getString("production_recipe");
+                    if (recipeId != null) {
+                        factory.setCurrentProduction(new ProductionTask(recipeId,
+                                rs.getLong("production_start"), rs.getInt("production_duration"),
+                                rs.getInt("production_batch"), rs.getInt("production_batches")));
+                    }
+
+                    String worldName = rs.getString("travel_world");
+                    if (worldName != null) {
+                        World world = Bukkit.getWorld(worldName);
+                        if (world != null) {
+                            factory.setFastTravelLocation(new Location(world,
+                                    rs.getDouble("travel_x"), rs.getDouble("travel_y"), rs.getDouble("travel_z"),
+                                    rs.getFloat("travel_yaw"), rs.getFloat("travel_pitch")));
+                        }
+                    }
+
+                    factory.setUpgradeStartTime(rs.getLong("upgrade_start"));
+                    factory.setUpgradeDurationSeconds(rs.getInt("upgrade_duration"));
+                    factory.setContinuousRecipeId(rs.getString("continuous_recipe"));
+                    decodeLines(factory, rs.getString("production_lines"));
+                    factory.setSupplyTargetId(rs.getString("supply_target"));
+
+                    target.put(id, factory);
+                } catch (IllegalArgumentException e) {
+                    plugin.getLogger().warning("Failed to load factory: " + id);
+                    e.printStackTrace();
+                }
+            });
+        } catch (SQLException e) {
+            plugin.getLogger().severe("Failed to load factories from the database!");
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public void save(Factory factory) {
+        ProductionTask task = factory.getProductionLine(0);
+        Location loc = factory.getFastTravelLocation();
+        boolean hasTravel = loc != null && loc.getWorld() != null;
+
+        database.enqueue(key(factory.getId()), upsertSql,
+                factory.getId(),
+                factory.getRegionName(),
+                factory.getType().name(),
+                factory.getOwner() != null ? factory.getOwner().toString() : null,
+                factory.getPrice(),
+                factory.getLevel(),
+                factory.getStatus().name(),
+                task != null ? task.getRecipeId() : null,
+                task != null ? task.getStartTime() : null,
+                task != null ? task.getDuration() : null,
+                task != null ? task.getBatch() : 1,
+                task != null ? task.getBatches() : 1,
+                hasTravel ? loc.getWorld().getName() : null,
+                hasTravel ? loc.getX() : null,
+                hasTravel ? loc.getY() : null,
+                hasTravel ? loc.getZ() : null,
+                hasTravel ? loc.getYaw() : null,
+                hasTravel ? loc.getPitch() : null,
+                factory.getUpgradeStartTime(),
+                factory.getUpgradeDurationSeconds(),
+                factory.getContinuousRecipeId(),
+                encodeLines(factory),
+                factory.getSupplyTargetId());
+    }
+
+    @Override
+    public void delete(String factoryId) {
+        database.enqueue(key(factoryId), deleteSql, factoryId);
+    }
+
+    @Override
+    public void flush() {
+        database.flushNow();
+    }
+
+    /**
+     * Lines other than line 0 as
+     * {@code line:recipe:start:duration:batch:batches} entries separated by
+     * {@code ;}, or {@code null} if there are none.
+     */
+    private static String encodeLines(Factory factory) {
+        StringBuilder encoded = new StringBuilder();
+        for (Map.Entry<Integer, ProductionTask> line : factory.getProductionLines().entrySet()) {
+            if (line.getKey() == 0) {
+                continue;
+            }
+            ProductionTask task = line.getValue();
+            if (encoded.length() > 0) {
+                encoded.append(';');
+            }
+            encoded.append(line.getKey()).append(':').append(task.getRecipeId())
+                    .append(':').append(task.getStartTime()).append(':').append(task.getDuration())
+                    .append(':').append(task.getBatch()).append(':').append(task.getBatches());
+        }
+        return encoded.length() > 0 ? encoded.toString() : null;
+    }
+
+    private static void decodeLines(Factory factory, String encoded) {
+        if (encoded == null || encoded.isEmpty()) {
+            return;
+        }
+        for (String entry : encoded.split(";")) {
+            String[] parts = entry.split(":");
+            if (parts.length != 6) {
+                throw new IllegalArgumentException("Invalid production line: " + entry);
+            }
+            factory.setProductionLine(Integer.parseInt(parts[0]), new ProductionTask(parts[1],
+                    Long.parseLong(parts[2]), Integer.parseInt(parts[3]),
+                    Integer.parseInt(parts[4]), Integer.parseInt(parts[5])));
+        }
+    }
+
+    private static String key(String factoryId) {
+        return "factory:" + factoryId;
+    }
+}
@@ -0,0 +1,97 @@
+package com.aithor.factorycore.persistence.sql;
+
+import com.aithor.factorycore.FactoryCore;
+import com.aithor.factorycore.models.Invoice;
+import com.aithor.factorycore.models.InvoiceType;
+import com.aithor.factorycore.persistence.InvoiceRepository;
+
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * SqlInvoiceRepository - One row per invoice. Paid invoices are kept as
+ * history but never loaded.
+ */
+public class SqlInvoiceRepository implements InvoiceRepository {
+
+    private static final String LAST_SALARY_COLLECTION = "last-salary-collection";
+
+    private final FactoryCore plugin;
+    private final SqlDatabase database;
+    private final String table;
+    private final String upsertSql;
+
+    public SqlInvoiceRepository(FactoryCore plugin, SqlDatabase database) {
+        this.plugin = plugin;
+        this.database = database;
+        this.table = database.table("invoices");
+        this.upsertSql = database.getDialect().upsert(table, new String[]{"id"},
+                "owner", "type", "amount", "due_date", "paid");
+    }
+
+    public void createSchema() throws SQLException {
+        database.execute("CREATE TABLE IF NOT EXISTS " + table + " ("
+                + "id VARCHAR(128) NOT NULL PRIMARY KEY, "
+                + "owner CHAR(36) NOT NULL, "
+                + "type VARCHAR(16) NOT NULL, "
+                + "amount DOUBLE NOT NULL, "
+                + "due_date BIGINT NOT NULL, "
+                + "paid BOOLEAN NOT NULL)");
+        database.createMetaTable();
+    }
+
+    @Override
+    public void loadAll(Map<String, Invoice> target) {
+        try {
+            database.query("SELECT * FROM " + table + " WHERE paid = ?", rs -> {
+                String id = rs.getString("id");
+                try {
+                    target.put(id, new Invoice(
+                            id,
+                            UUID.fromString(rs.getString("owner")),
+                            InvoiceType.valueOf(rs.getString("type")),
+                            rs.getDouble("amount"),
+                            rs.getLong("due_date")));
+                } catch (IllegalArgumentException e) {
+                    plugin.getLogger().warning("Failed to load invoice: " + id);
+                }
+            }, false);
+        } catch (SQLException e) {
+            plugin.getLogger().severe("Failed to load invoices from the database!");
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public long loadLastSalaryCollection(long fallback) {
+        try {
+            return database.readMeta(LAST_SALARY_COLLECTION, fallback);
+        } catch (SQLException e) {
+            plugin.getLogger().severe("Failed to load the last salary collection time!");
+            e.printStackTrace();
+            return fallback;
+        }
+    }
+
+    @Override
+    public void save(Invoice invoice) {
+        database.enqueue("invoice:" + invoice.getId(), upsertSql,
+                invoice.getId(),
+                invoice.getFactoryId().toString(),
+                invoice.getType().name(),
+                invoice.getAmount(),
+                invoice.getDueDate(),
+                invoice.isPaid());
+    }
+
+    @Override
+    public void saveLastSalaryCollection(long timestamp) {
+        database.writeMeta(LAST_SALARY_COLLECTION, timestamp);
+    }
+
+    @Override
+    public void flush() {
+        database.flushNow();
+    }
+}
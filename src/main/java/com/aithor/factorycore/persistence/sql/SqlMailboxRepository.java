@@ -0,0 +1,90 @@
+package com.aithor.factorycore.persistence.sql;
+
+import com.aithor.factorycore.FactoryCore;
+import com.aithor.factorycore.persistence.MailboxRepository;
+
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * SqlMailboxRepository - One row per player and resource in a mailbox.
+ */
+public class SqlMailboxRepository implements MailboxRepository {
+
+    private final FactoryCore plugin;
+    private final SqlDatabase database;
+    private final String table;
+    private final String upsertSql;
+    private final String deleteSql;
+
+    public SqlMailboxRepository(FactoryCore plugin, SqlDatabase database) {
+        this.plugin = plugin;
+        this.database = database;
+        this.table = database.table("mailbox");
+        this.upsertSql = database.getDialect().upsert(table, new String[]{"player", "resource_id"}, "amount");
+        this.deleteSql = "DELETE FROM " + table + " WHERE player = ? AND resource_id = ?";
+    }
+
+    public void createSchema() throws SQLException {
+        database.execute("CREATE TABLE IF NOT EXISTS " + table + " ("
+                + "player CHAR(36) NOT NULL, "
+                + "resource_id VARCHAR(64) NOT NULL, "
+                + "amount INT NOT NULL, "
+                + "PRIMARY KEY (player, resource_id))");
+    }
+
+    @Override
+    public void loadAll(Map<UUID, Map<String, Integer>> mailboxes) {
+        try {
+            read(mailboxes);
+        } catch (SQLException e) {
+            plugin.getLogger().severe("Failed to load mailboxes from the database!");
+            e.printStackTrace();
+        }
+    }
+
+    private void read(Map<UUID, Map<String, Integer>> mailboxes) throws SQLException {
+        database.query("SELECT player, resource_id, amount FROM " + table, rs -> {
+            String uuidStr = rs.getString("player");
+            try {
+                mailboxes.computeIfAbsent(UUID.fromString(uuidStr), k -> new HashMap<>())
+                        .put(rs.getString("resource_id"), rs.getInt("amount"));
+            } catch (IllegalArgumentException e) {
+                plugin.getLogger().warning("Failed to load mailbox for: " + uuidStr);
+            }
+        });
+    }
+
+    /**
+     * Add items to the stored mailboxes and write them immediately. Used when
+     * upgrading data from older versions, before the write queue runs.
+     */
+    public void addAll(Map<UUID, Map<String, Integer>> deliveries) throws SQLException {
+        Map<UUID, Map<String, Integer>> mailboxes = new HashMap<>();
+        read(mailboxes);
+        for (Map.Entry<UUID, Map<String, Integer>> entry : deliveries.entrySet()) {
+            Map<String, Integer> items = mailboxes.getOrDefault(entry.getKey(), new HashMap<>());
+            for (Map.Entry<String, Integer> item : entry.getValue().entrySet()) {
+                int amount = items.getOrDefault(item.getKey(), 0) + item.getValue();
+                database.update(upsertSql, entry.getKey().toString(), item.getKey(), amount);
+            }
+        }
+    }
+
+    @Override
+    public void save(UUID playerId, String resourceId, int amount) {
+        String key = "mailbox:" + playerId + ":" + resourceId;
+        if (amount > 0) {
+            database.enqueue(key, upsertSql, playerId.toString(), resourceId, amount);
+        } else {
+            database.enqueue(key, deleteSql, playerId.toString(), resourceId);
+        }
+    }
+
+    @Override
+    public void flush() {
+        database.flushNow();
+    }
+}
@@ -0,0 +1,231 @@
+package com.aithor.factorycore.persistence.sql;
+
+import com.aithor.factorycore.FactoryCore;
+import com.aithor.factorycore.managers.MarketplaceManager.BuyOrder;
+import com.aithor.factorycore.managers.MarketplaceManager.MarketListing;
+import com.aithor.factorycore.persistence.MarketRepository;
+
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * SqlMarketRepository - One row per listing, one per buy order and one per
+ * player with pending earnings.
+ */
+public class SqlMarketRepository implements MarketRepository {
+
+    private final FactoryCore plugin;
+    private final SqlDatabase database;
+    private final String listingTable;
+    private final String orderTable;
+    private final String earningsTable;
+    private final String upsertListingSql;
+    private final String deleteListingSql;
+    private final String upsertOrderSql;
+    private final String deleteOrderSql;
+    private final String upsertEarningsSql;
+    private final String deleteEarningsSql;
+
+    public SqlMarketRepository(FactoryCore plugin, SqlDatabase database) {
+        this.plugin = plugin;
+        this.database = database;
+        this.listingTable = database.table("market_listings");
+        this.orderTable = database.table("market_buy_orders");
+        this.earningsTable = database.table("market_earnings");
+        this.upsertListingSql = database.getDialect().upsert(listingTable, new String[]{"id"},
+                "seller", "seller_name", "resource_id", "amount", "price_per_unit", "listed_time", "expires_at",
+                "active");
+        this.deleteListingSql = "DELETE FROM " + listingTable + " WHERE id = ?";
+        this.upsertOrderSql = database.getDialect().upsert(orderTable, new String[]{"id"},
+                "buyer", "buyer_name", "resource_id", "amount", "price_per_unit", "placed_time");
+        this.deleteOrderSql = "DELETE FROM " + orderTable + " WHERE id = ?";
+        this.upsertEarningsSql = database.getDialect().upsert(earningsTable, new String[]{"player"}, "amount");
+        this.deleteEarningsSql = "DELETE FROM " + earningsTable + " WHERE player = ?";
+    }
+
+    public void createSchema() throws SQLException {
+        database.execute("CREATE TABLE IF NOT EXISTS " + listingTable + " ("
+                + "id VARCHAR(36) NOT NULL PRIMARY KEY, "
+                + "seller CHAR(36) NOT NULL, "
+                + "seller_name VARCHAR(16), "
+                + "resource_id VARCHAR(64) NOT NULL, "
+                + "amount INT NOT NULL, "
+                + "price_per_unit DOUBLE NOT NULL, "
+                + "listed_time BIGINT NOT NULL, "
+                + "active BOOLEAN NOT NULL)");
+        database.addColumnIfMissing(listingTable, "expires_at", "BIGINT NOT NULL DEFAULT 0");
+        database.execute("CREATE TABLE IF NOT EXISTS " + orderTable + " ("
+                + "id VARCHAR(36) NOT NULL PRIMARY KEY, "
+                + "buyer CHAR(36) NOT NULL, "
+                + "buyer_name VARCHAR(16), "
+                + "resource_id VARCHAR(64) NOT NULL, "
+                + "amount INT NOT NULL, "
+                + "price_per_unit DOUBLE NOT NULL, "
+                + "placed_time BIGINT NOT NULL)");
+        database.execute("CREATE TABLE IF NOT EXISTS " + earningsTable + " ("
+                + "player CHAR(36) NOT NULL PRIMARY KEY, "
+                + "amount DOUBLE NOT NULL)");
+    }
+
+    /**
+     * Move items that older versions held back for players into their
+     * mailboxes: the market_claims table of expired listings and units bought
+     * by buy orders but not yet handed over (market_buy_orders.filled). Both
+     * are removed once the mailboxes are written.
+     */
+    public void migrateLegacyDeliveries(SqlMailboxRepository mailboxes) throws SQLException {
+        String claimTable = database.table("market_claims");
+        boolean hasClaims = database.tableExists(claimTable);
+        boolean hasFilled = database.columnExists(orderTable, "filled");
+        if (!hasClaims && !hasFilled) {
+            return;
+        }
+
+        Map<UUID, Map<String, Integer>> deliveries = new HashMap<>();
+        if (hasClaims) {
+            database.query("SELECT player, resource_id, amount FROM " + claimTable,
+                    rs -> addDelivery(deliveries, rs.getString("player"), rs.getString("resource_id"),
+                            rs.getInt("amount")));
+        }
+        if (hasFilled) {
+            database.query("SELECT buyer, resource_id, filled FROM " + orderTable + " WHERE filled > 0",
+                    rs -> addDelivery(deliveries, rs.getString("buyer"), rs.getString("resource_id"),
+                            rs.getInt("filled")));
+        }
+        mailboxes.addAll(deliveries);
+
+        if (hasFilled) {
+            // Orders that were only kept for their undelivered units
+            database.execute("DELETE FROM " + orderTable + " WHERE amount <= 0");
+            database.execute("ALTER TABLE " + orderTable + " DROP COLUMN filled");
+        }
+        if (hasClaims) {
+            database.execute("DROP TABLE " + claimTable);
+        }
+        plugin.getLogger().info("Moved marketplace deliveries for " + deliveries.size() + " players to mailboxes.");
+    }
+
+    private void addDelivery(Map<UUID, Map<String, Integer>> deliveries, String uuidStr, String resourceId,
+            int amount) {
+        if (amount <= 0) {
+            return;
+        }
+        try {
+            deliveries.computeIfAbsent(UUID.fromString(uuidStr), k -> new HashMap<>())
+                    .merge(resourceId, amount, Integer::sum);
+        } catch (IllegalArgumentException e) {
+            plugin.getLogger().warning("Failed to migrate marketplace deliveries for: " + uuidStr);
+        }
+    }
+
+    @Override
+    public void loadAll(Map<String, MarketListing> listings, Map<String, BuyOrder> buyOrders,
+            Map<UUID, Double> earnings) {
+        try {
+            database.query("SELECT * FROM " + listingTable + " WHERE active = ?", rs -> {
+                String id = rs.getString("id");
+                try {
+                    long listedTime = rs.getLong("listed_time");
+                    long expiresAt = rs.getLong("expires_at");
+                    if (expiresAt <= 0) {
+                        // Listed before expiry times were stored
+                        expiresAt = listedTime + plugin.getSettings().listingExpirationHours * 3600000L;
+                    }
+                    listings.put(id, new MarketListing(
+                            id,
+                            UUID.fromString(rs.getString("seller")),
+                            rs.getString("seller_name"),
+                            rs.getString("resource_id"),
+                            rs.getInt("amount"),
+                            rs.getDouble("price_per_unit"),
+                            listedTime,
+                            expiresAt,
+                            true));
+                } catch (IllegalArgumentException e) {
+                    plugin.getLogger().warning("Failed to load listing: " + id);
+                }
+            }, true);
+
+            database.query("SELECT * FROM " + orderTable, rs -> {
+                String id = rs.getString("id");
+                try {
+                    buyOrders.put(id, new BuyOrder(
+                            id,
+                            UUID.fromString(rs.getString("buyer")),
+                            rs.getString("buyer_name"),
+                            rs.getString("resource_id"),
+                            rs.getInt("amount"),
+                            rs.getDouble("price_per_unit"),
+                            rs.getLong("placed_time")));
+                } catch (IllegalArgumentException e) {
+                    plugin.getLogger().warning("Failed to load buy order: " + id);
+                }
+            });
+
+            database.query("SELECT player, amount FROM " + earningsTable, rs -> {
+                String uuidStr = rs.getString("player");
+                try {
+                    earnings.put(UUID.fromString(uuidStr), rs.getDouble("amount"));
+                } catch (IllegalArgumentException e) {
+                    plugin.getLogger().warning("Failed to load earnings for: " + uuidStr);
+                }
+            });
+        } catch (SQLException e) {
+            plugin.getLogger().severe("Failed to load the marketplace from the database!");
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public void saveListing(MarketListing listing) {
+        database.enqueue("listing:" + listing.id, upsertListingSql,
+                listing.id,
+                listing.seller.toString(),
+                listing.sellerName,
+                listing.resourceId,
+                listing.amount,
+                listing.pricePerUnit,
+                listing.listedTime,
+                listing.expiresAt,
+                listing.active);
+    }
+
+    @Override
+    public void deleteListing(String listingId) {
+        database.enqueue("listing:" + listingId, deleteListingSql, listingId);
+    }
+
+    @Override
+    public void saveBuyOrder(BuyOrder order) {
+        database.enqueue("buy_order:" + order.id, upsertOrderSql,
+                order.id,
+                order.buyer.toString(),
+                order.buyerName,
+                order.resourceId,
+                order.amount,
+                order.pricePerUnit,
+                order.placedTime);
+    }
+
+    @Override
+    public void deleteBuyOrder(String orderId) {
+        database.enqueue("buy_order:" + orderId, deleteOrderSql, orderId);
+    }
+
+    @Override
+    public void saveEarnings(UUID playerId, double amount) {
+        String key = "earnings:" + playerId;
+        if (amount > 0) {
+            database.enqueue(key, upsertEarningsSql, playerId.toString(), amount);
+        } else {
+            database.enqueue(key, deleteEarningsSql, playerId.toString());
+        }
+    }
+
+    @Override
+    public void flush() {
+        database.flushNow();
+    }
+}
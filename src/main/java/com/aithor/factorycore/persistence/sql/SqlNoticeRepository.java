@@ -0,0 +1,104 @@
+package com.aithor.factorycore.persistence.sql;
+
+import com.aithor.factorycore.FactoryCore;
+import com.aithor.factorycore.persistence.NoticeRepository;
+
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * SqlNoticeRepository - One row per player and recipe with productions that
+ * completed while the player was offline, and one per pending message.
+ */
+public class SqlNoticeRepository implements NoticeRepository {
+
+    private final FactoryCore plugin;
+    private final SqlDatabase database;
+    private final String completionTable;
+    private final String upsertCompletionSql;
+    private final String deleteCompletionSql;
+    private final String messageTable;
+    private final String upsertMessageSql;
+    private final String deleteMessageSql;
+
+    public SqlNoticeRepository(FactoryCore plugin, SqlDatabase database) {
+        this.plugin = plugin;
+        this.database = database;
+        this.completionTable = database.table("notice_completions");
+        this.upsertCompletionSql = database.getDialect().upsert(completionTable,
+                new String[]{"player", "recipe_id"}, "amount");
+        this.deleteCompletionSql = "DELETE FROM " + completionTable + " WHERE player = ? AND recipe_id = ?";
+        this.messageTable = database.table("notice_messages");
+        this.upsertMessageSql = database.getDialect().upsert(messageTable,
+                new String[]{"player", "notice_key"}, "message");
+        this.deleteMessageSql = "DELETE FROM " + messageTable + " WHERE player = ? AND notice_key = ?";
+    }
+
+    public void createSchema() throws SQLException {
+        database.execute("CREATE TABLE IF NOT EXISTS " + completionTable + " ("
+                + "player CHAR(36) NOT NULL, "
+                + "recipe_id VARCHAR(64) NOT NULL, "
+                + "amount INT NOT NULL, "
+                + "PRIMARY KEY (player, recipe_id))");
+        database.execute("CREATE TABLE IF NOT EXISTS " + messageTable + " ("
+                + "player CHAR(36) NOT NULL, "
+                + "notice_key VARCHAR(128) NOT NULL, "
+                + "message TEXT NOT NULL, "
+                + "PRIMARY KEY (player, notice_key))");
+    }
+
+    @Override
+    public void loadAll(Map<UUID, Map<String, Integer>> completions, Map<UUID, Map<String, String>> messages) {
+        try {
+            database.query("SELECT player, recipe_id, amount FROM " + completionTable, rs -> {
+                String uuidStr = rs.getString("player");
+                try {
+                    completions.computeIfAbsent(UUID.fromString(uuidStr), k -> new HashMap<>())
+                            .put(rs.getString("recipe_id"), rs.getInt("amount"));
+                } catch (IllegalArgumentException e) {
+                    plugin.getLogger().warning("Failed to load notices for: " + uuidStr);
+                }
+            });
+            database.query("SELECT player, notice_key, message FROM " + messageTable, rs -> {
+                String uuidStr = rs.getString("player");
+                try {
+                    messages.computeIfAbsent(UUID.fromString(uuidStr), k -> new LinkedHashMap<>())
+                            .put(rs.getString("notice_key"), rs.getString("message"));
+                } catch (IllegalArgumentException e) {
+                    plugin.getLogger().warning("Failed to load notices for: " + uuidStr);
+                }
+            });
+        } catch (SQLException e) {
+            plugin.getLogger().severe("Failed to load notices from the database!");
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public void saveCompletions(UUID playerId, String recipeId, int count) {
+        String key = "notice_completion:" + playerId + ":" + recipeId;
+        if (count > 0) {
+            database.enqueue(key, upsertCompletionSql, playerId.toString(), recipeId, count);
+        } else {
+            database.enqueue(key, deleteCompletionSql, playerId.toString(), recipeId);
+        }
+    }
+
+    @Override
+    public void saveMessage(UUID playerId, String key, String message) {
+        String rowKey = "notice_message:" + playerId + ":" + key;
+        if (message != null) {
+            database.enqueue(rowKey, upsertMessageSql, playerId.toString(), key, message);
+        } else {
+            database.enqueue(rowKey, deleteMessageSql, playerId.toString(), key);
+        }
+    }
+
+    @Override
+    public void flush() {
+        database.flushNow();
+    }
+}
@@ -0,0 +1,104 @@
+package com.aithor.factorycore.persistence.sql;
+
+import com.aithor.factorycore.FactoryCore;
+import com.aithor.factorycore.managers.DailyQuestManager.PlayerQuestData;
+import com.aithor.factorycore.persistence.QuestRepository;
+
+import java.sql.SQLException;
+import java.util.UUID;
+
+/**
+ * SqlQuestRepository - One state row per player plus one row per quest.
+ * <p>
+ * Quest rows carry the reset timestamp they belong to. A daily reset only
+ * rewrites the state row; quest rows from an earlier day are simply ignored
+ * on load and overwritten as soon as that quest progresses again, so no
+ * bulk delete is needed.
+ * </p>
+ */
+public class SqlQuestRepository implements QuestRepository {
+
+    private final FactoryCore plugin;
+    private final SqlDatabase database;
+    private final String stateTable;
+    private final String progressTable;
+    private final String upsertStateSql;
+    private final String upsertProgressSql;
+
+    public SqlQuestRepository(FactoryCore plugin, SqlDatabase database) {
+        this.plugin = plugin;
+        this.database = database;
+        this.stateTable = database.table("quest_state");
+        this.progressTable = database.table("quest_progress");
+        this.upsertStateSql = database.getDialect().upsert(stateTable, new String[]{"player"},
+                "last_reset", "bonus_claimed");
+        this.upsertProgressSql = database.getDialect().upsert(progressTable, new String[]{"player", "quest_id"},
+                "reset_at", "progress", "claimed");
+    }
+
+    public void createSchema() throws SQLException {
+        database.execute("CREATE TABLE IF NOT EXISTS " + stateTable + " ("
+                + "player CHAR(36) NOT NULL PRIMARY KEY, "
+                + "last_reset BIGINT NOT NULL, "
+                + "bonus_claimed BOOLEAN NOT NULL)");
+        database.execute("CREATE TABLE IF NOT EXISTS " + progressTable + " ("
+                + "player CHAR(36) NOT NULL, "
+                + "quest_id VARCHAR(64) NOT NULL, "
+                + "reset_at BIGINT NOT NULL, "
+                + "progress INT NOT NULL, "
+                + "claimed BOOLEAN NOT NULL, "
+                + "PRIMARY KEY (player, quest_id))");
+    }
+
+    @Override
+    public PlayerQuestData load(UUID playerId) {
+        PlayerQuestData data = new PlayerQuestData();
+        try {
+            database.query("SELECT last_reset, bonus_claimed FROM " + stateTable + " WHERE player = ?", rs -> {
+                data.lastResetTimestamp = rs.getLong("last_reset");
+                data.bonusClaimed = rs.getBoolean("bonus_claimed");
+            }, playerId.toString());
+
+            database.query("SELECT quest_id, progress, claimed FROM " + progressTable
+                    + " WHERE player = ? AND reset_at = ?", rs -> {
+                String questId = rs.getString("quest_id");
+                data.questProgress.put(questId, rs.getInt("progress"));
+                if (rs.getBoolean("claimed")) {
+                    data.claimedRewards.add(questId);
+                }
+            }, playerId.toString(), data.lastResetTimestamp);
+        } catch (SQLException e) {
+            plugin.getLogger().severe("Failed to load daily quest data for " + playerId + "!");
+            e.printStackTrace();
+        }
+        return data;
+    }
+
+    @Override
+    public void saveState(UUID playerId, PlayerQuestData data) {
+        database.enqueue("quest-state:" + playerId, upsertStateSql,
+                playerId.toString(),
+                data.lastResetTimestamp,
+                data.bonusClaimed);
+    }
+
+    @Override
+    public void saveQuest(UUID playerId, String questId, PlayerQuestData data) {
+        database.enqueue("quest:" + playerId + ":" + questId, upsertProgressSql,
+                playerId.toString(),
+                questId,
+                data.lastResetTimestamp,
+                data.questProgress.getOrDefault(questId, 0),
+                data.claimedRewards.contains(questId));
+    }
+
+    @Override
+    public void unload(UUID playerId) {
+        // Rows are captured when queued, nothing is kept per player
+    }
+
+    @Override
+    public void flush() {
+        database.flushNow();
+    }
+}
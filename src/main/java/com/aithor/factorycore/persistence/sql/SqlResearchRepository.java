@@ -0,0 +1,80 @@
+package com.aithor.factorycore.persistence.sql;
+
+import com.aithor.factorycore.FactoryCore;
+import com.aithor.factorycore.managers.ResearchManager.ResearchData;
+import com.aithor.factorycore.persistence.ResearchRepository;
+
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * SqlResearchRepository - One row per player and research.
+ */
+public class SqlResearchRepository implements ResearchRepository {
+
+    private final FactoryCore plugin;
+    private final SqlDatabase database;
+    private final String table;
+    private final String upsertSql;
+
+    public SqlResearchRepository(FactoryCore plugin, SqlDatabase database) {
+        this.plugin = plugin;
+        this.database = database;
+        this.table = database.table("research");
+        this.upsertSql = database.getDialect().upsert(table, new String[]{"player", "research_id"},
+                "completed_level", "start_time", "duration_minutes", "target_level");
+    }
+
+    public void createSchema() throws SQLException {
+        database.execute("CREATE TABLE IF NOT EXISTS " + table + " ("
+                + "player CHAR(36) NOT NULL, "
+                + "research_id VARCHAR(64) NOT NULL, "
+                + "completed_level INT NOT NULL, "
+                + "start_time BIGINT NOT NULL, "
+                + "duration_minutes INT NOT NULL, "
+                + "target_level INT NOT NULL, "
+                + "PRIMARY KEY (player, research_id))");
+    }
+
+    @Override
+    public Map<String, ResearchData> load(UUID playerId) {
+        Map<String, ResearchData> data = new HashMap<>();
+        try {
+            database.query("SELECT * FROM " + table + " WHERE player = ?", rs -> {
+                ResearchData rd = new ResearchData();
+                rd.completedLevel = rs.getInt("completed_level");
+                rd.researchStartTime = rs.getLong("start_time");
+                rd.researchDurationMinutes = rs.getInt("duration_minutes");
+                rd.targetLevel = rs.getInt("target_level");
+                data.put(rs.getString("research_id"), rd);
+            }, playerId.toString());
+        } catch (SQLException e) {
+            plugin.getLogger().severe("Failed to load research data for " + playerId + "!");
+            e.printStackTrace();
+        }
+        return data;
+    }
+
+    @Override
+    public void save(UUID playerId, String researchId, ResearchData data) {
+        database.enqueue("research:" + playerId + ":" + researchId, upsertSql,
+                playerId.toString(),
+                researchId,
+                data.completedLevel,
+                data.researchStartTime,
+                data.researchDurationMinutes,
+                data.targetLevel);
+    }
+
+    @Override
+    public void unload(UUID playerId) {
+        // Rows are captured when queued, nothing is kept per player
+    }
+
+    @Override
+    public void flush() {
+        database.flushNow();
+    }
+}
@@ -0,0 +1,75 @@
+package com.aithor.factorycore.persistence.sql;
+
+import com.aithor.factorycore.FactoryCore;
+import com.aithor.factorycore.persistence.StorageRepository;
+
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * SqlStorageRepository - One row per factory, ledger and resource.
+ */
+public class SqlStorageRepository implements StorageRepository {
+
+    private final FactoryCore plugin;
+    private final SqlDatabase database;
+    private final String table;
+    private final String upsertSql;
+    private final String deleteSql;
+    private final String clearSql;
+
+    public SqlStorageRepository(FactoryCore plugin, SqlDatabase database) {
+        this.plugin = plugin;
+        this.database = database;
+        this.table = database.table("storage");
+        this.upsertSql = database.getDialect().upsert(table,
+                new String[]{"factory_id", "ledger", "resource_id"}, "amount");
+        this.deleteSql = "DELETE FROM " + table + " WHERE factory_id = ? AND ledger = ? AND resource_id = ?";
+        this.clearSql = "DELETE FROM " + table + " WHERE factory_id = ? AND ledger = ?";
+    }
+
+    public void createSchema() throws SQLException {
+        database.execute("CREATE TABLE IF NOT EXISTS " + table + " ("
+                + "factory_id VARCHAR(64) NOT NULL, "
+                + "ledger VARCHAR(8) NOT NULL, "
+                + "resource_id VARCHAR(64) NOT NULL, "
+                + "amount INT NOT NULL, "
+                + "PRIMARY KEY (factory_id, ledger, resource_id))");
+    }
+
+    @Override
+    public void loadAll(Map<String, Map<String, Integer>> input, Map<String, Map<String, Integer>> output) {
+        try {
+            database.query("SELECT factory_id, ledger, resource_id, amount FROM " + table, rs -> {
+                Map<String, Map<String, Integer>> target =
+                        Ledger.OUTPUT.name().equals(rs.getString("ledger")) ? output : input;
+                target.computeIfAbsent(rs.getString("factory_id"), k -> new HashMap<>())
+                        .put(rs.getString("resource_id"), rs.getInt("amount"));
+            });
+        } catch (SQLException e) {
+            plugin.getLogger().severe("Failed to load factory storage from the database!");
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public void saveAmount(Ledger ledger, String factoryId, String resourceId, int amount) {
+        String key = "storage:" + ledger.name() + ":" + factoryId + ":" + resourceId;
+        if (amount > 0) {
+            database.enqueue(key, upsertSql, factoryId, ledger.name(), resourceId, amount);
+        } else {
+            database.enqueue(key, deleteSql, factoryId, ledger.name(), resourceId);
+        }
+    }
+
+    @Override
+    public void clear(Ledger ledger, String factoryId) {
+        database.enqueue("storage:" + ledger.name() + ":" + factoryId, clearSql, factoryId, ledger.name());
+    }
+
+    @Override
+    public void flush() {
+        database.flushNow();
+    }
+}
@@ -0,0 +1,131 @@
+package com.aithor.factorycore.persistence.sql;
+
+import com.aithor.factorycore.FactoryCore;
+import com.aithor.factorycore.managers.TaxManager.TaxPayment;
+import com.aithor.factorycore.managers.TaxManager.TaxRecord;
+import com.aithor.factorycore.persistence.TaxRepository;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * SqlTaxRepository - One row per factory tax record and one per payment.
+ */
+public class SqlTaxRepository implements TaxRepository {
+
+    private static final String LAST_COLLECTION = "last-tax-collection";
+
+    private final FactoryCore plugin;
+    private final SqlDatabase database;
+    private final String recordTable;
+    private final String paymentTable;
+    private final String upsertRecordSql;
+    private final String upsertPaymentSql;
+
+    public SqlTaxRepository(FactoryCore plugin, SqlDatabase database) {
+        this.plugin = plugin;
+        this.database = database;
+        this.recordTable = database.table("tax_records");
+        this.paymentTable = database.table("tax_payments");
+        this.upsertRecordSql = database.getDialect().upsert(recordTable, new String[]{"factory_id"},
+                "amount_due", "last_assessment", "due_date", "overdue");
+        this.upsertPaymentSql = database.getDialect().upsert(paymentTable, new String[]{"player", "id"},
+                "factory_id", "amount", "paid_at");
+    }
+
+    public void createSchema() throws SQLException {
+        database.execute("CREATE TABLE IF NOT EXISTS " + recordTable + " ("
+                + "factory_id VARCHAR(64) NOT NULL PRIMARY KEY, "
+                + "amount_due DOUBLE NOT NULL, "
+                + "last_assessment BIGINT NOT NULL, "
+                + "due_date BIGINT NOT NULL, "
+                + "overdue BOOLEAN NOT NULL)");
+        database.execute("CREATE TABLE IF NOT EXISTS " + paymentTable + " ("
+                + "player CHAR(36) NOT NULL, "
+                + "id VARCHAR(36) NOT NULL, "
+                + "factory_id VARCHAR(64) NOT NULL, "
+                + "amount DOUBLE NOT NULL, "
+                + "paid_at BIGINT NOT NULL, "
+                + "PRIMARY KEY (player, id))");
+        database.createMetaTable();
+    }
+
+    @Override
+    public void loadRecords(Map<String, TaxRecord> target) {
+        try {
+            database.query("SELECT * FROM " + recordTable, rs -> {
+                String factoryId = rs.getString("factory_id");
+                target.put(factoryId, new TaxRecord(
+                        factoryId,
+                        rs.getDouble("amount_due"),
+                        rs.getLong("last_assessment"),
+                        rs.getLong("due_date"),
+                        rs.getBoolean("overdue")));
+            });
+        } catch (SQLException e) {
+            plugin.getLogger().severe("Failed to load tax records from the database!");
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public long loadLastCollection(long fallback) {
+        try {
+            return database.readMeta(LAST_COLLECTION, fallback);
+        } catch (SQLException e) {
+            plugin.getLogger().severe("Failed to load the last tax collection time!");
+            e.printStackTrace();
+            return fallback;
+        }
+    }
+
+    @Override
+    public List<TaxPayment> loadPayments(UUID playerId) {
+        List<TaxPayment> payments = new ArrayList<>();
+        try {
+            database.query("SELECT * FROM " + paymentTable + " WHERE player = ? ORDER BY paid_at", rs ->
+                    payments.add(new TaxPayment(
+                            rs.getString("id"),
+                            rs.getString("factory_id"),
+                            rs.getDouble("amount"),
+                            rs.getLong("paid_at"))), playerId.toString());
+        } catch (SQLException e) {
+            plugin.getLogger().severe("Failed to load tax payments for " + playerId + "!");
+            e.printStackTrace();
+        }
+        return payments;
+    }
+
+    @Override
+    public void saveRecord(TaxRecord record) {
+        database.enqueue("tax:" + record.factoryId, upsertRecordSql,
+                record.factoryId,
+                record.amountDue,
+                record.lastAssessment,
+                record.dueDate,
+                record.overdue);
+    }
+
+    @Override
+    public void savePayment(UUID playerId, TaxPayment payment) {
+        database.enqueue("tax-payment:" + playerId + ":" + payment.id, upsertPaymentSql,
+                playerId.toString(),
+                payment.id,
+                payment.factoryId,
+                payment.amount,
+                payment.timestamp);
+    }
+
+    @Override
+    public void saveLastCollection(long timestamp) {
+        database.writeMeta(LAST_COLLECTION, timestamp);
+    }
+
+    @Override
+    public void flush() {
+        database.flushNow();
+    }
+}
@@ -0,0 +1,76 @@
+package com.aithor.factorycore.persistence.yaml;
+
+import com.aithor.factorycore.FactoryCore;
+import com.aithor.factorycore.managers.AchievementManager.PlayerAchievementData;
+import com.aithor.factorycore.persistence.DataSnapshot;
+import com.aithor.factorycore.persistence.AchievementRepository;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * YamlAchievementRepository - Stores each player's achievements in
+ * data/achievements/&lt;uuid&gt;.yml.
+ */
+public class YamlAchievementRepository extends YamlPlayerRepository<PlayerAchievementData>
+        implements AchievementRepository {
+
+    public YamlAchievementRepository(FactoryCore plugin, File dataFolder) {
+        super(plugin, dataFolder, "achievements");
+    }
+
+    @Override
+    protected PlayerAchievementData create() {
+        return new PlayerAchievementData();
+    }
+
+    @Override
+    protected PlayerAchievementData read(ConfigurationSection section) {
+        PlayerAchievementData data = new PlayerAchievementData();
+
+        // Load unlocked achievements
+        data.unlockedAchievements.addAll(section.getStringList("unlocked"));
+
+        // Load unlock timestamps
+        ConfigurationSection tsSection = section.getConfigurationSection("timestamps");
+        if (tsSection != null) {
+            for (String achId : tsSection.getKeys(false)) {
+                data.unlockTimestamps.put(achId, tsSection.getLong(achId));
+            }
+        }
+
+        // Load progress values
+        ConfigurationSection progSection = section.getConfigurationSection("progress");
+        if (progSection != null) {
+            for (String achId : progSection.getKeys(false)) {
+                data.progressValues.put(achId, progSection.getDouble(achId));
+            }
+        }
+
+        return data;
+    }
+
+    @Override
+    protected void write(DataSnapshot snapshot, PlayerAchievementData data) {
+        // Save unlocked achievements as list
+        snapshot.set("unlocked", new ArrayList<>(data.unlockedAchievements));
+
+        // Save timestamps
+        for (Map.Entry<String, Long> ts : data.unlockTimestamps.entrySet()) {
+            snapshot.set("timestamps." + ts.getKey(), ts.getValue());
+        }
+
+        // Save progress values
+        for (Map.Entry<String, Double> prog : data.progressValues.entrySet()) {
+            snapshot.set("progress." + prog.getKey(), prog.getValue());
+        }
+    }
+
+    @Override
+    public void save(UUID playerId, String achievementId, PlayerAchievementData data) {
+        markDirty(playerId);
+    }
+}
@@ -0,0 +1,213 @@
+package com.aithor.factorycore.persistence.yaml;
+
+import com.aithor.factorycore.FactoryCore;
+import com.aithor.factorycore.models.Factory;
+import com.aithor.factorycore.models.FactoryStatus;
+import com.aithor.factorycore.models.FactoryType;
+import com.aithor.factorycore.models.ProductionTask;
+import com.aithor.factorycore.persistence.DataSnapshot;
+import com.aithor.factorycore.persistence.FactoryRepository;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * YamlFactoryRepository - Stores factories in data/factories.yml.
+ * <p>
+ * Saves are write-behind through the
+ * {@link com.aithor.factorycore.persistence.PersistenceService}; any change
+ * rewrites the whole file on the next flush.
+ * </p>
+ */
+public class YamlFactoryRepository implements FactoryRepository {
+
+    private static final String STORE_NAME = "factories";
+
+    private final FactoryCore plugin;
+    private final File dataFile;
+
+    public YamlFactoryRepository(FactoryCore plugin, File dataFolder) {
+        this.plugin = plugin;
+        this.dataFile = new File(dataFolder, "factories.yml");
+    }
+
+    @Override
+    public void loadAll(Map<String, Factory> target) {
+        read(target);
+        plugin.getPersistenceService().register(STORE_NAME, dataFile, () -> createSnapshot(target));
+    }
+
+    /**
+     * Read factories.yml into {@code target} without binding to it.
+     */
+    public void read(Map<String, Factory> target) {
+        if (!dataFile.exists()) {
+            return;
+        }
+
+        FileConfiguration config = YamlConfiguration.loadConfiguration(dataFile);
+
+        for (String key : config.getKeys(false)) {
+            try {
+                String ownerStr = config.getString(key + ".owner");
+                UUID ownerUUID = null;
+                if (ownerStr != null && !ownerStr.equals("null")) {
+                    try {
+                        ownerUUID = UUID.fromString(ownerStr);
+                    } catch (IllegalArgumentException e) {
+                        plugin.getLogger()
+                                .warning(String.format("Invalid owner UUID for factory %s: %s", key, ownerStr));
+                    }
+                }
+
+                Factory factory = new Factory(
+                        config.getString(key + ".id"),
+                        config.getString(key + ".region"),
+                        FactoryType.valueOf(config.getString(key + ".type")),
+                        ownerUUID,
+                        config.getDouble(key + ".price"),
+                        config.getInt(key + ".level", 1));
+
+                factory.setStatus(FactoryStatus.valueOf(
+                        config.getString(key + ".status", "STOPPED")));
+
+                // Load current production if exists
+                if (config.contains(key + ".production")) {
+                    factory.setCurrentProduction(readTask(config, key + ".production"));
+                }
+
+                // Load additional production lines
+                if (config.isConfigurationSection(key + ".production-lines")) {
+                    for (String line : config.getConfigurationSection(key + ".production-lines").getKeys(false)) {
+                        factory.setProductionLine(Integer.parseInt(line),
+                                readTask(config, key + ".production-lines." + line));
+                    }
+                }
+
+                factory.setContinuousRecipeId(config.getString(key + ".continuous-recipe"));
+                factory.setSupplyTargetId(config.getString(key + ".supply-target"));
+
+                // Load fast travel location if exists
+                if (config.contains(key + ".fast-travel")) {
+                    String worldName = config.getString(key + ".fast-travel.world");
+                    double x = config.getDouble(key + ".fast-travel.x");
+                    double y = config.getDouble(key + ".fast-travel.y");
+                    double z = config.getDouble(key + ".fast-travel.z");
+                    float yaw = (float) config.getDouble(key + ".fast-travel.yaw");
+                    float pitch = (float) config.getDouble(key + ".fast-travel.pitch");
+
+                    if (worldName != null) {
+                        org.bukkit.World world = Bukkit.getWorld(worldName);
+                        if (world != null) {
+                            Location location = new Location(world, x, y, z, yaw, pitch);
+                            factory.setFastTravelLocation(location);
+                        }
+                    }
+                }
+
+                // Load upgrade timer if present
+                if (config.contains(key + ".upgrade.start-time")) {
+                    factory.setUpgradeStartTime(config.getLong(key + ".upgrade.start-time"));
+                    factory.setUpgradeDurationSeconds(config.getInt(key + ".upgrade.duration"));
+                }
+
+                target.put(factory.getId(), factory);
+            } catch (Exception e) {
+                plugin.getLogger().warning("Failed to load factory: " + key);
+                e.printStackTrace();
+            }
+        }
+    }
+
+    @Override
+    public void save(Factory factory) {
+        plugin.getPersistenceService().markDirty(STORE_NAME);
+    }
+
+    @Override
+    public void delete(String factoryId) {
+        plugin.getPersistenceService().markDirty(STORE_NAME);
+    }
+
+    @Override
+    public void flush() {
+        plugin.getPersistenceService().saveNow(STORE_NAME);
+    }
+
+    private static ProductionTask readTask(FileConfiguration config, String path) {
+        return new ProductionTask(
+                config.getString(path + ".recipe"),
+                config.getLong(path + ".start-time"),
+                config.getInt(path + ".duration"),
+                config.getInt(path + ".batch", 1),
+                config.getInt(path + ".batches", 1));
+    }
+
+    private static void writeTask(DataSnapshot config, String path, ProductionTask task) {
+        config.set(path + ".recipe", task.getRecipeId());
+        config.set(path + ".start-time", task.getStartTime());
+        config.set(path + ".duration", task.getDuration());
+        if (task.getBatches() > 1) {
+            config.set(path + ".batch", task.getBatch());
+            config.set(path + ".batches", task.getBatches());
+        }
+    }
+
+    /**
+     * Capture factories in the factories.yml layout.
+     */
+    public static DataSnapshot createSnapshot(Map<String, Factory> factories) {
+        DataSnapshot config = new DataSnapshot();
+
+        for (Factory factory : factories.values()) {
+            String path = factory.getId();
+            config.set(path + ".id", factory.getId());
+            config.set(path + ".region", factory.getRegionName());
+            config.set(path + ".type", factory.getType().name());
+            config.set(path + ".owner", factory.getOwner() != null ? factory.getOwner().toString() : null);
+            config.set(path + ".price", factory.getPrice());
+            config.set(path + ".level", factory.getLevel());
+            config.set(path + ".status", factory.getStatus().name());
+
+            // Save production lines; line 0 keeps the original layout
+            for (Map.Entry<Integer, ProductionTask> line : factory.getProductionLines().entrySet()) {
+                writeTask(config, line.getKey() == 0 ? path + ".production"
+                        : path + ".production-lines." + line.getKey(), line.getValue());
+            }
+
+            if (factory.isContinuous()) {
+                config.set(path + ".continuous-recipe", factory.getContinuousRecipeId());
+            }
+            if (factory.getSupplyTargetId() != null) {
+                config.set(path + ".supply-target", factory.getSupplyTargetId());
+            }
+
+            // Save fast travel location if exists
+            if (factory.getFastTravelLocation() != null) {
+                Location loc = factory.getFastTravelLocation();
+                if (loc.getWorld() != null) {
+                    config.set(path + ".fast-travel.world", loc.getWorld().getName());
+                    config.set(path + ".fast-travel.x", loc.getX());
+                    config.set(path + ".fast-travel.y", loc.getY());
+                    config.set(path + ".fast-travel.z", loc.getZ());
+                    config.set(path + ".fast-travel.yaw", (double) loc.getYaw());
+                    config.set(path + ".fast-travel.pitch", (double) loc.getPitch());
+                }
+            }
+            // Save upgrade timer if upgrading
+            if (factory.isUpgrading()) {
+                config.set(path + ".upgrade.start-time", factory.getUpgradeStartTime());
+                config.set(path + ".upgrade.duration", factory.getUpgradeDurationSeconds());
+            } else {
+                config.set(path + ".upgrade", null); // clear if not upgrading
+            }
+        }
+
+        return config;
+    }
+}
@@ -0,0 +1,103 @@
+package com.aithor.factorycore.persistence.yaml;
+
+import com.aithor.factorycore.FactoryCore;
+import com.aithor.factorycore.models.Invoice;
+import com.aithor.factorycore.models.InvoiceType;
+import com.aithor.factorycore.persistence.DataSnapshot;
+import com.aithor.factorycore.persistence.InvoiceRepository;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * YamlInvoiceRepository - Stores invoices in data/invoices.yml.
+ */
+public class YamlInvoiceRepository implements InvoiceRepository {
+
+    private static final String STORE_NAME = "invoices";
+
+    private final FactoryCore plugin;
+    private final File dataFile;
+    private long lastSalaryCollection = -1;
+
+    public YamlInvoiceRepository(FactoryCore plugin, File dataFolder) {
+        this.plugin = plugin;
+        this.dataFile = new File(dataFolder, "invoices.yml");
+    }
+
+    @Override
+    public void loadAll(Map<String, Invoice> target) {
+        read(target);
+        plugin.getPersistenceService().register(STORE_NAME, dataFile, () -> createSnapshot(target));
+    }
+
+    /**
+     * Read invoices.yml into {@code target} without binding to it.
+     */
+    public void read(Map<String, Invoice> target) {
+        if (!dataFile.exists())
+            return;
+
+        FileConfiguration config = YamlConfiguration.loadConfiguration(dataFile);
+        lastSalaryCollection = config.getLong("last-salary-collection", -1);
+
+        for (String key : config.getKeys(false)) {
+            if (!config.isConfigurationSection(key))
+                continue;
+            try {
+                Invoice invoice = new Invoice(
+                        key,
+                        UUID.fromString(config.getString(key + ".factory-id")),
+                        InvoiceType.valueOf(config.getString(key + ".type")),
+                        config.getDouble(key + ".amount"),
+                        config.getLong(key + ".due-date"));
+                invoice.setPaid(config.getBoolean(key + ".paid", false));
+                target.put(key, invoice);
+            } catch (Exception e) {
+                plugin.getLogger().warning("Failed to load invoice: " + key);
+            }
+        }
+    }
+
+    @Override
+    public long loadLastSalaryCollection(long fallback) {
+        return lastSalaryCollection > 0 ? lastSalaryCollection : fallback;
+    }
+
+    @Override
+    public void save(Invoice invoice) {
+        plugin.getPersistenceService().markDirty(STORE_NAME);
+    }
+
+    @Override
+    public void saveLastSalaryCollection(long timestamp) {
+        lastSalaryCollection = timestamp;
+        plugin.getPersistenceService().markDirty(STORE_NAME);
+    }
+
+    @Override
+    public void flush() {
+        plugin.getPersistenceService().saveNow(STORE_NAME);
+    }
+
+    private DataSnapshot createSnapshot(Map<String, Invoice> invoices) {
+        DataSnapshot config = new DataSnapshot();
+        if (lastSalaryCollection > 0) {
+            config.set("last-salary-collection", lastSalaryCollection);
+        }
+
+        for (Invoice invoice : invoices.values()) {
+            String path = invoice.getId();
+            config.set(path + ".factory-id", invoice.getFactoryId().toString());
+            config.set(path + ".type", invoice.getType().name());
+            config.set(path + ".amount", invoice.getAmount());
+            config.set(path + ".due-date", invoice.getDueDate());
+            config.set(path + ".paid", invoice.isPaid());
+        }
+
+        return config;
+    }
+}
@@ -0,0 +1,102 @@
+package com.aithor.factorycore.persistence.yaml;
+
+import com.aithor.factorycore.FactoryCore;
+import com.aithor.factorycore.persistence.AtomicFileWriter;
+import com.aithor.factorycore.persistence.DataSnapshot;
+import com.aithor.factorycore.persistence.MailboxRepository;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * YamlMailboxRepository - Stores mailboxes in data/mailbox.yml as
+ * player -> resource -> amount.
+ */
+public class YamlMailboxRepository implements MailboxRepository {
+
+    private static final String STORE_NAME = "mailbox";
+
+    private final FactoryCore plugin;
+    private final File dataFile;
+
+    public YamlMailboxRepository(FactoryCore plugin, File dataFolder) {
+        this.plugin = plugin;
+        this.dataFile = new File(dataFolder, "mailbox.yml");
+    }
+
+    @Override
+    public void loadAll(Map<UUID, Map<String, Integer>> mailboxes) {
+        read(mailboxes);
+        plugin.getPersistenceService().register(STORE_NAME, dataFile, () -> createSnapshot(mailboxes));
+    }
+
+    /**
+     * Read mailbox.yml without binding to the map.
+     */
+    public void read(Map<UUID, Map<String, Integer>> mailboxes) {
+        if (!dataFile.exists()) {
+            return;
+        }
+
+        FileConfiguration config = YamlConfiguration.loadConfiguration(dataFile);
+        for (String uuidStr : config.getKeys(false)) {
+            ConfigurationSection section = config.getConfigurationSection(uuidStr);
+            if (section == null) {
+                continue;
+            }
+            try {
+                UUID playerId = UUID.fromString(uuidStr);
+                Map<String, Integer> items = new HashMap<>();
+                for (String resourceId : section.getKeys(false)) {
+                    int amount = section.getInt(resourceId);
+                    if (amount > 0) {
+                        items.put(resourceId, amount);
+                    }
+                }
+                if (!items.isEmpty()) {
+                    mailboxes.put(playerId, items);
+                }
+            } catch (IllegalArgumentException e) {
+                plugin.getLogger().warning("Failed to load mailbox for: " + uuidStr);
+            }
+        }
+    }
+
+    /**
+     * Add items to mailbox.yml and write it immediately. Used when upgrading
+     * data from older versions, before the mailboxes are loaded.
+     */
+    public void addAll(Map<UUID, Map<String, Integer>> deliveries) throws IOException {
+        Map<UUID, Map<String, Integer>> mailboxes = new HashMap<>();
+        read(mailboxes);
+        deliveries.forEach((playerId, items) -> items.forEach((resourceId, amount) ->
+                mailboxes.computeIfAbsent(playerId, k -> new HashMap<>()).merge(resourceId, amount, Integer::sum)));
+        AtomicFileWriter.write(dataFile, createSnapshot(mailboxes).serialize());
+    }
+
+    @Override
+    public void save(UUID playerId, String resourceId, int amount) {
+        plugin.getPersistenceService().markDirty(STORE_NAME);
+    }
+
+    @Override
+    public void flush() {
+        plugin.getPersistenceService().saveNow(STORE_NAME);
+    }
+
+    private static DataSnapshot createSnapshot(Map<UUID, Map<String, Integer>> mailboxes) {
+        DataSnapshot config = new DataSnapshot();
+        for (Map.Entry<UUID, Map<String, Integer>> entry : mailboxes.entrySet()) {
+            for (Map.Entry<String, Integer> item : entry.getValue().entrySet()) {
+                config.set(entry.getKey() + "." + item.getKey(), item.getValue());
+            }
+        }
+        return config;
+    }
+}
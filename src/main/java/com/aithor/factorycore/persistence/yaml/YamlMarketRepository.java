@@ -0,0 +1,278 @@
+package com.aithor.factorycore.persistence.yaml;
+
+import com.aithor.factorycore.FactoryCore;
+import com.aithor.factorycore.managers.MarketplaceManager.BuyOrder;
+import com.aithor.factorycore.managers.MarketplaceManager.MarketListing;
+import com.aithor.factorycore.persistence.AtomicFileWriter;
+import com.aithor.factorycore.persistence.DataSnapshot;
+import com.aithor.factorycore.persistence.MarketRepository;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * YamlMarketRepository - Stores listings, buy orders and pending earnings in
+ * data/marketplace.yml.
+ */
+public class YamlMarketRepository implements MarketRepository {
+
+    private static final String STORE_NAME = "marketplace";
+
+    private final FactoryCore plugin;
+    private final File dataFile;
+
+    public YamlMarketRepository(FactoryCore plugin, File dataFolder) {
+        this.plugin = plugin;
+        this.dataFile = new File(dataFolder, "marketplace.yml");
+    }
+
+    @Override
+    public void loadAll(Map<String, MarketListing> listings, Map<String, BuyOrder> buyOrders,
+            Map<UUID, Double> earnings) {
+        read(listings, buyOrders, earnings);
+        plugin.getPersistenceService().register(STORE_NAME, dataFile,
+                () -> createSnapshot(listings, buyOrders, earnings));
+    }
+
+    /**
+     * Read marketplace.yml without binding to the maps.
+     */
+    public void read(Map<String, MarketListing> listings, Map<String, BuyOrder> buyOrders,
+            Map<UUID, Double> earnings) {
+        if (!dataFile.exists()) {
+            return;
+        }
+
+        FileConfiguration config = YamlConfiguration.loadConfiguration(dataFile);
+
+        // Load listings
+        if (config.contains("listings")) {
+            for (String listingId : config.getConfigurationSection("listings").getKeys(false)) {
+                String path = "listings." + listingId;
+                try {
+                    long listedTime = config.getLong(path + ".listed-time");
+                    MarketListing listing = new MarketListing(
+                            listingId,
+                            UUID.fromString(config.getString(path + ".seller")),
+                            config.getString(path + ".seller-name"),
+                            config.getString(path + ".resource-id"),
+                            config.getInt(path + ".amount"),
+                            config.getDouble(path + ".price-per-unit"),
+                            listedTime,
+                            config.getLong(path + ".expires-at",
+                                    listedTime + plugin.getSettings().listingExpirationHours * 3600000L),
+                            config.getBoolean(path + ".active", true));
+
+                    if (listing.active) {
+                        listings.put(listingId, listing);
+                    }
+                } catch (Exception e) {
+                    plugin.getLogger().warning("Failed to load listing: " + listingId);
+                }
+            }
+        }
+
+        // Load buy orders
+        if (config.contains("buy-orders")) {
+            for (String orderId : config.getConfigurationSection("buy-orders").getKeys(false)) {
+                String path = "buy-orders." + orderId;
+                try {
+                    buyOrders.put(orderId, new BuyOrder(
+                            orderId,
+                            UUID.fromString(config.getString(path + ".buyer")),
+                            config.getString(path + ".buyer-name"),
+                            config.getString(path + ".resource-id"),
+                            config.getInt(path + ".amount"),
+                            config.getDouble(path + ".price-per-unit"),
+                            config.getLong(path + ".placed-time")));
+                } catch (Exception e) {
+                    plugin.getLogger().warning("Failed to load buy order: " + orderId);
+                }
+            }
+        }
+
+        // Load pending earnings
+        if (config.contains("earnings")) {
+            for (String uuidStr : config.getConfigurationSection("earnings").getKeys(false)) {
+                try {
+                    UUID playerId = UUID.fromString(uuidStr);
+                    double amount = config.getDouble("earnings." + uuidStr);
+                    earnings.put(playerId, amount);
+                } catch (Exception e) {
+                    plugin.getLogger().warning("Failed to load earnings for: " + uuidStr);
+                }
+            }
+        }
+    }
+
+    /**
+     * Read items that older versions held back for players in
+     * marketplace.yml: the claim box of expired listings and units bought by
+     * buy orders but not yet handed over.
+     */
+    public void readLegacyDeliveries(Map<UUID, Map<String, Integer>> deliveries) {
+        if (dataFile.exists()) {
+            readLegacyDeliveries(YamlConfiguration.loadConfiguration(dataFile), deliveries);
+        }
+    }
+
+    /**
+     * Move legacy deliveries into mailbox.yml and remove them from
+     * marketplace.yml, together with buy orders that were only kept for their
+     * undelivered units.
+     */
+    public void migrateLegacyDeliveries(YamlMailboxRepository mailboxes) {
+        if (!dataFile.exists()) {
+            return;
+        }
+
+        FileConfiguration config = YamlConfiguration.loadConfiguration(dataFile);
+        Map<UUID, Map<String, Integer>> deliveries = new HashMap<>();
+        boolean legacy = readLegacyDeliveries(config, deliveries);
+        if (!legacy) {
+            return;
+        }
+
+        try {
+            mailboxes.addAll(deliveries);
+
+            config.set("claims", null);
+            ConfigurationSection orders = config.getConfigurationSection("buy-orders");
+            if (orders != null) {
+                for (String orderId : orders.getKeys(false)) {
+                    if (orders.getInt(orderId + ".amount") <= 0) {
+                        orders.set(orderId, null);
+                    } else {
+                        orders.set(orderId + ".filled", null);
+                    }
+                }
+            }
+            AtomicFileWriter.write(dataFile, config.saveToString().getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            plugin.getLogger().severe("Failed to move marketplace deliveries to mailboxes!");
+            e.printStackTrace();
+            return;
+        }
+        plugin.getLogger().info("Moved marketplace deliveries for " + deliveries.size() + " players to mailboxes.");
+    }
+
+    /**
+     * Returns true if the file still uses the legacy layout.
+     */
+    private boolean readLegacyDeliveries(FileConfiguration config, Map<UUID, Map<String, Integer>> deliveries) {
+        boolean legacy = false;
+
+        ConfigurationSection claims = config.getConfigurationSection("claims");
+        if (claims != null) {
+            legacy = true;
+            for (String uuidStr : claims.getKeys(false)) {
+                ConfigurationSection items = claims.getConfigurationSection(uuidStr);
+                if (items == null) {
+                    continue;
+                }
+                for (String resourceId : items.getKeys(false)) {
+                    addDelivery(deliveries, uuidStr, resourceId, items.getInt(resourceId));
+                }
+            }
+        }
+
+        ConfigurationSection orders = config.getConfigurationSection("buy-orders");
+        if (orders != null) {
+            for (String orderId : orders.getKeys(false)) {
+                if (!orders.contains(orderId + ".filled")) {
+                    continue;
+                }
+                legacy = true;
+                addDelivery(deliveries, orders.getString(orderId + ".buyer"),
+                        orders.getString(orderId + ".resource-id"), orders.getInt(orderId + ".filled"));
+            }
+        }
+        return legacy;
+    }
+
+    private void addDelivery(Map<UUID, Map<String, Integer>> deliveries, String uuidStr, String resourceId,
+            int amount) {
+        if (amount <= 0 || uuidStr == null || resourceId == null) {
+            return;
+        }
+        try {
+            deliveries.computeIfAbsent(UUID.fromString(uuidStr), k -> new HashMap<>())
+                    .merge(resourceId, amount, Integer::sum);
+        } catch (IllegalArgumentException e) {
+            plugin.getLogger().warning("Failed to migrate marketplace deliveries for: " + uuidStr);
+        }
+    }
+
+    @Override
+    public void saveListing(MarketListing listing) {
+        plugin.getPersistenceService().markDirty(STORE_NAME);
+    }
+
+    @Override
+    public void deleteListing(String listingId) {
+        plugin.getPersistenceService().markDirty(STORE_NAME);
+    }
+
+    @Override
+    public void saveBuyOrder(BuyOrder order) {
+        plugin.getPersistenceService().markDirty(STORE_NAME);
+    }
+
+    @Override
+    public void deleteBuyOrder(String orderId) {
+        plugin.getPersistenceService().markDirty(STORE_NAME);
+    }
+
+    @Override
+    public void saveEarnings(UUID playerId, double amount) {
+        plugin.getPersistenceService().markDirty(STORE_NAME);
+    }
+
+    @Override
+    public void flush() {
+        plugin.getPersistenceService().saveNow(STORE_NAME);
+    }
+
+    private static DataSnapshot createSnapshot(Map<String, MarketListing> listings,
+            Map<String, BuyOrder> buyOrders, Map<UUID, Double> earnings) {
+        DataSnapshot config = new DataSnapshot();
+
+        // Save listings
+        for (MarketListing listing : listings.values()) {
+            String path = "listings." + listing.id;
+            config.set(path + ".seller", listing.seller.toString());
+            config.set(path + ".seller-name", listing.sellerName);
+            config.set(path + ".resource-id", listing.resourceId);
+            config.set(path + ".amount", listing.amount);
+            config.set(path + ".price-per-unit", listing.pricePerUnit);
+            config.set(path + ".listed-time", listing.listedTime);
+            config.set(path + ".expires-at", listing.expiresAt);
+            config.set(path + ".active", listing.active);
+        }
+
+        // Save buy orders
+        for (BuyOrder order : buyOrders.values()) {
+            String path = "buy-orders." + order.id;
+            config.set(path + ".buyer", order.buyer.toString());
+            config.set(path + ".buyer-name", order.buyerName);
+            config.set(path + ".resource-id", order.resourceId);
+            config.set(path + ".amount", order.amount);
+            config.set(path + ".price-per-unit", order.pricePerUnit);
+            config.set(path + ".placed-time", order.placedTime);
+        }
+
+        // Save pending earnings
+        for (Map.Entry<UUID, Double> entry : earnings.entrySet()) {
+            config.set("earnings." + entry.getKey().toString(), entry.getValue());
+        }
+
+        return config;
+    }
+}
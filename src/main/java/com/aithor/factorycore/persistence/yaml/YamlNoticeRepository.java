@@ -0,0 +1,113 @@
+package com.aithor.factorycore.persistence.yaml;
+
+import com.aithor.factorycore.FactoryCore;
+import com.aithor.factorycore.persistence.DataSnapshot;
+import com.aithor.factorycore.persistence.NoticeRepository;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * YamlNoticeRepository - Stores pending owner notices in data/notices.yml as
+ * player -> completed -> recipe -> count and player -> messages -> key ->
+ * message.
+ */
+public class YamlNoticeRepository implements NoticeRepository {
+
+    private static final String STORE_NAME = "notices";
+
+    private final FactoryCore plugin;
+    private final File dataFile;
+
+    public YamlNoticeRepository(FactoryCore plugin, File dataFolder) {
+        this.plugin = plugin;
+        this.dataFile = new File(dataFolder, "notices.yml");
+    }
+
+    @Override
+    public void loadAll(Map<UUID, Map<String, Integer>> completions, Map<UUID, Map<String, String>> messages) {
+        read(completions, messages);
+        plugin.getPersistenceService().register(STORE_NAME, dataFile, () -> createSnapshot(completions, messages));
+    }
+
+    /**
+     * Read notices.yml without binding to the maps.
+     */
+    public void read(Map<UUID, Map<String, Integer>> completions, Map<UUID, Map<String, String>> messages) {
+        if (!dataFile.exists()) {
+            return;
+        }
+
+        FileConfiguration config = YamlConfiguration.loadConfiguration(dataFile);
+        for (String uuidStr : config.getKeys(false)) {
+            try {
+                UUID playerId = UUID.fromString(uuidStr);
+                ConfigurationSection completed = config.getConfigurationSection(uuidStr + ".completed");
+                if (completed != null) {
+                    Map<String, Integer> counts = new HashMap<>();
+                    for (String recipeId : completed.getKeys(false)) {
+                        int count = completed.getInt(recipeId);
+                        if (count > 0) {
+                            counts.put(recipeId, count);
+                        }
+                    }
+                    if (!counts.isEmpty()) {
+                        completions.put(playerId, counts);
+                    }
+                }
+                ConfigurationSection section = config.getConfigurationSection(uuidStr + ".messages");
+                if (section != null) {
+                    Map<String, String> texts = new LinkedHashMap<>();
+                    for (String key : section.getKeys(false)) {
+                        String message = section.getString(key);
+                        if (message != null) {
+                            texts.put(key, message);
+                        }
+                    }
+                    if (!texts.isEmpty()) {
+                        messages.put(playerId, texts);
+                    }
+                }
+            } catch (IllegalArgumentException e) {
+                plugin.getLogger().warning("Failed to load notices for: " + uuidStr);
+            }
+        }
+    }
+
+    @Override
+    public void saveCompletions(UUID playerId, String recipeId, int count) {
+        plugin.getPersistenceService().markDirty(STORE_NAME);
+    }
+
+    @Override
+    public void saveMessage(UUID playerId, String key, String message) {
+        plugin.getPersistenceService().markDirty(STORE_NAME);
+    }
+
+    @Override
+    public void flush() {
+        plugin.getPersistenceService().saveNow(STORE_NAME);
+    }
+
+    private static DataSnapshot createSnapshot(Map<UUID, Map<String, Integer>> completions,
+            Map<UUID, Map<String, String>> messages) {
+        DataSnapshot config = new DataSnapshot();
+        for (Map.Entry<UUID, Map<String, Integer>> entry : completions.entrySet()) {
+            for (Map.Entry<String, Integer> count : entry.getValue().entrySet()) {
+                config.set(entry.getKey() + ".completed." + count.getKey(), count.getValue());
+            }
+        }
+        for (Map.Entry<UUID, Map<String, String>> entry : messages.entrySet()) {
+            for (Map.Entry<String, String> message : entry.getValue().entrySet()) {
+                config.set(entry.getKey() + ".messages." + message.getKey(), message.getValue());
+            }
+        }
+        return config;
+    }
+}
@@ -0,0 +1,191 @@
+package com.aithor.factorycore.persistence.yaml;
+
+import com.aithor.factorycore.FactoryCore;
+import com.aithor.factorycore.persistence.AtomicFileWriter;
+import com.aithor.factorycore.persistence.DataSnapshot;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * YamlPlayerRepository - Base for per-player YAML data stored as
+ * data/&lt;name&gt;/&lt;uuid&gt;.yml.
+ * <p>
+ * A player's file is only read when their data is loaded and is registered as
+ * its own write-behind store until the data is unloaded again. Older versions
+ * kept every player in a single data/&lt;name&gt;.yml; that file is split up
+ * once by {@link #migrateLegacyFile()}.
+ * </p>
+ *
+ * @param <T> Per-player data type
+ */
+public abstract class YamlPlayerRepository<T> {
+
+    protected final FactoryCore plugin;
+    private final String name;
+    private final File folder;
+    private final File legacyFile;
+    private final Set<UUID> loaded = ConcurrentHashMap.newKeySet();
+
+    protected YamlPlayerRepository(FactoryCore plugin, File dataFolder, String name) {
+        this.plugin = plugin;
+        this.name = name;
+        this.folder = new File(dataFolder, name);
+        this.legacyFile = new File(dataFolder, name + ".yml");
+    }
+
+    /**
+     * Empty data for a player without a file.
+     */
+    protected abstract T create();
+
+    /**
+     * Read one player's data from their section.
+     */
+    protected abstract T read(ConfigurationSection section);
+
+    /**
+     * Capture one player's data. Called on the main thread.
+     */
+    protected abstract void write(DataSnapshot snapshot, T data);
+
+    // ── Loading ──────────────────────────────────────────────────────────────
+
+    public T load(UUID playerId) {
+        File file = file(playerId);
+        T data = file.exists() ? read(YamlConfiguration.loadConfiguration(file)) : create();
+        loaded.add(playerId);
+        plugin.getPersistenceService().register(storeName(playerId), file, () -> createSnapshot(data));
+        return data;
+    }
+
+    public void unload(UUID playerId) {
+        loaded.remove(playerId);
+        plugin.getPersistenceService().unregister(storeName(playerId));
+    }
+
+    /**
+     * Schedule a write of the player's file.
+     */
+    protected void markDirty(UUID playerId) {
+        plugin.getPersistenceService().markDirty(storeName(playerId));
+    }
+
+    public void flush() {
+        for (UUID playerId : loaded) {
+            String store = storeName(playerId);
+            if (plugin.getPersistenceService().isDirty(store)) {
+                plugin.getPersistenceService().saveNow(store);
+            }
+        }
+    }
+
+    // ── Bulk access ──────────────────────────────────────────────────────────
+
+    /**
+     * Read every player, from the legacy file as well as the per-player
+     * files, without keeping the result. Used for imports.
+     */
+    public Map<UUID, T> readAll() {
+        Map<UUID, T> result = readLegacyFile();
+
+        File[] files = folder.listFiles((dir, fileName) -> fileName.endsWith(".yml"));
+        if (files == null) {
+            return result;
+        }
+        for (File file : files) {
+            String uuidStr = file.getName().substring(0, file.getName().length() - 4);
+            try {
+                result.put(UUID.fromString(uuidStr), read(YamlConfiguration.loadConfiguration(file)));
+            } catch (Exception e) {
+                plugin.getLogger().warning("Failed to load " + name + " data for: " + uuidStr);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Split the legacy single-file data/&lt;name&gt;.yml into per-player files
+     * and rename it to &lt;name&gt;.yml.migrated.
+     */
+    public void migrateLegacyFile() {
+        if (!legacyFile.exists()) {
+            return;
+        }
+
+        Map<UUID, T> players = readLegacyFile();
+        int migrated = 0;
+        for (Map.Entry<UUID, T> entry : players.entrySet()) {
+            File file = file(entry.getKey());
+            if (file.exists()) {
+                continue;
+            }
+            try {
+                byte[] content = createSnapshot(entry.getValue()).toConfiguration().saveToString()
+                        .getBytes(StandardCharsets.UTF_8);
+                AtomicFileWriter.write(file, content);
+                migrated++;
+            } catch (IOException e) {
+                plugin.getLogger().severe("Failed to migrate " + name + " data for " + entry.getKey() + "!");
+                e.printStackTrace();
+                return;
+            }
+        }
+
+        File backup = new File(legacyFile.getParentFile(), legacyFile.getName() + ".migrated");
+        if (!legacyFile.renameTo(backup)) {
+            plugin.getLogger().warning("Could not rename " + legacyFile.getName() + " after migration!");
+        }
+        plugin.getLogger().info("Migrated " + migrated + " players from " + legacyFile.getName()
+                + " to data/" + name + "/.");
+    }
+
+    private Map<UUID, T> readLegacyFile() {
+        Map<UUID, T> result = new HashMap<>();
+        if (!legacyFile.exists()) {
+            return result;
+        }
+
+        ConfigurationSection players = YamlConfiguration.loadConfiguration(legacyFile)
+                .getConfigurationSection("players");
+        if (players == null) {
+            return result;
+        }
+
+        for (String uuidStr : players.getKeys(false)) {
+            try {
+                ConfigurationSection section = players.getConfigurationSection(uuidStr);
+                if (section != null) {
+                    result.put(UUID.fromString(uuidStr), read(section));
+                }
+            } catch (Exception e) {
+                plugin.getLogger().warning("Failed to load " + name + " data for: " + uuidStr);
+            }
+        }
+        return result;
+    }
+
+    // ── Helpers ──────────────────────────────────────────────────────────────
+
+    private File file(UUID playerId) {
+        return new File(folder, playerId + ".yml");
+    }
+
+    private String storeName(UUID playerId) {
+        return name + ":" + playerId;
+    }
+
+    private DataSnapshot createSnapshot(T data) {
+        DataSnapshot snapshot = new DataSnapshot();
+        write(snapshot, data);
+        return snapshot;
+    }
+}
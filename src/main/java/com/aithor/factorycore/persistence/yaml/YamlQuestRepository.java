@@ -0,0 +1,77 @@
+package com.aithor.factorycore.persistence.yaml;
+
+import com.aithor.factorycore.FactoryCore;
+import com.aithor.factorycore.managers.DailyQuestManager.PlayerQuestData;
+import com.aithor.factorycore.persistence.DataSnapshot;
+import com.aithor.factorycore.persistence.QuestRepository;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * YamlQuestRepository - Stores each player's daily quest progress in
+ * data/daily-quests/&lt;uuid&gt;.yml.
+ */
+public class YamlQuestRepository extends YamlPlayerRepository<PlayerQuestData> implements QuestRepository {
+
+    public YamlQuestRepository(FactoryCore plugin, File dataFolder) {
+        super(plugin, dataFolder, "daily-quests");
+    }
+
+    @Override
+    protected PlayerQuestData create() {
+        return new PlayerQuestData();
+    }
+
+    @Override
+    protected PlayerQuestData read(ConfigurationSection section) {
+        PlayerQuestData data = new PlayerQuestData();
+
+        data.lastResetTimestamp = section.getLong("last-reset", 0);
+
+        // Load quest progress
+        ConfigurationSection progSection = section.getConfigurationSection("progress");
+        if (progSection != null) {
+            for (String questId : progSection.getKeys(false)) {
+                data.questProgress.put(questId, progSection.getInt(questId));
+            }
+        }
+
+        // Load claimed rewards
+        data.claimedRewards.addAll(section.getStringList("claimed"));
+
+        // Load bonus claimed
+        data.bonusClaimed = section.getBoolean("bonus-claimed", false);
+
+        return data;
+    }
+
+    @Override
+    protected void write(DataSnapshot snapshot, PlayerQuestData data) {
+        snapshot.set("last-reset", data.lastResetTimestamp);
+
+        // Save quest progress
+        for (Map.Entry<String, Integer> prog : data.questProgress.entrySet()) {
+            snapshot.set("progress." + prog.getKey(), prog.getValue());
+        }
+
+        // Save claimed rewards
+        snapshot.set("claimed", new ArrayList<>(data.claimedRewards));
+
+        // Save bonus claimed
+        snapshot.set("bonus-claimed", data.bonusClaimed);
+    }
+
+    @Override
+    public void saveState(UUID playerId, PlayerQuestData data) {
+        markDirty(playerId);
+    }
+
+    @Override
+    public void saveQuest(UUID playerId, String questId, PlayerQuestData data) {
+        markDirty(playerId);
+    }
+}
@@ -0,0 +1,60 @@
+package com.aithor.factorycore.persistence.yaml;
+
+import com.aithor.factorycore.FactoryCore;
+import com.aithor.factorycore.managers.ResearchManager.ResearchData;
+import com.aithor.factorycore.persistence.DataSnapshot;
+import com.aithor.factorycore.persistence.ResearchRepository;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * YamlResearchRepository - Stores each player's research progress in
+ * data/research/&lt;uuid&gt;.yml.
+ */
+public class YamlResearchRepository extends YamlPlayerRepository<Map<String, ResearchData>>
+        implements ResearchRepository {
+
+    public YamlResearchRepository(FactoryCore plugin, File dataFolder) {
+        super(plugin, dataFolder, "research");
+    }
+
+    @Override
+    protected Map<String, ResearchData> create() {
+        return new HashMap<>();
+    }
+
+    @Override
+    protected Map<String, ResearchData> read(ConfigurationSection section) {
+        Map<String, ResearchData> data = new HashMap<>();
+        for (String researchId : section.getKeys(false)) {
+            ResearchData rd = new ResearchData();
+            rd.completedLevel = section.getInt(researchId + ".completed-level", 0);
+            rd.researchStartTime = section.getLong(researchId + ".research-start-time", -1);
+            rd.researchDurationMinutes = section.getInt(researchId + ".research-duration-minutes", 0);
+            rd.targetLevel = section.getInt(researchId + ".target-level", 0);
+            data.put(researchId, rd);
+        }
+        return data;
+    }
+
+    @Override
+    protected void write(DataSnapshot snapshot, Map<String, ResearchData> data) {
+        for (Map.Entry<String, ResearchData> entry : data.entrySet()) {
+            String path = entry.getKey();
+            ResearchData rd = entry.getValue();
+            snapshot.set(path + ".completed-level", rd.completedLevel);
+            snapshot.set(path + ".research-start-time", rd.researchStartTime);
+            snapshot.set(path + ".research-duration-minutes", rd.researchDurationMinutes);
+            snapshot.set(path + ".target-level", rd.targetLevel);
+        }
+    }
+
+    @Override
+    public void save(UUID playerId, String researchId, ResearchData data) {
+        markDirty(playerId);
+    }
+}
@@ -0,0 +1,81 @@
+package com.aithor.factorycore.persistence.yaml;
+
+import com.aithor.factorycore.FactoryCore;
+import com.aithor.factorycore.persistence.DataSnapshot;
+import com.aithor.factorycore.persistence.JournaledStorageRepository;
+import com.aithor.factorycore.persistence.Snapshot;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * YamlStorageRepository - Stores factory storage in data/input-storage.yml
+ * and data/output-storage.yml, with changes journaled to
+ * data/storage.journal in between.
+ */
+public class YamlStorageRepository extends JournaledStorageRepository {
+
+    private final File inputDataFile;
+    private final File outputDataFile;
+
+    public YamlStorageRepository(FactoryCore plugin, File dataFolder) {
+        super(plugin, new File(dataFolder, "storage.journal"), "storage");
+        this.inputDataFile = new File(dataFolder, "input-storage.yml");
+        this.outputDataFile = new File(dataFolder, "output-storage.yml");
+    }
+
+    @Override
+    protected void readSnapshot(Map<String, Map<String, Integer>> input, Map<String, Map<String, Integer>> output) {
+        readFile(inputDataFile, input);
+        readFile(outputDataFile, output);
+    }
+
+    @Override
+    protected Map<File, Snapshot> captureSnapshot(Map<String, Map<String, Integer>> input,
+            Map<String, Map<String, Integer>> output) {
+        Map<File, Snapshot> snapshots = new LinkedHashMap<>();
+        snapshots.put(inputDataFile, createSnapshot(input));
+        snapshots.put(outputDataFile, createSnapshot(output));
+        return snapshots;
+    }
+
+    /**
+     * Read a {@code factoryId -> resourceId -> amount} file into {@code target}.
+     */
+    public static void readFile(File file, Map<String, Map<String, Integer>> target) {
+        if (!file.exists()) {
+            return;
+        }
+
+        FileConfiguration config = YamlConfiguration.loadConfiguration(file);
+        for (String factoryId : config.getKeys(false)) {
+            Map<String, Integer> items = new HashMap<>();
+            ConfigurationSection section = config.getConfigurationSection(factoryId);
+            if (section != null) {
+                for (String resourceId : section.getKeys(false)) {
+                    items.put(resourceId, section.getInt(resourceId));
+                }
+            }
+            target.put(factoryId, items);
+        }
+    }
+
+    /**
+     * Capture one ledger in the {@code factoryId -> resourceId -> amount}
+     * layout.
+     */
+    public static DataSnapshot createSnapshot(Map<String, Map<String, Integer>> storage) {
+        DataSnapshot config = new DataSnapshot();
+        for (Map.Entry<String, Map<String, Integer>> entry : storage.entrySet()) {
+            for (Map.Entry<String, Integer> item : entry.getValue().entrySet()) {
+                config.set(entry.getKey() + "." + item.getKey(), item.getValue());
+            }
+        }
+        return config;
+    }
+}
@@ -0,0 +1,149 @@
+package com.aithor.factorycore.persistence.yaml;
+
+import com.aithor.factorycore.FactoryCore;
+import com.aithor.factorycore.managers.TaxManager.TaxPayment;
+import com.aithor.factorycore.managers.TaxManager.TaxRecord;
+import com.aithor.factorycore.persistence.DataSnapshot;
+import com.aithor.factorycore.persistence.TaxRepository;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.util.*;
+
+/**
+ * YamlTaxRepository - Stores tax records and payment history in
+ * data/taxes.yml.
+ * <p>
+ * The whole file is read once; payment history for every player is kept here
+ * so the file can always be written out complete.
+ * </p>
+ */
+public class YamlTaxRepository implements TaxRepository {
+
+    private static final String STORE_NAME = "taxes";
+
+    private final FactoryCore plugin;
+    private final File dataFile;
+    private final Map<UUID, List<TaxPayment>> paymentHistory = new HashMap<>();
+    private long lastCollection = -1;
+
+    public YamlTaxRepository(FactoryCore plugin, File dataFolder) {
+        this.plugin = plugin;
+        this.dataFile = new File(dataFolder, "taxes.yml");
+    }
+
+    @Override
+    public void loadRecords(Map<String, TaxRecord> target) {
+        read(target, paymentHistory);
+        plugin.getPersistenceService().register(STORE_NAME, dataFile, () -> createSnapshot(target));
+    }
+
+    /**
+     * Read taxes.yml without binding to the maps.
+     */
+    public void read(Map<String, TaxRecord> records, Map<UUID, List<TaxPayment>> payments) {
+        if (!dataFile.exists()) {
+            return;
+        }
+
+        FileConfiguration config = YamlConfiguration.loadConfiguration(dataFile);
+
+        // Load tax records
+        if (config.contains("tax-records")) {
+            for (String factoryId : config.getConfigurationSection("tax-records").getKeys(false)) {
+                String path = "tax-records." + factoryId;
+                TaxRecord record = new TaxRecord(
+                        factoryId,
+                        config.getDouble(path + ".amount-due", 0),
+                        config.getLong(path + ".last-assessment", 0),
+                        config.getLong(path + ".due-date", 0),
+                        config.getBoolean(path + ".overdue", false));
+                records.put(factoryId, record);
+            }
+        }
+
+        // Load payment history
+        if (config.contains("payment-history")) {
+            for (String uuidStr : config.getConfigurationSection("payment-history").getKeys(false)) {
+                UUID playerId = UUID.fromString(uuidStr);
+                List<TaxPayment> list = new ArrayList<>();
+
+                for (String paymentId : config.getConfigurationSection("payment-history." + uuidStr).getKeys(false)) {
+                    String path = "payment-history." + uuidStr + "." + paymentId;
+                    list.add(new TaxPayment(
+                            paymentId,
+                            config.getString(path + ".factory-id"),
+                            config.getDouble(path + ".amount"),
+                            config.getLong(path + ".timestamp")));
+                }
+
+                payments.put(playerId, list);
+            }
+        }
+
+        lastCollection = config.getLong("last-collection", -1);
+    }
+
+    @Override
+    public long loadLastCollection(long fallback) {
+        return lastCollection > 0 ? lastCollection : fallback;
+    }
+
+    @Override
+    public List<TaxPayment> loadPayments(UUID playerId) {
+        return paymentHistory.computeIfAbsent(playerId, k -> new ArrayList<>());
+    }
+
+    @Override
+    public void saveRecord(TaxRecord record) {
+        plugin.getPersistenceService().markDirty(STORE_NAME);
+    }
+
+    @Override
+    public void savePayment(UUID playerId, TaxPayment payment) {
+        // The caller appended to the list handed out by loadPayments
+        plugin.getPersistenceService().markDirty(STORE_NAME);
+    }
+
+    @Override
+    public void saveLastCollection(long timestamp) {
+        lastCollection = timestamp;
+        plugin.getPersistenceService().markDirty(STORE_NAME);
+    }
+
+    @Override
+    public void flush() {
+        plugin.getPersistenceService().saveNow(STORE_NAME);
+    }
+
+    private DataSnapshot createSnapshot(Map<String, TaxRecord> taxRecords) {
+        DataSnapshot config = new DataSnapshot();
+
+        // Save tax records
+        for (Map.Entry<String, TaxRecord> entry : taxRecords.entrySet()) {
+            String path = "tax-records." + entry.getKey();
+            TaxRecord record = entry.getValue();
+            config.set(path + ".amount-due", record.amountDue);
+            config.set(path + ".last-assessment", record.lastAssessment);
+            config.set(path + ".due-date", record.dueDate);
+            config.set(path + ".overdue", record.overdue);
+        }
+
+        // Save payment history
+        for (Map.Entry<UUID, List<TaxPayment>> entry : paymentHistory.entrySet()) {
+            for (TaxPayment payment : entry.getValue()) {
+                String path = "payment-history." + entry.getKey() + "." + payment.id;
+                config.set(path + ".factory-id", payment.factoryId);
+                config.set(path + ".amount", payment.amount);
+                config.set(path + ".timestamp", payment.timestamp);
+            }
+        }
+
+        if (lastCollection > 0) {
+            config.set("last-collection", lastCollection);
+        }
+
+        return config;
+    }
+}
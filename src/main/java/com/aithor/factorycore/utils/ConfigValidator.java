@@ -8,6 +8,9 @@ import com.sk89q.worldguard.protection.regions.RegionContainer;
 import com.aithor.factorycore.FactoryCore;
 import org.bukkit.Bukkit;
 import org.bukkit.World;
+import org.bukkit.boss.BarColor;
+import org.bukkit.boss.BarStyle;
+import org.bukkit.configuration.ConfigurationSection;
 
 import java.io.BufferedWriter;
 import java.io.File;
@@ -16,7 +19,10 @@ import java.io.IOException;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 
-class ConfigValidator {
+/**
+ * Reports config.yml values that FactoryCoreSettings cannot use as written.
+ */
+public class ConfigValidator {
     
     private final FactoryCore plugin;
     
@@ -45,6 +51,47 @@ class ConfigValidator {
             valid = false;
         }
         
+        if (plugin.getConfig().getInt("production.max-queue", 5) < 1) {
+            plugin.getLogger().warning("Invalid production.max-queue in config.yml (must be >= 1)");
+            valid = false;
+        }
+        if (plugin.getConfig().getLong("production.bossbar-update-ticks", 20L) < 1) {
+            plugin.getLogger().warning("Invalid production.bossbar-update-ticks in config.yml (must be >= 1)");
+            valid = false;
+        }
+        if (!isEnumValue(BarColor.class, plugin.getConfig().getString("production.bossbar-color", "BLUE"))) {
+            plugin.getLogger().warning("Invalid production.bossbar-color in config.yml (using BLUE)");
+            valid = false;
+        }
+        if (!isEnumValue(BarStyle.class, plugin.getConfig().getString("production.bossbar-style", "SOLID"))) {
+            plugin.getLogger().warning("Invalid production.bossbar-style in config.yml (using SOLID)");
+            valid = false;
+        }
+        if (plugin.getConfig().getInt("factory.level-bonuses.extra-lines", 1) < 0) {
+            plugin.getLogger().warning("Invalid factory.level-bonuses.extra-lines in config.yml (must be >= 0)");
+            valid = false;
+        }
+        ConfigurationSection upgradeTimes = plugin.getConfig().getConfigurationSection("factory.upgrade-time");
+        if (upgradeTimes != null) {
+            for (String level : upgradeTimes.getKeys(false)) {
+                try {
+                    Integer.parseInt(level);
+                } catch (NumberFormatException e) {
+                    plugin.getLogger().warning("Invalid level '" + level + "' in factory.upgrade-time of config.yml");
+                    valid = false;
+                }
+            }
+        }
+        double marketTax = plugin.getConfig().getDouble("marketplace.tax-rate", 5.0);
+        if (marketTax < 0 || marketTax > 100) {
+            plugin.getLogger().warning("Invalid marketplace.tax-rate in config.yml (must be 0-100)");
+            valid = false;
+        }
+        if (plugin.getConfig().getDouble("tax.late-fee-rate", 5.0) < 0) {
+            plugin.getLogger().warning("Invalid tax.late-fee-rate in config.yml (must be >= 0)");
+            valid = false;
+        }
+        
         // Validate factory types
         String[] types = {"steel_mill", "refinery", "workshop", "advanced_factory"};
         for (String type : types) {
@@ -57,4 +104,13 @@ class ConfigValidator {
         
         return valid;
     }
+    
+    private static <E extends Enum<E>> boolean isEnumValue(Class<E> type, String name) {
+        try {
+            Enum.valueOf(type, name.toUpperCase());
+            return true;
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return false;
+        }
+    }
 }
@@ -0,0 +1,102 @@
+package com.aithor.factorycore.utils;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+/**
+ * DeadlineQueue - Keys ordered by the time they become due.
+ * <p>
+ * Backed by a binary heap, so checking for due work costs O(1) when nothing
+ * is due and O(log n) per key that is. Each key has at most one live
+ * deadline: scheduling it again replaces the old one and cancelling removes
+ * it. Replaced and cancelled entries stay in the heap until they reach the
+ * top and are then skipped. Not thread safe; use from the main thread.
+ * </p>
+ *
+ * @param <K> Key type, e.g. a factory ID
+ */
+public class DeadlineQueue<K> {
+
+    private final PriorityQueue<Entry<K>> heap = new PriorityQueue<>();
+    private final Map<K, Entry<K>> live = new HashMap<>();
+
+    /**
+     * Schedule {@code key} to become due at {@code deadline} (epoch millis),
+     * replacing any earlier deadline for it.
+     */
+    public void schedule(K key, long deadline) {
+        Entry<K> entry = new Entry<>(key, deadline);
+        live.put(key, entry);
+        heap.add(entry);
+        if (heap.size() > live.size() * 2 + 64) {
+            // Drop stale entries so frequent rescheduling cannot grow the heap
+            heap.clear();
+            heap.addAll(live.values());
+        }
+    }
+
+    public void cancel(K key) {
+        live.remove(key);
+    }
+
+    public boolean contains(K key) {
+        return live.containsKey(key);
+    }
+
+    /**
+     * Deadline of {@code key}, or -1 if it is not scheduled.
+     */
+    public long getDeadline(K key) {
+        Entry<K> entry = live.get(key);
+        return entry != null ? entry.deadline : -1L;
+    }
+
+    /**
+     * Remove every key that is due at {@code now} and pass it to
+     * {@code action}, earliest first. The action may schedule keys again.
+     *
+     * @return Number of keys that were due
+     */
+    public int pollDue(long now, Consumer<K> action) {
+        int count = 0;
+        while (!heap.isEmpty() && heap.peek().deadline <= now) {
+            Entry<K> entry = heap.poll();
+            if (live.get(entry.key) != entry) {
+                continue; // replaced or cancelled
+            }
+            live.remove(entry.key);
+            action.accept(entry.key);
+            count++;
+        }
+        return count;
+    }
+
+    public void clear() {
+        heap.clear();
+        live.clear();
+    }
+
+    /**
+     * Number of scheduled keys.
+     */
+    public int size() {
+        return live.size();
+    }
+
+    private static final class Entry<K> implements Comparable<Entry<K>> {
+        final K key;
+        final long deadline;
+
+        Entry(K key, long deadline) {
+            this.key = key;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public int compareTo(Entry<K> other) {
+            return Long.compare(deadline, other.deadline);
+        }
+    }
+}
@@ -66,28 +66,28 @@ public class Logger {
     
     public static void logAdminCommand(String admin, String command) {
         FactoryCore plugin = FactoryCore.getInstance();
-        if (plugin.getConfig().getBoolean("logging.log-admin-commands", true)) {
+        if (plugin.getSettings().logAdminCommands) {
             log("[ADMIN] " + admin + " executed: " + command);
         }
     }
     
     public static void logTransaction(String player, String type, double amount) {
         FactoryCore plugin = FactoryCore.getInstance();
-        if (plugin.getConfig().getBoolean("logging.log-transactions", true)) {
+        if (plugin.getSettings().logTransactions) {
             log("[TRANSACTION] Player: " + player + " | Type: " + type + " | Amount: $" + amount);
         }
     }
     
     public static void logProduction(String factoryId, String recipe, String status) {
         FactoryCore plugin = FactoryCore.getInstance();
-        if (plugin.getConfig().getBoolean("logging.log-production", true)) {
+        if (plugin.getSettings().logProduction) {
             log("[PRODUCTION] Factory: " + factoryId + " | Recipe: " + recipe + " | Status: " + status);
         }
     }
     
     public static void logInvoice(String type, String factoryId, double amount) {
         FactoryCore plugin = FactoryCore.getInstance();
-        if (plugin.getConfig().getBoolean("logging.log-invoices", true)) {
+        if (plugin.getSettings().logInvoices) {
             log("[INVOICE] Type: " + type + " | Factory: " + factoryId + " | Amount: $" + amount);
         }
     }